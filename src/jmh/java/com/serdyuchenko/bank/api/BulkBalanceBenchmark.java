@@ -0,0 +1,167 @@
+package com.serdyuchenko.bank.api;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.serdyuchenko.bank.BankApplication;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+
+/**
+ * A reconciliation pull over HTTP: {@code accounts} account references POSTed to {@code /api/accounts/balances}
+ * in pages of {@value #PAGE} and every NDJSON line read back. The request body is generated and the response
+ * consumed line by line, so the client holds neither. Pages are needed because the JDK {@link HttpClient} only
+ * reads the response once the whole request body is sent, while the server starts answering as soon as the first
+ * reference arrives; on one very large body the two would end up waiting on each other's socket buffers. {@code oldGenGrowthMb} reports how far the old generation's peak rose above its
+ * post-setup baseline during the pull: short-lived garbage dies young, so only memory held for the length of the
+ * pull (such as a buffered response) shows up there. With a streamed response it stays flat as {@code accounts}
+ * grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g"})
+public class BulkBalanceBenchmark {
+    private static final int PAGE = 100_000;
+
+    @Param({"100000", "1000000"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI uri;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(BankApplication.class)
+            .properties("server.port=0", "logging.level.root=WARN")
+            .run();
+        BankService bank = context.getBean(BankService.class);
+        for (int i = 0; i < accounts; i++) {
+            String id = Integer.toString(i);
+            bank.restoreUser(new User("P" + id, "Customer " + id), List.of(new Account("A" + id, i)));
+        }
+        uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+            + "/api/accounts/balances");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        public double oldGenGrowthMb;
+        private long baseline;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            baseline = 0;
+            for (MemoryPoolMXBean pool : oldGenPools()) {
+                pool.resetPeakUsage();
+                baseline += pool.getUsage().getUsed();
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : oldGenPools()) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            oldGenGrowthMb = Math.max(0, peak - baseline) / (1024D * 1024D);
+        }
+
+        private static List<MemoryPoolMXBean> oldGenPools() {
+            return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .filter(pool -> pool.getName().contains("Old") || pool.getName().contains("Tenured"))
+                .toList();
+        }
+    }
+
+    @Benchmark
+    public long pull(Heap heap) throws IOException, InterruptedException {
+        long lines = 0;
+        for (int from = 0; from < accounts; from += PAGE) {
+            lines += pullPage(from, Math.min(from + PAGE, accounts));
+        }
+        if (lines != accounts) {
+            throw new IllegalStateException("Expected " + accounts + " balances, got " + lines);
+        }
+        return lines;
+    }
+
+    private long pullPage(int from, int to) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .header("Content-Type", "application/x-ndjson")
+            .POST(HttpRequest.BodyPublishers.ofInputStream(() -> references(from, to)))
+            .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        long lines = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            while (reader.readLine() != null) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static InputStream references(int from, int to) {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int next = from;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < to;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                String id = Integer.toString(next++);
+                String line = "{\"passport\":\"P" + id + "\",\"requisite\":\"A" + id + "\"}\n";
+                return new ByteArrayInputStream(line.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
+}
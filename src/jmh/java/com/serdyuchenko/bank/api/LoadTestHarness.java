@@ -0,0 +1,129 @@
+package com.serdyuchenko.bank.api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Closed-loop HTTP load generator for comparing the platform thread pool with the {@code virtual-threads}
+ * profile (see {@code docs/performance/virtual-threads.md}). Each of {@code connections} simulated clients sends
+ * a request, waits for the response and immediately sends the next one, so the number of in-flight requests, and
+ * therefore of open connections, stays at {@code connections}. The JDK {@link HttpClient} is asynchronous, so
+ * the generator itself needs only a handful of threads to hold 10k connections open.
+ * <p>
+ * Usage: {@code LoadTestHarness --url=http://localhost:8080/api/... [--method=GET|POST] [--body=json]
+ * [--connections=10000] [--warmup=10] [--duration=30]} (seconds). Prints throughput, latency percentiles and
+ * the error count for the measured window.
+ */
+public final class LoadTestHarness {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient client;
+    private final HttpRequest request;
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    private LoadTestHarness(HttpClient client, HttpRequest request) {
+        this.client = client;
+        this.request = request;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parse(args);
+        String url = options.get("url");
+        if (url == null) {
+            System.err.println("Usage: LoadTestHarness --url=<endpoint> [--method=GET|POST] [--body=json]"
+                + " [--connections=10000] [--warmup=10] [--duration=30]");
+            System.exit(2);
+        }
+        String method = options.getOrDefault("method", "GET").toUpperCase();
+        String body = options.getOrDefault("body", "");
+        int connections = Integer.parseInt(options.getOrDefault("connections", "10000"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "30"));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .method(method, "GET".equals(method)
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+        LoadTestHarness harness = new LoadTestHarness(client, request);
+        System.out.printf("%s %s with %d connections: %ds warmup, %ds measurement%n",
+            method, url, connections, warmup, duration);
+        for (int i = 0; i < connections; i++) {
+            harness.next();
+        }
+        TimeUnit.SECONDS.sleep(warmup);
+        harness.latencies.reset();
+        harness.completed.reset();
+        harness.errors.reset();
+        harness.measuring = true;
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(duration);
+        harness.measuring = false;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        harness.running = false;
+        harness.report(elapsed);
+        System.exit(0);
+    }
+
+    private void next() {
+        if (!running) {
+            return;
+        }
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, failure) -> {
+                if (measuring) {
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.increment();
+                    } else {
+                        completed.increment();
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent);
+                        latencies.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+                    }
+                }
+                next();
+            });
+    }
+
+    private void report(double elapsedSeconds) {
+        System.out.printf("requests   %,d (%,d errors)%n", completed.sum(), errors.sum());
+        System.out.printf("throughput %,.0f req/s%n", completed.sum() / elapsedSeconds);
+        System.out.printf("latency    p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+            latencies.getValueAtPercentile(50) / 1000D,
+            latencies.getValueAtPercentile(99) / 1000D,
+            latencies.getValueAtPercentile(99.9) / 1000D,
+            latencies.getMaxValue() / 1000D);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.indexOf('=') > 2) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,103 @@
+package com.serdyuchenko.bank.api;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.serdyuchenko.bank.BankApplication;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+
+/**
+ * End-to-end latency of the REST endpoints over loopback HTTP: the application is booted once per trial on
+ * a random port and called with the JDK {@link HttpClient}. Includes JSON (de)serialization, the servlet
+ * stack and the service, so it shows how much of a request the domain code accounts for.
+ * {@code conditionalBalance} polls an unchanged balance with {@code If-None-Match}, which is answered with 304.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestPathBenchmark {
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest balance;
+    private HttpRequest conditionalBalance;
+    private HttpRequest statement;
+    private HttpRequest transfer;
+
+    @Setup(Level.Trial)
+    public void boot() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(BankApplication.class)
+            .properties("server.port=0", "logging.level.root=WARN")
+            .run();
+        BankService bank = context.getBean(BankService.class);
+        bank.addUser(new User("BENCH", "Benchmark"));
+        bank.addAccount("BENCH", new Account("FROM", 1_000_000_000D));
+        bank.addAccount("BENCH", new Account("TO", 0D));
+        for (int i = 0; i < 1_000; i++) {
+            bank.transferMoney("BENCH", "FROM", "BENCH", "TO", 1D);
+        }
+
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        balance = HttpRequest.newBuilder(URI.create(base + "/api/accounts/BENCH/TO/balance")).GET().build();
+        String etag = client.send(balance, HttpResponse.BodyHandlers.discarding()).headers()
+            .firstValue("ETag").orElseThrow();
+        conditionalBalance = HttpRequest.newBuilder(URI.create(base + "/api/accounts/BENCH/TO/balance"))
+            .header("If-None-Match", etag).GET().build();
+        statement = HttpRequest.newBuilder(URI.create(base + "/api/accounts/BENCH/TO/statement?limit=50"))
+            .GET().build();
+        transfer = HttpRequest.newBuilder(URI.create(base + "/api/transfers/batch"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("[{\"sourcePassport\":\"BENCH\",\"sourceRequisite\":\"FROM\","
+                + "\"destinationPassport\":\"BENCH\",\"destinationRequisite\":\"TO\",\"amount\":0.01}]"))
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String balance() throws IOException, InterruptedException {
+        return client.send(balance, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public int conditionalBalance() throws IOException, InterruptedException {
+        return client.send(conditionalBalance, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public String statementPage() throws IOException, InterruptedException {
+        return client.send(statement, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public String singleItemTransferBatch() throws IOException, InterruptedException {
+        return client.send(transfer, HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
@@ -0,0 +1,89 @@
+package com.serdyuchenko.bank.cluster;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.service.DiscardingLedger;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+
+/**
+ * Aggregate transfer throughput of a {@link ShardRouter} over 1, 2 and 4 in-process {@link LocalShardNode}s,
+ * each with its own {@link BankService}, from 4 threads moving one unit between random users. With {@code n}
+ * nodes, {@code 1 - 1/n} of the transfers cross nodes and run as reserve plus commit, so the score shows what
+ * the protocol costs against the capacity added by more nodes. Nodes share the JVM and its cores here; over
+ * HTTP, add the round trips of {@link HttpShardNode}, two per cross-node transfer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardScalingBenchmark {
+
+    @Param({"1", "2", "4"})
+    private int nodes;
+
+    @Param({"10000"})
+    private int users;
+
+    private ShardRouter router;
+    private String[] passports;
+
+    /**
+     * One account per user, funded generously so transfers never hit the overdraft rule.
+     */
+    @Setup(Level.Trial)
+    public void populate() {
+        List<ShardNode> shards = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            shards.add(new LocalShardNode("node-" + i,
+                new BankService(new DiscardingLedger(), new AppProperties(), user -> { })));
+        }
+        router = new ShardRouter(shards, 128, new TimeOrderedIdGenerator(0), 1, Duration.ZERO);
+        passports = new String[users];
+        for (int i = 0; i < users; i++) {
+            passports[i] = Integer.toString(i);
+            router.addUser(new User(passports[i], "User " + i));
+            router.addAccount(passports[i], new Account(passports[i], 1_000_000_000D));
+        }
+    }
+
+    /**
+     * Per-thread key source, so threads do not share a random generator.
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public OperationResult transfer(Keys keys) {
+        String source = passports[keys.random.nextInt(passports.length)];
+        String destination = passports[keys.random.nextInt(passports.length)];
+        return router.transferMoney(source, source, destination, destination, 1D);
+    }
+}
@@ -0,0 +1,45 @@
+package com.serdyuchenko.bank.domain;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of turning a request amount into a ledger amount and applying it to a balance: the former
+ * {@code BigDecimal.valueOf(double)} + {@link Money} + {@code double} balance path versus {@link MinorUnits}.
+ * Run with {@code -prof gc} to see {@code gc.alloc.rate.norm} (bytes per operation) next to the latency.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyPathBenchmark {
+    private double amount = 125.37D;
+    private double doubleBalance = 1_000_000D;
+    private long minorBalance = 100_000_000L;
+
+    @Benchmark
+    public Money legacyDoubleAndBigDecimal() {
+        Money money = new Money("USD", BigDecimal.valueOf(amount));
+        doubleBalance += amount;
+        return money;
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        long minor = MinorUnits.fromDouble(amount);
+        minorBalance += minor;
+        return minor;
+    }
+}
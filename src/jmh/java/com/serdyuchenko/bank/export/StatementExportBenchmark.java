@@ -0,0 +1,139 @@
+package com.serdyuchenko.bank.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+import com.serdyuchenko.bank.transaction.file.MappedFileTransactionLedger;
+
+/**
+ * Full statement export of one account holding {@code entries} entries in a {@link MappedFileTransactionLedger},
+ * to a stream that counts and drops the bytes. {@code oldGenGrowthMb} reports how far the old generation's peak
+ * rose above its post-setup baseline during the export; entries are decoded and encoded one at a time, so it
+ * stays flat however long the history is. {@code -Xmx512m} is well below the size of the log at 10M entries; most
+ * of it goes to the ledger's own position index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m"})
+public class StatementExportBenchmark {
+    private static final String ACCOUNT = "ACC-1";
+
+    @Param({"1000000", "10000000"})
+    private int entries;
+
+    @Param({"CSV", "NDJSON"})
+    private StatementFormat format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private Path directory;
+    private MappedFileTransactionLedger ledger;
+    private StatementExporter exporter;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        directory = Files.createTempDirectory("statement-export-bench");
+        ledger = new MappedFileTransactionLedger(directory, 64 * 1024 * 1024, Duration.ofSeconds(1), false);
+        TransactionMetadata metadata = new TransactionMetadata("bench", "Deposit into account");
+        for (int i = 0; i < entries; i++) {
+            ledger.record(ACCOUNT, TransactionType.DEPOSIT, "USD", 100, 100L * (i + 1), metadata);
+        }
+        exporter = new StatementExporter(ledger, new ObjectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        ledger.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Output {
+        public double oldGenGrowthMb;
+        public double outputMb;
+        private long baseline;
+        private long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            baseline = 0;
+            bytes = 0;
+            for (MemoryPoolMXBean pool : oldGenPools()) {
+                pool.resetPeakUsage();
+                baseline += pool.getUsage().getUsed();
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : oldGenPools()) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            oldGenGrowthMb = Math.max(0, peak - baseline) / (1024D * 1024D);
+            outputMb = bytes / (1024D * 1024D);
+        }
+
+        private OutputStream stream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    bytes++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    bytes += len;
+                }
+            };
+        }
+
+        private static List<MemoryPoolMXBean> oldGenPools() {
+            return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .filter(pool -> pool.getName().contains("Old") || pool.getName().contains("Tenured"))
+                .toList();
+        }
+    }
+
+    @Benchmark
+    public long export(Output output) throws IOException {
+        return exporter.export(ACCOUNT, format, gzip, output.stream());
+    }
+}
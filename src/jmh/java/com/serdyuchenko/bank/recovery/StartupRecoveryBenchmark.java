@@ -0,0 +1,84 @@
+package com.serdyuchenko.bank.recovery;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.metrics.NoopBankMetrics;
+import com.serdyuchenko.bank.registry.InMemoryRegistryEventLog;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+
+/**
+ * Time for {@link StartupRecovery} to restore {@code accounts} accounts (ten per user) whose ledger holds
+ * {@code entriesPerAccount} deposits each. Recovery reads one running balance per account, so the time should
+ * follow the account count and stay flat as the history grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class StartupRecoveryBenchmark {
+    private static final int ACCOUNTS_PER_USER = 10;
+
+    @Param({"100000"})
+    private int accounts;
+
+    @Param({"1", "50"})
+    private int entriesPerAccount;
+
+    private InMemoryTransactionLedger ledger;
+    private InMemoryRegistryEventLog registryEvents;
+    private StartupRecovery recovery;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        ledger = new InMemoryTransactionLedger();
+        registryEvents = new InMemoryRegistryEventLog();
+        BankService bank = newBankService();
+        for (int a = 0; a < accounts; a++) {
+            String passport = "P-" + a / ACCOUNTS_PER_USER;
+            if (a % ACCOUNTS_PER_USER == 0) {
+                bank.addUser(new User(passport, "User " + passport));
+            }
+            bank.addAccount(passport, new Account("ACC-" + a, 0));
+        }
+        for (int e = 0; e < entriesPerAccount; e++) {
+            for (int a = 0; a < accounts; a++) {
+                bank.depositFunds("P-" + a / ACCOUNTS_PER_USER, "ACC-" + a, 1D);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void freshService() {
+        recovery = new StartupRecovery(newBankService(), ledger, registryEvents, new AppProperties());
+    }
+
+    @Benchmark
+    public RecoveryStatus recover() {
+        return recovery.recover().join();
+    }
+
+    private BankService newBankService() {
+        return new BankService(ledger, new AppProperties(), user -> {
+        }, new TimeOrderedIdGenerator(0), new NoopBankMetrics(), registryEvents);
+    }
+}
@@ -0,0 +1,156 @@
+package com.serdyuchenko.bank.replication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.serdyuchenko.bank.BankApplication;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+
+/**
+ * Balance reads over loopback HTTP spread round-robin across a primary and {@code followers} read-only
+ * followers, while a background thread keeps depositing on the primary. After every iteration the largest
+ * follower lag and sequence gap seen by the writer are printed, so read throughput and staleness can be read
+ * side by side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ReplicationReadBenchmark {
+    private static final int ACCOUNTS = 64;
+    private static final long WRITE_PAUSE_NANOS = 200_000;
+
+    @Param({"0", "1", "2"})
+    public int followers;
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final List<ReplicationFollower> replicas = new ArrayList<>();
+    private HttpClient client;
+    private HttpRequest[][] requests;
+    private Thread writer;
+    private volatile boolean writing;
+    private volatile long maxLagMillis;
+    private volatile long maxGap;
+    private volatile long writes;
+
+    @Setup(Level.Trial)
+    public void boot() throws InterruptedException {
+        ConfigurableApplicationContext primary = new SpringApplicationBuilder(BankApplication.class)
+            .run("--server.port=0", "--logging.level.root=WARN", "--app.replication.role=primary");
+        contexts.add(primary);
+        BankService bank = primary.getBean(BankService.class);
+        for (int a = 0; a < ACCOUNTS; a++) {
+            bank.addUser(new User("P" + a, "Reader " + a));
+            bank.addAccount("P" + a, new Account("R" + a, 1_000D));
+        }
+        for (int f = 0; f < followers; f++) {
+            ConfigurableApplicationContext follower = new SpringApplicationBuilder(BankApplication.class)
+                .run("--server.port=0", "--logging.level.root=WARN", "--app.replication.role=follower",
+                    "--app.replication.primaryUrl=" + urlOf(primary));
+            contexts.add(follower);
+            replicas.add(follower.getBean(ReplicationFollower.class));
+        }
+        ReplicationLog log = primary.getBean(ReplicationLog.class);
+        for (ReplicationFollower replica : replicas) {
+            while (replica.appliedSequence() < log.lastSequence()) {
+                Thread.sleep(10);
+            }
+        }
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        requests = new HttpRequest[contexts.size()][ACCOUNTS];
+        for (int i = 0; i < contexts.size(); i++) {
+            for (int a = 0; a < ACCOUNTS; a++) {
+                requests[i][a] = HttpRequest.newBuilder(
+                    URI.create(urlOf(contexts.get(i)) + "/api/accounts/P" + a + "/R" + a + "/balance")).GET().build();
+            }
+        }
+
+        writing = true;
+        writer = new Thread(() -> {
+            long n = 0;
+            while (writing) {
+                int a = (int) (n++ % ACCOUNTS);
+                bank.depositFunds("P" + a, "R" + a, 0.01D);
+                long last = log.lastSequence();
+                for (ReplicationFollower replica : replicas) {
+                    long lag = replica.lagMillis();
+                    if (lag != Long.MAX_VALUE && lag > maxLagMillis) {
+                        maxLagMillis = lag;
+                    }
+                    maxGap = Math.max(maxGap, last - replica.appliedSequence());
+                }
+                writes = n;
+                LockSupport.parkNanos(WRITE_PAUSE_NANOS);
+            }
+        }, "replication-benchmark-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportLag() {
+        System.out.printf("%n  writes %d, max follower lag %d ms, max sequence gap %d%n", writes, maxLagMillis,
+            maxGap);
+        maxLagMillis = 0;
+        maxGap = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() throws InterruptedException {
+        writing = false;
+        writer.join();
+        for (int i = contexts.size() - 1; i >= 0; i--) {
+            contexts.get(i).close();
+        }
+    }
+
+    /**
+     * Per-thread position in the round-robin over instances and accounts.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String balance(Cursor cursor) throws IOException, InterruptedException {
+        int n = cursor.next++;
+        HttpRequest[] instance = requests[n % requests.length];
+        return client.send(instance[(n / requests.length) % ACCOUNTS], HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static String urlOf(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,93 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Lookup and deposit latency of {@link BankService} for populations from 1k to 10M accounts.
+ * With the hash-indexed {@link AccountRegistry} the score must stay flat across {@code accounts}.
+ * The 10M case needs a large heap, hence the fork arguments; the ledger discards entries so that
+ * history growth does not distort the lookup numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class AccountRegistryBenchmark {
+    private static final int ACCOUNTS_PER_USER = 10;
+    private static final int KEYS = 4096;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int accounts;
+
+    private BankService bank;
+    private String[] passports;
+    private String[] requisites;
+    private int cursor;
+
+    /**
+     * Seeds {@code accounts} accounts spread over users and precomputes random lookup keys.
+     */
+    @Setup(Level.Trial)
+    public void populate() {
+        bank = new BankService(new DiscardingLedger(), new AppProperties(), user -> { });
+        int users = Math.max(1, accounts / ACCOUNTS_PER_USER);
+        for (int u = 0; u < users; u++) {
+            String passport = "P" + u;
+            bank.addUser(new User(passport, "User " + u));
+            for (int a = 0; a < ACCOUNTS_PER_USER; a++) {
+                bank.addAccount(passport, new Account(passport + "-" + a, 1_000_000D));
+            }
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        passports = new String[KEYS];
+        requisites = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            int u = random.nextInt(users);
+            passports[i] = "P" + u;
+            requisites[i] = passports[i] + "-" + random.nextInt(ACCOUNTS_PER_USER);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (KEYS - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public User findByPassport() {
+        return bank.findByPassport(passports[next()]);
+    }
+
+    @Benchmark
+    public Account findByRequisite() {
+        int i = next();
+        return bank.findByRequisite(passports[i], requisites[i]);
+    }
+
+    @Benchmark
+    public OperationResult depositFunds() {
+        int i = next();
+        return bank.depositFunds(passports[i], requisites[i], 1D);
+    }
+}
@@ -0,0 +1,86 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+
+/**
+ * Time to apply {@code items} transfers: one {@link BankService#transferBatch(List)} call against a loop of
+ * {@link BankService#transferMoney(String, String, String, String, double)} calls over the same items.
+ * Both variants write to a real {@link InMemoryTransactionLedger}, recreated before every invocation (an
+ * invocation takes milliseconds, so the per-invocation setup does not distort the score).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BatchTransferBenchmark {
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"10000"})
+    private int items;
+
+    private BankService bank;
+    private List<TransferRequest> batch;
+
+    /**
+     * Builds random transfers between {@value #ACCOUNTS} accounts of one payer.
+     */
+    @Setup(Level.Trial)
+    public void prepareBatch() {
+        SplittableRandom random = new SplittableRandom(42);
+        batch = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            int from = random.nextInt(ACCOUNTS);
+            int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            batch.add(new TransferRequest("P", "A" + from, "P", "A" + to, 1D));
+        }
+    }
+
+    /**
+     * Starts every invocation from a fresh ledger so history growth does not accumulate between invocations.
+     */
+    @Setup(Level.Invocation)
+    public void populate() {
+        bank = new BankService(new InMemoryTransactionLedger(), new AppProperties(), user -> { });
+        bank.addUser(new User("P", "Payroll"));
+        for (int a = 0; a < ACCOUNTS; a++) {
+            bank.addAccount("P", new Account("A" + a, 1_000_000_000D));
+        }
+    }
+
+    @Benchmark
+    public void loop(Blackhole blackhole) {
+        for (TransferRequest transfer : batch) {
+            blackhole.consume(bank.transferMoney(transfer.getSourcePassport(), transfer.getSourceRequisite(),
+                transfer.getDestinationPassport(), transfer.getDestinationRequisite(), transfer.getAmount()));
+        }
+    }
+
+    @Benchmark
+    public Object batch() {
+        return bank.transferBatch(batch);
+    }
+}
@@ -0,0 +1,38 @@
+package com.serdyuchenko.bank.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Ledger that keeps nothing, so long-running service benchmarks measure the service itself and do not
+ * fill the heap with history.
+ */
+public class DiscardingLedger implements TransactionLedger {
+
+    @Override
+    public Transaction record(String accountId, TransactionType type, Money amount, TransactionMetadata metadata) {
+        return new Transaction("id", accountId, amount, type, Instant.EPOCH, metadata);
+    }
+
+    @Override
+    public Transaction record(String accountId, TransactionType type, String currency, long amountMinor,
+                              TransactionMetadata metadata) {
+        return new Transaction("id", accountId, currency, amountMinor, type, Instant.EPOCH, metadata);
+    }
+
+    @Override
+    public List<Transaction> getTransactions(String accountId) {
+        return List.of();
+    }
+
+    @Override
+    public List<Transaction> getByTransactionId(String transactionId) {
+        return List.of();
+    }
+}
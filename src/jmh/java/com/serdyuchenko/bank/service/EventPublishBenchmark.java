@@ -0,0 +1,101 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.event.BankEventPublisher;
+import com.serdyuchenko.bank.event.NoopBankEventPublisher;
+import com.serdyuchenko.bank.event.RingBufferEventBus;
+import com.serdyuchenko.bank.event.WaitStrategy;
+import com.serdyuchenko.bank.metrics.NoopBankMetrics;
+import com.serdyuchenko.bank.registry.InMemoryRegistryEventLog;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Cost of domain events on the money path: the same deposit and transfer with the no-op publisher and with the
+ * ring buffer, drained by {@code subscribers} consumers that each touch every event. {@code publishOnly}
+ * isolates one publish. Entries go to a discarding ledger so the difference is the publishing cost alone.
+ * Subscriber threads compete with the benchmark thread for CPU, so run it on a machine with spare cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPublishBenchmark {
+
+    @Param({"noop", "ring"})
+    private String publisher;
+
+    @Param({"1", "3"})
+    private int subscribers;
+
+    @Param({"blocking", "sleeping"})
+    private String waitStrategy;
+
+    private BankService bank;
+    private BankEventPublisher port;
+    private RingBufferEventBus bus;
+
+    @Setup(Level.Trial)
+    public void populate(Blackhole blackhole) {
+        if ("ring".equals(publisher)) {
+            bus = new RingBufferEventBus(65_536, WaitStrategy.of(waitStrategy));
+            for (int i = 0; i < subscribers; i++) {
+                bus.subscribe("consumer-" + i,
+                    (event, sequence, endOfBatch) -> blackhole.consume(event.getAmountMinor()));
+            }
+            port = bus;
+        } else {
+            port = new NoopBankEventPublisher();
+        }
+        bank = new BankService(new DiscardingLedger(), new AppProperties(), user -> { },
+            new TimeOrderedIdGenerator(0), new NoopBankMetrics(), new InMemoryRegistryEventLog(), port);
+        bank.addUser(new User("P1", "First"));
+        bank.addUser(new User("P2", "Second"));
+        bank.addAccount("P1", new Account("A1", 1_000_000_000D));
+        bank.addAccount("P2", new Account("A2", 1_000_000_000D));
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        if (bus != null) {
+            bus.close();
+        }
+    }
+
+    @Benchmark
+    public void publishOnly() {
+        port.publishMovement(TransactionType.DEPOSIT, "op", "A1", "USD", 1234, 1_000_000);
+    }
+
+    @Benchmark
+    public OperationResult deposit() {
+        return bank.depositFunds("P1", "A1", 12.34D);
+    }
+
+    @Benchmark
+    public OperationResult transfer() {
+        return bank.transferMoney("P1", "A1", "P2", "A2", 0.01D);
+    }
+}
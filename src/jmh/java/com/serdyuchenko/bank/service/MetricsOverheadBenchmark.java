@@ -0,0 +1,91 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.metrics.BankMetrics;
+import com.serdyuchenko.bank.metrics.MoneyOperation;
+import com.serdyuchenko.bank.metrics.NoopBankMetrics;
+import com.serdyuchenko.bank.metrics.micrometer.MicrometerBankMetrics;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * Cost of metrics on the money-operation hot path: the same deposit/transfer with the no-op port and with
+ * Micrometer histograms in a Prometheus registry. The relative difference between the two {@code metrics}
+ * values is the instrumentation overhead; {@code recordOnly} isolates the per-call cost of the instrumentation,
+ * which is less noisy than the difference of two full operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class MetricsOverheadBenchmark {
+
+    @Param({"noop", "micrometer"})
+    private String metrics;
+
+    /**
+     * {@code app.metrics.latencySampleRate}; 1 times every operation.
+     */
+    @Param({"1", "64"})
+    private int latencySampleRate;
+
+    private static final OperationResult SUCCESS = OperationResult.success("ok", 1D);
+
+    private BankService bank;
+    private BankMetrics port;
+
+    @Setup(Level.Iteration)
+    public void populate() {
+        port = "noop".equals(metrics)
+            ? new NoopBankMetrics()
+            : new MicrometerBankMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), latencySampleRate);
+        bank = new BankService(new InMemoryTransactionLedger(), new AppProperties(), user -> { },
+            new TimeOrderedIdGenerator(0), port);
+        bank.addUser(new User("P1", "First"));
+        bank.addAccount("P1", new Account("A1", 1_000_000_000D));
+        bank.addAccount("P1", new Account("A2", 1_000_000_000D));
+    }
+
+    /**
+     * The instrumentation alone: one {@code start} and one {@code recordOperation} call.
+     */
+    @Benchmark
+    public long recordOnly() {
+        long start = port.start();
+        port.recordOperation(MoneyOperation.DEPOSIT, start, SUCCESS);
+        return start;
+    }
+
+    @Benchmark
+    public OperationResult deposit() {
+        return bank.depositFunds("P1", "A1", 12.34D);
+    }
+
+    @Benchmark
+    public OperationResult transfer() {
+        return bank.transferMoney("P1", "A1", "P1", "A2", 0.01D);
+    }
+}
@@ -0,0 +1,58 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Latency and, with {@code -prof gc}, bytes allocated per deposit/withdrawal/transfer through
+ * {@link BankService}. Entries go to a discarding ledger so only the service path is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyMovementAllocationBenchmark {
+    private BankService bank;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        bank = new BankService(new DiscardingLedger(), new AppProperties(), user -> { });
+        bank.addUser(new User("P1", "First"));
+        bank.addUser(new User("P2", "Second"));
+        bank.addAccount("P1", new Account("A1", 1_000_000_000D));
+        bank.addAccount("P2", new Account("A2", 1_000_000_000D));
+    }
+
+    @Benchmark
+    public OperationResult deposit() {
+        return bank.depositFunds("P1", "A1", 12.34D);
+    }
+
+    @Benchmark
+    public OperationResult withdraw() {
+        return bank.withdrawFunds("P1", "A1", 0.01D);
+    }
+
+    @Benchmark
+    public OperationResult transfer() {
+        return bank.transferMoney("P1", "A1", "P2", "A2", 0.01D);
+    }
+}
@@ -0,0 +1,120 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Aggregate transfer throughput of {@link BankService} at 1, 4, 16 and 64 threads over a shared account pool.
+ * Each thread moves one unit between random accounts; with striped locks throughput should grow with cores
+ * until the stripes (or the accounts) become the bottleneck. {@code mode} compares the striped locks with
+ * {@code partitioned} execution on four single-writer partitions, where every transfer is a hand-off to the
+ * partition threads and, for three in four pairs, a second hand-off between them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferThroughputBenchmark {
+
+    @Param({"10000"})
+    private int accounts;
+
+    @Param({"locking", "partitioned"})
+    private String mode;
+
+    private BankService bank;
+
+    /**
+     * One user per account, each funded generously so transfers never hit the overdraft rule.
+     */
+    @Setup(Level.Trial)
+    public void populate() {
+        AppProperties properties = new AppProperties();
+        properties.getExecution().setMode(mode);
+        properties.getExecution().setPartitions(4);
+        bank = new BankService(new DiscardingLedger(), properties, user -> { });
+        for (int i = 0; i < accounts; i++) {
+            String key = Integer.toString(i);
+            bank.addUser(new User(key, "User " + key));
+            bank.addAccount(key, new Account(key, 1_000_000_000D));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        bank.close();
+    }
+
+    /**
+     * Per-thread key source, so threads do not share a random generator.
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom();
+        private String[] keys;
+
+        @Setup(Level.Trial)
+        public void prepare(TransferThroughputBenchmark benchmark) {
+            keys = new String[benchmark.accounts];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = Integer.toString(i);
+            }
+        }
+
+        String next() {
+            return keys[random.nextInt(keys.length)];
+        }
+    }
+
+    private OperationResult transfer(Keys keys) {
+        String source = keys.next();
+        String destination = keys.next();
+        return bank.transferMoney(source, source, destination, destination, 1D);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public OperationResult transfer1Thread(Keys keys) {
+        return transfer(keys);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public OperationResult transfer4Threads(Keys keys) {
+        return transfer(keys);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public OperationResult transfer16Threads(Keys keys) {
+        return transfer(keys);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public OperationResult transfer64Threads(Keys keys) {
+        return transfer(keys);
+    }
+}
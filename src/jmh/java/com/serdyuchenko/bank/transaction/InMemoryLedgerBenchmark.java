@@ -0,0 +1,123 @@
+package com.serdyuchenko.bank.transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.domain.Money;
+
+/**
+ * Single-threaded cost of {@link InMemoryTransactionLedger#record} and of reading an account's history of
+ * {@code history} entries: taking the snapshot, walking it, fetching the newest page, and reading the balance as
+ * of the middle of the history from running balances (compare with {@code scanHistory}, the cost of a replay).
+ * Every tenth entry is a withdrawal: {@code recentWithdrawals} selects the withdrawals of the newest 1% of the
+ * history through {@link TransactionLedger#query}, {@code recentWithdrawalsByFilter} by copying and filtering
+ * the full history.
+ * Appends go to a separate account so the read benchmarks see a fixed history length; the ledger is
+ * recreated every iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class InMemoryLedgerBenchmark {
+    private static final Money AMOUNT = new Money("USD", BigDecimal.TEN);
+    private static final TransactionMetadata METADATA = new TransactionMetadata("bench", "Benchmark entry");
+    private static final PageRequest NEWEST_PAGE = PageRequest.of(0, 50, SortDirection.DESC);
+
+    @Param({"100", "10000", "1000000"})
+    private int history;
+
+    private InMemoryTransactionLedger ledger;
+    private Instant middle;
+    private Instant recent;
+
+    @Setup(Level.Iteration)
+    public void populate() {
+        ledger = new InMemoryTransactionLedger();
+        for (int i = 0; i < history; i++) {
+            TransactionType type = i % 10 == 9 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+            ledger.record("READ", type, "USD", 1_000L, 1_000L * (i + 1), METADATA);
+        }
+        middle = ledger.getTransactions("READ").get(history / 2).getTimeStamp();
+        recent = ledger.getTransactions("READ").get(history - history / 100 - 1).getTimeStamp();
+    }
+
+    @Benchmark
+    public Transaction recordMinorUnits() {
+        return ledger.record("WRITE", TransactionType.DEPOSIT, "USD", 1_000L, METADATA);
+    }
+
+    @Benchmark
+    public Transaction recordMoney() {
+        return ledger.record("WRITE", TransactionType.DEPOSIT, AMOUNT, METADATA);
+    }
+
+    @Benchmark
+    public int getTransactions() {
+        return ledger.getTransactions("READ").size();
+    }
+
+    @Benchmark
+    public long scanHistory() {
+        long total = 0;
+        List<Transaction> transactions = ledger.getTransactions("READ");
+        for (int i = 0; i < transactions.size(); i++) {
+            total += transactions.get(i).getAmountMinor();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public TransactionPage newestPage() {
+        return ledger.getPage("READ", NEWEST_PAGE);
+    }
+
+    @Benchmark
+    public OptionalLong balanceAt() {
+        return ledger.balanceAt("READ", middle);
+    }
+
+    @Benchmark
+    public long recentWithdrawals() {
+        long total = 0;
+        List<Transaction> withdrawals = ledger.query("READ", TransactionType.WITHDRAWAL, recent, null);
+        for (int i = 0; i < withdrawals.size(); i++) {
+            total += withdrawals.get(i).getAmountMinor();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long recentWithdrawalsByFilter() {
+        List<Transaction> withdrawals = new ArrayList<>();
+        for (Transaction transaction : new ArrayList<>(ledger.getTransactions("READ"))) {
+            if (transaction.getType() == TransactionType.WITHDRAWAL && !transaction.getTimeStamp().isBefore(recent)) {
+                withdrawals.add(transaction);
+            }
+        }
+        long total = 0;
+        for (Transaction withdrawal : withdrawals) {
+            total += withdrawal.getAmountMinor();
+        }
+        return total;
+    }
+}
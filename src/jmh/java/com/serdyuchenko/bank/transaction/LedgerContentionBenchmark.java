@@ -0,0 +1,78 @@
+package com.serdyuchenko.bank.transaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.domain.Money;
+
+/**
+ * Mixed read/write load (six writers, two readers) against the monitor-based baseline and the per-account
+ * journal ledger. The ledger is recreated every iteration so history length stays comparable.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class LedgerContentionBenchmark {
+    private static final Money AMOUNT = new Money("USD", BigDecimal.TEN);
+    private static final TransactionMetadata METADATA = new TransactionMetadata("bench", "Benchmark entry");
+
+    @Param({"synchronized", "journal"})
+    private String implementation;
+
+    @Param({"1024"})
+    private int accounts;
+
+    private TransactionLedger ledger;
+    private String[] accountIds;
+
+    @Setup(Level.Iteration)
+    public void createLedger() {
+        ledger = "synchronized".equals(implementation)
+            ? new SynchronizedTransactionLedger()
+            : new InMemoryTransactionLedger();
+        accountIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = "ACC-" + i;
+            ledger.record(accountIds[i], TransactionType.DEPOSIT, AMOUNT, METADATA);
+        }
+    }
+
+    private String randomAccount() {
+        return accountIds[ThreadLocalRandom.current().nextInt(accounts)];
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public Transaction write() {
+        return ledger.record(randomAccount(), TransactionType.DEPOSIT, AMOUNT, METADATA);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public Transaction read() {
+        List<Transaction> history = ledger.getTransactions(randomAccount());
+        return history.get(history.size() - 1);
+    }
+}
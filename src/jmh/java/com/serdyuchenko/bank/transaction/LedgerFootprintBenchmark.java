@@ -0,0 +1,99 @@
+package com.serdyuchenko.bank.transaction;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.columnar.ColumnarTransactionLedger;
+
+/**
+ * Heap retained per entry by {@link InMemoryTransactionLedger} and {@link ColumnarTransactionLedger}, filled with
+ * {@code entries} entries written the way {@code BankService} writes transfers: two legs with a running balance,
+ * a fresh time-ordered transfer id and a per-account description, over 1,000 accounts. {@code bytesPerEntry} is
+ * the heap in use after a full GC with the filled ledger held, minus the heap in use before, divided by
+ * {@code entries}; it includes the correlation index. The score is the time to fill the ledger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class LedgerFootprintBenchmark {
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"memory", "columnar"})
+    private String store;
+
+    @Param({"1000000"})
+    private int entries;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public double bytesPerEntry;
+        private long baseline;
+        private TransactionLedger retained;
+        private int count;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retained = null;
+            baseline = usedAfterGc();
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            bytesPerEntry = (usedAfterGc() - baseline) / (double) count;
+            retained = null;
+        }
+
+        private void retain(TransactionLedger ledger, int entries) {
+            retained = ledger;
+            count = entries;
+        }
+
+        private static long usedAfterGc() {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    @Benchmark
+    public TransactionLedger fill(Footprint footprint) {
+        TransactionLedger ledger = "columnar".equals(store)
+            ? new ColumnarTransactionLedger()
+            : new InMemoryTransactionLedger();
+        TimeOrderedIdGenerator transferIds = new TimeOrderedIdGenerator(1);
+        for (int i = 0; i < entries / 2; i++) {
+            String source = "ACC-" + i % ACCOUNTS;
+            String destination = "ACC-" + (i + 1) % ACCOUNTS;
+            String transferId = transferIds.nextId();
+            ledger.record(source, TransactionType.TRANSFER, "USD", 100, 1_000_000L - i,
+                new TransactionMetadata(transferId, "Transfer to account " + destination));
+            ledger.record(destination, TransactionType.TRANSFER, "USD", 100, 1_000_000L + i,
+                new TransactionMetadata(transferId, "Transfer from account " + source));
+        }
+        footprint.retain(ledger, entries);
+        return ledger;
+    }
+}
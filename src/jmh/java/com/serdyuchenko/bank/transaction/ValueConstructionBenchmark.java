@@ -0,0 +1,62 @@
+package com.serdyuchenko.bank.transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.domain.Money;
+
+/**
+ * Construction cost of the ledger value objects: {@link Money} (with its validation and rescaling),
+ * {@link Transaction} from a {@link Money} and from minor units, and the lazy {@link Transaction#getAmount()}.
+ * Run with {@code -prof gc} for bytes per object.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueConstructionBenchmark {
+    private static final TransactionMetadata METADATA = new TransactionMetadata("bench", "Benchmark entry");
+
+    private final BigDecimal amount = new BigDecimal("125.37");
+    private final Money money = new Money("USD", amount);
+    private final Instant timestamp = Instant.now();
+
+    @Benchmark
+    public Money money() {
+        return new Money("USD", amount);
+    }
+
+    @Benchmark
+    public Money moneyFromMinorUnits() {
+        return Money.ofMinorUnits("USD", 12_537L);
+    }
+
+    @Benchmark
+    public Transaction transactionFromMoney() {
+        return new Transaction("id", "ACC", money, TransactionType.DEPOSIT, timestamp, METADATA);
+    }
+
+    @Benchmark
+    public Transaction transactionFromMinorUnits() {
+        return new Transaction("id", "ACC", "USD", 12_537L, TransactionType.DEPOSIT, timestamp, METADATA);
+    }
+
+    @Benchmark
+    public Money lazyAmount() {
+        return new Transaction("id", "ACC", "USD", 12_537L, TransactionType.DEPOSIT, timestamp, METADATA)
+            .getAmount();
+    }
+}
@@ -0,0 +1,79 @@
+package com.serdyuchenko.bank.transaction.file;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Append throughput of {@link MappedFileTransactionLedger} in records per second. The acceptance bar is
+ * 100k records/s on one SSD-backed node with the default 10 ms group-commit window. Point
+ * {@code -Djava.io.tmpdir} at the disk under test; each iteration starts from an empty log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class FileLedgerThroughputBenchmark {
+    private static final Money AMOUNT = new Money("USD", new BigDecimal("125.50"));
+
+    @Param({"10"})
+    private long fsyncIntervalMillis;
+
+    @Param({"false"})
+    private boolean awaitFsync;
+
+    private Path directory;
+    private MappedFileTransactionLedger ledger;
+    private TransactionMetadata metadata;
+
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        directory = Files.createTempDirectory("ledger-bench");
+        ledger = new MappedFileTransactionLedger(directory, 256 * 1024 * 1024,
+            Duration.ofMillis(fsyncIntervalMillis), awaitFsync);
+        metadata = new TransactionMetadata("8f14e45f-ceea-467a-9575-6d4b1f3c3e3a", "Transfer to account 40817810");
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        ledger.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Transaction record() {
+        String account = "ACC-" + ThreadLocalRandom.current().nextInt(10_000);
+        return ledger.record(account, TransactionType.TRANSFER, AMOUNT, metadata);
+    }
+}
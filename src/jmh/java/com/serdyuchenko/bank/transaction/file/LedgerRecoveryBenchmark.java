@@ -0,0 +1,100 @@
+package com.serdyuchenko.bank.transaction.file;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Time to reopen a {@link MappedFileTransactionLedger} holding {@code records} entries over 1000 accounts and
+ * read every account's latest balance, with the checkpoint and segment indexes written on close and with them
+ * removed (full scan of the log).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LedgerRecoveryBenchmark {
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"200000"})
+    private int records;
+
+    @Param({"true", "false"})
+    private boolean checkpoint;
+
+    private Path directory;
+    private MappedFileTransactionLedger reopened;
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        directory = Files.createTempDirectory("ledger-recovery-bench");
+        TransactionMetadata metadata = new TransactionMetadata("bench", "Deposit into account");
+        try (MappedFileTransactionLedger ledger = open()) {
+            for (int i = 0; i < records; i++) {
+                ledger.record("ACC-" + i % ACCOUNTS, TransactionType.DEPOSIT, "USD", 100, 100L * (i / ACCOUNTS + 1),
+                    metadata);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void dropCheckpoint() throws IOException {
+        if (!checkpoint) {
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.equals("ledger.checkpoint") || name.endsWith(".idx");
+                }).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeReopened() {
+        reopened.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long reopen() {
+        reopened = open();
+        long total = 0;
+        for (int a = 0; a < ACCOUNTS; a++) {
+            total += reopened.latestBalance("ACC-" + a).orElse(0);
+        }
+        return total;
+    }
+
+    private MappedFileTransactionLedger open() {
+        return new MappedFileTransactionLedger(directory, 64 * 1024 * 1024, Duration.ZERO, false);
+    }
+}
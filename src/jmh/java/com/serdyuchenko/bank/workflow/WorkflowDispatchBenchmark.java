@@ -0,0 +1,75 @@
+package com.serdyuchenko.bank.workflow;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.workflow.inmemory.StubWorkflowEngine;
+
+/**
+ * User registration latency against the latency of the workflow engine behind {@link WorkflowPort}. With
+ * {@code sync} dispatch every {@code addUser} pays the stub engine's round trip; with {@code async} it only
+ * queues the event, so the score should stay flat as {@code engineDelayMillis} grows. The queue is large and the
+ * engine batches, so the asynchronous runs measure the enqueue path rather than back-pressure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowDispatchBenchmark {
+
+    @Param({"sync", "async"})
+    private String dispatch;
+
+    @Param({"0", "1", "10"})
+    private int engineDelayMillis;
+
+    private BankService bank;
+    private AsyncWorkflowDispatcher dispatcher;
+    private long next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        WorkflowPort engine = new StubWorkflowEngine(Duration.ofMillis(engineDelayMillis));
+        WorkflowPort port = engine;
+        if ("async".equals(dispatch)) {
+            dispatcher = new AsyncWorkflowDispatcher(engine, 1_000_000, 1_000, 5, Duration.ofMillis(100),
+                Duration.ofSeconds(10), Duration.ofMillis(50), Duration.ZERO);
+            port = dispatcher;
+        }
+        bank = new BankService(new InMemoryTransactionLedger(), new AppProperties(), port);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+            dispatcher = null;
+        }
+    }
+
+    @Benchmark
+    public void addUser() {
+        long id = next++;
+        bank.addUser(new User(Long.toString(id), "User " + id));
+    }
+}
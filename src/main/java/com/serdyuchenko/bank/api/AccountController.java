@@ -1,15 +1,40 @@
 package com.serdyuchenko.bank.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.serdyuchenko.bank.api.dto.AccountBalanceDto;
+import com.serdyuchenko.bank.api.dto.AccountRefDto;
+import com.serdyuchenko.bank.cluster.ShardRouter;
 import com.serdyuchenko.bank.domain.Account;
 import com.serdyuchenko.bank.service.BankService;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 /**
  *
  * @author Anton Serdyuchenko
@@ -17,31 +42,213 @@ import com.serdyuchenko.bank.service.BankService;
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
+    static final long MAX_WAIT_MILLIS = 60_000;
+
+    /**
+     * Versions restart with the process and differ between instances, so ETags carry a tag of this run; an ETag
+     * from another run or instance never matches and simply gets a full answer.
+     */
+    private final String etagPrefix = Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1);
     private final BankService bankService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader refReader;
+    /**
+     * Router of a sharded deployment, or {@code null} on a single node.
+     */
+    private final ShardRouter router;
 
     /**
-     * Constructs the controller with the domain service dependency injected by Spring.
+     * Constructs the controller with its collaborators injected by Spring.
      *
      * @param bankService application service that owns account orchestration logic
+     * @param objectMapper application object mapper, used for the streamed bulk endpoints
+     * @param router router of a sharded deployment, if this node is part of one
      */
-    public AccountController(BankService bankService) {
+    public AccountController(BankService bankService, ObjectMapper objectMapper, ObjectProvider<ShardRouter> router) {
         this.bankService = bankService;
+        this.objectMapper = objectMapper;
+        this.refReader = objectMapper.readerFor(AccountRefDto.class);
+        this.router = router.getIfAvailable();
     }
 
     /**
-     * Returns the current balance for the account identified by passport/requisite if present.
+     * Returns the current balance for the account identified by passport/requisite if present, or the balance as
+     * of {@code at} when given.
+     * <p>
+     * The current balance carries an {@code ETag} derived from the account version. A request whose
+     * {@code If-None-Match} still names that version is answered with 304 and no body, so pollers of an
+     * unchanged account skip the serialization.
      *
      * @param passport customer identifier
      * @param requisite account identifier
-     * @return {@link ResponseEntity} containing the balance or 404 when no account matches
+     * @param at optional ISO-8601 instant to read a historical balance
+     * @return {@link ResponseEntity} containing the balance or 404 when no account matches (or, with {@code at},
+     *     when the account has no recorded movement up to that instant)
      */
     @GetMapping("/{passport}/{requisite}/balance")
-    public ResponseEntity<AccountBalanceDto> balance(@PathVariable String passport,
-                                                     @PathVariable String requisite) {
+    public ResponseEntity<AccountBalanceDto> balance(
+            @PathVariable String passport,
+            @PathVariable String requisite,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
         Account account = bankService.findByRequisite(passport, requisite);
         if (account == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(new AccountBalanceDto(account.getRequisite(), account.getBalance()));
+        if (at == null) {
+            return current(account);
+        }
+        OptionalDouble balance = bankService.balanceAt(passport, requisite, at);
+        if (balance.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new AccountBalanceDto(account.getRequisite(), balance.getAsDouble()));
+    }
+
+    /**
+     * Long-poll variant of {@link #balance}: answers at once when {@code If-None-Match} is absent or names an
+     * older version, otherwise as soon as the balance changes, or with 304 when {@code waitMillis} passed first.
+     * No request thread is held while waiting. The container checks for expired waits about once a second, so
+     * short waits end with that granularity.
+     *
+     * @param passport customer identifier
+     * @param requisite account identifier
+     * @param ifNoneMatch ETag of the balance the client already has
+     * @param waitMillis how long to wait for a change; at most {@value #MAX_WAIT_MILLIS}
+     * @return the balance with its ETag, 304 when it did not change in time, 404 when no account matches, or 400
+     *     for a negative wait
+     */
+    @GetMapping("/{passport}/{requisite}/balance/watch")
+    public DeferredResult<ResponseEntity<AccountBalanceDto>> watchBalance(
+            @PathVariable String passport,
+            @PathVariable String requisite,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(defaultValue = "30000") long waitMillis) {
+        Account account = bankService.findByRequisite(passport, requisite);
+        if (account == null || waitMillis < 0) {
+            DeferredResult<ResponseEntity<AccountBalanceDto>> refused = new DeferredResult<>();
+            refused.setResult(account == null
+                ? ResponseEntity.notFound().build()
+                : ResponseEntity.badRequest().build());
+            return refused;
+        }
+        long seenVersion = seenVersion(account, ifNoneMatch);
+        DeferredResult<ResponseEntity<AccountBalanceDto>> result = new DeferredResult<>(
+            Math.max(1, Math.min(waitMillis, MAX_WAIT_MILLIS)),
+            ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etagOf(account, seenVersion)).build());
+        CompletableFuture<Account> change = account.nextChange(seenVersion);
+        change.thenAccept(changed -> result.setResult(current(changed)));
+        // Cancelling on timeout removes this watcher from the account, so expired polls are not retained.
+        result.onCompletion(() -> change.cancel(false));
+        return result;
+    }
+
+    /**
+     * Streams the current balance of every account of the passport as NDJSON, one {@link AccountBalanceDto} per
+     * line in opening order. Lines are written as accounts are read, so the heap used does not depend on the
+     * number of accounts.
+     *
+     * @param passport customer identifier
+     * @param response servlet response the lines are written to
+     * @throws IOException when the client went away
+     */
+    @GetMapping("/{passport}/balances")
+    public void balances(@PathVariable String passport, HttpServletResponse response) throws IOException {
+        if (bankService.findByPassport(passport) == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, AccountBalanceDto.class,
+                response.getOutputStream())) {
+            for (Account account : bankService.accountsOf(passport)) {
+                writer.write(new AccountBalanceDto(account.getRequisite(), account.getBalance()));
+            }
+        }
+    }
+
+    /**
+     * Streams the current balances of the requested accounts as NDJSON, in request order. The body is either a
+     * JSON array of {@link AccountRefDto} or the same objects as NDJSON; it is read one item at a time while the
+     * response is written, so neither side is held in memory. Unknown accounts are left out of the response. In a
+     * sharded deployment each account is read on the node holding it.
+     * <p>
+     * The response starts before the request has been read to the end, so a client has to read it while still
+     * sending, or send very large requests in pages: a client that reads nothing until its upload completes stalls
+     * once the socket buffers fill.
+     *
+     * @param body request body
+     * @param response servlet response the lines are written to
+     * @throws IOException when the client went away
+     */
+    @PostMapping(path = "/balances", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void balances(InputStream body, HttpServletResponse response) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken first = parser.nextToken();
+            boolean array = first == JsonToken.START_ARRAY;
+            if (!array && first != JsonToken.START_OBJECT && first != null) {
+                response.sendError(HttpStatus.BAD_REQUEST.value());
+                return;
+            }
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, AccountBalanceDto.class,
+                    response.getOutputStream())) {
+                JsonToken token = array ? parser.nextToken() : first;
+                while (token == JsonToken.START_OBJECT) {
+                    AccountRefDto ref = refReader.readValue(parser);
+                    OptionalDouble balance = balanceOf(ref.passport(), ref.requisite());
+                    if (balance.isPresent()) {
+                        writer.write(new AccountBalanceDto(ref.requisite(), balance.getAsDouble()));
+                    }
+                    token = parser.nextToken();
+                }
+                if (array ? token != JsonToken.END_ARRAY : token != null) {
+                    throw new JsonParseException(parser, "Expected an account reference object, got " + token);
+                }
+            }
+        }
+    }
+
+    private ResponseEntity<AccountBalanceDto> current(Account account) {
+        // Version first: a change in between makes the ETag older than the body, never newer.
+        long version = account.getVersion();
+        return ResponseEntity.ok()
+            .eTag(etagOf(account, version))
+            .body(new AccountBalanceDto(account.getRequisite(), account.getBalance()));
+    }
+
+    /**
+     * Names one balance state: the run, the account object (so a re-opened account with the same requisite does
+     * not reuse tags) and its version.
+     */
+    private String etagOf(Account account, long version) {
+        return etagStart(account) + version + "\"";
+    }
+
+    private String etagStart(Account account) {
+        return "\"" + etagPrefix + "-" + account.getIncarnation() + "-";
+    }
+
+    /**
+     * @return version named by an ETag of this run and account; -1, which no account has, for anything else.
+     */
+    private long seenVersion(Account account, String ifNoneMatch) {
+        String start = etagStart(account);
+        if (ifNoneMatch == null || !ifNoneMatch.startsWith(start) || !ifNoneMatch.endsWith("\"")
+                || ifNoneMatch.length() <= start.length() + 1) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(ifNoneMatch, start.length(), ifNoneMatch.length() - 1, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private OptionalDouble balanceOf(String passport, String requisite) {
+        if (router != null) {
+            return router.balance(passport, requisite);
+        }
+        Account account = bankService.findByRequisite(passport, requisite);
+        return account != null ? OptionalDouble.of(account.getBalance()) : OptionalDouble.empty();
     }
 }
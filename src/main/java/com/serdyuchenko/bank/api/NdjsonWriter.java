@@ -0,0 +1,66 @@
+package com.serdyuchenko.bank.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes values as newline-delimited JSON straight to a response stream. Each value is serialized into the
+ * generator's small buffer, which is flushed to the stream whenever it fills; nothing is flushed per value and the
+ * response is never held in memory, so the heap used does not depend on the number of values.
+ *
+ * @author Anton Serdyuchenko
+ */
+final class NdjsonWriter implements Closeable {
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private long count;
+
+    /**
+     * @param mapper application object mapper
+     * @param type type of every written value
+     * @param out response stream; flushed but not closed by {@link #close()}
+     * @throws IOException when the generator cannot be created
+     */
+    NdjsonWriter(ObjectMapper mapper, Class<?> type, OutputStream out) throws IOException {
+        this.writer = mapper.writerFor(type)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .withRootValueSeparator("\n");
+        this.generator = writer.createGenerator(out);
+    }
+
+    /**
+     * @param value value written as one line
+     * @throws IOException when the client went away
+     */
+    void write(Object value) throws IOException {
+        writer.writeValue(generator, value);
+        count++;
+    }
+
+    /**
+     * @return number of values written so far.
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * Terminates the last line and flushes what is still buffered.
+     *
+     * @throws IOException when the client went away
+     */
+    @Override
+    public void close() throws IOException {
+        if (count > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.close();
+    }
+}
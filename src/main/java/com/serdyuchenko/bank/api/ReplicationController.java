@@ -0,0 +1,144 @@
+package com.serdyuchenko.bank.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serdyuchenko.bank.api.dto.ReplicationBatchDto;
+import com.serdyuchenko.bank.api.dto.ReplicationRecordDto;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.replication.ReplicationLog;
+import com.serdyuchenko.bank.replication.ReplicationRecord;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the primary's {@link ReplicationLog} to its followers. Only present with
+ * {@code app.replication.role=primary}; the path is meant for the replication network, not for clients.
+ *
+ * @author Anton Serdyuchenko
+ */
+@RestController
+@RequestMapping("/internal/replication")
+@ConditionalOnProperty(prefix = "app.replication", name = "role", havingValue = "primary")
+public class ReplicationController {
+    static final int MAX_LIMIT = 10_000;
+    static final long MAX_WAIT_MILLIS = 30_000;
+    /**
+     * Snapshot response header carrying {@link ReplicationLog#epoch()}.
+     */
+    public static final String EPOCH_HEADER = "X-Replication-Epoch";
+    /**
+     * Snapshot response header carrying the sequence a follower continues the log after.
+     */
+    public static final String SEQUENCE_HEADER = "X-Replication-Sequence";
+
+    private final ReplicationLog log;
+    private final BankService bankService;
+    private final TransactionLedger ledger;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param log log the primary ships its changes through
+     * @param bankService service whose registry is copied into snapshots
+     * @param ledger ledger whose entries are copied into snapshots
+     * @param objectMapper application object mapper
+     */
+    public ReplicationController(ReplicationLog log, BankService bankService, TransactionLedger ledger,
+                                 ObjectMapper objectMapper) {
+        this.log = log;
+        this.bankService = bankService;
+        this.ledger = ledger;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Long-polls the log: answers at once when there are records after {@code after}, otherwise as soon as one
+     * is appended or {@code waitMillis} passed.
+     *
+     * @param after sequence the follower has applied; 0 for none
+     * @param limit maximum number of records; at most {@value #MAX_LIMIT}
+     * @param waitMillis how long to wait for a record; at most {@value #MAX_WAIT_MILLIS}
+     * @return records after {@code after}, 400 for a bad window, 410 when they are no longer kept
+     */
+    @GetMapping("/log")
+    public ResponseEntity<ReplicationBatchDto> log(@RequestParam(defaultValue = "0") long after,
+                                                   @RequestParam(defaultValue = "1000") int limit,
+                                                   @RequestParam(defaultValue = "0") long waitMillis) {
+        if (after < 0 || limit <= 0 || limit > MAX_LIMIT || waitMillis < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        long start = System.nanoTime();
+        List<ReplicationRecord> records;
+        try {
+            records = log.read(after, limit, Duration.ofMillis(Math.min(waitMillis, MAX_WAIT_MILLIS)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        long waited = (System.nanoTime() - start) / 1_000_000;
+        return ResponseEntity.ok(new ReplicationBatchDto(log.epoch(), log.lastSequence(), waited,
+            records.stream().map(ReplicationRecordDto::of).toList()));
+    }
+
+    /**
+     * Streams everything the primary holds as NDJSON, for a follower that starts or fell out of the log: per user
+     * a {@code USER_REGISTERED} line, then per account an {@code ACCOUNT_OPENED} line carrying the current balance
+     * followed by the account's ledger entries. Lines carry sequence 0. {@value #SEQUENCE_HEADER} is the log
+     * position the registry was copied at; every change up to it is in the snapshot, and later ones may be too,
+     * so a follower continues the log after it and skips what it already holds.
+     *
+     * @param response servlet response the lines are written to
+     * @throws IOException when the follower went away
+     */
+    @GetMapping("/snapshot")
+    public void snapshot(HttpServletResponse response) throws IOException {
+        Map<User, List<Account>> users = new LinkedHashMap<>();
+        long position = bankService.copyRegistry(log::lastSequence, users);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(EPOCH_HEADER, log.epoch());
+        response.setHeader(SEQUENCE_HEADER, Long.toString(position));
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, ReplicationRecordDto.class,
+                response.getOutputStream())) {
+            for (Map.Entry<User, List<Account>> user : users.entrySet()) {
+                String passport = user.getKey().getPassport();
+                writer.write(ReplicationRecordDto.of(ReplicationRecord.of(0, 0,
+                    RegistryEvent.userRegistered(user.getKey()))));
+                for (Account account : user.getValue()) {
+                    writer.write(ReplicationRecordDto.of(ReplicationRecord.of(0, 0,
+                        RegistryEvent.accountOpened(passport, account))));
+                    try {
+                        ledger.forEachTransaction(account.getRequisite(), entry -> {
+                            try {
+                                writer.write(ReplicationRecordDto.of(ReplicationRecord.of(0, 0, entry)));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
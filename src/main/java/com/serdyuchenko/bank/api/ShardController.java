@@ -0,0 +1,146 @@
+package com.serdyuchenko.bank.api;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.serdyuchenko.bank.api.dto.AccountBalanceDto;
+import com.serdyuchenko.bank.api.dto.AmountDto;
+import com.serdyuchenko.bank.api.dto.OperationResultDto;
+import com.serdyuchenko.bank.api.dto.TransferRequestDto;
+import com.serdyuchenko.bank.api.dto.UserDto;
+import com.serdyuchenko.bank.cluster.TransferSteps;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+
+/**
+ * Node-to-node endpoints of a sharded deployment, called by a {@code ShardRouter} through
+ * {@code HttpShardNode}: registering users and accounts placed on this node, single-node money operations and
+ * the reserve/commit/compensate steps of cross-shard transfers. Money operations answer like
+ * {@link TransferController}, with the result in the body whatever the status. Only present with
+ * {@code app.cluster.enabled=true}; the paths are meant for the cluster network, not for clients.
+ *
+ * @author Anton Serdyuchenko
+ */
+@RestController
+@RequestMapping("/internal/shard")
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled", havingValue = "true")
+public class ShardController {
+    private final BankService bankService;
+    private final TransferSteps transferSteps;
+
+    /**
+     * Constructs the controller with the domain service dependency injected by Spring.
+     *
+     * @param bankService application service that owns account orchestration logic
+     */
+    public ShardController(BankService bankService) {
+        this.bankService = bankService;
+        this.transferSteps = new TransferSteps(bankService);
+    }
+
+    /**
+     * @param user user to register
+     * @return 200 once registered
+     */
+    @PostMapping("/users")
+    public ResponseEntity<Void> addUser(@RequestBody UserDto user) {
+        bankService.addUser(new User(user.passport(), user.username()));
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * @param passport owner of the account
+     * @param account requisite and opening balance
+     * @return 200 once opened, 404 when the user is not registered on this node
+     */
+    @PostMapping("/users/{passport}/accounts")
+    public ResponseEntity<Void> addAccount(@PathVariable String passport, @RequestBody AccountBalanceDto account) {
+        if (bankService.findByPassport(passport) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        bankService.addAccount(passport, new Account(account.requisite(), account.balance()));
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * @param passport owner of the account
+     * @param requisite account requisite
+     * @param amount amount to deposit
+     * @return result of the deposit
+     */
+    @PostMapping("/accounts/{passport}/{requisite}/deposit")
+    public ResponseEntity<OperationResultDto> deposit(@PathVariable String passport, @PathVariable String requisite,
+                                                      @RequestBody AmountDto amount) {
+        return TransferController.respond(bankService.depositFunds(passport, requisite, amount.amount()));
+    }
+
+    /**
+     * @param passport owner of the account
+     * @param requisite account requisite
+     * @param amount amount to withdraw
+     * @return result of the withdrawal
+     */
+    @PostMapping("/accounts/{passport}/{requisite}/withdrawal")
+    public ResponseEntity<OperationResultDto> withdraw(@PathVariable String passport,
+                                                       @PathVariable String requisite,
+                                                       @RequestBody AmountDto amount) {
+        return TransferController.respond(bankService.withdrawFunds(passport, requisite, amount.amount()));
+    }
+
+    /**
+     * Transfer between two accounts of this node, applied once per id.
+     *
+     * @param transferId id of the transfer
+     * @param transfer both accounts and the amount
+     * @return result of the transfer
+     */
+    @PostMapping("/transfers/{transferId}")
+    public ResponseEntity<OperationResultDto> transfer(@PathVariable String transferId,
+                                                       @RequestBody TransferRequestDto transfer) {
+        return TransferController.respond(bankService.transferOnce(transferId,
+            transfer.sourcePassport(), transfer.sourceRequisite(), transfer.destinationPassport(),
+            transfer.destinationRequisite(), transfer.amount()));
+    }
+
+    /**
+     * @param transferId id of the transfer
+     * @param transfer source account on this node, destination requisite and amount
+     * @return result of the reservation
+     */
+    @PostMapping("/transfers/{transferId}/reservation")
+    public ResponseEntity<OperationResultDto> reserve(@PathVariable String transferId,
+                                                      @RequestBody TransferRequestDto transfer) {
+        return TransferController.respond(transferSteps.reserveTransfer(transferId, transfer.sourcePassport(),
+            transfer.sourceRequisite(), transfer.destinationRequisite(), transfer.amount()));
+    }
+
+    /**
+     * @param transferId id of the transfer
+     * @param transfer destination account on this node, source requisite and amount
+     * @return result of the commit
+     */
+    @PostMapping("/transfers/{transferId}/commit")
+    public ResponseEntity<OperationResultDto> commit(@PathVariable String transferId,
+                                                     @RequestBody TransferRequestDto transfer) {
+        return TransferController.respond(transferSteps.commitTransfer(transferId, transfer.destinationPassport(),
+            transfer.destinationRequisite(), transfer.sourceRequisite(), transfer.amount()));
+    }
+
+    /**
+     * @param transferId id of the transfer
+     * @param transfer source account on this node
+     * @return result of the compensation
+     */
+    @PostMapping("/transfers/{transferId}/compensation")
+    public ResponseEntity<OperationResultDto> compensate(@PathVariable String transferId,
+                                                         @RequestBody TransferRequestDto transfer) {
+        return TransferController.respond(transferSteps.compensateTransfer(transferId, transfer.sourcePassport(),
+            transfer.sourceRequisite()));
+    }
+}
@@ -0,0 +1,122 @@
+package com.serdyuchenko.bank.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import com.serdyuchenko.bank.cluster.ShardRouter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Lets clients of a sharded deployment call any node for an account: a GET under
+ * {@code /api/accounts/{passport}/} whose user the {@link ShardRouter} places on another node is passed to that
+ * node as it is, and the answer is streamed back without being held in memory. Calls naming several accounts,
+ * such as transfers, are routed in the controllers instead. A node that cannot be reached is answered with 503.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class ShardForwardingFilter extends OncePerRequestFilter {
+    /**
+     * Request header naming the node that forwarded the request; the receiving node answers it itself, so a
+     * request is forwarded at most once even while nodes disagree about the placement.
+     */
+    public static final String FORWARDED_HEADER = "X-Shard-Forwarded-By";
+
+    private static final String ACCOUNTS = "/api/accounts/";
+    private static final List<String> REQUEST_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH);
+    private static final List<String> RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+        HttpHeaders.CONTENT_DISPOSITION);
+
+    private final ShardRouter router;
+    private final String nodeId;
+    private final Map<String, String> nodeUrls;
+    private final HttpClient http;
+    private final Duration timeout;
+
+    /**
+     * @param router router placing users on nodes
+     * @param nodeId name of this node
+     * @param nodeUrls base URL of every node by name
+     * @param timeout connect timeout, and the read timeout on top of the longest balance watch
+     */
+    public ShardForwardingFilter(ShardRouter router, String nodeId, Map<String, String> nodeUrls, Duration timeout) {
+        this.router = Objects.requireNonNull(router, "ShardRouter cannot be null");
+        this.nodeId = Objects.requireNonNull(nodeId, "Node id cannot be null");
+        this.nodeUrls = Map.copyOf(nodeUrls);
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.timeout = timeout.plusMillis(AccountController.MAX_WAIT_MILLIS);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+            || request.getHeader(FORWARDED_HEADER) != null
+            || !request.getRequestURI().startsWith(ACCOUNTS);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(ACCOUNTS.length());
+        int slash = path.indexOf('/');
+        String passport = UriUtils.decode(slash < 0 ? path : path.substring(0, slash), StandardCharsets.UTF_8);
+        String owner = router.nodeFor(passport).id();
+        if (owner.equals(nodeId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        forward(nodeUrls.get(owner), request, response);
+    }
+
+    private void forward(String baseUrl, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String query = request.getQueryString();
+        HttpRequest.Builder forwarded = HttpRequest.newBuilder(
+                URI.create(baseUrl + request.getRequestURI() + (query == null ? "" : "?" + query)))
+            .timeout(timeout)
+            .header(FORWARDED_HEADER, nodeId)
+            .GET();
+        for (String name : REQUEST_HEADERS) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                forwarded.header(name, value);
+            }
+        }
+        HttpResponse<InputStream> answer;
+        try {
+            answer = http.send(forwarded.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        response.setStatus(answer.statusCode());
+        for (String name : RESPONSE_HEADERS) {
+            answer.headers().firstValue(name).ifPresent(value -> response.setHeader(name, value));
+        }
+        try (InputStream body = answer.body()) {
+            body.transferTo(response.getOutputStream());
+        }
+    }
+}
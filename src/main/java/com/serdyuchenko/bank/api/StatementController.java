@@ -0,0 +1,149 @@
+package com.serdyuchenko.bank.api;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.serdyuchenko.bank.api.dto.StatementPageDto;
+import com.serdyuchenko.bank.api.dto.TransactionDto;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.export.StatementExporter;
+import com.serdyuchenko.bank.export.StatementFormat;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.transaction.PageRequest;
+import com.serdyuchenko.bank.transaction.SortDirection;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionPage;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves account statements page by page straight from the {@link TransactionLedger}, and as full streamed
+ * exports.
+ *
+ * @author Anton Serdyuchenko
+ */
+@RestController
+@RequestMapping("/api/accounts")
+public class StatementController {
+    private final BankService bankService;
+    private final TransactionLedger ledger;
+    private final StatementExporter exporter;
+
+    /**
+     * Constructs the controller with its collaborators injected by Spring.
+     *
+     * @param bankService service used to check that the account belongs to the passport
+     * @param ledger ledger holding the account history
+     * @param exporter writer of full statement exports
+     */
+    public StatementController(BankService bankService, TransactionLedger ledger, StatementExporter exporter) {
+        this.bankService = bankService;
+        this.ledger = ledger;
+        this.exporter = exporter;
+    }
+
+    /**
+     * Returns one statement page for the account identified by passport/requisite.
+     *
+     * @param passport customer identifier
+     * @param requisite account identifier
+     * @param from optional inclusive start of the time window (ISO-8601)
+     * @param to optional exclusive end of the time window (ISO-8601)
+     * @param type optional transaction type to restrict the statement to
+     * @param offset number of entries to skip in the requested direction
+     * @param limit page size, at most {@link PageRequest#MAX_LIMIT}
+     * @param direction {@code ASC} (oldest first) or {@code DESC} (newest first)
+     * @return page of entries, 404 when no account matches, or 400 for invalid paging parameters
+     */
+    @GetMapping("/{passport}/{requisite}/statement")
+    public ResponseEntity<StatementPageDto> statement(
+            @PathVariable String passport,
+            @PathVariable String requisite,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "DESC") SortDirection direction) {
+        Account account = bankService.findByRequisite(passport, requisite);
+        if (account == null) {
+            return ResponseEntity.notFound().build();
+        }
+        PageRequest request;
+        try {
+            request = new PageRequest(from, to, type, offset, limit, direction);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        TransactionPage page = ledger.getPage(account.getRequisite(), request);
+        List<TransactionDto> entries = new ArrayList<>(page.getEntries().size());
+        for (Transaction transaction : page.getEntries()) {
+            entries.add(toDto(transaction));
+        }
+        return ResponseEntity.ok(new StatementPageDto(account.getRequisite(), page.getOffset(), page.getTotal(),
+            page.hasMore(), entries));
+    }
+
+    /**
+     * Streams the full history of the account as a file download, oldest entry first. The statement is written
+     * to the response while the ledger is read, so the memory used does not depend on the length of the history.
+     * With {@code gzip} the download is a {@code .gz} file rather than a compressed transfer encoding.
+     *
+     * @param passport customer identifier
+     * @param requisite account identifier
+     * @param format {@code CSV} or {@code NDJSON}
+     * @param gzip whether to gzip the file
+     * @param response servlet response the statement is written to
+     * @throws IOException when the client went away
+     */
+    @GetMapping("/{passport}/{requisite}/statement/export")
+    public void export(@PathVariable String passport,
+                       @PathVariable String requisite,
+                       @RequestParam(defaultValue = "CSV") StatementFormat format,
+                       @RequestParam(defaultValue = "false") boolean gzip,
+                       HttpServletResponse response) throws IOException {
+        Account account = bankService.findByRequisite(passport, requisite);
+        if (account == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (gzip) {
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType(format.mediaType());
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(StatementExporter.fileName(account.getRequisite(), format, gzip))
+            .build()
+            .toString());
+        exporter.export(account.getRequisite(), format, gzip, response.getOutputStream());
+    }
+
+    static TransactionDto toDto(Transaction transaction) {
+        return new TransactionDto(
+            transaction.getId(),
+            transaction.getType().name(),
+            transaction.getAmount().getAmount(),
+            transaction.getAmount().getCurrency(),
+            transaction.getTimeStamp(),
+            transaction.getMetadata().getTransactionId(),
+            transaction.getMetadata().getDescription()
+        );
+    }
+}
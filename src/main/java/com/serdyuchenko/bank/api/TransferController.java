@@ -0,0 +1,156 @@
+package com.serdyuchenko.bank.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.serdyuchenko.bank.api.dto.OperationResultDto;
+import com.serdyuchenko.bank.api.dto.TransactionDto;
+import com.serdyuchenko.bank.api.dto.TransferRequestDto;
+import com.serdyuchenko.bank.cluster.ShardRouter;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.service.TransferRequest;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.transaction.Transaction;
+
+/**
+ * Money movement endpoints. In a sharded deployment transfers go through the {@link ShardRouter}, so either
+ * account may live on any node; lookups and reversals by transfer id see the legs kept on the node asked.
+ *
+ * @author Anton Serdyuchenko
+ */
+@RestController
+@RequestMapping("/api/transfers")
+public class TransferController {
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    private final BankService bankService;
+    /**
+     * Router of a sharded deployment, or {@code null} on a single node.
+     */
+    private final ShardRouter router;
+
+    /**
+     * Constructs the controller with its collaborators injected by Spring.
+     *
+     * @param bankService application service that owns account orchestration logic
+     * @param router router of a sharded deployment, if this node is part of one
+     */
+    public TransferController(BankService bankService, ObjectProvider<ShardRouter> router) {
+        this.bankService = bankService;
+        this.router = router.getIfAvailable();
+    }
+
+    /**
+     * Transfers money once per id: repeating the request, e.g. after a timeout or a 503 for a transfer still
+     * pending between nodes, never moves the money twice and finishes a pending transfer.
+     *
+     * @param transferId client-chosen id of the transfer, recorded on both legs
+     * @param transfer both accounts and the amount
+     * @return result of the transfer
+     */
+    @PutMapping("/{transferId}")
+    public ResponseEntity<OperationResultDto> transfer(@PathVariable String transferId,
+                                                       @RequestBody TransferRequestDto transfer) {
+        OperationResult result = router != null
+            ? router.transferMoney(transferId, transfer.sourcePassport(), transfer.sourceRequisite(),
+                transfer.destinationPassport(), transfer.destinationRequisite(), transfer.amount())
+            : bankService.transferOnce(transferId, transfer.sourcePassport(), transfer.sourceRequisite(),
+                transfer.destinationPassport(), transfer.destinationRequisite(), transfer.amount());
+        return respond(result);
+    }
+
+    /**
+     * Applies a batch of transfers in order and reports the outcome of every item. In a sharded deployment the
+     * items are routed one by one.
+     *
+     * @param transfers transfers to apply; at most {@value #MAX_BATCH_SIZE} items
+     * @return per-item results in request order, or 400 when the batch is empty or too large
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<OperationResultDto>> batch(@RequestBody List<TransferRequestDto> transfers) {
+        if (transfers == null || transfers.isEmpty() || transfers.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (router != null) {
+            List<OperationResultDto> body = new ArrayList<>(transfers.size());
+            for (TransferRequestDto dto : transfers) {
+                body.add(OperationResultDto.of(router.transferMoney(dto.sourcePassport(), dto.sourceRequisite(),
+                    dto.destinationPassport(), dto.destinationRequisite(), dto.amount())));
+            }
+            return ResponseEntity.ok(body);
+        }
+        List<TransferRequest> requests = new ArrayList<>(transfers.size());
+        for (TransferRequestDto dto : transfers) {
+            requests.add(new TransferRequest(dto.sourcePassport(), dto.sourceRequisite(),
+                dto.destinationPassport(), dto.destinationRequisite(), dto.amount()));
+        }
+        List<OperationResult> results = bankService.transferBatch(requests);
+        List<OperationResultDto> body = new ArrayList<>(results.size());
+        for (OperationResult result : results) {
+            body.add(OperationResultDto.of(result));
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Looks up a transfer by its id.
+     *
+     * @param transferId id shared by the ledger entries of the transfer
+     * @return both legs of the transfer, then the legs of its reversal if any; 404 when the id is unknown
+     */
+    @GetMapping("/{transferId}")
+    public ResponseEntity<List<TransactionDto>> find(@PathVariable String transferId) {
+        List<Transaction> legs = bankService.findByTransactionId(transferId);
+        if (legs.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<TransactionDto> body = new ArrayList<>(legs.size());
+        for (Transaction leg : legs) {
+            body.add(StatementController.toDto(leg));
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Reverses a transfer, moving the amount back to the source account.
+     *
+     * @param transferId id of the transfer to reverse
+     * @return result of the reversal; 404 when the transfer is unknown, 409 when it was already reversed or
+     *     cannot be covered by the destination account
+     */
+    @PostMapping("/{transferId}/reversal")
+    public ResponseEntity<OperationResultDto> reverse(@PathVariable String transferId) {
+        OperationResult result = bankService.reverseTransfer(transferId);
+        return respond(result);
+    }
+
+    /**
+     * @param result outcome of a money operation
+     * @return 200 on success; otherwise 404 for unknown accounts or transactions, 503 while the service is
+     *     unavailable, 400 for invalid amounts and 409 for any other refusal, always with the result in the body
+     */
+    static ResponseEntity<OperationResultDto> respond(OperationResult result) {
+        OperationResultDto body = OperationResultDto.of(result);
+        if (result.isSuccess()) {
+            return ResponseEntity.ok(body);
+        }
+        HttpStatus status = switch (result.getFailureReason()) {
+            case TRANSACTION_NOT_FOUND, ACCOUNT_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case UNAVAILABLE -> HttpStatus.SERVICE_UNAVAILABLE;
+            case INVALID_AMOUNT -> HttpStatus.BAD_REQUEST;
+            default -> HttpStatus.CONFLICT;
+        };
+        return ResponseEntity.status(status).body(body);
+    }
+}
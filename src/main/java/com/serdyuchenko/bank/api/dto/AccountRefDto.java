@@ -0,0 +1,9 @@
+package com.serdyuchenko.bank.api.dto;
+
+/**
+ * Request item identifying one account for bulk lookups.
+ * @author Anton Serdyuchenko
+ */
+public record AccountRefDto(String passport, String requisite) {
+
+}
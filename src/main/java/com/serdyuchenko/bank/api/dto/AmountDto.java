@@ -0,0 +1,9 @@
+package com.serdyuchenko.bank.api.dto;
+
+/**
+ * Request payload of a deposit or withdrawal.
+ * @author Anton Serdyuchenko
+ */
+public record AmountDto(double amount) {
+
+}
@@ -0,0 +1,21 @@
+package com.serdyuchenko.bank.api.dto;
+
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Response payload describing the outcome of a single money movement.
+ * @author Anton Serdyuchenko
+ */
+public record OperationResultDto(boolean success, String message, Double resultingBalance,
+                                 FailureReason failureReason) {
+
+    /**
+     * @param result service result
+     * @return payload carrying the same outcome
+     */
+    public static OperationResultDto of(OperationResult result) {
+        return new OperationResultDto(result.isSuccess(), result.getMessage(), result.getResultingBalance(),
+            result.getFailureReason());
+    }
+}
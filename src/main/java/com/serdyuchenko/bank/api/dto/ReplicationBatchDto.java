@@ -0,0 +1,17 @@
+package com.serdyuchenko.bank.api.dto;
+
+import java.util.List;
+
+/**
+ * Answer to a follower's poll of the primary's replication log.
+ *
+ * @param epoch identifier of the primary's current run; changes when the primary restarts
+ * @param lastSequence sequence of the newest record on the primary when the answer was built
+ * @param waitedMillis how long the primary waited for a record before answering
+ * @param records records after the follower's position, oldest first
+ * @author Anton Serdyuchenko
+ */
+public record ReplicationBatchDto(String epoch, long lastSequence, long waitedMillis,
+                                  List<ReplicationRecordDto> records) {
+
+}
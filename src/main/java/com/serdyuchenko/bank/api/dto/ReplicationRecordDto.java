@@ -0,0 +1,45 @@
+package com.serdyuchenko.bank.api.dto;
+
+import java.time.Instant;
+
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.replication.ReplicationRecord;
+import com.serdyuchenko.bank.transaction.Transaction;
+
+/**
+ * One replicated change on the wire. {@code kind} is a {@link RegistryEvent.Type} name for registry changes,
+ * whose fields are the {@code passport}..{@code openingBalanceMinor} ones, or {@code ENTRY} for a ledger entry,
+ * whose fields are the {@code id}..{@code description} ones; the others are {@code null}. Amounts are in minor
+ * units, so nothing is lost to rounding on the way.
+ *
+ * @author Anton Serdyuchenko
+ */
+public record ReplicationRecordDto(long sequence, long appendedAtMillis, String kind,
+                                   String passport, String username, String requisite, Long openingBalanceMinor,
+                                   String id, String accountId, String type, String currency, Long amountMinor,
+                                   Long balanceAfterMinor, Instant timeStamp, String transactionId,
+                                   String description) {
+    /**
+     * Value of {@link #kind()} for a ledger entry.
+     */
+    public static final String ENTRY = "ENTRY";
+
+    /**
+     * @param record record of the replication log
+     * @return payload carrying the same change
+     */
+    public static ReplicationRecordDto of(ReplicationRecord record) {
+        RegistryEvent event = record.getRegistryEvent();
+        if (event != null) {
+            return new ReplicationRecordDto(record.getSequence(), record.getAppendedAtMillis(), event.getType().name(),
+                event.getPassport(), event.getUsername(), event.getRequisite(), event.getOpeningBalanceMinor(),
+                null, null, null, null, null, null, null, null, null);
+        }
+        Transaction entry = record.getEntry();
+        return new ReplicationRecordDto(record.getSequence(), record.getAppendedAtMillis(), ENTRY,
+            null, null, null, null,
+            entry.getId(), entry.getAccountId(), entry.getType().name(), entry.getCurrency(), entry.getAmountMinor(),
+            entry.getBalanceAfterMinor(), entry.getTimeStamp(), entry.getMetadata().getTransactionId(),
+            entry.getMetadata().getDescription());
+    }
+}
@@ -0,0 +1,12 @@
+package com.serdyuchenko.bank.api.dto;
+
+import java.util.List;
+
+/**
+ * Response payload for paged statement reads.
+ * @author Anton Serdyuchenko
+ */
+public record StatementPageDto(String requisite, long offset, long total, boolean hasMore,
+                               List<TransactionDto> entries) {
+
+}
@@ -0,0 +1,13 @@
+package com.serdyuchenko.bank.api.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Statement line describing one ledger entry.
+ * @author Anton Serdyuchenko
+ */
+public record TransactionDto(String id, String type, BigDecimal amount, String currency, Instant timeStamp,
+                             String transactionId, String description) {
+
+}
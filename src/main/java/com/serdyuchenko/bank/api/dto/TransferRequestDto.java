@@ -0,0 +1,10 @@
+package com.serdyuchenko.bank.api.dto;
+
+/**
+ * Request payload for a transfer, or one item of a batch transfer.
+ * @author Anton Serdyuchenko
+ */
+public record TransferRequestDto(String sourcePassport, String sourceRequisite,
+                                 String destinationPassport, String destinationRequisite, double amount) {
+
+}
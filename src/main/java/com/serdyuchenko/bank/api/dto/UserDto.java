@@ -0,0 +1,9 @@
+package com.serdyuchenko.bank.api.dto;
+
+/**
+ * Request payload registering a user.
+ * @author Anton Serdyuchenko
+ */
+public record UserDto(String passport, String username) {
+
+}
@@ -0,0 +1,82 @@
+package com.serdyuchenko.bank.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Consistent-hash ring placing string keys on nodes. Every node is hashed onto the ring at
+ * {@code virtualNodes} points, and a key belongs to the first point at or after its own hash. Adding or
+ * removing a node therefore moves only the keys between its points and their predecessors, about
+ * {@code 1 / nodes} of all keys, and the virtual points keep the share of each node close to even.
+ * Immutable; a changed membership is a new ring.
+ *
+ * @param <N> node type.
+ * @author Anton Serdyuchenko
+ */
+public final class ConsistentHashRing<N> {
+    private final NavigableMap<Long, N> points = new TreeMap<>();
+    private final List<N> nodes;
+
+    /**
+     * @param nodes nodes on the ring; their names must be unique.
+     * @param name name of a node, hashed to place its points.
+     * @param virtualNodes number of points per node.
+     */
+    public ConsistentHashRing(List<N> nodes, Function<N, String> name, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Ring needs at least one node");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual node count must be a positive number");
+        }
+        this.nodes = List.copyOf(nodes);
+        for (N node : this.nodes) {
+            String nodeName = name.apply(node);
+            for (int i = 0; i < virtualNodes; i++) {
+                N previous = points.putIfAbsent(hash(nodeName + "#" + i), node);
+                if (previous != null && previous != node) {
+                    throw new IllegalArgumentException("Hash collision between nodes " + nodeName + " and "
+                        + name.apply(previous));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param key key to place, e.g. a passport.
+     * @return node owning the key.
+     */
+    public N nodeFor(String key) {
+        Map.Entry<Long, N> point = points.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * @return nodes on the ring, in the order given.
+     */
+    public List<N> nodes() {
+        return nodes;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that keys differing only in the
+     * last characters still land far apart.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
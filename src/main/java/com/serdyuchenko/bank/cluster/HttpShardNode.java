@@ -0,0 +1,157 @@
+package com.serdyuchenko.bank.cluster;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.OptionalDouble;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.serdyuchenko.bank.api.dto.AccountBalanceDto;
+import com.serdyuchenko.bank.api.dto.AmountDto;
+import com.serdyuchenko.bank.api.dto.OperationResultDto;
+import com.serdyuchenko.bank.api.dto.TransferRequestDto;
+import com.serdyuchenko.bank.api.dto.UserDto;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * {@link ShardNode} on another process, reached over the shard endpoints of {@code ShardController} and the
+ * public balance endpoint. The node must run with {@code app.cluster.enabled=true}. A request that times out,
+ * fails to connect or gets no readable answer becomes an {@link FailureReason#UNAVAILABLE UNAVAILABLE} result.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class HttpShardNode implements ShardNode {
+    private static final String SHARD = "/internal/shard";
+
+    private final String id;
+    private final RestClient client;
+
+    /**
+     * @param id name of the node.
+     * @param baseUrl base URL of the node, e.g. {@code http://10.0.0.2:8080}.
+     * @param timeout connect and read timeout of every request.
+     */
+    public HttpShardNode(String id, String baseUrl, Duration timeout) {
+        this.id = Objects.requireNonNull(id, "Node id cannot be null");
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+            HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.client = RestClient.builder()
+            .baseUrl(baseUrl)
+            .requestFactory(requestFactory)
+            .build();
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public void addUser(User user) {
+        exchange(SHARD + "/users", new UserDto(user.getPassport(), user.getUsername()));
+    }
+
+    @Override
+    public void addAccount(String passport, Account account) {
+        exchange(SHARD + "/users/{passport}/accounts",
+            new AccountBalanceDto(account.getRequisite(), account.getBalance()), passport);
+    }
+
+    @Override
+    public OptionalDouble balance(String passport, String requisite) {
+        try {
+            ResponseEntity<AccountBalanceDto> response = client.get()
+                .uri("/api/accounts/{passport}/{requisite}/balance", passport, requisite)
+                .retrieve()
+                .onStatus(status -> status.value() == HttpStatus.NOT_FOUND.value(), (request, reply) -> { })
+                .toEntity(AccountBalanceDto.class);
+            AccountBalanceDto body = response.getBody();
+            return body != null ? OptionalDouble.of(body.balance()) : OptionalDouble.empty();
+        } catch (RestClientException e) {
+            throw new IllegalStateException("Node " + id + " is unavailable", e);
+        }
+    }
+
+    @Override
+    public OperationResult depositFunds(String passport, String requisite, double amount) {
+        return operation(SHARD + "/accounts/{passport}/{requisite}/deposit", new AmountDto(amount), passport,
+            requisite);
+    }
+
+    @Override
+    public OperationResult withdrawFunds(String passport, String requisite, double amount) {
+        return operation(SHARD + "/accounts/{passport}/{requisite}/withdrawal", new AmountDto(amount), passport,
+            requisite);
+    }
+
+    @Override
+    public OperationResult transferMoney(String transferId, String sourcePassport, String sourceRequisite,
+                                         String destinationPassport, String destinationRequisite, double amount) {
+        return operation(SHARD + "/transfers/{transferId}", new TransferRequestDto(sourcePassport, sourceRequisite,
+            destinationPassport, destinationRequisite, amount), transferId);
+    }
+
+    @Override
+    public OperationResult reserveTransfer(String transferId, String passport, String requisite,
+                                           String destinationRequisite, double amount) {
+        return operation(SHARD + "/transfers/{transferId}/reservation", new TransferRequestDto(passport, requisite,
+            null, destinationRequisite, amount), transferId);
+    }
+
+    @Override
+    public OperationResult commitTransfer(String transferId, String passport, String requisite,
+                                          String sourceRequisite, double amount) {
+        return operation(SHARD + "/transfers/{transferId}/commit", new TransferRequestDto(null, sourceRequisite,
+            passport, requisite, amount), transferId);
+    }
+
+    @Override
+    public OperationResult compensateTransfer(String transferId, String passport, String requisite) {
+        return operation(SHARD + "/transfers/{transferId}/compensation", new TransferRequestDto(passport,
+            requisite, null, null, 0D), transferId);
+    }
+
+    /**
+     * Posts a registry change; any answer but 2xx is a failure.
+     */
+    private void exchange(String uri, Object body, Object... variables) {
+        try {
+            client.post().uri(uri, variables).body(body).retrieve().toBodilessEntity();
+        } catch (RestClientException e) {
+            throw new IllegalStateException("Node " + id + " rejected " + uri, e);
+        }
+    }
+
+    /**
+     * Posts a money operation. The shard endpoints answer refusals with an error status and the result in the
+     * body, so statuses are not treated as errors here; only a missing or unreadable body is.
+     */
+    private OperationResult operation(String uri, Object body, Object... variables) {
+        OperationResultDto result;
+        try {
+            result = client.post()
+                .uri(uri, variables)
+                .body(body)
+                .retrieve()
+                .onStatus(status -> true, (request, reply) -> { })
+                .body(OperationResultDto.class);
+        } catch (RestClientException e) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, "Node " + id + " is unavailable.");
+        }
+        if (result == null || (!result.success() && result.failureReason() == null)) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, "Node " + id + " gave no result.");
+        }
+        return result.success()
+            ? OperationResult.success(result.message(), result.resultingBalance())
+            : OperationResult.failure(result.failureReason(), result.message());
+    }
+}
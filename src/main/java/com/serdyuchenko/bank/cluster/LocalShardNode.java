@@ -0,0 +1,88 @@
+package com.serdyuchenko.bank.cluster;
+
+import java.util.Objects;
+import java.util.OptionalDouble;
+
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * {@link ShardNode} backed by a {@link BankService} in this JVM, for tests and in-process benchmarks.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class LocalShardNode implements ShardNode {
+    private final String id;
+    private final BankService bank;
+    private final TransferSteps steps;
+
+    /**
+     * @param id name of the node.
+     * @param bank service holding the node's users and ledger.
+     */
+    public LocalShardNode(String id, BankService bank) {
+        this.id = Objects.requireNonNull(id, "Node id cannot be null");
+        this.bank = Objects.requireNonNull(bank, "BankService cannot be null");
+        this.steps = new TransferSteps(bank);
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public void addUser(User user) {
+        bank.addUser(user);
+    }
+
+    @Override
+    public void addAccount(String passport, Account account) {
+        if (bank.findByPassport(passport) == null) {
+            throw new IllegalStateException("User " + passport + " is not registered on node " + id);
+        }
+        bank.addAccount(passport, account);
+    }
+
+    @Override
+    public OptionalDouble balance(String passport, String requisite) {
+        Account account = bank.findByRequisite(passport, requisite);
+        return account != null ? OptionalDouble.of(account.getBalance()) : OptionalDouble.empty();
+    }
+
+    @Override
+    public OperationResult depositFunds(String passport, String requisite, double amount) {
+        return bank.depositFunds(passport, requisite, amount);
+    }
+
+    @Override
+    public OperationResult withdrawFunds(String passport, String requisite, double amount) {
+        return bank.withdrawFunds(passport, requisite, amount);
+    }
+
+    @Override
+    public OperationResult transferMoney(String transferId, String sourcePassport, String sourceRequisite,
+                                         String destinationPassport, String destinationRequisite, double amount) {
+        return bank.transferOnce(transferId, sourcePassport, sourceRequisite, destinationPassport,
+            destinationRequisite, amount);
+    }
+
+    @Override
+    public OperationResult reserveTransfer(String transferId, String passport, String requisite,
+                                           String destinationRequisite, double amount) {
+        return steps.reserveTransfer(transferId, passport, requisite, destinationRequisite, amount);
+    }
+
+    @Override
+    public OperationResult commitTransfer(String transferId, String passport, String requisite,
+                                          String sourceRequisite, double amount) {
+        return steps.commitTransfer(transferId, passport, requisite, sourceRequisite, amount);
+    }
+
+    @Override
+    public OperationResult compensateTransfer(String transferId, String passport, String requisite) {
+        return steps.compensateTransfer(transferId, passport, requisite);
+    }
+}
@@ -0,0 +1,78 @@
+package com.serdyuchenko.bank.cluster;
+
+import java.util.OptionalDouble;
+
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * One node of a sharded deployment, running its own {@code BankService} and ledger over the users placed on it.
+ * Money operations report an unreachable node as a {@link com.serdyuchenko.bank.shared.FailureReason#UNAVAILABLE}
+ * result rather than an exception; such an operation may or may not have been applied, and every operation
+ * taking a transfer id is safe to repeat.
+ *
+ * @author Anton Serdyuchenko
+ */
+public interface ShardNode {
+    /**
+     * @return name of the node, unique within the cluster; places the node on the hash ring.
+     */
+    String id();
+
+    /**
+     * @param user user to register on this node.
+     * @throws IllegalStateException when the node refused or could not be reached.
+     */
+    void addUser(User user);
+
+    /**
+     * @param passport owner of the account; must be registered on this node.
+     * @param account account to open.
+     * @throws IllegalStateException when the node refused or could not be reached.
+     */
+    void addAccount(String passport, Account account);
+
+    /**
+     * @param passport owner of the account.
+     * @param requisite account requisite.
+     * @return current balance; empty when the account is unknown.
+     * @throws IllegalStateException when the node could not be reached.
+     */
+    OptionalDouble balance(String passport, String requisite);
+
+    /**
+     * @see com.serdyuchenko.bank.service.BankService#depositFunds(String, String, double)
+     */
+    OperationResult depositFunds(String passport, String requisite, double amount);
+
+    /**
+     * @see com.serdyuchenko.bank.service.BankService#withdrawFunds(String, String, double)
+     */
+    OperationResult withdrawFunds(String passport, String requisite, double amount);
+
+    /**
+     * Transfer between two accounts both placed on this node, applied once per transfer id.
+     *
+     * @see com.serdyuchenko.bank.service.BankService#transferOnce
+     */
+    OperationResult transferMoney(String transferId, String sourcePassport, String sourceRequisite,
+                                  String destinationPassport, String destinationRequisite, double amount);
+
+    /**
+     * @see TransferSteps#reserveTransfer
+     */
+    OperationResult reserveTransfer(String transferId, String passport, String requisite,
+                                    String destinationRequisite, double amount);
+
+    /**
+     * @see TransferSteps#commitTransfer
+     */
+    OperationResult commitTransfer(String transferId, String passport, String requisite, String sourceRequisite,
+                                   double amount);
+
+    /**
+     * @see TransferSteps#compensateTransfer
+     */
+    OperationResult compensateTransfer(String transferId, String passport, String requisite);
+}
@@ -0,0 +1,182 @@
+package com.serdyuchenko.bank.cluster;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.function.Supplier;
+
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.IdGenerator;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Routes requests to the {@link ShardNode} owning the passport on a {@link ConsistentHashRing}; every account of
+ * a user lives on the user's node. Transfers within one node are forwarded with their id. A transfer between two
+ * nodes runs as reserve/commit/compensate:
+ * <ol>
+ *     <li>reserve: the source node debits the source account, and the amount is held by the transfer;</li>
+ *     <li>commit: the destination node credits the destination account;</li>
+ *     <li>compensate: only if the destination node refused the credit, the source node pays the amount back.</li>
+ * </ol>
+ * Every node call, a transfer within one node included, is applied once per transfer id, as recognised by the
+ * leg the node's ledger recorded under it, and a call that came back {@link FailureReason#UNAVAILABLE UNAVAILABLE}
+ * is retried up to {@code maxAttempts} times. If a node stays unreachable, the transfer is reported as pending
+ * with its id: the amount is held by the transfer, never lost or duplicated, and calling
+ * {@link #transferMoney(String, String, String, String, String, double)} again with that id finishes it. An
+ * unreachable destination is never compensated, since it may have applied the credit.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class ShardRouter {
+    private final ConsistentHashRing<ShardNode> ring;
+    private final IdGenerator idGenerator;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    /**
+     * @param nodes nodes of the cluster.
+     * @param virtualNodes points per node on the hash ring.
+     * @param idGenerator generator of transfer ids.
+     * @param maxAttempts attempts per protocol step while the node is unavailable.
+     * @param retryBackoff pause between attempts.
+     */
+    public ShardRouter(List<ShardNode> nodes, int virtualNodes, IdGenerator idGenerator, int maxAttempts,
+                       Duration retryBackoff) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Attempt count must be a positive number");
+        }
+        this.ring = new ConsistentHashRing<>(nodes, ShardNode::id, virtualNodes);
+        this.idGenerator = Objects.requireNonNull(idGenerator, "IdGenerator cannot be null");
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = Objects.requireNonNull(retryBackoff, "Retry backoff cannot be null");
+    }
+
+    /**
+     * @param passport passport of a user.
+     * @return node holding the user and their accounts.
+     */
+    public ShardNode nodeFor(String passport) {
+        return ring.nodeFor(passport);
+    }
+
+    /**
+     * @param user user to register on their node.
+     */
+    public void addUser(User user) {
+        nodeFor(user.getPassport()).addUser(user);
+    }
+
+    /**
+     * @param passport owner of the account.
+     * @param account account to open on the owner's node.
+     */
+    public void addAccount(String passport, Account account) {
+        nodeFor(passport).addAccount(passport, account);
+    }
+
+    /**
+     * @param passport owner of the account.
+     * @param requisite account requisite.
+     * @return current balance; empty when the account is unknown.
+     */
+    public OptionalDouble balance(String passport, String requisite) {
+        return nodeFor(passport).balance(passport, requisite);
+    }
+
+    /**
+     * @see com.serdyuchenko.bank.service.BankService#depositFunds(String, String, double)
+     */
+    public OperationResult depositFunds(String passport, String requisite, double amount) {
+        return nodeFor(passport).depositFunds(passport, requisite, amount);
+    }
+
+    /**
+     * @see com.serdyuchenko.bank.service.BankService#withdrawFunds(String, String, double)
+     */
+    public OperationResult withdrawFunds(String passport, String requisite, double amount) {
+        return nodeFor(passport).withdrawFunds(passport, requisite, amount);
+    }
+
+    /**
+     * Transfers money under a fresh transfer id.
+     *
+     * @see #transferMoney(String, String, String, String, String, double)
+     */
+    public OperationResult transferMoney(String sourcePassport, String sourceRequisite,
+                                         String destinationPassport, String destinationRequisite, double amount) {
+        return transferMoney(idGenerator.nextId(), sourcePassport, sourceRequisite, destinationPassport,
+            destinationRequisite, amount);
+    }
+
+    /**
+     * Transfers money between two accounts on any nodes. Calling it again with the same id after an
+     * {@link FailureReason#UNAVAILABLE UNAVAILABLE} result resumes the transfer where it stopped.
+     *
+     * @param transferId id of the transfer, recorded on every leg.
+     * @param sourcePassport user's passport from which funds will be transferred.
+     * @param sourceRequisite account requisite from which funds will be transferred.
+     * @param destinationPassport user's passport receiving the funds.
+     * @param destinationRequisite account requisite receiving the funds.
+     * @param amount amount of money to transfer.
+     * @return result with the source balance after the transfer, the reason it was refused, or
+     *     {@link FailureReason#UNAVAILABLE UNAVAILABLE} while it is pending.
+     */
+    public OperationResult transferMoney(String transferId, String sourcePassport, String sourceRequisite,
+                                         String destinationPassport, String destinationRequisite, double amount) {
+        ShardNode source = nodeFor(sourcePassport);
+        ShardNode destination = nodeFor(destinationPassport);
+        if (source == destination) {
+            return withRetries(() -> source.transferMoney(transferId, sourcePassport, sourceRequisite,
+                destinationPassport, destinationRequisite, amount));
+        }
+        OperationResult reserved = withRetries(() -> source.reserveTransfer(transferId, sourcePassport,
+            sourceRequisite, destinationRequisite, amount));
+        if (!reserved.isSuccess()) {
+            return reserved.getFailureReason() == FailureReason.UNAVAILABLE ? pending(transferId) : reserved;
+        }
+        OperationResult committed = withRetries(() -> destination.commitTransfer(transferId, destinationPassport,
+            destinationRequisite, sourceRequisite, amount));
+        if (committed.isSuccess()) {
+            return OperationResult.success("Transfer completed successfully.", reserved.getResultingBalance());
+        }
+        if (committed.getFailureReason() == FailureReason.UNAVAILABLE) {
+            return pending(transferId);
+        }
+        OperationResult compensated = withRetries(() -> source.compensateTransfer(transferId, sourcePassport,
+            sourceRequisite));
+        if (!compensated.isSuccess()) {
+            return pending(transferId);
+        }
+        return committed;
+    }
+
+    /**
+     * @return nodes of the cluster.
+     */
+    public List<ShardNode> nodes() {
+        return ring.nodes();
+    }
+
+    private OperationResult withRetries(Supplier<OperationResult> step) {
+        OperationResult result = step.get();
+        for (int attempt = 1; attempt < maxAttempts && result.getFailureReason() == FailureReason.UNAVAILABLE;
+             attempt++) {
+            try {
+                Thread.sleep(retryBackoff.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return result;
+            }
+            result = step.get();
+        }
+        return result;
+    }
+
+    private static OperationResult pending(String transferId) {
+        return OperationResult.failure(FailureReason.UNAVAILABLE,
+            "Transfer " + transferId + " is pending; retry it with the same id.");
+    }
+}
@@ -0,0 +1,137 @@
+package com.serdyuchenko.bank.cluster;
+
+import java.util.Objects;
+
+import com.serdyuchenko.bank.domain.MinorUnits;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Steps of a transfer between accounts on different nodes, each run by the node holding its account while it
+ * owns the account: {@link #reserveTransfer reserve} debits the source, {@link #commitTransfer commit} credits
+ * the destination and {@link #compensateTransfer compensate} gives a reserved amount back. Every step records
+ * its leg under the transfer id, which is how a repeat of the step finds it was already applied.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class TransferSteps {
+    private final BankService bank;
+
+    /**
+     * @param bank service holding the node's accounts and ledger.
+     */
+    public TransferSteps(BankService bank) {
+        this.bank = Objects.requireNonNull(bank, "BankService cannot be null");
+    }
+
+    /**
+     * First step: debits the source account and records its {@link TransactionType#TRANSFER} leg, so the amount
+     * is held by the transfer until the destination node commits it or this node compensates it. Repeating the
+     * call with the same id returns success without debiting again; after {@link #compensateTransfer} it is
+     * refused, so a late retry cannot reopen the transfer. A repeat with another amount or destination is refused
+     * with {@link FailureReason#IDEMPOTENCY_CONFLICT}.
+     *
+     * @param transferId id of the transfer, shared by every leg on every node.
+     * @param passport passport owning the source account.
+     * @param requisite source account requisite.
+     * @param destinationRequisite destination account requisite, for the statement text.
+     * @param amount amount of money to transfer.
+     * @return {@link OperationResult} with the source balance after the debit, or the reason it was refused.
+     */
+    public OperationResult reserveTransfer(String transferId, String passport, String requisite,
+                                           String destinationRequisite, double amount) {
+        OperationResult refusal = check(transferId, amount);
+        if (refusal != null) {
+            return refusal;
+        }
+        long minor = MinorUnits.fromDouble(amount);
+        String description = "Transfer to account " + destinationRequisite;
+        return bank.onAccount(passport, requisite, account -> {
+            OperationResult conflict = account.checkTransfer(transferId, destinationRequisite, minor, description);
+            if (conflict != null) {
+                return conflict;
+            }
+            if (account.leg(transferId, TransactionType.REVERSAL) != null) {
+                return OperationResult.failure(FailureReason.INVALID_REQUEST, "Transfer has been compensated.");
+            }
+            if (account.leg(transferId, TransactionType.TRANSFER) != null) {
+                return OperationResult.success("Transfer already reserved.", account.getBalance());
+            }
+            OperationResult debit = account.debit(minor, TransactionType.TRANSFER, transferId, description);
+            return debit != null ? debit : OperationResult.success("Transfer reserved.", account.getBalance());
+        });
+    }
+
+    /**
+     * Second step, on the destination's node: credits the destination account and records its
+     * {@link TransactionType#TRANSFER} leg. Repeating the call with the same id returns success without
+     * crediting again; a repeat with another amount or source is refused with
+     * {@link FailureReason#IDEMPOTENCY_CONFLICT}.
+     *
+     * @param transferId id of the transfer, shared by every leg on every node.
+     * @param passport passport owning the destination account.
+     * @param requisite destination account requisite.
+     * @param sourceRequisite source account requisite, for the statement text.
+     * @param amount amount of money to transfer.
+     * @return {@link OperationResult} with the destination balance after the credit, or the reason it was refused.
+     */
+    public OperationResult commitTransfer(String transferId, String passport, String requisite,
+                                          String sourceRequisite, double amount) {
+        OperationResult refusal = check(transferId, amount);
+        if (refusal != null) {
+            return refusal;
+        }
+        long minor = MinorUnits.fromDouble(amount);
+        String description = "Transfer from account " + sourceRequisite;
+        return bank.onAccount(passport, requisite, account -> {
+            OperationResult conflict = account.checkTransfer(transferId, sourceRequisite, minor, description);
+            if (conflict != null) {
+                return conflict;
+            }
+            if (account.leg(transferId, TransactionType.TRANSFER) != null) {
+                return OperationResult.success("Transfer already committed.", account.getBalance());
+            }
+            OperationResult credit = account.credit(minor, TransactionType.TRANSFER, transferId, description);
+            return credit != null ? credit : OperationResult.success("Transfer committed.", account.getBalance());
+        });
+    }
+
+    /**
+     * Compensates a reserved transfer whose destination refused the credit: the held amount goes back to the
+     * source account under a {@link TransactionType#REVERSAL} leg. Succeeds without effect when nothing was
+     * reserved under the id or it was already compensated.
+     *
+     * @param transferId id of the transfer, shared by every leg on every node.
+     * @param passport passport owning the source account.
+     * @param requisite source account requisite.
+     * @return {@link OperationResult} with the source balance after the compensation.
+     */
+    public OperationResult compensateTransfer(String transferId, String passport, String requisite) {
+        if (transferId == null || transferId.isBlank()) {
+            return blankId();
+        }
+        return bank.onAccount(passport, requisite, account -> {
+            Transaction reserved = account.leg(transferId, TransactionType.TRANSFER);
+            if (reserved == null || account.leg(transferId, TransactionType.REVERSAL) != null) {
+                return OperationResult.success("Nothing to compensate.", account.getBalance());
+            }
+            OperationResult credit = account.credit(reserved.getAmountMinor(), TransactionType.REVERSAL,
+                transferId, "Cancelled transfer " + transferId);
+            return credit != null ? credit : OperationResult.success("Transfer compensated.", account.getBalance());
+        });
+    }
+
+    private static OperationResult check(String transferId, double amount) {
+        if (transferId == null || transferId.isBlank()) {
+            return blankId();
+        }
+        return BankService.validateAmount(amount, "Transfer");
+    }
+
+    private static OperationResult blankId() {
+        return OperationResult.failure(FailureReason.INVALID_REQUEST, "Transfer id must not be blank.");
+    }
+}
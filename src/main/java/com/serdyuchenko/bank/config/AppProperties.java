@@ -1,6 +1,12 @@
 package com.serdyuchenko.bank.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  *
@@ -12,6 +18,50 @@ public class AppProperties {
      * Currency code used whenever no explicit account currency is set.
      */
     private String defaultCurrency = "USD";
+    /**
+     * Number of lock stripes guarding account balances; rounded up to a power of two.
+     */
+    private int lockStripes = 1024;
+    /**
+     * Transaction ledger storage settings.
+     */
+    private final Ledger ledger = new Ledger();
+    /**
+     * Idempotency-key cache settings.
+     */
+    private final Idempotency idempotency = new Idempotency();
+    /**
+     * Id generation settings.
+     */
+    private final Ids ids = new Ids();
+    /**
+     * Money-operation metrics settings.
+     */
+    private final Metrics metrics = new Metrics();
+    /**
+     * Startup recovery settings.
+     */
+    private final Recovery recovery = new Recovery();
+    /**
+     * Workflow engine and dispatch settings.
+     */
+    private final Workflow workflow = new Workflow();
+    /**
+     * Domain event bus settings.
+     */
+    private final Events events = new Events();
+    /**
+     * Execution model of money operations.
+     */
+    private final Execution execution = new Execution();
+    /**
+     * Settings of this node as a shard of a multi-node deployment.
+     */
+    private final Cluster cluster = new Cluster();
+    /**
+     * Settings of this instance as a replication primary or read-only follower.
+     */
+    private final Replication replication = new Replication();
 
     // Add more fields here as you expand the YAML.
 
@@ -22,4 +72,588 @@ public class AppProperties {
     public void setDefaultCurrency(String defaultCurrency) {
         this.defaultCurrency = defaultCurrency;
     }
+
+    public int getLockStripes() {
+        return lockStripes;
+    }
+
+    public void setLockStripes(int lockStripes) {
+        this.lockStripes = lockStripes;
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public Ids getIds() {
+        return ids;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    public Workflow getWorkflow() {
+        return workflow;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public Replication getReplication() {
+        return replication;
+    }
+
+    /**
+     * Settings under {@code app.ledger}.
+     */
+    public static class Ledger {
+        /**
+         * {@code memory} (default) keeps history in the heap; {@code columnar} keeps it in the heap as primitive
+         * columns, for large histories; {@code file} uses the memory-mapped segment log.
+         */
+        private String type = "memory";
+        /**
+         * Directory holding the segment files of the {@code file} ledger.
+         */
+        private Path directory = Path.of("data", "ledger");
+        /**
+         * Size of each segment file; a full segment is sealed and the next one is created.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        /**
+         * Group-commit window of the background fsync; zero forces every record inline.
+         */
+        private Duration fsyncInterval = Duration.ofMillis(10);
+        /**
+         * Whether writers wait for the fsync covering their record before returning.
+         */
+        private boolean awaitFsync;
+        /**
+         * Records between index checkpoints; a restart scans only the records after the latest one.
+         */
+        private long checkpointInterval = 100_000;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public Duration getFsyncInterval() {
+            return fsyncInterval;
+        }
+
+        public void setFsyncInterval(Duration fsyncInterval) {
+            this.fsyncInterval = fsyncInterval;
+        }
+
+        public boolean isAwaitFsync() {
+            return awaitFsync;
+        }
+
+        public void setAwaitFsync(boolean awaitFsync) {
+            this.awaitFsync = awaitFsync;
+        }
+
+        public long getCheckpointInterval() {
+            return checkpointInterval;
+        }
+
+        public void setCheckpointInterval(long checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+        }
+    }
+
+    /**
+     * Settings under {@code app.idempotency}.
+     */
+    public static class Idempotency {
+        /**
+         * How long the result of a keyed operation is replayed to retries.
+         */
+        private Duration ttl = Duration.ofHours(24);
+        /**
+         * Upper bound on remembered keys; the oldest keys are evicted first.
+         */
+        private int maxEntries = 100_000;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    /**
+     * Settings under {@code app.execution}.
+     */
+    public static class Execution {
+        /**
+         * {@code locking} (default) applies money operations on the calling thread under striped account locks;
+         * {@code partitioned} hands them to single-threaded partitions that own their accounts exclusively.
+         */
+        private String mode = "locking";
+        /**
+         * Number of partitions in {@code partitioned} mode; zero for one per available processor.
+         */
+        private int partitions;
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+    }
+
+    /**
+     * Settings under {@code app.cluster}.
+     */
+    public static class Cluster {
+        /**
+         * Exposes the node-to-node shard endpoints under {@code /internal/shard}, which let a router open
+         * accounts and drive cross-shard transfers on this node; off for a single-node deployment.
+         */
+        private boolean enabled;
+        /**
+         * Name of this node among {@link #nodes}. Once set, this node routes client requests through a
+         * {@code ShardRouter}, so clients may call any node of the cluster; unset, it only serves its own users.
+         */
+        private String nodeId;
+        /**
+         * Every node of the cluster, this one included: node name to base URL, e.g.
+         * {@code app.cluster.nodes.node-1=http://10.0.0.2:8080}.
+         */
+        private Map<String, String> nodes = new LinkedHashMap<>();
+        /**
+         * Points per node on the consistent-hash ring placing users on nodes; the same on every node.
+         */
+        private int virtualNodes = 64;
+        /**
+         * Connect and read timeout of requests to other nodes.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+        /**
+         * Attempts per step of a cross-node transfer while the other node is unavailable.
+         */
+        private int maxAttempts = 3;
+        /**
+         * Pause between those attempts.
+         */
+        private Duration retryBackoff = Duration.ofMillis(100);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public Map<String, String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(Map<String, String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+    }
+
+    /**
+     * Settings under {@code app.replication}.
+     */
+    public static class Replication {
+        /**
+         * {@code none} (default) for a standalone instance; {@code primary} to ship ledger and registry changes
+         * under {@code /internal/replication}; {@code follower} for a read-only copy of {@link #primaryUrl}.
+         */
+        private String role = "none";
+        /**
+         * Base URL of the primary a follower copies, e.g. {@code http://10.0.0.1:8080}.
+         */
+        private String primaryUrl;
+        /**
+         * Number of newest changes the primary keeps for followers; rounded up to a power of two. A follower
+         * further behind than this copies a snapshot of the primary again.
+         */
+        private int logCapacity = 1_048_576;
+        /**
+         * Maximum number of changes a follower fetches per poll.
+         */
+        private int batchSize = 1000;
+        /**
+         * How long the primary holds a follower's poll open when there is nothing new.
+         */
+        private Duration pollWait = Duration.ofMillis(500);
+        /**
+         * Staleness above which a follower answers {@code /api} requests with 503 instead of old data.
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public String getPrimaryUrl() {
+            return primaryUrl;
+        }
+
+        public void setPrimaryUrl(String primaryUrl) {
+            this.primaryUrl = primaryUrl;
+        }
+
+        public int getLogCapacity() {
+            return logCapacity;
+        }
+
+        public void setLogCapacity(int logCapacity) {
+            this.logCapacity = logCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollWait() {
+            return pollWait;
+        }
+
+        public void setPollWait(Duration pollWait) {
+            this.pollWait = pollWait;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+    }
+
+    /**
+     * Settings under {@code app.ids}.
+     */
+    public static class Ids {
+        /**
+         * {@code time-ordered} (default) for sortable Snowflake-style ids; {@code uuid} for random UUIDs.
+         */
+        private String generator = "time-ordered";
+        /**
+         * Node id embedded in time-ordered ids; must differ between nodes sharing a ledger.
+         */
+        private int nodeId;
+
+        public String getGenerator() {
+            return generator;
+        }
+
+        public void setGenerator(String generator) {
+            this.generator = generator;
+        }
+
+        public int getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(int nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    /**
+     * Settings under {@code app.metrics}.
+     */
+    public static class Metrics {
+        /**
+         * Time one money operation in this many for the latency histograms; counters see every operation.
+         */
+        private int latencySampleRate = 64;
+
+        public int getLatencySampleRate() {
+            return latencySampleRate;
+        }
+
+        public void setLatencySampleRate(int latencySampleRate) {
+            this.latencySampleRate = latencySampleRate;
+        }
+    }
+
+    /**
+     * Settings under {@code app.recovery}.
+     */
+    public static class Recovery {
+        /**
+         * Threads restoring accounts on startup; {@code 0} uses one per available processor.
+         */
+        private int parallelism;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * Settings under {@code app.workflow}.
+     */
+    public static class Workflow {
+        /**
+         * {@code noop} (default) starts nothing; {@code stub} simulates a remote engine taking {@code stubDelay}.
+         */
+        private String engine = "noop";
+        /**
+         * Round-trip time of every call to the {@code stub} engine.
+         */
+        private Duration stubDelay = Duration.ZERO;
+        /**
+         * {@code async} (default) queues events for a background dispatcher; {@code sync} calls the engine inline.
+         */
+        private String dispatch = "async";
+        /**
+         * Maximum number of queued events.
+         */
+        private int queueCapacity = 10_000;
+        /**
+         * Maximum number of events passed to the engine in one call.
+         */
+        private int batchSize = 100;
+        /**
+         * Engine calls per batch, including the first, before the batch is dropped.
+         */
+        private int maxAttempts = 5;
+        /**
+         * Wait before the first retry; doubled after every failed retry up to {@code maxBackoff}.
+         */
+        private Duration initialBackoff = Duration.ofMillis(100);
+        /**
+         * Upper bound on the wait between retries.
+         */
+        private Duration maxBackoff = Duration.ofSeconds(10);
+        /**
+         * How long a registration waits for space in a full queue before its event is rejected.
+         */
+        private Duration enqueueTimeout = Duration.ofMillis(50);
+        /**
+         * How long shutdown waits for queued events to be delivered.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+        public String getEngine() {
+            return engine;
+        }
+
+        public void setEngine(String engine) {
+            this.engine = engine;
+        }
+
+        public Duration getStubDelay() {
+            return stubDelay;
+        }
+
+        public void setStubDelay(Duration stubDelay) {
+            this.stubDelay = stubDelay;
+        }
+
+        public String getDispatch() {
+            return dispatch;
+        }
+
+        public void setDispatch(String dispatch) {
+            this.dispatch = dispatch;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getEnqueueTimeout() {
+            return enqueueTimeout;
+        }
+
+        public void setEnqueueTimeout(Duration enqueueTimeout) {
+            this.enqueueTimeout = enqueueTimeout;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+    }
+
+    /**
+     * Settings under {@code app.events}.
+     */
+    public static class Events {
+        /**
+         * Slots in the event ring; rounded up to a power of two. Publishers wait when a subscriber is this far behind.
+         */
+        private int bufferSize = 65_536;
+        /**
+         * What idle subscribers do: {@code sleeping} (default, wakes within about 50 µs), {@code blocking},
+         * {@code yielding} or {@code busy-spin}.
+         */
+        private String waitStrategy = "sleeping";
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public String getWaitStrategy() {
+            return waitStrategy;
+        }
+
+        public void setWaitStrategy(String waitStrategy) {
+            this.waitStrategy = waitStrategy;
+        }
+    }
 }
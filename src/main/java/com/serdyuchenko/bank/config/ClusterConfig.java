@@ -0,0 +1,71 @@
+package com.serdyuchenko.bank.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.serdyuchenko.bank.api.ShardForwardingFilter;
+import com.serdyuchenko.bank.cluster.HttpShardNode;
+import com.serdyuchenko.bank.cluster.LocalShardNode;
+import com.serdyuchenko.bank.cluster.ShardNode;
+import com.serdyuchenko.bank.cluster.ShardRouter;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.shared.IdGenerator;
+
+/**
+ * Wires a node of a sharded deployment that knows its peers ({@code app.cluster.nodeId} and
+ * {@code app.cluster.nodes}): a {@link ShardRouter} over this node's own service and the other nodes, used by the
+ * controllers for calls naming several accounts, and the {@link ShardForwardingFilter} passing single-account
+ * reads to the node holding the account.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cluster", name = "enabled", havingValue = "true")
+public class ClusterConfig {
+
+    /**
+     * @param properties application configuration properties
+     * @param bankService service of this node, called in-process
+     * @param idGenerator generator of transfer ids
+     * @return router over every configured node
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.cluster.nodeId:}' != ''")
+    ShardRouter shardRouter(AppProperties properties, BankService bankService, IdGenerator idGenerator) {
+        AppProperties.Cluster cluster = properties.getCluster();
+        if (!cluster.getNodes().containsKey(cluster.getNodeId())) {
+            throw new IllegalArgumentException("app.cluster.nodes must list this node: " + cluster.getNodeId());
+        }
+        List<ShardNode> nodes = new ArrayList<>(cluster.getNodes().size());
+        for (Map.Entry<String, String> node : cluster.getNodes().entrySet()) {
+            nodes.add(node.getKey().equals(cluster.getNodeId())
+                ? new LocalShardNode(node.getKey(), bankService)
+                : new HttpShardNode(node.getKey(), node.getValue(), cluster.getTimeout()));
+        }
+        return new ShardRouter(nodes, cluster.getVirtualNodes(), idGenerator, cluster.getMaxAttempts(),
+            cluster.getRetryBackoff());
+    }
+
+    /**
+     * @param router router placing users on nodes
+     * @param properties application configuration properties
+     * @return filter forwarding account reads to the node holding the account
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.cluster.nodeId:}' != ''")
+    FilterRegistrationBean<ShardForwardingFilter> shardForwardingFilter(ShardRouter router,
+                                                                        AppProperties properties) {
+        AppProperties.Cluster cluster = properties.getCluster();
+        FilterRegistrationBean<ShardForwardingFilter> registration = new FilterRegistrationBean<>(
+            new ShardForwardingFilter(router, cluster.getNodeId(), cluster.getNodes(), cluster.getTimeout()));
+        registration.addUrlPatterns("/api/accounts/*");
+        return registration;
+    }
+}
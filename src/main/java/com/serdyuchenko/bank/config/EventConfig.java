@@ -0,0 +1,33 @@
+package com.serdyuchenko.bank.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.serdyuchenko.bank.event.BankEventListener;
+import com.serdyuchenko.bank.event.RingBufferEventBus;
+import com.serdyuchenko.bank.event.WaitStrategy;
+
+/**
+ * Provides the {@link RingBufferEventBus} that {@code BankService} publishes money movements to, and subscribes
+ * every {@link BankEventListener} bean to it. Other components may also subscribe at runtime.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Configuration
+public class EventConfig {
+
+    /**
+     * @param properties application configuration properties
+     * @param listeners subscriber beans, each given its own thread
+     * @return event bus; closed by the container on shutdown after subscribers catch up
+     */
+    @Bean
+    RingBufferEventBus bankEventBus(AppProperties properties, ObjectProvider<BankEventListener> listeners) {
+        AppProperties.Events events = properties.getEvents();
+        RingBufferEventBus bus = new RingBufferEventBus(events.getBufferSize(),
+            WaitStrategy.of(events.getWaitStrategy()));
+        listeners.orderedStream().forEach(listener -> bus.subscribe(listener.getClass().getSimpleName(), listener));
+        return bus;
+    }
+}
@@ -0,0 +1,33 @@
+package com.serdyuchenko.bank.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.serdyuchenko.bank.shared.IdGenerator;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.shared.UuidIdGenerator;
+
+/**
+ * Provides the {@link IdGenerator} shared by the service and the ledger, selected by {@code app.ids.generator}.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * @param properties application configuration properties
+     * @return generator for transfer and ledger entry ids
+     */
+    @Bean
+    IdGenerator idGenerator(AppProperties properties) {
+        AppProperties.Ids ids = properties.getIds();
+        if ("uuid".equals(ids.getGenerator())) {
+            return new UuidIdGenerator();
+        }
+        if (!"time-ordered".equals(ids.getGenerator())) {
+            throw new IllegalArgumentException("Unknown id generator: " + ids.getGenerator());
+        }
+        return new TimeOrderedIdGenerator(ids.getNodeId());
+    }
+}
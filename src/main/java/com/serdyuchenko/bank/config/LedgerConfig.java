@@ -0,0 +1,67 @@
+package com.serdyuchenko.bank.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.serdyuchenko.bank.registry.FileRegistryEventLog;
+import com.serdyuchenko.bank.registry.InMemoryRegistryEventLog;
+import com.serdyuchenko.bank.shared.IdGenerator;
+import com.serdyuchenko.bank.transaction.file.MappedFileTransactionLedger;
+
+/**
+ * Selects the persistent ledger and registry event log when {@code app.ledger.type=file}; otherwise the
+ * in-memory ({@code memory}) or column-oriented ({@code columnar}) ledger component and an in-memory registry
+ * log are used.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Configuration
+public class LedgerConfig {
+
+    /**
+     * Opens the memory-mapped segment log and replays it from its latest checkpoint before the service starts
+     * taking traffic.
+     * Spring calls {@code close()} on shutdown, which forces outstanding records and writes a final checkpoint.
+     *
+     * @param properties application configuration properties
+     * @param idGenerator generator for entry ids
+     * @return persistent ledger
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.ledger", name = "type", havingValue = "file")
+    MappedFileTransactionLedger fileTransactionLedger(AppProperties properties, IdGenerator idGenerator) {
+        AppProperties.Ledger ledger = properties.getLedger();
+        return new MappedFileTransactionLedger(
+            ledger.getDirectory(),
+            Math.toIntExact(ledger.getSegmentSize().toBytes()),
+            ledger.getFsyncInterval(),
+            ledger.isAwaitFsync(),
+            idGenerator,
+            ledger.getCheckpointInterval()
+        );
+    }
+
+    /**
+     * Opens {@code registry.log} in the ledger directory, so users and accounts survive restarts together
+     * with their transactions.
+     *
+     * @param properties application configuration properties
+     * @return persistent registry event log
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.ledger", name = "type", havingValue = "file")
+    FileRegistryEventLog fileRegistryEventLog(AppProperties properties) {
+        return new FileRegistryEventLog(properties.getLedger().getDirectory().resolve("registry.log"));
+    }
+
+    /**
+     * @return registry event log kept in the heap alongside the in-memory ledgers
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.ledger.type:memory}' != 'file'")
+    InMemoryRegistryEventLog inMemoryRegistryEventLog() {
+        return new InMemoryRegistryEventLog();
+    }
+}
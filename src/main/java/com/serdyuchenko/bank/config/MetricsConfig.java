@@ -0,0 +1,79 @@
+package com.serdyuchenko.bank.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.serdyuchenko.bank.metrics.BankMetrics;
+import com.serdyuchenko.bank.metrics.NoopBankMetrics;
+import com.serdyuchenko.bank.metrics.micrometer.IdempotencyMeterBinder;
+import com.serdyuchenko.bank.metrics.micrometer.LedgerMeterBinder;
+import com.serdyuchenko.bank.metrics.micrometer.MicrometerBankMetrics;
+import com.serdyuchenko.bank.metrics.micrometer.WorkflowMeterBinder;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.transaction.LedgerStatistics;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.workflow.AsyncWorkflowDispatcher;
+import com.serdyuchenko.bank.workflow.WorkflowPort;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Wires money-operation, idempotency-cache, ledger and workflow metrics into the actuator's
+ * {@link MeterRegistry}; exposed at {@code /actuator/prometheus} and {@code /actuator/metrics}.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * @param registry meter registry, when metrics are enabled
+     * @param properties application configuration properties
+     * @return Micrometer-backed metrics, or a no-op when no registry exists
+     */
+    @Bean
+    BankMetrics bankMetrics(ObjectProvider<MeterRegistry> registry, AppProperties properties) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry == null) {
+            return new NoopBankMetrics();
+        }
+        return new MicrometerBankMetrics(meterRegistry, properties.getMetrics().getLatencySampleRate());
+    }
+
+    /**
+     * @param bankService service owning the idempotency-key cache
+     * @return binder publishing hits, misses and evictions of the cache
+     */
+    @Bean
+    MeterBinder idempotencyMetrics(BankService bankService) {
+        return new IdempotencyMeterBinder(bankService.getIdempotencyCache());
+    }
+
+    /**
+     * @param ledger active ledger
+     * @return binder publishing ledger size and per-account entry distribution
+     */
+    @Bean
+    MeterBinder ledgerMetrics(TransactionLedger ledger) {
+        if (!(ledger instanceof LedgerStatistics statistics)) {
+            return registry -> { };
+        }
+        return new LedgerMeterBinder(statistics, Duration.ofSeconds(30));
+    }
+
+    /**
+     * @param workflowPort active workflow port
+     * @return binder publishing queue depth and outcomes of the asynchronous dispatcher
+     */
+    @Bean
+    MeterBinder workflowMetrics(WorkflowPort workflowPort) {
+        if (!(workflowPort instanceof AsyncWorkflowDispatcher dispatcher)) {
+            return registry -> { };
+        }
+        return new WorkflowMeterBinder(dispatcher);
+    }
+}
@@ -0,0 +1,128 @@
+package com.serdyuchenko.bank.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serdyuchenko.bank.registry.RegistryEventLog;
+import com.serdyuchenko.bank.replication.ReplicatingRegistryEventLog;
+import com.serdyuchenko.bank.replication.ReplicatingTransactionLedger;
+import com.serdyuchenko.bank.replication.ReplicationFollower;
+import com.serdyuchenko.bank.replication.ReplicationHealthIndicator;
+import com.serdyuchenko.bank.replication.ReplicationLagInterceptor;
+import com.serdyuchenko.bank.replication.ReplicationLog;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+
+/**
+ * Wires the instance's {@code app.replication.role}. A {@code primary} wraps its ledger and registry log so every
+ * change also lands in the {@link ReplicationLog} that {@code ReplicationController} serves; a {@code follower}
+ * turns its service read-only and copies the primary through a {@link ReplicationFollower}, reporting the lag on
+ * every {@code /api} response.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Configuration
+public class ReplicationConfig {
+
+    /**
+     * @param properties application configuration properties
+     * @return log of the changes followers have yet to fetch
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.replication", name = "role", havingValue = "primary")
+    ReplicationLog replicationLog(AppProperties properties) {
+        return new ReplicationLog(properties.getReplication().getLogCapacity());
+    }
+
+    /**
+     * Wraps whichever ledger and registry log were selected, so the choice of storage stays with
+     * {@link LedgerConfig}. Static, so that it is registered before the beans it wraps are created.
+     *
+     * @param log replication log, looked up when the first bean is wrapped
+     * @return post-processor wrapping the ledger and the registry log
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.replication", name = "role", havingValue = "primary")
+    static BeanPostProcessor replicationCapture(ObjectProvider<ReplicationLog> log) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof TransactionLedger ledger && !(bean instanceof ReplicatingTransactionLedger)) {
+                    return new ReplicatingTransactionLedger(ledger, log.getObject());
+                }
+                if (bean instanceof RegistryEventLog events && !(bean instanceof ReplicatingRegistryEventLog)) {
+                    return new ReplicatingRegistryEventLog(events, log.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Starts copying the primary. Followers keep their copy in the heap only, so they require the in-memory
+     * ledger; Spring calls {@code close()} on shutdown, which stops the poll thread.
+     *
+     * @param bankService service to turn read-only and apply the changes to
+     * @param properties application configuration properties
+     * @param objectMapper application object mapper, reading the primary's snapshot
+     * @return running follower
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.replication", name = "role", havingValue = "follower")
+    ReplicationFollower replicationFollower(BankService bankService, AppProperties properties,
+                                            ObjectMapper objectMapper) {
+        if (!"memory".equals(properties.getLedger().getType())) {
+            throw new IllegalArgumentException("A replication follower requires app.ledger.type=memory");
+        }
+        AppProperties.Replication replication = properties.getReplication();
+        ReplicationFollower follower = new ReplicationFollower(bankService, replication.getPrimaryUrl(),
+            replication.getBatchSize(), replication.getPollWait(), objectMapper);
+        follower.start();
+        return follower;
+    }
+
+    /**
+     * @param follower running follower
+     * @param properties application configuration properties
+     * @return configurer adding the lag header and the staleness cut-off to every {@code /api} request
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.replication", name = "role", havingValue = "follower")
+    WebMvcConfigurer replicationLagConfigurer(ReplicationFollower follower, AppProperties properties) {
+        ReplicationLagInterceptor interceptor = new ReplicationLagInterceptor(follower,
+            properties.getReplication().getMaxLag());
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    /**
+     * Reports the replication state as the {@code replication} health component, and rejects unknown roles.
+     *
+     * @param properties application configuration properties
+     * @param log replication log of a primary
+     * @param follower follower of a follower instance
+     * @return indicator for the configured role
+     */
+    @Bean
+    ReplicationHealthIndicator replicationHealthIndicator(AppProperties properties,
+                                                          ObjectProvider<ReplicationLog> log,
+                                                          ObjectProvider<ReplicationFollower> follower) {
+        AppProperties.Replication replication = properties.getReplication();
+        return switch (replication.getRole()) {
+            case "none" -> ReplicationHealthIndicator.standalone();
+            case "primary" -> ReplicationHealthIndicator.primary(log.getObject());
+            case "follower" -> ReplicationHealthIndicator.follower(follower.getObject(), replication.getMaxLag());
+            default -> throw new IllegalArgumentException("Unknown replication role: " + replication.getRole());
+        };
+    }
+}
@@ -3,13 +3,16 @@ package com.serdyuchenko.bank.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
 
 import com.serdyuchenko.bank.domain.Account;
 import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.recovery.StartupRecovery;
 import com.serdyuchenko.bank.service.BankService;
 
 /**
@@ -37,13 +40,48 @@ public class StartupConfig {
         return args -> LOGGER.info("Bank application ready. Service hash: {}", Integer.toHexString(System.identityHashCode(bankService)));
     }
 
+    /**
+     * Reports which threads serve requests. {@code spring.threads.virtual.enabled} (see the {@code virtual-threads}
+     * profile) only takes effect on Java 21+; on older runtimes Spring Boot silently keeps the platform pool, so
+     * that case is logged as a warning.
+     *
+     * @param environment Spring environment holding the threading properties.
+     * @return runner executed right after the Spring context starts.
+     */
     @Bean
     @Profile("!test")
-    CommandLineRunner demoData(BankService bankService) {
+    CommandLineRunner threadingReport(Environment environment) {
         return args -> {
+            boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            if (Threading.VIRTUAL.isActive(environment)) {
+                LOGGER.info("Serving requests on virtual threads");
+            } else if (requested) {
+                LOGGER.warn("Virtual threads requested but Java {} does not support them; using the platform pool",
+                    Runtime.version().feature());
+            } else {
+                LOGGER.info("Serving requests on the platform thread pool");
+            }
+        };
+    }
+
+    /**
+     * Seeds a demo user once the startup recovery has finished, and only when it restored nobody, so a persistent
+     * ledger is not polluted on every restart. Replication followers get the primary's demo user instead.
+     *
+     * @param bankService injected bank domain service.
+     * @param recovery startup recovery to wait for.
+     * @return runner executed right after the Spring context starts.
+     */
+    @Bean
+    @Profile("!test")
+    CommandLineRunner demoData(BankService bankService, StartupRecovery recovery) {
+        return args -> recovery.completion().thenAccept(status -> {
+            if (status.getUsersRecovered() > 0 || bankService.isReadOnly()) {
+                return;
+            }
             User user = new User("3434", "Anton Serdyuchenko");
             bankService.addUser(user);
             bankService.addAccount(user.getPassport(), new Account("5546", 150D));
-        };
+        });
     }
 }
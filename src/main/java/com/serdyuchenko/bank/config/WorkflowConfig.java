@@ -0,0 +1,42 @@
+package com.serdyuchenko.bank.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.serdyuchenko.bank.workflow.AsyncWorkflowDispatcher;
+import com.serdyuchenko.bank.workflow.WorkflowPort;
+import com.serdyuchenko.bank.workflow.inmemory.NoopWorkflowAdapter;
+import com.serdyuchenko.bank.workflow.inmemory.StubWorkflowEngine;
+
+/**
+ * Provides the {@link WorkflowPort} used by the service: the engine selected by {@code app.workflow.engine},
+ * behind an {@link AsyncWorkflowDispatcher} unless {@code app.workflow.dispatch} is {@code sync}.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Configuration
+public class WorkflowConfig {
+
+    /**
+     * @param properties application configuration properties
+     * @return port that starts user workflows; closed by the container on shutdown when asynchronous
+     */
+    @Bean
+    WorkflowPort workflowPort(AppProperties properties) {
+        AppProperties.Workflow workflow = properties.getWorkflow();
+        WorkflowPort engine = switch (workflow.getEngine()) {
+            case "noop" -> new NoopWorkflowAdapter();
+            case "stub" -> new StubWorkflowEngine(workflow.getStubDelay());
+            default -> throw new IllegalArgumentException("Unknown workflow engine: " + workflow.getEngine());
+        };
+        if ("sync".equals(workflow.getDispatch())) {
+            return engine;
+        }
+        if (!"async".equals(workflow.getDispatch())) {
+            throw new IllegalArgumentException("Unknown workflow dispatch: " + workflow.getDispatch());
+        }
+        return new AsyncWorkflowDispatcher(engine, workflow.getQueueCapacity(), workflow.getBatchSize(),
+            workflow.getMaxAttempts(), workflow.getInitialBackoff(), workflow.getMaxBackoff(),
+            workflow.getEnqueueTimeout(), workflow.getShutdownTimeout());
+    }
+}
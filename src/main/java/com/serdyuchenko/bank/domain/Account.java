@@ -1,19 +1,49 @@
 package com.serdyuchenko.bank.domain;
 
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Account model data.
+ * The balance is stored as fixed-point minor units (see {@link MinorUnits}); the {@code double} accessors are
+ * kept for API compatibility. The balance is volatile so readers see the latest value without locking;
+ * writers are expected to serialize mutations externally (see {@code AccountLocks}).
+ * Every balance change also bumps {@link #getVersion() the version}, so a reader can tell that nothing changed
+ * without comparing balances, and can wait for the next change with {@link #nextChange(long)}.
  * @author Anton Serdyuchenko
  * @since 11.10.2025
  */
 public class Account {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Account, Set> WAITERS =
+        AtomicReferenceFieldUpdater.newUpdater(Account.class, Set.class, "waiters");
+    private static final AtomicLong INCARNATIONS = new AtomicLong();
+
+    /**
+     * Distinguishes this object from earlier accounts with the same requisite, e.g. one closed and re-opened,
+     * whose versions also started at zero.
+     */
+    private final long incarnation = INCARNATIONS.incrementAndGet();
+
     private String requisite;
-    private double balance;
+    private volatile long balanceMinor;
+    /**
+     * Bumped by every balance write; writers are serialized, so the increment needs no atomic update.
+     */
+    private volatile long version;
+    /**
+     * One future per caller of {@link #nextChange(long)}, removed as soon as it completes or is cancelled;
+     * {@code null} until someone first waits, so a write on an unwatched account only pays for one volatile read.
+     */
+    private volatile Set<CompletableFuture<Account>> waiters;
 
     public Account(String requisite, double balance) {
         this.requisite = requisite;
-        this.balance = balance;
+        this.balanceMinor = MinorUnits.fromDouble(balance);
     }
 
     public String getRequisite() {
@@ -25,11 +55,89 @@ public class Account {
     }
 
     public double getBalance() {
-        return balance;
+        return MinorUnits.toDouble(balanceMinor);
     }
 
     public void setBalance(double balance) {
-        this.balance = balance;
+        setBalanceMinor(MinorUnits.fromDouble(balance));
+    }
+
+    public long getBalanceMinor() {
+        return balanceMinor;
+    }
+
+    public void setBalanceMinor(long balanceMinor) {
+        this.balanceMinor = balanceMinor;
+        version++;
+        Set<CompletableFuture<Account>> waiting = waiters;
+        if (waiting != null && !waiting.isEmpty()) {
+            signalChange(waiting);
+        }
+    }
+
+    /**
+     * @return number unique to this account object within the process; together with {@link #getVersion()} it
+     *     names one balance state for good.
+     */
+    public long getIncarnation() {
+        return incarnation;
+    }
+
+    /**
+     * @return number of balance changes since the account was created in this process.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a future completed with this account once its version differs from {@code seenVersion}; already
+     * completed when it does. Each call gets its own future, which the account forgets once it completes;
+     * a caller that stops waiting must {@link CompletableFuture#cancel(boolean) cancel} it. The future is
+     * completed on the writer's thread, while the writer still holds the account, so dependent actions should
+     * only hand the result on.
+     *
+     * @param seenVersion version the caller has seen.
+     * @return future of the account after its next change.
+     */
+    public CompletableFuture<Account> nextChange(long seenVersion) {
+        if (version != seenVersion) {
+            return CompletableFuture.completedFuture(this);
+        }
+        Set<CompletableFuture<Account>> waiting = waiters();
+        CompletableFuture<Account> change = new CompletableFuture<>();
+        waiting.add(change);
+        change.whenComplete((account, failure) -> waiting.remove(change));
+        // The writer bumps the version before it looks for waiters; re-check so a change that raced the
+        // registration is not missed.
+        if (version != seenVersion) {
+            change.complete(this);
+        }
+        return change;
+    }
+
+    /**
+     * @return number of callers of {@link #nextChange(long)} still waiting.
+     */
+    public int getWaiterCount() {
+        Set<CompletableFuture<Account>> waiting = waiters;
+        return waiting == null ? 0 : waiting.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<CompletableFuture<Account>> waiters() {
+        Set<CompletableFuture<Account>> waiting = waiters;
+        if (waiting == null) {
+            WAITERS.compareAndSet(this, null, ConcurrentHashMap.newKeySet());
+            waiting = waiters;
+        }
+        return waiting;
+    }
+
+    private void signalChange(Set<CompletableFuture<Account>> waiting) {
+        for (CompletableFuture<Account> change : waiting) {
+            change.complete(this);
+        }
     }
 
     @Override
@@ -0,0 +1,76 @@
+package com.serdyuchenko.bank.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions between decimal amounts and fixed-point minor units (cents). Balances and ledger amounts are
+ * kept as {@code long} minor units internally; {@code double} and {@link BigDecimal} only appear at API
+ * boundaries.
+ */
+public final class MinorUnits {
+    /**
+     * Number of decimal places represented by one minor unit.
+     */
+    public static final int SCALE = 2;
+    private static final long FACTOR = 100L;
+    private static final double LONG_RANGE_UPPER = 0x1p63;
+    private static final double LONG_RANGE_LOWER = -0x1p63;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * Converts a decimal amount to minor units, rounding half away from zero to the nearest cent.
+     *
+     * @param amount decimal amount
+     * @return amount in minor units
+     * @throws ArithmeticException when the amount is not finite or does not fit into a {@code long} (see
+     *                             {@link #fitsDouble(double)})
+     */
+    public static long fromDouble(double amount) {
+        if (!fitsDouble(amount)) {
+            throw new ArithmeticException("Amount " + amount + " cannot be represented in minor units");
+        }
+        return Math.round(amount * FACTOR);
+    }
+
+    /**
+     * @param amount decimal amount
+     * @return whether the amount is finite and, in minor units, within the range of a {@code long}
+     */
+    public static boolean fitsDouble(double amount) {
+        double scaled = amount * FACTOR;
+        return Double.isFinite(scaled) && scaled > LONG_RANGE_LOWER && scaled < LONG_RANGE_UPPER;
+    }
+
+    /**
+     * Converts minor units back to a decimal amount.
+     *
+     * @param minorUnits amount in minor units
+     * @return decimal amount
+     */
+    public static double toDouble(long minorUnits) {
+        return minorUnits / (double) FACTOR;
+    }
+
+    /**
+     * Converts an exact decimal amount to minor units.
+     *
+     * @param amount decimal amount with at most {@link #SCALE} fractional digits
+     * @return amount in minor units
+     * @throws ArithmeticException when the amount has sub-minor precision or does not fit into a {@code long}
+     */
+    public static long fromBigDecimal(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Converts minor units to an exact decimal amount.
+     *
+     * @param minorUnits amount in minor units
+     * @return decimal amount with scale {@link #SCALE}
+     */
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
@@ -26,6 +26,25 @@ public class Money {
         this.amount = amount;
     }
 
+    /**
+     * Creates a positive amount from minor units (cents).
+     *
+     * @param currency ISO-like currency code
+     * @param minorUnits positive amount in minor units
+     * @return money value
+     */
+    public static Money ofMinorUnits(String currency, long minorUnits) {
+        return new Money(currency, MinorUnits.toBigDecimal(minorUnits));
+    }
+
+    /**
+     * @return amount expressed in minor units
+     * @throws ArithmeticException when the amount has sub-minor precision
+     */
+    public long toMinorUnits() {
+        return MinorUnits.fromBigDecimal(amount);
+    }
+
     public String getCurrency() {
         return currency;
     }
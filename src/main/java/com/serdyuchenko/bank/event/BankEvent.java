@@ -0,0 +1,119 @@
+package com.serdyuchenko.bank.event;
+
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * A completed money movement, as seen by event subscribers.
+ * <p>
+ * Instances handed to a {@link BankEventListener} are slots of the {@link RingBufferEventBus}: they are
+ * preallocated and overwritten once every subscriber has moved past them, so publishing allocates nothing. A
+ * listener must not keep a reference after its callback returns; it keeps {@link #copy()} instead.
+ * <p>
+ * Deposits and withdrawals have no counterparty. A transfer is one event from the source account's point of view:
+ * {@link #getAccountId()} is debited and {@link #getCounterpartyAccountId()} is credited.
+ *
+ * @author Anton Serdyuchenko
+ */
+public final class BankEvent {
+    private TransactionType type;
+    private String operationId;
+    private String accountId;
+    private String counterpartyAccountId;
+    private String currency;
+    private long amountMinor;
+    private long balanceAfterMinor;
+    private long counterpartyBalanceAfterMinor = Transaction.NO_BALANCE;
+    private long timestampMillis;
+
+    BankEvent() {
+    }
+
+    /**
+     * @return detached copy that stays valid after the listener callback.
+     */
+    public BankEvent copy() {
+        BankEvent copy = new BankEvent();
+        copy.set(type, operationId, accountId, counterpartyAccountId, currency, amountMinor, balanceAfterMinor,
+            counterpartyBalanceAfterMinor, timestampMillis);
+        return copy;
+    }
+
+    void set(TransactionType type, String operationId, String accountId, String counterpartyAccountId,
+             String currency, long amountMinor, long balanceAfterMinor, long counterpartyBalanceAfterMinor,
+             long timestampMillis) {
+        this.type = type;
+        this.operationId = operationId;
+        this.accountId = accountId;
+        this.counterpartyAccountId = counterpartyAccountId;
+        this.currency = currency;
+        this.amountMinor = amountMinor;
+        this.balanceAfterMinor = balanceAfterMinor;
+        this.counterpartyBalanceAfterMinor = counterpartyBalanceAfterMinor;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    /**
+     * @return transaction id shared with the ledger entries of the operation.
+     */
+    public String getOperationId() {
+        return operationId;
+    }
+
+    /**
+     * @return account credited by a deposit, debited by a withdrawal or transfer.
+     */
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return account credited by a transfer; {@code null} for deposits and withdrawals.
+     */
+    public String getCounterpartyAccountId() {
+        return counterpartyAccountId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    /**
+     * @return balance of {@link #getAccountId()} right after the operation, in minor units.
+     */
+    public long getBalanceAfterMinor() {
+        return balanceAfterMinor;
+    }
+
+    /**
+     * @return balance of {@link #getCounterpartyAccountId()} right after a transfer, or
+     * {@link Transaction#NO_BALANCE}.
+     */
+    public long getCounterpartyBalanceAfterMinor() {
+        return counterpartyBalanceAfterMinor;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BankEvent{"
+            + "type=" + type
+            + ", operationId='" + operationId + '\''
+            + ", accountId='" + accountId + '\''
+            + ", counterpartyAccountId='" + counterpartyAccountId + '\''
+            + ", amountMinor=" + amountMinor
+            + ", currency='" + currency + '\''
+            + '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.serdyuchenko.bank.event;
+
+/**
+ * Subscriber to {@link BankEvent}s. Each subscriber runs on its own thread and sees every event published after
+ * it subscribed, in publication order.
+ * <p>
+ * Events arrive in batches: all events already published when the subscriber wakes up are delivered back to back,
+ * and {@code endOfBatch} marks the last of them. A subscriber that talks to a remote system buffers events and
+ * flushes on {@code endOfBatch}, so it makes one call per batch and naturally batches more as it falls behind.
+ *
+ * @author Anton Serdyuchenko
+ */
+@FunctionalInterface
+public interface BankEventListener {
+    /**
+     * @param event event slot; only valid until this method returns, see {@link BankEvent#copy()}
+     * @param sequence position of the event in the stream, increasing by one per event
+     * @param endOfBatch whether no further published event is waiting right now
+     */
+    void onEvent(BankEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,40 @@
+package com.serdyuchenko.bank.event;
+
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Port through which {@code BankService} announces completed money movements. It is called while the account
+ * stripes are still held, so the events of one account are published in the order they were applied; an
+ * implementation must therefore return quickly and must not call back into the service.
+ *
+ * @author Anton Serdyuchenko
+ */
+public interface BankEventPublisher {
+    /**
+     * Publishes a deposit or withdrawal.
+     *
+     * @param type {@link TransactionType#DEPOSIT} or {@link TransactionType#WITHDRAWAL}
+     * @param operationId transaction id of the ledger entry
+     * @param accountId account that was credited or debited
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param balanceAfterMinor account balance right after the operation
+     */
+    void publishMovement(TransactionType type, String operationId, String accountId, String currency,
+                         long amountMinor, long balanceAfterMinor);
+
+    /**
+     * Publishes a transfer.
+     *
+     * @param transferId transaction id shared by both ledger entries
+     * @param sourceAccountId debited account
+     * @param sourceBalanceAfterMinor source balance right after the transfer
+     * @param destinationAccountId credited account
+     * @param destinationBalanceAfterMinor destination balance right after the transfer
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     */
+    void publishTransfer(String transferId, String sourceAccountId, long sourceBalanceAfterMinor,
+                         String destinationAccountId, long destinationBalanceAfterMinor, String currency,
+                         long amountMinor);
+}
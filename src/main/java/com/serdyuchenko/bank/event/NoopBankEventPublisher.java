@@ -0,0 +1,22 @@
+package com.serdyuchenko.bank.event;
+
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Placeholder adapter that satisfies the {@link BankEventPublisher} contract without publishing anything.
+ */
+public class NoopBankEventPublisher implements BankEventPublisher {
+
+    @Override
+    public void publishMovement(TransactionType type, String operationId, String accountId, String currency,
+                                long amountMinor, long balanceAfterMinor) {
+        // No-op
+    }
+
+    @Override
+    public void publishTransfer(String transferId, String sourceAccountId, long sourceBalanceAfterMinor,
+                                String destinationAccountId, long destinationBalanceAfterMinor, String currency,
+                                long amountMinor) {
+        // No-op
+    }
+}
@@ -0,0 +1,91 @@
+package com.serdyuchenko.bank.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What an idle subscriber thread does while no new event is published; trades wake-up latency against CPU.
+ *
+ * @author Anton Serdyuchenko
+ */
+public enum WaitStrategy {
+    /**
+     * Spins on the sequence; lowest latency, but burns a core per subscriber even when idle.
+     */
+    BUSY_SPIN,
+    /**
+     * Spins briefly, then yields the core between checks.
+     */
+    YIELDING,
+    /**
+     * Spins and yields briefly, then sleeps 50 µs between checks; cheap when idle, slower to wake up.
+     */
+    SLEEPING,
+    /**
+     * Spins briefly, then parks until a publisher wakes it; nearly free when idle. Publishers pay one extra
+     * volatile read per event, and one unpark per burst of events that finds a subscriber parked.
+     */
+    BLOCKING;
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    /**
+     * Upper bound on a blocked subscriber's park, in case a wake-up raced with it going to sleep.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Parses {@code app.events.waitStrategy}, e.g. {@code busy-spin} or {@code blocking}.
+     *
+     * @param name strategy name, case-insensitive, with dashes or underscores
+     * @return the strategy
+     */
+    public static WaitStrategy of(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+
+    /**
+     * Whether the next {@link #idle(int)} parks the subscriber, so that publishers must wake it up.
+     *
+     * @param attempt number of consecutive empty checks so far
+     * @return {@code true} for {@link #BLOCKING} once it has stopped spinning
+     */
+    boolean parksAt(int attempt) {
+        return this == BLOCKING && attempt >= SPIN_TRIES;
+    }
+
+    /**
+     * Waits once.
+     *
+     * @param attempt number of consecutive empty checks so far
+     */
+    void idle(int attempt) {
+        switch (this) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELDING -> {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            case SLEEPING -> {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (attempt < YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            default -> {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.serdyuchenko.bank.export;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serdyuchenko.bank.domain.MinorUnits;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+
+/**
+ * Writes the full history of an account as CSV or NDJSON, optionally gzip-compressed, to a stream or a file.
+ * <p>
+ * Entries come from {@link TransactionLedger#forEachTransaction} one at a time and are encoded straight into a
+ * fixed-size buffer in front of the destination, which is written out whenever the buffer fills. Nothing else is
+ * kept per entry, so the memory an export needs is a few buffers of {@value #BUFFER_SIZE} bytes whatever the
+ * length of the history. Every line carries the entry id, type, amount, currency, timestamp, transaction id,
+ * description and the running balance after the entry (empty when the ledger has none).
+ *
+ * @author Anton Serdyuchenko
+ */
+@Component
+public class StatementExporter {
+    /**
+     * Size of the output buffer, and of the deflater buffer when compressing.
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] COLUMNS = {
+        "id", "type", "amount", "currency", "timeStamp", "transactionId", "description", "balanceAfter"
+    };
+
+    private final TransactionLedger ledger;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param ledger ledger holding the account histories
+     * @param objectMapper application object mapper, used for its JSON factory
+     */
+    public StatementExporter(TransactionLedger ledger, ObjectMapper objectMapper) {
+        this.ledger = Objects.requireNonNull(ledger, "TransactionLedger cannot be null");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "ObjectMapper cannot be null");
+    }
+
+    /**
+     * Writes the account's statement to {@code out}. The stream is flushed but not closed.
+     *
+     * @param accountId account whose history is exported
+     * @param format output format
+     * @param gzip whether to gzip the output
+     * @param out destination
+     * @return number of entries written
+     * @throws IOException when writing to {@code out} fails
+     */
+    public long export(String accountId, StatementFormat format, boolean gzip, OutputStream out) throws IOException {
+        Objects.requireNonNull(format, "StatementFormat cannot be null");
+        OutputStream target = new NonClosingOutputStream(Objects.requireNonNull(out, "OutputStream cannot be null"));
+        OutputStream sink = gzip
+            ? new GZIPOutputStream(target, BUFFER_SIZE)
+            : new BufferedOutputStream(target, BUFFER_SIZE);
+        try (LineWriter lines = format == StatementFormat.CSV ? new CsvLineWriter(sink) : new NdjsonLineWriter(sink)) {
+            long[] count = new long[1];
+            ledger.forEachTransaction(accountId, transaction -> {
+                try {
+                    lines.write(transaction);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+            return count[0];
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the account's statement to a file. The export goes to a temporary file next to {@code file}, which
+     * is then moved over it, so readers never see a partial statement.
+     *
+     * @param accountId account whose history is exported
+     * @param format output format
+     * @param gzip whether to gzip the output
+     * @param file destination file; replaced if it exists
+     * @return number of entries written
+     * @throws IOException when the file cannot be written
+     */
+    public long export(String accountId, StatementFormat format, boolean gzip, Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            long count;
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                count = export(accountId, format, gzip, out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Suggested file name of an export, e.g. {@code statement-ACC1.csv.gz}.
+     *
+     * @param accountId account whose history is exported
+     * @param format output format
+     * @param gzip whether the output is gzipped
+     * @return file name without directory
+     */
+    public static String fileName(String accountId, StatementFormat format, boolean gzip) {
+        return "statement-" + accountId + "." + format.extension() + (gzip ? ".gz" : "");
+    }
+
+    private interface LineWriter extends AutoCloseable {
+        void write(Transaction transaction) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class CsvLineWriter implements LineWriter {
+        private final Writer writer;
+
+        private CsvLineWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Transaction transaction) throws IOException {
+            writer.write(transaction.getId());
+            writer.write(',');
+            writer.write(transaction.getType().name());
+            writer.write(',');
+            writer.write(MinorUnits.toBigDecimal(transaction.getAmountMinor()).toPlainString());
+            writer.write(',');
+            writer.write(transaction.getCurrency());
+            writer.write(',');
+            writer.write(transaction.getTimeStamp().toString());
+            writer.write(',');
+            writeField(transaction.getMetadata().getTransactionId());
+            writer.write(',');
+            writeField(transaction.getMetadata().getDescription());
+            writer.write(',');
+            if (transaction.hasBalanceAfter()) {
+                writer.write(MinorUnits.toBigDecimal(transaction.getBalanceAfterMinor()).toPlainString());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private final class NdjsonLineWriter implements LineWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonLineWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Transaction transaction) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField(COLUMNS[0], transaction.getId());
+            generator.writeStringField(COLUMNS[1], transaction.getType().name());
+            generator.writeFieldName(COLUMNS[2]);
+            generator.writeNumber(MinorUnits.toBigDecimal(transaction.getAmountMinor()));
+            generator.writeStringField(COLUMNS[3], transaction.getCurrency());
+            generator.writeStringField(COLUMNS[4], transaction.getTimeStamp().toString());
+            generator.writeStringField(COLUMNS[5], transaction.getMetadata().getTransactionId());
+            generator.writeStringField(COLUMNS[6], transaction.getMetadata().getDescription());
+            generator.writeFieldName(COLUMNS[7]);
+            if (transaction.hasBalanceAfter()) {
+                generator.writeNumber(MinorUnits.toBigDecimal(transaction.getBalanceAfterMinor()));
+            } else {
+                generator.writeNull();
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * Lets the writers be closed, which finishes the gzip trailer and releases the deflater, without closing the
+     * caller's stream.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
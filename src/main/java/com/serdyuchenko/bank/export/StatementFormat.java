@@ -0,0 +1,39 @@
+package com.serdyuchenko.bank.export;
+
+/**
+ * Output formats of a statement export.
+ *
+ * @author Anton Serdyuchenko
+ */
+public enum StatementFormat {
+    /**
+     * Comma-separated values with a header row, RFC 4180 quoting.
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    StatementFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * @return media type of the uncompressed export.
+     */
+    public String mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @return file name extension, without the dot.
+     */
+    public String extension() {
+        return extension;
+    }
+}
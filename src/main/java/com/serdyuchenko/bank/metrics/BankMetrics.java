@@ -0,0 +1,43 @@
+package com.serdyuchenko.bank.metrics;
+
+import java.util.List;
+
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Port for reporting the latency and outcome of money operations to a monitoring backend.
+ * Called on the hot path, so implementations must not block or allocate per call.
+ * <p>
+ * Callers bracket an operation with {@link #start()} and {@link #recordOperation}; the port owns the clock so
+ * that it can skip reading it for operations it does not time.
+ */
+public interface BankMetrics {
+    /**
+     * Start value meaning the operation is counted but not timed.
+     */
+    long NOT_TIMED = Long.MIN_VALUE;
+
+    /**
+     * Marks the start of an operation.
+     *
+     * @return opaque start value to pass back to {@link #recordOperation} or {@link #recordBatch}
+     */
+    long start();
+
+    /**
+     * Records one completed operation.
+     *
+     * @param operation kind of operation
+     * @param start value returned by {@link #start()} before the operation
+     * @param result outcome; failures are counted by {@link OperationResult#getFailureReason()}
+     */
+    void recordOperation(MoneyOperation operation, long start, OperationResult result);
+
+    /**
+     * Records one batch of transfers: the batch latency plus the outcome of every item as a transfer.
+     *
+     * @param start value returned by {@link #start()} before the batch
+     * @param results per-item outcomes
+     */
+    void recordBatch(long start, List<OperationResult> results);
+}
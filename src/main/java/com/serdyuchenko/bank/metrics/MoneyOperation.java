@@ -0,0 +1,12 @@
+package com.serdyuchenko.bank.metrics;
+
+/**
+ * Money operations reported to {@link BankMetrics}.
+ */
+public enum MoneyOperation {
+    DEPOSIT,
+    WITHDRAWAL,
+    TRANSFER,
+    TRANSFER_BATCH,
+    REVERSAL
+}
@@ -0,0 +1,26 @@
+package com.serdyuchenko.bank.metrics;
+
+import java.util.List;
+
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Placeholder adapter that satisfies the {@link BankMetrics} contract without reporting anything.
+ */
+public class NoopBankMetrics implements BankMetrics {
+
+    @Override
+    public long start() {
+        return NOT_TIMED;
+    }
+
+    @Override
+    public void recordOperation(MoneyOperation operation, long start, OperationResult result) {
+        // No-op
+    }
+
+    @Override
+    public void recordBatch(long start, List<OperationResult> results) {
+        // No-op
+    }
+}
@@ -0,0 +1,52 @@
+package com.serdyuchenko.bank.metrics.micrometer;
+
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+import com.serdyuchenko.bank.service.IdempotencyCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the state of the idempotency-key cache:
+ * <ul>
+ *   <li>{@code bank.idempotency.requests} — keyed calls by {@code outcome}: {@code hit} (answered from the cache)
+ *   or {@code miss} (the operation ran);</li>
+ *   <li>{@code bank.idempotency.evictions} — keys dropped because they expired or the cache was full;</li>
+ *   <li>{@code bank.idempotency.size} — keys currently remembered.</li>
+ * </ul>
+ * All values are read from the cache's own counters on scrape.
+ */
+public class IdempotencyMeterBinder implements MeterBinder {
+    private final IdempotencyCache cache;
+
+    /**
+     * @param cache cache to observe
+     */
+    public IdempotencyMeterBinder(IdempotencyCache cache) {
+        this.cache = Objects.requireNonNull(cache, "IdempotencyCache cannot be null");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        request(registry, "hit", cache, IdempotencyCache::hits);
+        request(registry, "miss", cache, IdempotencyCache::misses);
+        FunctionCounter.builder("bank.idempotency.evictions", cache, IdempotencyCache::evictions)
+            .description("Idempotency keys dropped because they expired or the cache was full")
+            .register(registry);
+        Gauge.builder("bank.idempotency.size", cache, IdempotencyCache::size)
+            .description("Idempotency keys currently remembered")
+            .register(registry);
+    }
+
+    private static void request(MeterRegistry registry, String outcome, IdempotencyCache cache,
+                                ToDoubleFunction<IdempotencyCache> count) {
+        FunctionCounter.builder("bank.idempotency.requests", cache, count)
+            .description("Keyed money operations by cache outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.serdyuchenko.bank.metrics.micrometer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.serdyuchenko.bank.transaction.LedgerStatistics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes ledger size and shape:
+ * <ul>
+ *   <li>{@code bank.ledger.appends} — monotonic counter of appended entries (the append rate is its rate);</li>
+ *   <li>{@code bank.ledger.accounts} — number of accounts with history;</li>
+ *   <li>{@code bank.ledger.account.entries} — entries per account at the 50th, 90th, 99th percentile and
+ *   maximum, tagged {@code quantile}.</li>
+ * </ul>
+ * The per-account distribution needs a pass over all accounts, so it is computed on scrape at most once per
+ * {@code refreshInterval} and served from the last snapshot in between. Nothing is recorded on the append path.
+ */
+public class LedgerMeterBinder implements MeterBinder {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 1.0};
+
+    private final LedgerStatistics statistics;
+    private final long refreshNanos;
+    private int[] sortedCounts = new int[0];
+    private long takenAt;
+    private boolean taken;
+
+    /**
+     * @param statistics ledger to observe
+     * @param refreshInterval minimum time between two passes over the accounts
+     */
+    public LedgerMeterBinder(LedgerStatistics statistics, Duration refreshInterval) {
+        this.statistics = Objects.requireNonNull(statistics, "LedgerStatistics cannot be null");
+        this.refreshNanos = refreshInterval.toNanos();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("bank.ledger.appends", statistics, LedgerStatistics::size)
+            .description("Entries appended to the transaction ledger")
+            .register(registry);
+        Gauge.builder("bank.ledger.accounts", this, binder -> binder.snapshot().length)
+            .description("Accounts with ledger history")
+            .register(registry);
+        for (double quantile : QUANTILES) {
+            Gauge.builder("bank.ledger.account.entries", this, binder -> binder.quantile(quantile))
+                .description("Ledger entries per account")
+                .tag("quantile", quantile == 1.0 ? "max" : Double.toString(quantile))
+                .register(registry);
+        }
+    }
+
+    double quantile(double quantile) {
+        int[] counts = snapshot();
+        if (counts.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * counts.length) - 1;
+        return counts[Math.max(0, Math.min(counts.length - 1, index))];
+    }
+
+    private synchronized int[] snapshot() {
+        long now = System.nanoTime();
+        if (!taken || now - takenAt >= refreshNanos) {
+            int[] counts = statistics.entryCountsPerAccount();
+            Arrays.sort(counts);
+            sortedCounts = counts;
+            takenAt = now;
+            taken = true;
+        }
+        return sortedCounts;
+    }
+}
@@ -0,0 +1,137 @@
+package com.serdyuchenko.bank.metrics.micrometer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.serdyuchenko.bank.metrics.BankMetrics;
+import com.serdyuchenko.bank.metrics.MoneyOperation;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link BankMetrics} backed by Micrometer.
+ * <p>
+ * Meters:
+ * <ul>
+ *   <li>{@code bank.operations} — counter of every operation, tagged {@code operation} and {@code outcome}
+ *   ({@code success}/{@code failure});</li>
+ *   <li>{@code bank.operations.failures} — counter tagged {@code operation} and {@code reason};</li>
+ *   <li>{@code bank.operations.latency} — timer with a percentile histogram, tagged {@code operation}.</li>
+ * </ul>
+ * Recording into a histogram timer costs far more than the counters, so latency is sampled: one operation in
+ * {@code latencySampleRate} (chosen at random per thread) reads the clock and is timed, while the counters
+ * see every operation. With a rate of 1 every operation is timed. Counters are plain {@link LongAdder}s read by
+ * {@link FunctionCounter}s at scrape time. Every meter is registered up front and held in arrays indexed by
+ * enum ordinal, so recording does no tag lookup or allocation.
+ */
+public class MicrometerBankMetrics implements BankMetrics {
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(500);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(1);
+
+    private final int latencySampleRate;
+    private final LongAdder[] successes;
+    private final LongAdder[] failuresByOperation;
+    private final LongAdder[][] failures;
+    private final Timer[] latencies;
+
+    /**
+     * Registers all meters.
+     *
+     * @param registry registry to publish to
+     * @param latencySampleRate time one operation in this many; 1 times every operation
+     */
+    public MicrometerBankMetrics(MeterRegistry registry, int latencySampleRate) {
+        if (latencySampleRate <= 0) {
+            throw new IllegalArgumentException("Latency sample rate must be a positive number");
+        }
+        this.latencySampleRate = latencySampleRate;
+        MoneyOperation[] operations = MoneyOperation.values();
+        FailureReason[] reasons = FailureReason.values();
+        successes = new LongAdder[operations.length];
+        failuresByOperation = new LongAdder[operations.length];
+        failures = new LongAdder[operations.length][reasons.length];
+        latencies = new Timer[operations.length];
+        for (MoneyOperation operation : operations) {
+            int index = operation.ordinal();
+            successes[index] = operations(registry, operation, "success");
+            failuresByOperation[index] = operations(registry, operation, "failure");
+            for (FailureReason reason : reasons) {
+                LongAdder adder = new LongAdder();
+                FunctionCounter.builder("bank.operations.failures", adder, LongAdder::sum)
+                    .description("Failed money operations by cause")
+                    .tag("operation", tagValue(operation))
+                    .tag("reason", tagValue(reason))
+                    .register(registry);
+                failures[index][reason.ordinal()] = adder;
+            }
+            latencies[index] = Timer.builder("bank.operations.latency")
+                .description("Latency of money operations (sampled)")
+                .tag("operation", tagValue(operation))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry);
+        }
+    }
+
+    @Override
+    public long start() {
+        if (latencySampleRate == 1 || ThreadLocalRandom.current().nextInt(latencySampleRate) == 0) {
+            return System.nanoTime();
+        }
+        return NOT_TIMED;
+    }
+
+    @Override
+    public void recordOperation(MoneyOperation operation, long start, OperationResult result) {
+        int index = operation.ordinal();
+        if (start != NOT_TIMED) {
+            latencies[index].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        count(index, result);
+    }
+
+    @Override
+    public void recordBatch(long start, List<OperationResult> results) {
+        int index = MoneyOperation.TRANSFER_BATCH.ordinal();
+        if (start != NOT_TIMED) {
+            latencies[index].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        successes[index].increment();
+        for (OperationResult result : results) {
+            count(MoneyOperation.TRANSFER.ordinal(), result);
+        }
+    }
+
+    private void count(int operationIndex, OperationResult result) {
+        if (result.isSuccess()) {
+            successes[operationIndex].increment();
+            return;
+        }
+        failuresByOperation[operationIndex].increment();
+        FailureReason reason = result.getFailureReason() == null ? FailureReason.OTHER : result.getFailureReason();
+        failures[operationIndex][reason.ordinal()].increment();
+    }
+
+    private static LongAdder operations(MeterRegistry registry, MoneyOperation operation, String outcome) {
+        LongAdder adder = new LongAdder();
+        FunctionCounter.builder("bank.operations", adder, LongAdder::sum)
+            .description("Completed money operations")
+            .tag("operation", tagValue(operation))
+            .tag("outcome", outcome)
+            .register(registry);
+        return adder;
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,59 @@
+package com.serdyuchenko.bank.metrics.micrometer;
+
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+import com.serdyuchenko.bank.workflow.AsyncWorkflowDispatcher;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the state of the asynchronous workflow dispatcher:
+ * <ul>
+ *   <li>{@code bank.workflow.queue.depth} and {@code bank.workflow.queue.capacity} — queued events and the bound;</li>
+ *   <li>{@code bank.workflow.events} — events by {@code outcome}: {@code dispatched}, {@code failed} (dropped after
+ *   the last retry) or {@code rejected} (queue stayed full);</li>
+ *   <li>{@code bank.workflow.calls} and {@code bank.workflow.retries} — successful and repeated engine calls.</li>
+ * </ul>
+ * All values are read from the dispatcher's own counters on scrape.
+ */
+public class WorkflowMeterBinder implements MeterBinder {
+    private final AsyncWorkflowDispatcher dispatcher;
+
+    /**
+     * @param dispatcher dispatcher to observe
+     */
+    public WorkflowMeterBinder(AsyncWorkflowDispatcher dispatcher) {
+        this.dispatcher = Objects.requireNonNull(dispatcher, "AsyncWorkflowDispatcher cannot be null");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bank.workflow.queue.depth", dispatcher, AsyncWorkflowDispatcher::queueDepth)
+            .description("Workflow events waiting to be dispatched")
+            .register(registry);
+        Gauge.builder("bank.workflow.queue.capacity", dispatcher, AsyncWorkflowDispatcher::capacity)
+            .description("Maximum number of queued workflow events")
+            .register(registry);
+        event(registry, "dispatched", dispatcher, AsyncWorkflowDispatcher::dispatched);
+        event(registry, "failed", dispatcher, AsyncWorkflowDispatcher::failed);
+        event(registry, "rejected", dispatcher, AsyncWorkflowDispatcher::rejected);
+        FunctionCounter.builder("bank.workflow.calls", dispatcher, AsyncWorkflowDispatcher::batches)
+            .description("Successful workflow engine calls, one per batch")
+            .register(registry);
+        FunctionCounter.builder("bank.workflow.retries", dispatcher, AsyncWorkflowDispatcher::retries)
+            .description("Workflow engine calls repeated after a failure")
+            .register(registry);
+    }
+
+    private static void event(MeterRegistry registry, String outcome, AsyncWorkflowDispatcher dispatcher,
+                              ToDoubleFunction<AsyncWorkflowDispatcher> count) {
+        FunctionCounter.builder("bank.workflow.events", dispatcher, count)
+            .description("Workflow events by outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+}
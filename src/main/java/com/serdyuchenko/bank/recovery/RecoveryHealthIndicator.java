@@ -0,0 +1,42 @@
+package com.serdyuchenko.bank.recovery;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports startup recovery progress under {@code /actuator/health}: {@code OUT_OF_SERVICE} while writes are
+ * still rejected, {@code UP} once recovered, {@code DOWN} when the recovery failed.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Component("recovery")
+public class RecoveryHealthIndicator implements HealthIndicator {
+    private final StartupRecovery recovery;
+
+    /**
+     * @param recovery recovery to report on
+     */
+    public RecoveryHealthIndicator(StartupRecovery recovery) {
+        this.recovery = recovery;
+    }
+
+    @Override
+    public Health health() {
+        RecoveryStatus status = recovery.getStatus();
+        Health.Builder builder = switch (status.getState()) {
+            case COMPLETED -> Health.up();
+            case FAILED -> Health.down().withDetail("failure", status.getFailure());
+            default -> Health.outOfService();
+        };
+        builder.withDetail("state", status.getState())
+            .withDetail("progress", status.getProgress())
+            .withDetail("usersRecovered", status.getUsersRecovered())
+            .withDetail("usersTotal", status.getUsersTotal())
+            .withDetail("accountsRecovered", status.getAccountsRecovered());
+        if (status.getElapsed() != null) {
+            builder.withDetail("elapsedMillis", status.getElapsed().toMillis());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.serdyuchenko.bank.recovery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the startup recovery, updated by the recovery threads and read by health checks and logs.
+ */
+public class RecoveryStatus {
+    /**
+     * Lifecycle of a recovery.
+     */
+    public enum State {
+        NOT_STARTED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private volatile State state = State.NOT_STARTED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+    private final AtomicLong eventsReplayed = new AtomicLong();
+    private final AtomicLong usersTotal = new AtomicLong();
+    private final AtomicLong usersRecovered = new AtomicLong();
+    private final AtomicLong accountsRecovered = new AtomicLong();
+
+    void running(Instant now) {
+        startedAt = now;
+        state = State.RUNNING;
+    }
+
+    void completed(Instant now) {
+        finishedAt = now;
+        state = State.COMPLETED;
+    }
+
+    void failed(Instant now, Throwable cause) {
+        failure = String.valueOf(cause);
+        finishedAt = now;
+        state = State.FAILED;
+    }
+
+    void eventReplayed() {
+        eventsReplayed.incrementAndGet();
+    }
+
+    void usersFound(long users) {
+        usersTotal.set(users);
+    }
+
+    void userRecovered(int accounts) {
+        accountsRecovered.addAndGet(accounts);
+        usersRecovered.incrementAndGet();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getEventsReplayed() {
+        return eventsReplayed.get();
+    }
+
+    public long getUsersTotal() {
+        return usersTotal.get();
+    }
+
+    public long getUsersRecovered() {
+        return usersRecovered.get();
+    }
+
+    public long getAccountsRecovered() {
+        return accountsRecovered.get();
+    }
+
+    /**
+     * @return recovered share of users, from 0 to 1; 1 when there was nothing to recover.
+     */
+    public double getProgress() {
+        long total = usersTotal.get();
+        return total == 0 ? (state == State.COMPLETED ? 1 : 0) : (double) usersRecovered.get() / total;
+    }
+
+    /**
+     * @return time spent so far, or in total once finished; {@code null} before the start.
+     */
+    public Duration getElapsed() {
+        Instant start = startedAt;
+        if (start == null) {
+            return null;
+        }
+        Instant end = finishedAt;
+        return Duration.between(start, end == null ? Instant.now() : end);
+    }
+
+    /**
+     * @return description of the error that failed the recovery, or {@code null}.
+     */
+    public String getFailure() {
+        return failure;
+    }
+}
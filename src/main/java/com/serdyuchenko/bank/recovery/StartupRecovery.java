@@ -0,0 +1,214 @@
+package com.serdyuchenko.bank.recovery;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.registry.RegistryEventLog;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+
+/**
+ * Rebuilds {@link BankService}'s users, accounts and balances from the registry event log and the transaction
+ * ledger when the application starts.
+ * <p>
+ * The registry log is replayed sequentially into the final set of users and accounts with their opening
+ * balances; it holds one event per registry change, which is tiny next to the ledger. Users are then split
+ * across {@code app.recovery.parallelism} threads, and each account's balance is taken from the running balance
+ * of its newest ledger entry (see {@link TransactionLedger#latestBalance(String)}), so the ledger is never
+ * replayed entry by entry: the cost is proportional to the number of accounts, not to the history length.
+ * A requisite freed by a removed account may have been opened again; its opening event counts the entries the
+ * earlier account left, and unless newer entries follow them the account keeps its opening balance.
+ * <p>
+ * Recovery runs in the background and starts before the web server, which then serves reads right away. A user
+ * becomes visible only once all of their accounts carry recovered balances, so a read sees either nothing
+ * (404) or the final state. Writes are rejected until the recovery completes; a failed recovery keeps them
+ * rejected. When the registry log is empty there is nothing to recover and writes are accepted immediately.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Component
+public class StartupRecovery implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupRecovery.class);
+
+    private final BankService bankService;
+    private final TransactionLedger ledger;
+    private final RegistryEventLog registryEvents;
+    private final int parallelism;
+    private final Clock clock;
+    private final RecoveryStatus status = new RecoveryStatus();
+    private final CompletableFuture<RecoveryStatus> completion = new CompletableFuture<>();
+    private volatile boolean started;
+
+    /**
+     * Creates the recovery.
+     *
+     * @param bankService service to restore users and accounts into
+     * @param ledger ledger holding running balances
+     * @param registryEvents log of user and account changes
+     * @param properties application configuration properties
+     */
+    public StartupRecovery(BankService bankService, TransactionLedger ledger, RegistryEventLog registryEvents,
+                           AppProperties properties) {
+        this.bankService = Objects.requireNonNull(bankService, "BankService cannot be null");
+        this.ledger = Objects.requireNonNull(ledger, "TransactionLedger cannot be null");
+        this.registryEvents = Objects.requireNonNull(registryEvents, "RegistryEventLog cannot be null");
+        int configured = properties.getRecovery().getParallelism();
+        this.parallelism = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        this.clock = Clock.systemUTC();
+    }
+
+    /**
+     * Starts the recovery in the background; later calls return the same completion.
+     *
+     * @return future completed with the final status once every user is restored.
+     */
+    public synchronized CompletableFuture<RecoveryStatus> recover() {
+        if (started) {
+            return completion;
+        }
+        started = true;
+        status.running(clock.instant());
+        if (registryEvents.size() == 0) {
+            status.completed(clock.instant());
+            completion.complete(status);
+            return completion;
+        }
+        bankService.beginRecovery();
+        Thread coordinator = new Thread(this::run, "startup-recovery");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return completion;
+    }
+
+    /**
+     * @return current progress.
+     */
+    public RecoveryStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return future completed once the recovery has finished (or found nothing to do).
+     */
+    public CompletableFuture<RecoveryStatus> completion() {
+        return completion;
+    }
+
+    @Override
+    public void start() {
+        recover();
+    }
+
+    @Override
+    public void stop() {
+        // The recovery threads are daemons and hold no resources worth releasing early.
+    }
+
+    @Override
+    public boolean isRunning() {
+        return started;
+    }
+
+    private void run() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "startup-recovery-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<RecoveredUser> users = replayRegistry();
+            status.usersFound(users.size());
+            LOGGER.info("Recovering {} users from {} registry events with {} thread(s)",
+                users.size(), status.getEventsReplayed(), parallelism);
+            int chunk = Math.max(1, (users.size() + parallelism - 1) / parallelism);
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int from = 0; from < users.size(); from += chunk) {
+                List<RecoveredUser> slice = users.subList(from, Math.min(users.size(), from + chunk));
+                tasks.add(CompletableFuture.runAsync(() -> slice.forEach(this::restore), workers));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+            bankService.completeRecovery();
+            status.completed(clock.instant());
+            LOGGER.info("Recovered {} users and {} accounts in {} ms", status.getUsersRecovered(),
+                status.getAccountsRecovered(), status.getElapsed().toMillis());
+            completion.complete(status);
+        } catch (RuntimeException e) {
+            status.failed(clock.instant(), e);
+            LOGGER.error("Startup recovery failed; writes stay disabled", e);
+            completion.completeExceptionally(e);
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private List<RecoveredUser> replayRegistry() {
+        Map<String, RecoveredUser> users = new LinkedHashMap<>();
+        registryEvents.replay(event -> {
+            status.eventReplayed();
+            switch (event.getType()) {
+                case USER_REGISTERED -> {
+                    // Re-registering replaces the user and drops the old accounts, as BankService.addUser does.
+                    users.remove(event.getPassport());
+                    User user = new User(event.getPassport(), event.getUsername());
+                    users.put(event.getPassport(), new RecoveredUser(user));
+                }
+                case USER_REMOVED -> users.remove(event.getPassport());
+                case ACCOUNT_OPENED -> {
+                    RecoveredUser user = users.get(event.getPassport());
+                    if (user != null) {
+                        user.openings.putIfAbsent(event.getRequisite(), event);
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown registry event " + event.getType());
+            }
+        });
+        return new ArrayList<>(users.values());
+    }
+
+    private void restore(RecoveredUser recovered) {
+        List<Account> accounts = new ArrayList<>(recovered.openings.size());
+        for (Map.Entry<String, RegistryEvent> opening : recovered.openings.entrySet()) {
+            String requisite = opening.getKey();
+            boolean moved = ledger.getTransactions(requisite).size() > opening.getValue().getLedgerEntriesBefore();
+            OptionalLong latest = moved ? ledger.latestBalance(requisite) : OptionalLong.empty();
+            long balance = latest.orElse(opening.getValue().getOpeningBalanceMinor());
+            if (moved && latest.isEmpty()) {
+                LOGGER.warn("Account {} has ledger entries without a running balance; keeping its opening balance",
+                    requisite);
+            }
+            Account account = new Account(requisite, 0);
+            account.setBalanceMinor(balance);
+            accounts.add(account);
+        }
+        bankService.restoreUser(recovered.user, accounts);
+        status.userRecovered(accounts.size());
+    }
+
+    private static final class RecoveredUser {
+        private final User user;
+        private final Map<String, RegistryEvent> openings = new LinkedHashMap<>();
+
+        private RecoveredUser(User user) {
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.serdyuchenko.bank.registry;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link RegistryEventLog} stored in a single append-only file next to the ledger segments.
+ * <p>
+ * Each record is {@code int} payload length, {@code int} CRC32C of the payload, then the payload: type ordinal,
+ * passport, optional username, optional requisite (modified UTF-8), the opening balance and the number of ledger
+ * entries the requisite already had (absent from records written before it was kept, read as 0). Every append is
+ * forced to disk before it returns; registry changes are rare, so this costs nothing on the money path. On open,
+ * a torn record at the tail (crash mid-write) is detected by its CRC and truncated. Appends are serialized with a
+ * {@link ReentrantLock} rather than {@code synchronized}, so a virtual thread waiting for the disk does not pin
+ * its carrier thread.
+ */
+public class FileRegistryEventLog implements RegistryEventLog, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileRegistryEventLog.class);
+    private static final int HEADER_BYTES = 8;
+    private static final RegistryEvent.Type[] TYPES = RegistryEvent.Type.values();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long events;
+    private long end;
+
+    /**
+     * Opens (or creates) the log and drops a torn tail record, if any.
+     *
+     * @param file path of the log file.
+     */
+    public FileRegistryEventLog(Path file) {
+        this.file = Objects.requireNonNull(file, "Registry log file cannot be null");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            long length = channel.size();
+            long[] counted = new long[1];
+            end = scan(length, event -> counted[0]++);
+            events = counted[0];
+            if (end < length) {
+                LOGGER.warn("Discarding {} bytes of torn registry record(s) at the end of {}", length - end, file);
+                channel.truncate(end);
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open registry log " + file, e);
+        }
+    }
+
+    @Override
+    public void append(RegistryEvent event) {
+        byte[] payload = encode(Objects.requireNonNull(event, "Registry event cannot be null"));
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+            .putInt(payload.length)
+            .putInt((int) crc.getValue())
+            .put(payload)
+            .flip();
+        lock.lock();
+        try {
+            long position = end;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            channel.force(false);
+            end = position;
+            events++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to registry log " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void replay(Consumer<RegistryEvent> consumer) {
+        long limit;
+        lock.lock();
+        try {
+            limit = end;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            scan(limit, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read registry log " + file, e);
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close registry log " + file, e);
+        }
+    }
+
+    /**
+     * Decodes valid records from the start of the file up to {@code limit}.
+     *
+     * @return offset right after the last valid record.
+     */
+    private long scan(long limit, Consumer<RegistryEvent> consumer) throws IOException {
+        long position = 0;
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(reader),
+                 1 << 16))) {
+            while (position + HEADER_BYTES <= limit) {
+                int length = in.readInt();
+                int expectedCrc = in.readInt();
+                if (length <= 0 || position + HEADER_BYTES + length > limit) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                CRC32C crc = new CRC32C();
+                crc.update(payload);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+                consumer.accept(decode(payload));
+                position += HEADER_BYTES + length;
+            }
+        } catch (EOFException e) {
+            // Header or payload cut short: everything before it is valid.
+        }
+        return position;
+    }
+
+    private static byte[] encode(RegistryEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(event.getType().ordinal());
+            out.writeUTF(event.getPassport());
+            writeOptional(out, event.getUsername());
+            writeOptional(out, event.getRequisite());
+            out.writeLong(event.getOpeningBalanceMinor());
+            out.writeLong(event.getLedgerEntriesBefore());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static RegistryEvent decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        RegistryEvent.Type type = TYPES[in.readUnsignedByte()];
+        String passport = in.readUTF();
+        String username = readOptional(in);
+        String requisite = readOptional(in);
+        long openingBalanceMinor = in.readLong();
+        long ledgerEntriesBefore = in.available() >= Long.BYTES ? in.readLong() : 0;
+        return new RegistryEvent(type, passport, username, requisite, openingBalanceMinor, ledgerEntriesBefore);
+    }
+
+    private static void writeOptional(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readOptional(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.serdyuchenko.bank.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Heap-only {@link RegistryEventLog} used with the in-memory ledger, where nothing survives a restart anyway.
+ */
+public class InMemoryRegistryEventLog implements RegistryEventLog {
+    private final List<RegistryEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void append(RegistryEvent event) {
+        events.add(Objects.requireNonNull(event, "Registry event cannot be null"));
+    }
+
+    @Override
+    public void replay(Consumer<RegistryEvent> consumer) {
+        List<RegistryEvent> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(events);
+        }
+        snapshot.forEach(consumer);
+    }
+
+    @Override
+    public synchronized long size() {
+        return events.size();
+    }
+}
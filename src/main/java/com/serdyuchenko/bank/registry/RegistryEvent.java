@@ -0,0 +1,119 @@
+package com.serdyuchenko.bank.registry;
+
+import java.util.Objects;
+
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+
+/**
+ * Change to the set of users and accounts. Money movements live in the transaction ledger; these events
+ * record what the ledger does not know: who the customers are and which accounts they opened with which
+ * opening balance. Replaying them in order and then reading each account's latest running balance from the
+ * ledger rebuilds the bank's state.
+ */
+public final class RegistryEvent {
+    /**
+     * Kind of registry change.
+     */
+    public enum Type {
+        USER_REGISTERED,
+        USER_REMOVED,
+        ACCOUNT_OPENED
+    }
+
+    private final Type type;
+    private final String passport;
+    private final String username;
+    private final String requisite;
+    private final long openingBalanceMinor;
+    private final long ledgerEntriesBefore;
+
+    RegistryEvent(Type type, String passport, String username, String requisite, long openingBalanceMinor,
+                  long ledgerEntriesBefore) {
+        this.type = Objects.requireNonNull(type, "Event type cannot be null");
+        if (passport == null) {
+            throw new IllegalArgumentException("Passport cannot be null");
+        }
+        this.passport = passport;
+        this.username = username;
+        this.requisite = requisite;
+        this.openingBalanceMinor = openingBalanceMinor;
+        this.ledgerEntriesBefore = ledgerEntriesBefore;
+    }
+
+    /**
+     * @param user registered user.
+     * @return event for {@code BankService.addUser}.
+     */
+    public static RegistryEvent userRegistered(User user) {
+        return new RegistryEvent(Type.USER_REGISTERED, user.getPassport(), user.getUsername(), null, 0, 0);
+    }
+
+    /**
+     * @param passport passport of the removed user.
+     * @return event for {@code BankService.deleteUser}.
+     */
+    public static RegistryEvent userRemoved(String passport) {
+        return new RegistryEvent(Type.USER_REMOVED, passport, null, null, 0, 0);
+    }
+
+    /**
+     * @param passport passport of the account owner.
+     * @param account opened account; its balance at this moment is the opening balance.
+     * @return event for an account whose requisite has no ledger history yet.
+     */
+    public static RegistryEvent accountOpened(String passport, Account account) {
+        return accountOpened(passport, account, 0);
+    }
+
+    /**
+     * @param passport passport of the account owner.
+     * @param account opened account; its balance at this moment is the opening balance.
+     * @param ledgerEntriesBefore ledger entries already recorded under the requisite, by a removed account.
+     * @return event for {@code BankService.addAccount}.
+     */
+    public static RegistryEvent accountOpened(String passport, Account account, long ledgerEntriesBefore) {
+        return new RegistryEvent(Type.ACCOUNT_OPENED, passport, null, account.getRequisite(),
+            account.getBalanceMinor(), ledgerEntriesBefore);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPassport() {
+        return passport;
+    }
+
+    /**
+     * @return username; {@code null} unless {@link Type#USER_REGISTERED}.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return account requisite; {@code null} unless {@link Type#ACCOUNT_OPENED}.
+     */
+    public String getRequisite() {
+        return requisite;
+    }
+
+    /**
+     * @return balance the account was opened with, in minor units; {@code 0} unless {@link Type#ACCOUNT_OPENED}.
+     */
+    public long getOpeningBalanceMinor() {
+        return openingBalanceMinor;
+    }
+
+    /**
+     * The ledger is keyed by requisite, and the requisite of a removed account may be opened again; the entries
+     * before this count belong to the earlier account and say nothing about this one's balance.
+     *
+     * @return ledger entries the requisite already had when the account was opened; {@code 0} unless
+     *     {@link Type#ACCOUNT_OPENED}.
+     */
+    public long getLedgerEntriesBefore() {
+        return ledgerEntriesBefore;
+    }
+}
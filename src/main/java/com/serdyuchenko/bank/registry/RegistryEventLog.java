@@ -0,0 +1,28 @@
+package com.serdyuchenko.bank.registry;
+
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of {@link RegistryEvent}s. Registry changes are rare compared to money movements, so an
+ * implementation may make each append durable before it returns.
+ */
+public interface RegistryEventLog {
+    /**
+     * Appends the event after the ones already in the log.
+     *
+     * @param event event to append.
+     */
+    void append(RegistryEvent event);
+
+    /**
+     * Feeds every event in append order to the consumer.
+     *
+     * @param consumer receiver of the events.
+     */
+    void replay(Consumer<RegistryEvent> consumer);
+
+    /**
+     * @return number of events in the log.
+     */
+    long size();
+}
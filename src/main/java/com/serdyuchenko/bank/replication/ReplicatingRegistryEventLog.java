@@ -0,0 +1,55 @@
+package com.serdyuchenko.bank.replication;
+
+import java.util.function.Consumer;
+
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.registry.RegistryEventLog;
+
+/**
+ * Primary-side {@link RegistryEventLog} that appends through another log and ships every appended event to the
+ * {@link ReplicationLog}. The service appends under its registry lock, before the user or account becomes
+ * visible, so followers learn about an account before any of its ledger entries.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class ReplicatingRegistryEventLog implements RegistryEventLog, AutoCloseable {
+    private final RegistryEventLog delegate;
+    private final ReplicationLog log;
+
+    /**
+     * @param delegate log that stores the events.
+     * @param log log the appended events are shipped through.
+     */
+    public ReplicatingRegistryEventLog(RegistryEventLog delegate, ReplicationLog log) {
+        this.delegate = delegate;
+        this.log = log;
+    }
+
+    @Override
+    public void append(RegistryEvent event) {
+        delegate.append(event);
+        log.append(event);
+    }
+
+    @Override
+    public void replay(Consumer<RegistryEvent> consumer) {
+        delegate.replay(consumer);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    /**
+     * Closes the wrapped log when it holds resources, e.g. the file of the persistent registry log.
+     *
+     * @throws Exception when the wrapped log fails to close.
+     */
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
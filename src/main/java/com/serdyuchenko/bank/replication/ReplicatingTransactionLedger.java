@@ -0,0 +1,134 @@
+package com.serdyuchenko.bank.replication;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.transaction.LedgerEntry;
+import com.serdyuchenko.bank.transaction.LedgerStatistics;
+import com.serdyuchenko.bank.transaction.PageRequest;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionPage;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Primary-side {@link TransactionLedger} that records through another ledger and ships every recorded entry to
+ * the {@link ReplicationLog}. The service records while it owns the account, so the entries of one account
+ * reach the log in ledger order. Reads go straight to the wrapped ledger.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class ReplicatingTransactionLedger implements TransactionLedger, LedgerStatistics, AutoCloseable {
+    private final TransactionLedger delegate;
+    private final LedgerStatistics statistics;
+    private final ReplicationLog log;
+
+    /**
+     * @param delegate ledger that stores the entries; must also implement {@link LedgerStatistics}.
+     * @param log log the recorded entries are shipped through.
+     */
+    public ReplicatingTransactionLedger(TransactionLedger delegate, ReplicationLog log) {
+        if (!(delegate instanceof LedgerStatistics ledgerStatistics)) {
+            throw new IllegalArgumentException(delegate.getClass().getSimpleName() + " keeps no statistics");
+        }
+        this.delegate = delegate;
+        this.statistics = ledgerStatistics;
+        this.log = log;
+    }
+
+    @Override
+    public Transaction record(String accountId, TransactionType type, Money amount, TransactionMetadata metadata) {
+        Transaction recorded = delegate.record(accountId, type, amount, metadata);
+        log.append(recorded);
+        return recorded;
+    }
+
+    @Override
+    public Transaction record(String accountId, TransactionType type, String currency, long amountMinor,
+                              TransactionMetadata metadata) {
+        Transaction recorded = delegate.record(accountId, type, currency, amountMinor, metadata);
+        log.append(recorded);
+        return recorded;
+    }
+
+    @Override
+    public Transaction record(String accountId, TransactionType type, String currency, long amountMinor,
+                              long balanceAfterMinor, TransactionMetadata metadata) {
+        Transaction recorded = delegate.record(accountId, type, currency, amountMinor, balanceAfterMinor, metadata);
+        log.append(recorded);
+        return recorded;
+    }
+
+    @Override
+    public List<Transaction> recordAll(List<LedgerEntry> entries) {
+        List<Transaction> recorded = delegate.recordAll(entries);
+        log.appendAll(recorded);
+        return recorded;
+    }
+
+    @Override
+    public List<Transaction> getTransactions(String accountId) {
+        return delegate.getTransactions(accountId);
+    }
+
+    @Override
+    public List<Transaction> getTransactions(String accountId, TransactionType type) {
+        return delegate.getTransactions(accountId, type);
+    }
+
+    @Override
+    public List<Transaction> query(String accountId, TransactionType type, Instant from, Instant to) {
+        return delegate.query(accountId, type, from, to);
+    }
+
+    @Override
+    public List<Transaction> getByTransactionId(String transactionId) {
+        return delegate.getByTransactionId(transactionId);
+    }
+
+    @Override
+    public void forEachTransaction(String accountId, Consumer<? super Transaction> action) {
+        delegate.forEachTransaction(accountId, action);
+    }
+
+    @Override
+    public TransactionPage getPage(String accountId, PageRequest request) {
+        return delegate.getPage(accountId, request);
+    }
+
+    @Override
+    public OptionalLong balanceAt(String accountId, Instant at) {
+        return delegate.balanceAt(accountId, at);
+    }
+
+    @Override
+    public OptionalLong latestBalance(String accountId) {
+        return delegate.latestBalance(accountId);
+    }
+
+    @Override
+    public long size() {
+        return statistics.size();
+    }
+
+    @Override
+    public int[] entryCountsPerAccount() {
+        return statistics.entryCountsPerAccount();
+    }
+
+    /**
+     * Closes the wrapped ledger when it holds resources, e.g. the memory-mapped segments of the file ledger.
+     *
+     * @throws Exception when the wrapped ledger fails to close.
+     */
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
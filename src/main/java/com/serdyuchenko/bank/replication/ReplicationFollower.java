@@ -0,0 +1,290 @@
+package com.serdyuchenko.bank.replication;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.serdyuchenko.bank.api.ReplicationController;
+import com.serdyuchenko.bank.api.dto.ReplicationBatchDto;
+import com.serdyuchenko.bank.api.dto.ReplicationRecordDto;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.MinorUnits;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Keeps a read-only copy of a primary's users, accounts and ledger. On {@link #start()} the service stops
+ * taking writes; one thread then copies the primary's {@code /internal/replication/snapshot} and long-polls its
+ * {@code /internal/replication/log} from the snapshot's position on, applying the records in sequence order, so
+ * balances and statements served here are those of the primary some moments ago.
+ * <p>
+ * Lag is measured on this host's clock only: whenever a poll shows nothing left to apply, the follower was
+ * caught up at the moment the primary answered, i.e. roughly when the poll was sent plus the time the primary
+ * waited. {@link #lagMillis()} is the time since then, an upper bound on how stale the served data is; while
+ * idle it stays below the poll wait. After a primary restart (new epoch) or when it fell out of the primary's
+ * log, the follower copies a snapshot again on top of what it holds. Only when the primary's history of an account
+ * no longer extends the one kept here, as after a restart of a primary with an in-memory ledger, does replication
+ * stop; the follower then reports itself down until it is restarted empty.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class ReplicationFollower implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationFollower.class);
+
+    private final BankService bankService;
+    private final RestClient client;
+    private final ObjectReader recordReader;
+    private final int batchSize;
+    private final Duration pollWait;
+    private final Thread poller;
+    private volatile boolean running = true;
+    private volatile long appliedSequence;
+    private volatile long primarySequence;
+    /**
+     * {@code System.currentTimeMillis()} at which this follower last had everything the primary had; 0 before
+     * the first catch-up.
+     */
+    private volatile long caughtUpAtMillis;
+    private volatile String failure;
+    /**
+     * Epoch of the primary copied; {@code null} until a snapshot was applied, and again when one is due.
+     */
+    private String epoch;
+
+    /**
+     * @param bankService service to apply the replicated changes to.
+     * @param primaryUrl base URL of the primary, e.g. {@code http://10.0.0.1:8080}.
+     * @param batchSize maximum number of records fetched per poll.
+     * @param pollWait how long the primary holds a poll open when there is nothing new.
+     * @param objectMapper mapper reading the snapshot lines.
+     */
+    public ReplicationFollower(BankService bankService, String primaryUrl, int batchSize, Duration pollWait,
+                               ObjectMapper objectMapper) {
+        this.bankService = Objects.requireNonNull(bankService, "BankService cannot be null");
+        this.recordReader = objectMapper.readerFor(ReplicationRecordDto.class);
+        if (primaryUrl == null || primaryUrl.isBlank()) {
+            throw new IllegalArgumentException("Primary URL must be set on a replication follower");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Replication batch size must be a positive number");
+        }
+        this.batchSize = batchSize;
+        this.pollWait = pollWait;
+        Duration timeout = pollWait.plusSeconds(5);
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+            HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.client = RestClient.builder()
+            .baseUrl(primaryUrl)
+            .requestFactory(requestFactory)
+            .build();
+        this.poller = new Thread(this::run, "replication-follower");
+        poller.setDaemon(true);
+    }
+
+    /**
+     * Makes the service read-only and starts polling the primary.
+     */
+    public void start() {
+        bankService.makeReadOnly();
+        poller.start();
+    }
+
+    /**
+     * @return sequence of the last record applied here; 0 before the first one.
+     */
+    public long appliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return sequence of the primary's newest record as of the last poll.
+     */
+    public long primarySequence() {
+        return primarySequence;
+    }
+
+    /**
+     * @return milliseconds since this follower last had everything the primary had; {@link Long#MAX_VALUE}
+     *     until it caught up once.
+     */
+    public long lagMillis() {
+        long caughtUpAt = caughtUpAtMillis;
+        return caughtUpAt == 0 ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - caughtUpAt);
+    }
+
+    /**
+     * @return why replication stopped or last failed; {@code null} while it runs fine.
+     */
+    public String failure() {
+        return failure;
+    }
+
+    /**
+     * @return whether the poll thread still runs.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        poller.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (epoch == null) {
+                    copySnapshot();
+                } else {
+                    poll();
+                }
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode().value() == HttpStatus.GONE.value()) {
+                    copyAgain("Fell out of the primary's replication log");
+                } else {
+                    retryLater(e);
+                }
+            } catch (RestClientException | IllegalStateException e) {
+                retryLater(e);
+            }
+        }
+    }
+
+    private void copySnapshot() {
+        client.get()
+            .uri("/internal/replication/snapshot")
+            .exchange((request, response) -> {
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    throw new IllegalStateException("Primary answered the snapshot request with "
+                        + response.getStatusCode());
+                }
+                String snapshotEpoch = response.getHeaders().getFirst(ReplicationController.EPOCH_HEADER);
+                String position = response.getHeaders().getFirst(ReplicationController.SEQUENCE_HEADER);
+                if (snapshotEpoch == null || position == null) {
+                    throw new IllegalStateException("Primary sent a snapshot without its position");
+                }
+                Set<String> passports = new HashSet<>();
+                try (MappingIterator<ReplicationRecordDto> records = recordReader.readValues(response.getBody())) {
+                    while (records.hasNext()) {
+                        ReplicationRecordDto record = records.next();
+                        if (RegistryEvent.Type.USER_REGISTERED.name().equals(record.kind())) {
+                            passports.add(record.passport());
+                        }
+                        if (!apply(record)) {
+                            return null;
+                        }
+                    }
+                }
+                bankService.retainUsers(passports);
+                appliedSequence = Long.parseLong(position);
+                primarySequence = appliedSequence;
+                epoch = snapshotEpoch;
+                failure = null;
+                LOGGER.info("Copied a snapshot of the primary at sequence {}", appliedSequence);
+                return null;
+            });
+    }
+
+    private void poll() {
+        long sentAt = System.currentTimeMillis();
+        ReplicationBatchDto batch = client.get()
+            .uri("/internal/replication/log?after={after}&limit={limit}&waitMillis={wait}",
+                appliedSequence, batchSize, pollWait.toMillis())
+            .retrieve()
+            .body(ReplicationBatchDto.class);
+        if (batch == null) {
+            throw new IllegalStateException("Primary sent an empty answer");
+        }
+        if (!epoch.equals(batch.epoch())) {
+            copyAgain("Primary restarted");
+            return;
+        }
+        for (ReplicationRecordDto record : batch.records()) {
+            if (record.sequence() != appliedSequence + 1) {
+                copyAgain("Expected record " + (appliedSequence + 1) + " but got " + record.sequence());
+                return;
+            }
+            if (!apply(record)) {
+                return;
+            }
+            appliedSequence = record.sequence();
+        }
+        primarySequence = batch.lastSequence();
+        failure = null;
+        if (appliedSequence == batch.lastSequence()) {
+            caughtUpAtMillis = sentAt + batch.waitedMillis();
+        }
+    }
+
+    /**
+     * @return {@code false} when replication stopped because the entry does not extend the history kept here.
+     */
+    private boolean apply(ReplicationRecordDto record) {
+        if (ReplicationRecordDto.ENTRY.equals(record.kind())) {
+            TransactionMetadata metadata = record.transactionId() == null
+                ? TransactionMetadata.empty()
+                : new TransactionMetadata(record.transactionId(), record.description());
+            if (!bankService.applyReplicated(new Transaction(record.id(), record.accountId(), record.currency(),
+                    record.amountMinor(), record.balanceAfterMinor(), TransactionType.valueOf(record.type()),
+                    record.timeStamp(), metadata))) {
+                stop("History of account " + record.accountId() + " differs from the primary's; restart this"
+                    + " follower to copy the primary from scratch");
+                return false;
+            }
+            return true;
+        }
+        RegistryEvent event = switch (RegistryEvent.Type.valueOf(record.kind())) {
+            case USER_REGISTERED -> RegistryEvent.userRegistered(new User(record.passport(), record.username()));
+            case USER_REMOVED -> RegistryEvent.userRemoved(record.passport());
+            case ACCOUNT_OPENED -> RegistryEvent.accountOpened(record.passport(),
+                new Account(record.requisite(), MinorUnits.toDouble(record.openingBalanceMinor())));
+        };
+        bankService.applyReplicated(event);
+        return true;
+    }
+
+    private void copyAgain(String reason) {
+        LOGGER.warn("{}; copying a snapshot of the primary again", reason);
+        epoch = null;
+    }
+
+    private void retryLater(RuntimeException e) {
+        if (!running) {
+            return;
+        }
+        failure = e.getMessage();
+        LOGGER.warn("Replication poll failed; retrying in {}", pollWait, e);
+        try {
+            Thread.sleep(pollWait.toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void stop(String reason) {
+        failure = reason;
+        running = false;
+        LOGGER.error("Replication stopped: {}", reason);
+    }
+}
@@ -0,0 +1,82 @@
+package com.serdyuchenko.bank.replication;
+
+import java.time.Duration;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Reports replication under {@code /actuator/health}. A standalone instance is always {@code UP}, and so is a
+ * primary, which also shows its newest sequence. A follower is {@code UP} while its lag is within the maximum,
+ * {@code OUT_OF_SERVICE} above it and {@code DOWN} once replication stopped.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class ReplicationHealthIndicator implements HealthIndicator {
+    private final ReplicationLog log;
+    private final ReplicationFollower follower;
+    private final long maxLagMillis;
+
+    private ReplicationHealthIndicator(ReplicationLog log, ReplicationFollower follower, Duration maxLag) {
+        this.log = log;
+        this.follower = follower;
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    /**
+     * @return indicator of an instance that neither ships nor copies changes.
+     */
+    public static ReplicationHealthIndicator standalone() {
+        return new ReplicationHealthIndicator(null, null, Duration.ZERO);
+    }
+
+    /**
+     * @param log log the primary ships its changes through.
+     * @return indicator of a primary.
+     */
+    public static ReplicationHealthIndicator primary(ReplicationLog log) {
+        return new ReplicationHealthIndicator(log, null, Duration.ZERO);
+    }
+
+    /**
+     * @param follower follower to report on.
+     * @param maxLag lag above which the follower is out of service.
+     * @return indicator of a follower.
+     */
+    public static ReplicationHealthIndicator follower(ReplicationFollower follower, Duration maxLag) {
+        return new ReplicationHealthIndicator(null, follower, maxLag);
+    }
+
+    @Override
+    public Health health() {
+        if (log == null && follower == null) {
+            return Health.up().withDetail("role", "none").build();
+        }
+        if (log != null) {
+            return Health.up()
+                .withDetail("role", "primary")
+                .withDetail("epoch", log.epoch())
+                .withDetail("lastSequence", log.lastSequence())
+                .build();
+        }
+        long lag = follower.lagMillis();
+        Health.Builder builder;
+        if (!follower.isRunning()) {
+            builder = Health.down();
+        } else if (lag > maxLagMillis) {
+            builder = Health.outOfService();
+        } else {
+            builder = Health.up();
+        }
+        builder.withDetail("role", "follower")
+            .withDetail("appliedSequence", follower.appliedSequence())
+            .withDetail("primarySequence", follower.primarySequence());
+        if (lag != Long.MAX_VALUE) {
+            builder.withDetail("lagMillis", lag);
+        }
+        if (follower.failure() != null) {
+            builder.withDetail("failure", follower.failure());
+        }
+        return builder.build();
+    }
+}
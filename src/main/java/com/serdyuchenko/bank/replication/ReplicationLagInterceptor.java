@@ -0,0 +1,48 @@
+package com.serdyuchenko.bank.replication;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Tells clients of a follower how stale its answers may be: every response carries the current lag in
+ * {@value #LAG_HEADER}, and once the lag exceeds the configured maximum, or replication stopped, the request is
+ * answered with 503 instead of data older than clients were promised.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class ReplicationLagInterceptor implements HandlerInterceptor {
+    /**
+     * Response header carrying {@link ReplicationFollower#lagMillis()}; absent until the follower caught up once.
+     */
+    public static final String LAG_HEADER = "X-Replication-Lag-Millis";
+
+    private final ReplicationFollower follower;
+    private final long maxLagMillis;
+
+    /**
+     * @param follower follower whose lag is reported.
+     * @param maxLag lag above which requests are refused.
+     */
+    public ReplicationLagInterceptor(ReplicationFollower follower, Duration maxLag) {
+        this.follower = follower;
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long lag = follower.lagMillis();
+        if (lag != Long.MAX_VALUE) {
+            response.setHeader(LAG_HEADER, Long.toString(lag));
+        }
+        if (lag > maxLagMillis || !follower.isRunning()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return false;
+        }
+        return true;
+    }
+}
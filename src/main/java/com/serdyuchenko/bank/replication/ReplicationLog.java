@@ -0,0 +1,172 @@
+package com.serdyuchenko.bank.replication;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.transaction.Transaction;
+
+/**
+ * Primary-side log of every registry change and ledger entry since the process started, numbered from 1 in
+ * append order, which followers read from the position they have applied. Changes are appended by
+ * {@link ReplicatingRegistryEventLog} and {@link ReplicatingTransactionLedger} while the writer still owns the
+ * account, so the entries of one account are in ledger order.
+ * <p>
+ * The log is a lock-free ring, like {@code RingBufferEventBus}: a writer claims its sequence with one atomic
+ * increment and publishes the record into its slot, so writers on different stripes or partitions never wait
+ * for each other. Readers take the contiguous published records after their position; a record claimed but not
+ * yet published ends the batch, so a reader never skips one. The newest {@code capacity} records are kept; a
+ * reader that falls further behind finds its next slot overwritten and has to start over. A reader with nothing
+ * to read parks until the next publish or its deadline, so followers long-poll instead of spinning.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class ReplicationLog {
+    private final AtomicReferenceArray<ReplicationRecord> slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    /**
+     * Identifies this run of the log; a follower that sees it change knows the sequences started over.
+     */
+    private final String epoch = UUID.randomUUID().toString();
+    private final Set<Thread> parkedReaders = ConcurrentHashMap.newKeySet();
+    /**
+     * Set by a reader about to park; the first writer to see it clears it and wakes the parked readers, so a
+     * burst of appends costs one wake-up rather than one per record.
+     */
+    private final AtomicBoolean wakeUpNeeded = new AtomicBoolean();
+
+    /**
+     * @param capacity number of records kept; rounded up to the next power of two.
+     */
+    public ReplicationLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Replication log capacity must be a positive number");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param event registry change to ship.
+     */
+    public void append(RegistryEvent event) {
+        long sequence = claimed.incrementAndGet();
+        publish(ReplicationRecord.of(sequence, System.currentTimeMillis(), event));
+        wakeReaders();
+    }
+
+    /**
+     * @param entry ledger entry to ship.
+     */
+    public void append(Transaction entry) {
+        long sequence = claimed.incrementAndGet();
+        publish(ReplicationRecord.of(sequence, System.currentTimeMillis(), entry));
+        wakeReaders();
+    }
+
+    /**
+     * @param entries ledger entries to ship, in order, under consecutive sequences.
+     */
+    public void appendAll(List<Transaction> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long first = claimed.getAndAdd(entries.size()) + 1;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < entries.size(); i++) {
+            publish(ReplicationRecord.of(first + i, now, entries.get(i)));
+        }
+        wakeReaders();
+    }
+
+    /**
+     * Returns the published records after {@code after}, waiting up to {@code wait} for one when there are none
+     * yet.
+     *
+     * @param after sequence the reader has applied; 0 for none.
+     * @param max maximum number of records returned.
+     * @param wait how long to wait for a first record.
+     * @return records in sequence order; empty when none arrived in time.
+     * @throws IllegalArgumentException when records after {@code after} are no longer kept.
+     * @throws InterruptedException when interrupted while waiting.
+     */
+    public List<ReplicationRecord> read(long after, int max, Duration wait) throws InterruptedException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        List<ReplicationRecord> records = collect(after, max);
+        Thread reader = Thread.currentThread();
+        while (records.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return records;
+            }
+            parkedReaders.add(reader);
+            wakeUpNeeded.set(true);
+            try {
+                // Re-check after raising the flag: a record published before the flag was seen is read here.
+                records = collect(after, max);
+                if (records.isEmpty()) {
+                    LockSupport.parkNanos(this, remaining);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    records = collect(after, max);
+                }
+            } finally {
+                parkedReaders.remove(reader);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * @return highest sequence claimed so far, possibly not yet published; 0 while the log is empty.
+     */
+    public long lastSequence() {
+        return claimed.get();
+    }
+
+    /**
+     * @return identifier of this run of the log.
+     */
+    public String epoch() {
+        return epoch;
+    }
+
+    private void publish(ReplicationRecord record) {
+        // A plain volatile write, not lazySet: it has to be ordered before the wakeUpNeeded read in wakeReaders.
+        slots.set((int) (record.getSequence() & mask), record);
+    }
+
+    private List<ReplicationRecord> collect(long after, int max) {
+        List<ReplicationRecord> records = new ArrayList<>();
+        for (long sequence = after + 1; records.size() < max; sequence++) {
+            ReplicationRecord record = slots.get((int) (sequence & mask));
+            if (record == null || record.getSequence() < sequence) {
+                break;
+            }
+            if (record.getSequence() > sequence) {
+                throw new IllegalArgumentException("Records after " + after + " are no longer kept");
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    private void wakeReaders() {
+        if (wakeUpNeeded.get() && wakeUpNeeded.getAndSet(false)) {
+            for (Thread reader : parkedReaders) {
+                LockSupport.unpark(reader);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.serdyuchenko.bank.replication;
+
+import java.util.Objects;
+
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.transaction.Transaction;
+
+/**
+ * One change shipped from the primary to its followers: either a registry change or a ledger entry, at its
+ * position in the {@link ReplicationLog}.
+ *
+ * @author Anton Serdyuchenko
+ */
+public final class ReplicationRecord {
+    private final long sequence;
+    private final long appendedAtMillis;
+    private final RegistryEvent registryEvent;
+    private final Transaction entry;
+
+    private ReplicationRecord(long sequence, long appendedAtMillis, RegistryEvent registryEvent, Transaction entry) {
+        this.sequence = sequence;
+        this.appendedAtMillis = appendedAtMillis;
+        this.registryEvent = registryEvent;
+        this.entry = entry;
+    }
+
+    /**
+     * @param sequence position in the log.
+     * @param appendedAtMillis wall-clock time the primary appended the record.
+     * @param event registry change.
+     * @return record carrying the registry change.
+     */
+    public static ReplicationRecord of(long sequence, long appendedAtMillis, RegistryEvent event) {
+        return new ReplicationRecord(sequence, appendedAtMillis, Objects.requireNonNull(event), null);
+    }
+
+    /**
+     * @param sequence position in the log.
+     * @param appendedAtMillis wall-clock time the primary appended the record.
+     * @param entry ledger entry.
+     * @return record carrying the ledger entry.
+     */
+    public static ReplicationRecord of(long sequence, long appendedAtMillis, Transaction entry) {
+        return new ReplicationRecord(sequence, appendedAtMillis, null, Objects.requireNonNull(entry));
+    }
+
+    /**
+     * @return position in the log; the first record is 1, and each next one is one higher.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getAppendedAtMillis() {
+        return appendedAtMillis;
+    }
+
+    /**
+     * @return registry change; {@code null} when the record carries a ledger entry.
+     */
+    public RegistryEvent getRegistryEvent() {
+        return registryEvent;
+    }
+
+    /**
+     * @return ledger entry; {@code null} when the record carries a registry change.
+     */
+    public Transaction getEntry() {
+        return entry;
+    }
+}
@@ -0,0 +1,140 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.serdyuchenko.bank.domain.Account;
+
+/**
+ * Fixed pool of locks striped by account requisite. Operations on accounts in different stripes never
+ * contend, and there is no global lock.
+ * <p>
+ * Two-account operations acquire their stripes in ascending index order, which gives every thread the same
+ * lock ordering and rules out deadlocks between opposite transfers (A → B while B → A).
+ *
+ * @author Anton Serdyuchenko
+ */
+public class AccountLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * Creates the pool.
+     *
+     * @param stripes requested number of stripes; rounded up to the next power of two.
+     */
+    public AccountLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Lock stripes must be a positive number");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Acquires the stripe guarding the account.
+     *
+     * @param account account about to be mutated.
+     */
+    public void lock(Account account) {
+        stripes[stripeOf(account)].lock();
+    }
+
+    /**
+     * Releases the stripe acquired by {@link #lock(Account)}.
+     *
+     * @param account account that was mutated.
+     */
+    public void unlock(Account account) {
+        stripes[stripeOf(account)].unlock();
+    }
+
+    /**
+     * Acquires the stripes of both accounts in ascending stripe order; a shared stripe is taken once.
+     *
+     * @param first first account (e.g. transfer source).
+     * @param second second account (e.g. transfer destination).
+     */
+    public void lock(Account first, Account second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            stripes[a].lock();
+            return;
+        }
+        stripes[Math.min(a, b)].lock();
+        stripes[Math.max(a, b)].lock();
+    }
+
+    /**
+     * Releases the stripes acquired by {@link #lock(Account, Account)}.
+     *
+     * @param first first account.
+     * @param second second account.
+     */
+    public void unlock(Account first, Account second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        stripes[a].unlock();
+        if (a != b) {
+            stripes[b].unlock();
+        }
+    }
+
+    /**
+     * Computes the distinct stripes guarding the given accounts, in ascending (lock acquisition) order.
+     *
+     * @param accounts accounts touched by a batch.
+     * @return sorted, distinct stripe indexes.
+     */
+    public int[] stripesOf(Collection<Account> accounts) {
+        int[] result = new int[accounts.size()];
+        int i = 0;
+        for (Account account : accounts) {
+            result[i++] = stripeOf(account);
+        }
+        return Arrays.stream(result).sorted().distinct().toArray();
+    }
+
+    /**
+     * Acquires each of the given stripes once, in the order given (which must be ascending).
+     *
+     * @param stripeIndexes result of {@link #stripesOf(Collection)}.
+     */
+    public void lockStripes(int[] stripeIndexes) {
+        for (int stripe : stripeIndexes) {
+            stripes[stripe].lock();
+        }
+    }
+
+    /**
+     * Releases stripes acquired by {@link #lockStripes(int[])}.
+     *
+     * @param stripeIndexes the same indexes passed to {@link #lockStripes(int[])}.
+     */
+    public void unlockStripes(int[] stripeIndexes) {
+        for (int i = stripeIndexes.length - 1; i >= 0; i--) {
+            stripes[stripeIndexes[i]].unlock();
+        }
+    }
+
+    /**
+     * @return number of stripes in the pool.
+     */
+    public int size() {
+        return stripes.length;
+    }
+
+    int stripeOf(Account account) {
+        int h = account.getRequisite().hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,213 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.serdyuchenko.bank.domain.Account;
+
+/**
+ * Fixed set of single-threaded partitions, each owning the accounts whose requisite hashes to it. Every balance
+ * change of an account runs on its partition's thread, so mutations need no lock: a partition applies its tasks
+ * one after another, and two partitions never touch the same account.
+ * <p>
+ * Tasks are queued without a bound. Callers of {@link #call} wait for their result, so the number of queued tasks
+ * is bounded by the number of calling threads, and a partition handing work to another with {@link #submit}
+ * never blocks, which rules out deadlocks between partitions.
+ * <p>
+ * {@link #close()} refuses new work from outside, but a task already admitted may still hand work to another
+ * partition, e.g. the credit leg of a transfer whose debit is done. Partitions therefore only stop once no task
+ * is queued or running anywhere, so no admitted operation is left half-applied.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class AccountPartitions implements AutoCloseable {
+    private static final Runnable STOP = () -> { };
+
+    private final Partition[] partitions;
+    /**
+     * Tasks queued or running on any partition. A handoff is counted before the task that makes it finishes, so
+     * once the partitions are closed and this reaches zero, no further task can appear.
+     */
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Creates the partitions and starts their threads.
+     *
+     * @param count number of partitions, i.e. of writer threads.
+     */
+    public AccountPartitions(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Partition count must be a positive number");
+        }
+        this.partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            partitions[i] = new Partition("account-partition-" + i);
+        }
+    }
+
+    /**
+     * @param account account to locate.
+     * @return index of the partition owning the account.
+     */
+    public int partitionOf(Account account) {
+        int h = account.getRequisite().hashCode();
+        return Math.floorMod(h ^ (h >>> 16), partitions.length);
+    }
+
+    /**
+     * Runs the task on the partition owning the account and waits for its result. Called from that partition's
+     * own thread, the task runs inline.
+     *
+     * @param account account the task mutates.
+     * @param task task to run.
+     * @param <T> result type.
+     * @return result of the task.
+     * @throws IllegalStateException after {@link #close()}.
+     */
+    public <T> T call(Account account, Supplier<T> task) {
+        Partition partition = partitions[partitionOf(account)];
+        if (Thread.currentThread() == partition.thread) {
+            return task.get();
+        }
+        return await(partition.submit(task));
+    }
+
+    /**
+     * Queues the task on the partition owning the account without waiting for it.
+     *
+     * @param account account the task mutates.
+     * @param task task to run.
+     * @param <T> result type.
+     * @return future completed with the task's result or exception.
+     * @throws IllegalStateException after {@link #close()}, unless called from a partition thread.
+     */
+    public <T> CompletableFuture<T> submit(Account account, Supplier<T> task) {
+        return partitions[partitionOf(account)].submit(task);
+    }
+
+    /**
+     * Waits for a future returned by {@link #submit}, rethrowing the task's exception unwrapped.
+     *
+     * @param future future to wait for.
+     * @param <T> result type.
+     * @return result of the task.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of partitions.
+     */
+    public int size() {
+        return partitions.length;
+    }
+
+    /**
+     * Refuses new work from outside the partitions, waits until every admitted task and every handoff it made
+     * has run, then stops the threads.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (pending) {
+            while (pending.get() > 0) {
+                try {
+                    pending.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        for (Partition partition : partitions) {
+            partition.queue.add(STOP);
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class Partition {
+        private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+        private final Thread thread;
+
+        private Partition(String name) {
+            this.thread = new Thread(this::run, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private <T> CompletableFuture<T> submit(Supplier<T> task) {
+            pending.incrementAndGet();
+            // Counted before the check, so close() either sees this task pending or we see it closed.
+            if (closed && !isPartitionThread()) {
+                finished();
+                throw new IllegalStateException("Account partitions are closed");
+            }
+            CompletableFuture<T> future = new CompletableFuture<>();
+            queue.add(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    finished();
+                }
+            });
+            return future;
+        }
+
+        private void run() {
+            try {
+                for (Runnable task = queue.take(); task != STOP; task = queue.take()) {
+                    task.run();
+                }
+                // STOP is only queued once nothing is pending; drain defensively all the same.
+                for (Runnable task = queue.poll(); task != null; task = queue.poll()) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean isPartitionThread() {
+        Thread current = Thread.currentThread();
+        for (Partition partition : partitions) {
+            if (partition.thread == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0 && closed) {
+            synchronized (pending) {
+                pending.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.serdyuchenko.bank.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+
+/**
+ * Hash index over users and their accounts: passport → user, then requisite → account inside the user.
+ * Every lookup is a pair of hash probes, so the cost of a money movement does not depend on how many
+ * customers the bank holds. A second index maps requisite → account directly, for callers that start from a
+ * ledger entry, which only knows the requisite, so a requisite identifies one account across the whole bank.
+ * <p>
+ * Safe for concurrent use: the indexes are {@link ConcurrentHashMap}s and each user's opening order is an
+ * append-only array published through a volatile count, so lookups and {@link #accounts(String)} never block
+ * while accounts are opened, and opening one costs the same however many accounts the user already has.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class AccountRegistry {
+    private final Map<String, UserAccounts> byPassport = new ConcurrentHashMap<>();
+    private final Map<String, Account> byRequisite = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the user, replacing any previous registration (and its accounts) with the same passport.
+     *
+     * @param user user to register.
+     */
+    public void register(User user) {
+        unindex(byPassport.put(user.getPassport(), new UserAccounts(user)));
+    }
+
+    /**
+     * Removes the user registered under the passport together with the user's accounts.
+     *
+     * @param passport passport of the user to remove.
+     */
+    public void remove(String passport) {
+        unindex(byPassport.remove(passport));
+    }
+
+    /**
+     * Looks up a user by passport.
+     *
+     * @param passport passport of the user.
+     * @return registered user or {@code null} when unknown.
+     */
+    public User findUser(String passport) {
+        UserAccounts entry = byPassport.get(passport);
+        return entry == null ? null : entry.user;
+    }
+
+    /**
+     * Looks up an account that belongs to the user with the given passport.
+     *
+     * @param passport passport of the account owner.
+     * @param requisite account requisite.
+     * @return account or {@code null} when either the user or the account is unknown.
+     */
+    public Account findAccount(String passport, String requisite) {
+        UserAccounts entry = byPassport.get(passport);
+        return entry == null ? null : entry.accounts.get(requisite);
+    }
+
+    /**
+     * Looks up an account by requisite alone, whoever owns it.
+     *
+     * @param requisite account requisite.
+     * @return account or {@code null} when unknown.
+     */
+    public Account findAccount(String requisite) {
+        return byRequisite.get(requisite);
+    }
+
+    /**
+     * Attaches an account to an already registered user unless the requisite is taken by any account, the
+     * user's own or another user's.
+     *
+     * @param passport passport of the account owner.
+     * @param account account to attach.
+     * @return {@code true} when the account was added.
+     */
+    public boolean addAccount(String passport, Account account) {
+        UserAccounts entry = byPassport.get(passport);
+        if (entry == null || byRequisite.putIfAbsent(account.getRequisite(), account) != null) {
+            return false;
+        }
+        entry.add(account);
+        return true;
+    }
+
+    /**
+     * Returns the accounts of the user in the order they were opened.
+     *
+     * @param passport passport of the account owner.
+     * @return immutable snapshot of the accounts; empty when the user is unknown.
+     */
+    public Collection<Account> accounts(String passport) {
+        UserAccounts entry = byPassport.get(passport);
+        return entry == null ? List.of() : entry.snapshot();
+    }
+
+    /**
+     * @return every registered user, in no particular order.
+     */
+    public List<User> users() {
+        List<User> users = new ArrayList<>(byPassport.size());
+        for (UserAccounts entry : byPassport.values()) {
+            users.add(entry.user);
+        }
+        return users;
+    }
+
+    /**
+     * @return number of registered users.
+     */
+    public int userCount() {
+        return byPassport.size();
+    }
+
+    private void unindex(UserAccounts removed) {
+        if (removed != null) {
+            for (Account account : removed.snapshot()) {
+                byRequisite.remove(account.getRequisite(), account);
+            }
+        }
+    }
+
+    private static final class UserAccounts {
+        private final User user;
+        private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+        /**
+         * Accounts in opening order. Slots below {@link #count} are never written again, and a grown array is
+         * assigned before the count that exposes it, so a reader that loads the count first sees a full prefix.
+         */
+        private Account[] ordered = new Account[4];
+        private volatile int count;
+
+        private UserAccounts(User user) {
+            this.user = user;
+        }
+
+        /**
+         * Called only with a requisite just claimed in the registry-wide index, so it is never already here.
+         */
+        private synchronized void add(Account account) {
+            if (count == ordered.length) {
+                ordered = Arrays.copyOf(ordered, count * 2);
+            }
+            ordered[count] = account;
+            accounts.put(account.getRequisite(), account);
+            count = count + 1;
+        }
+
+        private List<Account> snapshot() {
+            int size = count;
+            return Collections.unmodifiableList(Arrays.asList(ordered).subList(0, size));
+        }
+    }
+}
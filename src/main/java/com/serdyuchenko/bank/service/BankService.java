@@ -1,20 +1,45 @@
 package com.serdyuchenko.bank.service;
 
-import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.serdyuchenko.bank.config.AppProperties;
 import com.serdyuchenko.bank.domain.Account;
-import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.domain.MinorUnits;
 import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.event.BankEventPublisher;
+import com.serdyuchenko.bank.event.NoopBankEventPublisher;
+import com.serdyuchenko.bank.metrics.BankMetrics;
+import com.serdyuchenko.bank.metrics.MoneyOperation;
+import com.serdyuchenko.bank.metrics.NoopBankMetrics;
+import com.serdyuchenko.bank.registry.InMemoryRegistryEventLog;
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.registry.RegistryEventLog;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.IdGenerator;
 import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.LedgerEntry;
+import com.serdyuchenko.bank.transaction.ReplicaLedger;
+import com.serdyuchenko.bank.transaction.Transaction;
 import com.serdyuchenko.bank.transaction.TransactionLedger;
 import com.serdyuchenko.bank.transaction.TransactionMetadata;
 import com.serdyuchenko.bank.transaction.TransactionType;
@@ -22,59 +47,361 @@ import com.serdyuchenko.bank.workflow.WorkflowPort;
 
 /**
  * Main service.
+ * Amounts are converted to fixed-point minor units once at the API boundary; balance checks, mutations and
+ * ledger writes use {@code long} arithmetic only.
+ * Every ledger entry carries the account balance right after it, taken while the account's stripe is held, so
+ * the ledger can answer "balance as of" queries without replaying history.
+ * Thread-safe: account lookups go through a concurrent {@link AccountRegistry}, and balance checks plus
+ * mutations run under striped per-account {@link AccountLocks}, so operations on unrelated accounts proceed
+ * in parallel. With {@code app.execution.mode=partitioned} the locks are replaced by {@link AccountPartitions}:
+ * each account is owned by one single-threaded partition, every balance change runs there, and a transfer
+ * between partitions is split into a debit on the source's partition and a credit handed to the destination's.
+ * Users and accounts are recorded as {@link RegistryEvent}s, so the registry can be rebuilt after a restart
+ * (see {@code StartupRecovery}); while a recovery is running, reads are served but every write is rejected.
+ * The {@code *Idempotent} variants remember their result under a client key in an {@link IdempotencyCache}, so
+ * retries are answered without applying the operation twice; the key is bound to the operation and arguments it
+ * first came with.
+ * When accounts are sharded across nodes, the steps of a transfer between two nodes run through
+ * {@link #onAccount}, each on one account of this node.
  * @author antonserdyuchenko
  * @since 11.10.2025
  */
 @Service
-public class BankService {
+public class BankService implements AutoCloseable {
+    private static final String IDEMPOTENCY_KEY_REQUIRED = "Idempotency key must not be blank.";
+    private static final String RECOVERING = "Service is recovering its state; try again shortly.";
+    private static final String READ_ONLY = "This instance is a read-only replica; send writes to the primary.";
     private final TransactionLedger ledger;
     /**
-     * All users and there's accounts.
+     * All users and there's accounts, indexed by passport and requisite.
      */
-    private final Map<User, List<Account>> users = new HashMap<>();
+    private final AccountRegistry registry = new AccountRegistry();
     private final AppProperties properties;
     private final WorkflowPort workflowPort;
+    /**
+     * Striped per-account locks; balances are only mutated while the owning stripe is held.
+     */
+    private final AccountLocks locks;
+    /**
+     * Single-writer partitions owning the accounts; {@code null} unless {@code app.execution.mode=partitioned}, in
+     * which case balances are mutated only on the owning partition's thread and {@link #locks} are not used.
+     */
+    private final AccountPartitions partitions;
+    /**
+     * Results of keyed operations, replayed to client retries.
+     */
+    private final IdempotencyCache idempotencyCache;
+    private final IdGenerator idGenerator;
+    private final BankMetrics metrics;
+    private final RegistryEventLog registryEvents;
+    /**
+     * Receives every completed money movement; called under the account stripes, so per-account order holds.
+     */
+    private final BankEventPublisher events;
+    /**
+     * Serializes registry changes; each is appended to the event log before it is applied, in the same order.
+     */
+    private final ReentrantLock registryWriteLock = new ReentrantLock();
+    private volatile boolean recovering;
+    /**
+     * Set on replication followers, whose state only changes through the {@code applyReplicated} methods.
+     */
+    private volatile boolean readOnly;
     /**
      * Creates a service with injected collaborators for persistence, configuration, and workflow orchestration.
      *
      * @param ledger ledger instance to record transactions in
      * @param properties application configuration properties
-     * @param workflowPort port used to kick off external workflows (placeholder today)
+     * @param workflowPort port used to kick off external workflows
+     * @see TimeOrderedIdGenerator used for transfer ids
      */
     public BankService(TransactionLedger ledger, AppProperties properties, WorkflowPort workflowPort) {
+        this(ledger, properties, workflowPort, new TimeOrderedIdGenerator(0));
+    }
+
+    /**
+     * Creates a service with injected collaborators, including the generator of transfer ids.
+     *
+     * @param ledger ledger instance to record transactions in
+     * @param properties application configuration properties
+     * @param workflowPort port used to kick off external workflows
+     * @param idGenerator generator for transfer and operation ids
+     */
+    public BankService(TransactionLedger ledger, AppProperties properties, WorkflowPort workflowPort,
+                       IdGenerator idGenerator) {
+        this(ledger, properties, workflowPort, idGenerator, new NoopBankMetrics());
+    }
+
+    /**
+     * Creates a service with injected collaborators, including id generation and metrics reporting.
+     *
+     * @param ledger ledger instance to record transactions in
+     * @param properties application configuration properties
+     * @param workflowPort port used to kick off external workflows
+     * @param idGenerator generator for transfer and operation ids
+     * @param metrics port receiving latency and outcome of every money operation
+     */
+    public BankService(TransactionLedger ledger, AppProperties properties, WorkflowPort workflowPort,
+                       IdGenerator idGenerator, BankMetrics metrics) {
+        this(ledger, properties, workflowPort, idGenerator, metrics, new InMemoryRegistryEventLog());
+    }
+
+    /**
+     * Creates a service without an event subscriber.
+     *
+     * @param ledger ledger instance to record transactions in
+     * @param properties application configuration properties
+     * @param workflowPort port used to kick off external workflows
+     * @param idGenerator generator for transfer and operation ids
+     * @param metrics port receiving latency and outcome of every money operation
+     * @param registryEvents log of user and account changes, replayed on startup
+     */
+    public BankService(TransactionLedger ledger, AppProperties properties, WorkflowPort workflowPort,
+                       IdGenerator idGenerator, BankMetrics metrics, RegistryEventLog registryEvents) {
+        this(ledger, properties, workflowPort, idGenerator, metrics, registryEvents, new NoopBankEventPublisher());
+    }
+
+    /**
+     * Creates a service with every collaborator, including the log that users and accounts are recorded in and
+     * the publisher of domain events.
+     *
+     * @param ledger ledger instance to record transactions in
+     * @param properties application configuration properties
+     * @param workflowPort port used to kick off external workflows
+     * @param idGenerator generator for transfer and operation ids
+     * @param metrics port receiving latency and outcome of every money operation
+     * @param registryEvents log of user and account changes, replayed on startup
+     * @param events port announcing every completed money movement to subscribers
+     */
+    @Autowired
+    public BankService(TransactionLedger ledger, AppProperties properties, WorkflowPort workflowPort,
+                       IdGenerator idGenerator, BankMetrics metrics, RegistryEventLog registryEvents,
+                       BankEventPublisher events) {
         this.ledger = Objects.requireNonNull(ledger, "TransactionLedger cannot be null");
         this.properties = Objects.requireNonNull(properties, "AppProperties cannot be null");
         this.workflowPort = Objects.requireNonNull(workflowPort, "WorkflowPort cannot be null");
+        this.idGenerator = Objects.requireNonNull(idGenerator, "IdGenerator cannot be null");
+        this.metrics = Objects.requireNonNull(metrics, "BankMetrics cannot be null");
+        this.registryEvents = Objects.requireNonNull(registryEvents, "RegistryEventLog cannot be null");
+        this.events = Objects.requireNonNull(events, "BankEventPublisher cannot be null");
+        this.locks = new AccountLocks(properties.getLockStripes());
+        this.partitions = partitionsFor(properties.getExecution());
+        this.idempotencyCache = new IdempotencyCache(properties.getIdempotency().getTtl(),
+            properties.getIdempotency().getMaxEntries(), Clock.systemUTC());
     }
 
     /**
-     * Add user.
+     * Add user and start their onboarding workflow. The workflow is started after the registry lock is released,
+     * so a slow engine never holds up other registrations.
      * @param user  user that would be added.
+     * @throws IllegalStateException while a recovery is running, or on a read-only replica.
      */
     public void addUser(User user) {
-        users.put(user, new ArrayList<>());
+        registryWriteLock.lock();
+        try {
+            requireNotRecovering();
+            registryEvents.append(RegistryEvent.userRegistered(user));
+            registry.register(user);
+        } finally {
+            registryWriteLock.unlock();
+        }
+        workflowPort.startOnboarding(user);
     }
 
     /**
      * Delete user.
      * @param passport  passport of user that would be deleted.
+     * @throws IllegalStateException while a recovery is running, or on a read-only replica.
      */
     public void deleteUser(String passport) {
-        users.entrySet().removeIf(entry -> passport.equals(entry.getKey().getPassport()));
+        registryWriteLock.lock();
+        try {
+            requireNotRecovering();
+            if (registry.findUser(passport) != null) {
+                registryEvents.append(RegistryEvent.userRemoved(passport));
+                registry.remove(passport);
+            }
+        } finally {
+            registryWriteLock.unlock();
+        }
     }
 
     /**
-     * Add new account to user.
+     * Add new account to user, unless an account with the same requisite already exists for any user.
      * @param passport  passport of user that would have new account.
      * @param account   new account.
+     * @throws IllegalStateException while a recovery is running, or on a read-only replica.
      */
     public void addAccount(String passport, Account account) {
-        User user = findByPassport(passport);
-        if (user != null) {
-            List<Account> accounts = users.get(user);
-            if (findByRequisite(passport, account.getRequisite()) == null) {
-                accounts.add(account);
+        registryWriteLock.lock();
+        try {
+            requireNotRecovering();
+            // Registry changes only happen under this lock, so the check still holds when the account is added.
+            if (registry.findUser(passport) != null && registry.findAccount(account.getRequisite()) == null) {
+                // A requisite freed by a removed account keeps its ledger history; recovery must skip it.
+                registryEvents.append(RegistryEvent.accountOpened(passport, account,
+                    ledger.getTransactions(account.getRequisite()).size()));
+                registry.addAccount(passport, account);
+            }
+        } finally {
+            registryWriteLock.unlock();
+        }
+    }
+
+    /**
+     * Puts back a user with accounts whose balances were already recovered. Nothing is appended to the registry
+     * log, since the user came from it.
+     *
+     * @param user recovered user.
+     * @param accounts the user's accounts in opening order, with their current balances.
+     */
+    public void restoreUser(User user, List<Account> accounts) {
+        registry.register(user);
+        for (Account account : accounts) {
+            registry.addAccount(user.getPassport(), account);
+        }
+    }
+
+    /**
+     * Starts rejecting writes until {@link #completeRecovery()}; reads keep being served.
+     */
+    public void beginRecovery() {
+        recovering = true;
+    }
+
+    /**
+     * Accepts writes again after a recovery.
+     */
+    public void completeRecovery() {
+        recovering = false;
+    }
+
+    /**
+     * @return whether a recovery is running and writes are rejected.
+     */
+    public boolean isRecovering() {
+        return recovering;
+    }
+
+    /**
+     * Rejects every write from now on, for good; reads keep being served. Used by replication followers, which
+     * take changes only from their primary through {@link #applyReplicated(RegistryEvent)} and
+     * {@link #applyReplicated(Transaction)}.
+     *
+     * @throws IllegalStateException when the ledger cannot take entries recorded by the primary
+     */
+    public void makeReadOnly() {
+        if (!(ledger instanceof ReplicaLedger)) {
+            throw new IllegalStateException(ledger.getClass().getSimpleName() + " cannot hold a replica");
+        }
+        readOnly = true;
+    }
+
+    /**
+     * @return whether this instance is a read-only replica.
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Applies a registry change replicated from the primary. Nothing is appended to the registry log and no
+     * workflow is started; the primary did both. Changes already applied here are skipped, so a snapshot may
+     * overlap the log it is followed by.
+     *
+     * @param event user or account change, in the primary's order.
+     */
+    public void applyReplicated(RegistryEvent event) {
+        registryWriteLock.lock();
+        try {
+            switch (event.getType()) {
+                case USER_REGISTERED -> {
+                    if (registry.findUser(event.getPassport()) == null) {
+                        registry.register(new User(event.getPassport(), event.getUsername()));
+                    }
+                }
+                case USER_REMOVED -> registry.remove(event.getPassport());
+                case ACCOUNT_OPENED -> registry.addAccount(event.getPassport(),
+                    new Account(event.getRequisite(), MinorUnits.toDouble(event.getOpeningBalanceMinor())));
+                default -> throw new IllegalStateException("Unknown registry event " + event.getType());
+            }
+        } finally {
+            registryWriteLock.unlock();
+        }
+    }
+
+    /**
+     * Applies a ledger entry replicated from the primary: the entry is appended as it is, with its id and
+     * timestamp, and the account takes the balance recorded with it. Entries of one account must come in the
+     * primary's order, from a single thread. An entry held here already, as when a snapshot overlaps the log, is
+     * found by id among the account's entries from its timestamp on and only sets the balance again.
+     *
+     * @param entry entry recorded by the primary's ledger.
+     * @return {@code false}, applying nothing, when the entry is missing here but newer entries of the account are
+     *     not: this copy's history then differs from the primary's.
+     */
+    public boolean applyReplicated(Transaction entry) {
+        List<Transaction> history = ledger.getTransactions(entry.getAccountId());
+        boolean held = false;
+        boolean newer = false;
+        for (int i = history.size() - 1; i >= 0 && !held; i--) {
+            Transaction kept = history.get(i);
+            if (kept.getTimeStamp().isBefore(entry.getTimeStamp())) {
+                break;
+            }
+            held = kept.getId().equals(entry.getId());
+            newer |= kept.getTimeStamp().isAfter(entry.getTimeStamp());
+        }
+        if (!held) {
+            if (newer) {
+                return false;
+            }
+            ((ReplicaLedger) ledger).append(entry);
+        }
+        Account account = registry.findAccount(entry.getAccountId());
+        if (account != null && entry.hasBalanceAfter()) {
+            account.setBalanceMinor(entry.getBalanceAfterMinor());
+        }
+        return true;
+    }
+
+    /**
+     * Removes every user whose passport is not listed, as a follower does after copying a primary that dropped
+     * users while the follower was away.
+     *
+     * @param passports passports of the users to keep.
+     */
+    public void retainUsers(Set<String> passports) {
+        registryWriteLock.lock();
+        try {
+            for (User user : registry.users()) {
+                if (!passports.contains(user.getPassport())) {
+                    registry.remove(user.getPassport());
+                }
+            }
+        } finally {
+            registryWriteLock.unlock();
+        }
+    }
+
+    /**
+     * Copies the registry for a replication snapshot while no registry change runs, and reads the position the
+     * snapshot is taken at in the same moment: every change logged up to that position is in the copy.
+     *
+     * @param position reads the replication log's newest sequence.
+     * @param users receives every user with the accounts opened so far, in opening order.
+     * @return the position read.
+     */
+    public long copyRegistry(LongSupplier position, Map<User, List<Account>> users) {
+        registryWriteLock.lock();
+        try {
+            long at = position.getAsLong();
+            for (User user : registry.users()) {
+                users.put(user, new ArrayList<>(registry.accounts(user.getPassport())));
             }
+            return at;
+        } finally {
+            registryWriteLock.unlock();
         }
     }
 
@@ -84,12 +411,7 @@ public class BankService {
      * @return          user.
      */
     public User findByPassport(String passport) {
-        for (User user : users.keySet()) {
-            if (passport.equals(user.getPassport())) {
-                return user;
-            }
-        }
-        return null;
+        return registry.findUser(passport);
     }
 
     /**
@@ -99,16 +421,7 @@ public class BankService {
      * @return              account.
      */
     public Account findByRequisite(String passport, String requisite) {
-        User user = findByPassport(passport);
-        List<Account> accounts = users.get(user);
-        if (accounts != null) {
-            for (Account account : accounts) {
-                if (requisite.equals(account.getRequisite())) {
-                    return account;
-                }
-            }
-        }
-        return null;
+        return registry.findAccount(passport, requisite);
     }
 
     /**
@@ -124,39 +437,453 @@ public class BankService {
     public OperationResult transferMoney(String sourcePassport, String sourceRequisite,
                                          String destinationPassport, String destinationRequisite,
                                          double amount) {
+        if (rejectsWrites()) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, writeRefusal());
+        }
+        long start = metrics.start();
+        OperationResult result = transfer(sourcePassport, sourceRequisite, destinationPassport, destinationRequisite,
+            amount, null, false);
+        metrics.recordOperation(MoneyOperation.TRANSFER, start, result);
+        return result;
+    }
+
+    /**
+     * Idempotent variant of {@link #transferMoney(String, String, String, String, double)}: the first call with
+     * a key applies the transfer, later calls with the same key within the configured window get the same
+     * {@link OperationResult} back without touching accounts or the ledger. The key becomes the transaction id
+     * of both ledger entries. A key already used for another operation or other arguments is refused with
+     * {@link FailureReason#IDEMPOTENCY_CONFLICT}, and so is a key the window has forgotten but the ledger still
+     * holds: applying it again would record a second operation under the same transaction id.
+     *
+     * @param idempotencyKey client-supplied key identifying this transfer.
+     * @param sourcePassport user's passport from which funds will be transferred.
+     * @param sourceRequisite account requisite from which funds will be transferred.
+     * @param destinationPassport user's passport receiving the funds.
+     * @param destinationRequisite account requisite receiving the funds.
+     * @param amount amount of money to transfer.
+     * @return {@link OperationResult} of the first call with this key.
+     */
+    public OperationResult transferMoneyIdempotent(String idempotencyKey,
+                                                   String sourcePassport, String sourceRequisite,
+                                                   String destinationPassport, String destinationRequisite,
+                                                   double amount) {
+        return once(idempotencyKey, MoneyOperation.TRANSFER,
+            Arrays.asList(sourcePassport, sourceRequisite, destinationPassport, destinationRequisite, amount),
+            () -> transfer(sourcePassport, sourceRequisite, destinationPassport, destinationRequisite, amount,
+                idempotencyKey, false));
+    }
+
+    /**
+     * Transfer between two accounts of this node applied once per transfer id, for callers that may repeat it,
+     * such as a {@code ShardRouter}. A repeat is recognised like a repeated step of a cross-node transfer: by
+     * the source leg recorded under the id in the ledger, checked while owning the source account. It returns
+     * success without moving money again, however long after the first call; a refused transfer leaves no leg,
+     * so a repeat is judged again. A repeat with another amount or account, or an id another operation recorded,
+     * is refused with {@link FailureReason#IDEMPOTENCY_CONFLICT}.
+     *
+     * @param transferId id of the transfer, recorded on both legs.
+     * @param sourcePassport user's passport from which funds will be transferred.
+     * @param sourceRequisite account requisite from which funds will be transferred.
+     * @param destinationPassport user's passport receiving the funds.
+     * @param destinationRequisite account requisite receiving the funds.
+     * @param amount amount of money to transfer.
+     * @return {@link OperationResult} with the source balance, or the reason the transfer was refused.
+     */
+    public OperationResult transferOnce(String transferId, String sourcePassport, String sourceRequisite,
+                                        String destinationPassport, String destinationRequisite, double amount) {
+        OperationResult refusal = checkTransferStep(transferId);
+        if (refusal != null) {
+            return refusal;
+        }
+        long start = metrics.start();
+        OperationResult result = transfer(sourcePassport, sourceRequisite, destinationPassport, destinationRequisite,
+            amount, transferId, true);
+        metrics.recordOperation(MoneyOperation.TRANSFER, start, result);
+        return result;
+    }
+
+    private OperationResult transfer(String sourcePassport, String sourceRequisite,
+                                     String destinationPassport, String destinationRequisite,
+                                     double amount, String transactionId, boolean once) {
         Account source = findByRequisite(sourcePassport, sourceRequisite);
         if (source == null) {
-            return OperationResult.failure("Source account not found for the provided identifiers.");
+            return OperationResult.failure(FailureReason.ACCOUNT_NOT_FOUND,
+                "Source account not found for the provided identifiers.");
         }
         Account destination = findByRequisite(destinationPassport, destinationRequisite);
         if (destination == null) {
-            return OperationResult.failure("Destination account not found for the provided identifiers.");
+            return OperationResult.failure(FailureReason.ACCOUNT_NOT_FOUND,
+                "Destination account not found for the provided identifiers.");
         }
-        OperationResult validation = validatePositiveAmount(amount, "Transfer");
+        OperationResult validation = validateAmount(amount, "Transfer");
         if (validation != null) {
             return validation;
         }
-        if (source.getBalance() < amount) {
-            return OperationResult.failure("Insufficient funds; balance cannot go below zero.");
+        long minor = MinorUnits.fromDouble(amount);
+        return move(new TransferMovement(source, destination, minor,
+            transactionId != null ? transactionId : idGenerator.nextId(), once));
+    }
+
+    /**
+     * Returns every ledger entry recorded under a transfer or operation id: both legs of a transfer, followed by
+     * the legs of its reversal if there was one.
+     *
+     * @param transactionId id shared by the entries, as returned in their metadata.
+     * @return entries in recording order; empty when the id is unknown.
+     */
+    public List<Transaction> findByTransactionId(String transactionId) {
+        if (transactionId == null || transactionId.isBlank()) {
+            return List.of();
+        }
+        return ledger.getByTransactionId(transactionId);
+    }
+
+    /**
+     * Reverses a completed transfer: the amount goes back from the destination to the source account, and a
+     * {@link TransactionType#REVERSAL} entry is recorded on each, under the id of the original transfer. A
+     * transfer can be reversed once, and only while the destination still holds the amount.
+     *
+     * @param transferId id of the transfer to reverse.
+     * @return {@link OperationResult} with the source balance after the reversal, or the reason it was refused.
+     */
+    public OperationResult reverseTransfer(String transferId) {
+        if (rejectsWrites()) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, writeRefusal());
         }
-        // Apply debit and credit atomically from the perspective of the in-memory model.
-        source.setBalance(source.getBalance() - amount);
-        destination.setBalance(destination.getBalance() + amount);
-        String transferId = UUID.randomUUID().toString();
-        Money money = toMoney(amount);
-        ledger.record(
-            source.getRequisite(),
-            TransactionType.TRANSFER,
-            money,
-            metadata(transferId, "Transfer to account " + destination.getRequisite())
-        );
-        ledger.record(
-            destination.getRequisite(),
-            TransactionType.TRANSFER,
-            money,
-            metadata(transferId, "Transfer from account " + source.getRequisite())
-        );
-        return OperationResult.success("Transfer completed successfully.", source.getBalance());
+        long start = metrics.start();
+        OperationResult result = reverse(transferId);
+        metrics.recordOperation(MoneyOperation.REVERSAL, start, result);
+        return result;
+    }
+
+    private OperationResult reverse(String transferId) {
+        List<Transaction> legs = findByTransactionId(transferId);
+        if (legs.isEmpty()) {
+            return OperationResult.failure(FailureReason.TRANSACTION_NOT_FOUND,
+                "No transaction recorded under the provided id.");
+        }
+        if (legs.size() < 2 || legs.get(0).getType() != TransactionType.TRANSFER
+            || legs.get(1).getType() != TransactionType.TRANSFER) {
+            return OperationResult.failure(FailureReason.INVALID_REQUEST, "Only transfers can be reversed.");
+        }
+        Transaction debit = legs.get(0);
+        Transaction credit = legs.get(1);
+        Account source = registry.findAccount(debit.getAccountId());
+        Account destination = registry.findAccount(credit.getAccountId());
+        if (source == null || destination == null) {
+            return OperationResult.failure(FailureReason.ACCOUNT_NOT_FOUND,
+                "Account of the transfer no longer exists.");
+        }
+        return move(new ReversalMovement(source, destination, debit.getAmountMinor(), transferId,
+            debit.getCurrency()));
+    }
+
+    /**
+     * Moves an amount between two accounts while owning them. When one owner holds both, under both stripes or
+     * on a partition owning both, the move runs there as a whole, and a credit that would overflow is refused
+     * before anything changes. Otherwise the partition of {@code from} checks and debits it and records its leg,
+     * then hands the credit to the partition of {@code to}, which gives the amount back should the credit
+     * overflow. In between, the amount has left one account and is queued for the other, so the total is
+     * conserved, and neither partition waits for the other.
+     */
+    private OperationResult move(Movement movement) {
+        Account from = movement.from;
+        Account to = movement.to;
+        long minor = movement.minor;
+        if (partitions == null || partitions.partitionOf(from) == partitions.partitionOf(to)) {
+            return onOwner(from, to, () -> {
+                OperationResult refusal = movement.check();
+                if (refusal != null) {
+                    return refusal;
+                }
+                if (!credit(to, minor)) {
+                    return overflowRefusal(to);
+                }
+                from.setBalanceMinor(from.getBalanceMinor() - minor);
+                movement.debited();
+                return movement.credited(from.getBalanceMinor());
+            });
+        }
+        CompletableFuture<OperationResult> credited = partitions.call(from, () -> {
+            OperationResult refusal = movement.check();
+            if (refusal != null) {
+                return CompletableFuture.completedFuture(refusal);
+            }
+            long fromBalance = from.getBalanceMinor() - minor;
+            from.setBalanceMinor(fromBalance);
+            movement.debited();
+            return partitions.submit(to, () -> {
+                if (!credit(to, minor)) {
+                    // The debit is already recorded: give the amount back on the partition of its account.
+                    OperationResult overflow = overflowRefusal(to);
+                    return partitions.submit(from, () -> {
+                        from.setBalanceMinor(Math.addExact(from.getBalanceMinor(), minor));
+                        movement.cancelled();
+                        return overflow;
+                    });
+                }
+                return CompletableFuture.completedFuture(movement.credited(fromBalance));
+            }).thenCompose(Function.identity());
+        });
+        return AccountPartitions.await(credited);
+    }
+
+    /**
+     * @return refusal when the transfer was already reversed or the destination no longer holds the amount;
+     *     {@code null} when the reversal may proceed.
+     */
+    private OperationResult checkReversal(Account destination, long minor, String transferId) {
+        if (legOf(transferId, destination.getRequisite(), TransactionType.REVERSAL) != null) {
+            return OperationResult.failure(FailureReason.INVALID_REQUEST, "Transfer has already been reversed.");
+        }
+        if (destination.getBalanceMinor() < minor) {
+            return OperationResult.failure(FailureReason.INSUFFICIENT_FUNDS,
+                "Insufficient funds on the destination account to reverse the transfer.");
+        }
+        return null;
+    }
+
+    /**
+     * Runs a step on one account while owning it, on its partition or under its stripe, for collaborators that
+     * change accounts one at a time, such as the steps of a cross-node transfer in {@code TransferSteps}. Writes
+     * are refused on a replica and while recovering, as for every other operation.
+     *
+     * @param passport passport owning the account.
+     * @param requisite account requisite.
+     * @param step step to run; the {@link OwnedAccount} it gets is valid only during the call.
+     * @return result of the step, or the reason it could not run.
+     */
+    public OperationResult onAccount(String passport, String requisite, Function<OwnedAccount, OperationResult> step) {
+        if (rejectsWrites()) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, writeRefusal());
+        }
+        Account account = findByRequisite(passport, requisite);
+        if (account == null) {
+            return OperationResult.failure(FailureReason.ACCOUNT_NOT_FOUND,
+                "Account not found for the provided identifiers.");
+        }
+        return onOwner(account, () -> step.apply(new OwnedAccount(this, account)));
+    }
+
+    private OperationResult checkTransferStep(String transferId) {
+        if (rejectsWrites()) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, writeRefusal());
+        }
+        if (transferId == null || transferId.isBlank()) {
+            return OperationResult.failure(FailureReason.INVALID_REQUEST, "Transfer id must not be blank.");
+        }
+        return null;
+    }
+
+    /**
+     * Runs the operation while owning both accounts: on the partition owning both, or under both stripes.
+     */
+    private OperationResult onOwner(Account first, Account second, Supplier<OperationResult> operation) {
+        if (partitions != null) {
+            return partitions.call(first, operation);
+        }
+        locks.lock(first, second);
+        try {
+            return operation.get();
+        } finally {
+            locks.unlock(first, second);
+        }
+    }
+
+    /**
+     * Runs the operation while owning the account: on its partition, or under its stripe.
+     */
+    private OperationResult onOwner(Account account, Supplier<OperationResult> operation) {
+        if (partitions != null) {
+            return partitions.call(account, operation);
+        }
+        locks.lock(account);
+        try {
+            return operation.get();
+        } finally {
+            locks.unlock(account);
+        }
+    }
+
+    /**
+     * @return success when the transfer is applied once per id and its source leg is already recorded; conflict
+     *     when the id was used for another transfer or operation; {@code null} when it still has to be applied.
+     */
+    private OperationResult appliedBefore(boolean once, String transferId, Account source, Account destination,
+                                          long minor) {
+        if (!once) {
+            return null;
+        }
+        OperationResult conflict = checkRecordedTransfer(transferId, source.getRequisite(),
+            destination.getRequisite(), minor, "Transfer to account " + destination.getRequisite());
+        if (conflict != null) {
+            return conflict;
+        }
+        if (legOf(transferId, source.getRequisite(), TransactionType.TRANSFER) == null) {
+            return null;
+        }
+        return OperationResult.success("Transfer already applied.", source.getBalance());
+    }
+
+    /**
+     * Checks that whatever is already recorded under a transfer id belongs to the same transfer: transfer or
+     * reversal legs of the amount on its two accounts, and the account's own transfer leg naming the same
+     * counterparty. A repeat with another amount or counterparty, or an id some other operation recorded, must
+     * not pass for the transfer having been applied.
+     *
+     * @param requisite account the caller owns.
+     * @param counterparty other account of the transfer.
+     * @param description statement text of the transfer leg on {@code requisite}.
+     * @return conflict when the id names something else; {@code null} otherwise.
+     */
+    OperationResult checkRecordedTransfer(String transferId, String requisite, String counterparty, long minor,
+                                          String description) {
+        for (Transaction leg : ledger.getByTransactionId(transferId)) {
+            boolean own = leg.getAccountId().equals(requisite);
+            boolean sameTransfer = (own || leg.getAccountId().equals(counterparty))
+                && (leg.getType() == TransactionType.TRANSFER || leg.getType() == TransactionType.REVERSAL)
+                && leg.getAmountMinor() == minor
+                && (!own || leg.getType() != TransactionType.TRANSFER
+                    || description.equals(leg.getMetadata().getDescription()));
+            if (!sameTransfer) {
+                return OperationResult.failure(FailureReason.IDEMPOTENCY_CONFLICT,
+                    "Transfer id was already used with other arguments.");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return entry of the given type recorded on the account under the transfer id, or {@code null}.
+     */
+    Transaction legOf(String transferId, String requisite, TransactionType type) {
+        for (Transaction leg : ledger.getByTransactionId(transferId)) {
+            if (leg.getType() == type && leg.getAccountId().equals(requisite)) {
+                return leg;
+            }
+        }
+        return null;
+    }
+
+    void recordStep(Account account, TransactionType type, long minor, String transferId, String description) {
+        String currency = properties.getDefaultCurrency();
+        ledger.record(account.getRequisite(), type, currency, minor, account.getBalanceMinor(),
+            metadata(transferId, description));
+        events.publishMovement(type, transferId, account.getRequisite(), currency, minor,
+            account.getBalanceMinor());
+    }
+
+    /**
+     * Applies a batch of transfers in order, each with the same rules as
+     * {@link #transferMoney(String, String, String, String, double)}. A failing item does not affect the others.
+     * <p>
+     * All items are resolved and validated in one pass before any lock is taken; then every stripe touched by
+     * the batch is acquired once, in ascending order, the items are applied, and all ledger entries are handed
+     * to {@link TransactionLedger#recordAll(List)} so each account's history is appended in one step. In
+     * {@code partitioned} mode the validated items are applied one at a time as single transfers.
+     *
+     * @param transfers transfers to apply.
+     * @return one {@link OperationResult} per item, in the order of {@code transfers}.
+     */
+    public List<OperationResult> transferBatch(List<TransferRequest> transfers) {
+        if (rejectsWrites()) {
+            return transfers.stream()
+                .map(transfer -> OperationResult.failure(FailureReason.UNAVAILABLE, writeRefusal()))
+                .toList();
+        }
+        long start = metrics.start();
+        List<OperationResult> results = applyBatch(transfers);
+        metrics.recordBatch(start, results);
+        return results;
+    }
+
+    private List<OperationResult> applyBatch(List<TransferRequest> transfers) {
+        int count = transfers.size();
+        OperationResult[] results = new OperationResult[count];
+        Account[] sources = new Account[count];
+        Account[] destinations = new Account[count];
+        long[] amounts = new long[count];
+        Set<Account> involved = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            TransferRequest transfer = transfers.get(i);
+            Account source = findByRequisite(transfer.getSourcePassport(), transfer.getSourceRequisite());
+            if (source == null) {
+                results[i] = OperationResult.failure(FailureReason.ACCOUNT_NOT_FOUND,
+                    "Source account not found for the provided identifiers.");
+                continue;
+            }
+            Account destination = findByRequisite(transfer.getDestinationPassport(),
+                transfer.getDestinationRequisite());
+            if (destination == null) {
+                results[i] = OperationResult.failure(FailureReason.ACCOUNT_NOT_FOUND,
+                    "Destination account not found for the provided identifiers.");
+                continue;
+            }
+            OperationResult validation = validateAmount(transfer.getAmount(), "Transfer");
+            if (validation != null) {
+                results[i] = validation;
+                continue;
+            }
+            long minor = MinorUnits.fromDouble(transfer.getAmount());
+            sources[i] = source;
+            destinations[i] = destination;
+            amounts[i] = minor;
+            involved.add(source);
+            involved.add(destination);
+        }
+        if (involved.isEmpty()) {
+            return List.of(results);
+        }
+        if (partitions != null) {
+            // No partition owns the whole batch, so items go through the single-transfer path one by one.
+            for (int i = 0; i < count; i++) {
+                if (sources[i] != null) {
+                    results[i] = move(new TransferMovement(sources[i], destinations[i], amounts[i],
+                        idGenerator.nextId(), false));
+                }
+            }
+            return List.of(results);
+        }
+
+        String currency = properties.getDefaultCurrency();
+        List<LedgerEntry> entries = new ArrayList<>(count * 2);
+        int[] stripes = locks.stripesOf(involved);
+        locks.lockStripes(stripes);
+        try {
+            for (int i = 0; i < count; i++) {
+                Account source = sources[i];
+                if (source == null) {
+                    continue;
+                }
+                Account destination = destinations[i];
+                long minor = amounts[i];
+                if (source.getBalanceMinor() < minor) {
+                    results[i] = OperationResult.failure(FailureReason.INSUFFICIENT_FUNDS,
+                        "Insufficient funds; balance cannot go below zero.");
+                    continue;
+                }
+                if (!credit(destination, minor)) {
+                    results[i] = overflowRefusal(destination);
+                    continue;
+                }
+                source.setBalanceMinor(source.getBalanceMinor() - minor);
+                String transferId = idGenerator.nextId();
+                entries.add(new LedgerEntry(source.getRequisite(), TransactionType.TRANSFER, currency, minor,
+                    source.getBalanceMinor(),
+                    metadata(transferId, "Transfer to account " + destination.getRequisite())));
+                entries.add(new LedgerEntry(destination.getRequisite(), TransactionType.TRANSFER, currency, minor,
+                    destination.getBalanceMinor(),
+                    metadata(transferId, "Transfer from account " + source.getRequisite())));
+                results[i] = OperationResult.success("Transfer completed successfully.", source.getBalance());
+            }
+            if (!entries.isEmpty()) {
+                ledger.recordAll(entries);
+                publishBatch(entries);
+            }
+        } finally {
+            locks.unlockStripes(stripes);
+        }
+        return List.of(results);
     }
 
     /**
@@ -168,21 +895,92 @@ public class BankService {
      * @return {@link OperationResult} describing success or the validation failure.
      */
     public OperationResult depositFunds(String passport, String requisite, double amount) {
+        if (rejectsWrites()) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, writeRefusal());
+        }
+        long start = metrics.start();
+        OperationResult result = deposit(passport, requisite, amount, null);
+        metrics.recordOperation(MoneyOperation.DEPOSIT, start, result);
+        return result;
+    }
+
+    /**
+     * Idempotent variant of {@link #depositFunds(String, String, double)}; see
+     * {@link #transferMoneyIdempotent(String, String, String, String, String, double)}.
+     *
+     * @param idempotencyKey client-supplied key identifying this deposit.
+     * @param passport user's passport.
+     * @param requisite account requisite.
+     * @param amount amount of money to deposit.
+     * @return {@link OperationResult} of the first call with this key.
+     */
+    public OperationResult depositFundsIdempotent(String idempotencyKey, String passport, String requisite,
+                                                  double amount) {
+        return once(idempotencyKey, MoneyOperation.DEPOSIT, Arrays.asList(passport, requisite, amount),
+            () -> deposit(passport, requisite, amount, idempotencyKey));
+    }
+
+    /**
+     * Applies a money operation at most once per idempotency key. A key whose window has passed but which the
+     * ledger already holds as a transaction id is refused rather than applied again. Writes refused while
+     * recovering are checked before the cache, so the rejection is not replayed to retries after the recovery.
+     *
+     * @param arguments the operation's arguments; a repeat with other arguments is a conflict.
+     * @param operation applies the operation with the key as its transaction id.
+     */
+    private OperationResult once(String idempotencyKey, MoneyOperation type, List<Object> arguments,
+                                 Supplier<OperationResult> operation) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return OperationResult.failure(FailureReason.INVALID_REQUEST, IDEMPOTENCY_KEY_REQUIRED);
+        }
+        if (rejectsWrites()) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, writeRefusal());
+        }
+        List<Object> request = new ArrayList<>(arguments.size() + 1);
+        request.add(type);
+        request.addAll(arguments);
+        return idempotencyCache.execute(idempotencyKey, request, () -> {
+            if (!ledger.getByTransactionId(idempotencyKey).isEmpty()) {
+                return OperationResult.failure(FailureReason.IDEMPOTENCY_CONFLICT,
+                    "Idempotency key was already used by an earlier operation.");
+            }
+            long start = metrics.start();
+            OperationResult result = operation.get();
+            metrics.recordOperation(type, start, result);
+            return result;
+        });
+    }
+
+    private OperationResult deposit(String passport, String requisite, double amount, String transactionId) {
         Account account = findByRequisite(passport, requisite);
         if (account == null) {
-            return OperationResult.failure("Account not found for the provided identifiers.");
+            return OperationResult.failure(FailureReason.ACCOUNT_NOT_FOUND,
+                "Account not found for the provided identifiers.");
         }
-        OperationResult validation = validatePositiveAmount(amount, "Deposit");
+        OperationResult validation = validateAmount(amount, "Deposit");
         if (validation != null) {
             return validation;
         }
-        account.setBalance(account.getBalance() + amount);
+        long minor = MinorUnits.fromDouble(amount);
+        return onOwner(account, () -> applyDeposit(account, minor, transactionId));
+    }
+
+    private OperationResult applyDeposit(Account account, long minor, String transactionId) {
+        if (!credit(account, minor)) {
+            return overflowRefusal(account);
+        }
+        String operationId = transactionId != null ? transactionId : idGenerator.nextId();
+        String currency = properties.getDefaultCurrency();
         ledger.record(
             account.getRequisite(),
             TransactionType.DEPOSIT,
-            toMoney(amount),
-            metadata("Deposit into account " + account.getRequisite())
+            currency,
+            minor,
+            account.getBalanceMinor(),
+            metadata(operationId, "Deposit into account " + account.getRequisite())
         );
+        events.publishMovement(TransactionType.DEPOSIT, operationId, account.getRequisite(), currency, minor,
+            account.getBalanceMinor());
         return OperationResult.success("Deposit completed successfully.", account.getBalance());
     }
 
@@ -195,27 +993,94 @@ public class BankService {
      * @return {@link OperationResult} describing success or the validation failure.
      */
     public OperationResult withdrawFunds(String passport, String requisite, double amount) {
+        if (rejectsWrites()) {
+            return OperationResult.failure(FailureReason.UNAVAILABLE, writeRefusal());
+        }
+        long start = metrics.start();
+        OperationResult result = withdraw(passport, requisite, amount, null);
+        metrics.recordOperation(MoneyOperation.WITHDRAWAL, start, result);
+        return result;
+    }
+
+    /**
+     * Idempotent variant of {@link #withdrawFunds(String, String, double)}; see
+     * {@link #transferMoneyIdempotent(String, String, String, String, String, double)}.
+     *
+     * @param idempotencyKey client-supplied key identifying this withdrawal.
+     * @param passport user's passport.
+     * @param requisite account requisite.
+     * @param amount amount of money to withdraw.
+     * @return {@link OperationResult} of the first call with this key.
+     */
+    public OperationResult withdrawFundsIdempotent(String idempotencyKey, String passport, String requisite,
+                                                   double amount) {
+        return once(idempotencyKey, MoneyOperation.WITHDRAWAL, Arrays.asList(passport, requisite, amount),
+            () -> withdraw(passport, requisite, amount, idempotencyKey));
+    }
+
+    private OperationResult withdraw(String passport, String requisite, double amount, String transactionId) {
         Account account = findByRequisite(passport, requisite);
         if (account == null) {
-            return OperationResult.failure("Account not found for the provided identifiers.");
+            return OperationResult.failure(FailureReason.ACCOUNT_NOT_FOUND,
+                "Account not found for the provided identifiers.");
         }
-        OperationResult validation = validatePositiveAmount(amount, "Withdrawal");
+        OperationResult validation = validateAmount(amount, "Withdrawal");
         if (validation != null) {
             return validation;
         }
-        if (account.getBalance() < amount) {
-            return OperationResult.failure("Insufficient funds; balance cannot go below zero.");
+        long minor = MinorUnits.fromDouble(amount);
+        return onOwner(account, () -> applyWithdrawal(account, minor, transactionId));
+    }
+
+    private OperationResult applyWithdrawal(Account account, long minor, String transactionId) {
+        if (account.getBalanceMinor() < minor) {
+            return OperationResult.failure(FailureReason.INSUFFICIENT_FUNDS,
+                "Insufficient funds; balance cannot go below zero.");
         }
-        account.setBalance(account.getBalance() - amount);
+        account.setBalanceMinor(account.getBalanceMinor() - minor);
+        String operationId = transactionId != null ? transactionId : idGenerator.nextId();
+        String currency = properties.getDefaultCurrency();
         ledger.record(
             account.getRequisite(),
             TransactionType.WITHDRAWAL,
-            toMoney(amount),
-            metadata("Withdrawal from account " + account.getRequisite())
+            currency,
+            minor,
+            account.getBalanceMinor(),
+            metadata(operationId, "Withdrawal from account " + account.getRequisite())
         );
+        events.publishMovement(TransactionType.WITHDRAWAL, operationId, account.getRequisite(), currency,
+            minor, account.getBalanceMinor());
         return OperationResult.success("Withdrawal completed successfully.", account.getBalance());
     }
 
+    /**
+     * Returns the balance the account had at the given instant, read from the running balance of the last ledger
+     * entry at or before it; the history is not replayed.
+     *
+     * @param passport user's passport.
+     * @param requisite account requisite.
+     * @param at point in time, inclusive.
+     * @return balance; empty when the account is unknown or has no recorded movement up to {@code at}.
+     */
+    public OptionalDouble balanceAt(String passport, String requisite, Instant at) {
+        Account account = findByRequisite(passport, requisite);
+        if (account == null) {
+            return OptionalDouble.empty();
+        }
+        OptionalLong balance = ledger.balanceAt(account.getRequisite(), at);
+        if (balance.isEmpty()) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(MinorUnits.toDouble(balance.getAsLong()));
+    }
+
+    /**
+     * @return cache of keyed operation results, exposed for hit/miss/eviction monitoring.
+     */
+    public IdempotencyCache getIdempotencyCache() {
+        return idempotencyCache;
+    }
+
     /**
      * Exposes read-only view of the accounts list for a given user.
      *
@@ -223,36 +1088,254 @@ public class BankService {
      * @return accounts registered for the user; {@code null} when the user was not added.
      */
     public List<Account> getAccounts(User user) {
-        List<Account> accounts = users.get(user);
-        if (accounts == null) {
+        if (user == null) {
             return List.of();
         }
-        return List.copyOf(accounts);
+        return List.copyOf(registry.accounts(user.getPassport()));
     }
 
     /**
-     * Validates that the provided amount is positive for the given operation.
+     * Returns the accounts of the user without copying them, for callers that walk every account once, such as
+     * bulk exports. Accounts opened later are not included.
      *
-     * @param amount monetary amount to inspect.
+     * @param passport passport of the account owner.
+     * @return unmodifiable snapshot of the accounts in opening order; empty when the user is unknown.
+     */
+    public Collection<Account> accountsOf(String passport) {
+        return registry.accounts(passport);
+    }
+
+    /**
+     * Stops the account partitions after the operations queued so far; a no-op in {@code locking} mode.
+     */
+    @Override
+    public void close() {
+        if (partitions != null) {
+            partitions.close();
+        }
+    }
+
+    /**
+     * @param execution execution settings.
+     * @return partitions for {@code partitioned} mode; {@code null} for {@code locking}.
+     */
+    private static AccountPartitions partitionsFor(AppProperties.Execution execution) {
+        if ("locking".equals(execution.getMode())) {
+            return null;
+        }
+        if (!"partitioned".equals(execution.getMode())) {
+            throw new IllegalArgumentException("Unknown execution mode: " + execution.getMode());
+        }
+        int count = execution.getPartitions() > 0
+            ? execution.getPartitions()
+            : Runtime.getRuntime().availableProcessors();
+        return new AccountPartitions(count);
+    }
+
+    /**
+     * Validates that the provided amount can be held in minor units and is positive for the given operation.
+     *
+     * @param amount monetary amount; sub-cent amounts round to zero.
      * @param operationName name of the calling operation for error context.
      * @return failure {@link OperationResult} when the amount is invalid; {@code null} otherwise.
      */
-    private OperationResult validatePositiveAmount(double amount, String operationName) {
-        if (amount <= 0) {
-            return OperationResult.failure(operationName + " amount must be greater than zero.");
+    public static OperationResult validateAmount(double amount, String operationName) {
+        if (!MinorUnits.fitsDouble(amount)) {
+            return OperationResult.failure(FailureReason.INVALID_REQUEST,
+                operationName + " amount must be a finite number within the supported range.");
+        }
+        if (MinorUnits.fromDouble(amount) <= 0) {
+            return OperationResult.failure(FailureReason.INVALID_AMOUNT,
+                operationName + " amount must be greater than zero.");
         }
         return null;
     }
 
-    private Money toMoney(double amount) {
-        return new Money(properties.getDefaultCurrency(), BigDecimal.valueOf(amount));
+    /**
+     * Adds the amount to the account's balance unless the sum no longer fits into a {@code long}.
+     *
+     * @return {@code false}, leaving the balance unchanged, on overflow.
+     */
+    static boolean credit(Account account, long minor) {
+        try {
+            account.setBalanceMinor(Math.addExact(account.getBalanceMinor(), minor));
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    static OperationResult overflowRefusal(Account account) {
+        return OperationResult.failure(FailureReason.INVALID_AMOUNT,
+            "Account " + account.getRequisite() + " cannot hold a balance that large.");
+    }
+
+    /**
+     * Publishes one event per transfer of a batch from its ledger entries, which come in source/destination pairs.
+     *
+     * @param entries entries recorded by the batch.
+     */
+    private void publishBatch(List<LedgerEntry> entries) {
+        for (int i = 0; i < entries.size(); i += 2) {
+            LedgerEntry debit = entries.get(i);
+            LedgerEntry credit = entries.get(i + 1);
+            events.publishTransfer(debit.getMetadata().getTransactionId(), debit.getAccountId(),
+                debit.getBalanceAfterMinor(), credit.getAccountId(), credit.getBalanceAfterMinor(),
+                debit.getCurrency(), debit.getAmountMinor());
+        }
+    }
+
+    private boolean rejectsWrites() {
+        return recovering || readOnly;
+    }
+
+    private String writeRefusal() {
+        return readOnly ? READ_ONLY : RECOVERING;
     }
 
-    private TransactionMetadata metadata(String description) {
-        return metadata(UUID.randomUUID().toString(), description);
+    private void requireNotRecovering() {
+        if (rejectsWrites()) {
+            throw new IllegalStateException(writeRefusal());
+        }
     }
 
+    /**
+     * @param transactionId idempotency key of the operation, or {@code null} to generate a fresh id.
+     * @param description statement text.
+     * @return metadata for the ledger entry.
+     */
     private TransactionMetadata metadata(String transactionId, String description) {
-        return new TransactionMetadata(transactionId, description);
+        return new TransactionMetadata(transactionId != null ? transactionId : idGenerator.nextId(), description);
+    }
+
+    /**
+     * Amount moving from one account to another under a transfer id, in the steps {@link #move(Movement)} runs
+     * while owning {@code from} and then {@code to}.
+     */
+    private abstract class Movement {
+        final Account from;
+        final Account to;
+        final long minor;
+        final String transferId;
+        final String currency;
+
+        Movement(Account from, Account to, long minor, String transferId, String currency) {
+            this.from = from;
+            this.to = to;
+            this.minor = minor;
+            this.transferId = transferId;
+            this.currency = currency;
+        }
+
+        /**
+         * @return refusal found while owning {@code from}; {@code null} when the amount may leave it.
+         */
+        abstract OperationResult check();
+
+        /**
+         * Records the leg of {@code from} once the amount has left it.
+         */
+        abstract void debited();
+
+        /**
+         * Records the leg of {@code to} once the amount has reached it.
+         *
+         * @param fromBalance balance of {@code from} right after the debit.
+         * @return result of the whole move.
+         */
+        abstract OperationResult credited(long fromBalance);
+
+        /**
+         * Records the leg that gives the amount back to {@code from} when {@code to} could not take it.
+         */
+        abstract void cancelled();
+
+        void record(Account account, TransactionType type, String description) {
+            ledger.record(account.getRequisite(), type, currency, minor, account.getBalanceMinor(),
+                metadata(transferId, description));
+        }
+
+        void recordAndPublish(Account account, TransactionType type, String description) {
+            record(account, type, description);
+            events.publishMovement(type, transferId, account.getRequisite(), currency, minor,
+                account.getBalanceMinor());
+        }
+    }
+
+    /**
+     * Transfer from the source to the destination account. With {@code once}, a transfer whose source leg is
+     * already recorded under the id is not applied again.
+     */
+    private final class TransferMovement extends Movement {
+        private final boolean once;
+
+        TransferMovement(Account source, Account destination, long minor, String transferId, boolean once) {
+            super(source, destination, minor, transferId, properties.getDefaultCurrency());
+            this.once = once;
+        }
+
+        @Override
+        OperationResult check() {
+            OperationResult applied = appliedBefore(once, transferId, from, to, minor);
+            if (applied != null) {
+                return applied;
+            }
+            if (from.getBalanceMinor() < minor) {
+                return OperationResult.failure(FailureReason.INSUFFICIENT_FUNDS,
+                    "Insufficient funds; balance cannot go below zero.");
+            }
+            return null;
+        }
+
+        @Override
+        void debited() {
+            record(from, TransactionType.TRANSFER, "Transfer to account " + to.getRequisite());
+        }
+
+        @Override
+        OperationResult credited(long fromBalance) {
+            record(to, TransactionType.TRANSFER, "Transfer from account " + from.getRequisite());
+            events.publishTransfer(transferId, from.getRequisite(), fromBalance, to.getRequisite(),
+                to.getBalanceMinor(), currency, minor);
+            return OperationResult.success("Transfer completed successfully.", MinorUnits.toDouble(fromBalance));
+        }
+
+        @Override
+        void cancelled() {
+            recordAndPublish(from, TransactionType.REVERSAL, "Cancelled transfer " + transferId);
+        }
+    }
+
+    /**
+     * Reversal of a transfer: the amount goes from the transfer's destination back to its source. Concurrent
+     * reversals of one transfer queue up behind each other while owning the destination, which is checked again
+     * there.
+     */
+    private final class ReversalMovement extends Movement {
+
+        ReversalMovement(Account source, Account destination, long minor, String transferId, String currency) {
+            super(destination, source, minor, transferId, currency);
+        }
+
+        @Override
+        OperationResult check() {
+            return checkReversal(from, minor, transferId);
+        }
+
+        @Override
+        void debited() {
+            recordAndPublish(from, TransactionType.REVERSAL, "Reversal of transfer to account " + from.getRequisite());
+        }
+
+        @Override
+        OperationResult credited(long fromBalance) {
+            recordAndPublish(to, TransactionType.REVERSAL, "Reversal of transfer from account " + to.getRequisite());
+            return OperationResult.success("Transfer reversed successfully.", to.getBalance());
+        }
+
+        @Override
+        void cancelled() {
+            recordAndPublish(from, TransactionType.TRANSFER, "Cancelled reversal of transfer " + transferId);
+        }
     }
 }
@@ -0,0 +1,160 @@
+package com.serdyuchenko.bank.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Remembers the {@link OperationResult} of keyed money operations so that client retries are answered from
+ * memory instead of being applied again. Each key is remembered with the request it came with, i.e. the operation
+ * and its arguments; the same key sent with another request is refused with
+ * {@link FailureReason#IDEMPOTENCY_CONFLICT} rather than answered with a result that belongs to something else.
+ * <p>
+ * Lookups are a single {@link ConcurrentHashMap} probe. A key seen for the first time is claimed with
+ * {@code putIfAbsent}, so concurrent duplicates wait for the first caller's result instead of running the
+ * operation twice. Every key lives for the same {@code ttl}, so insertion order is also expiry order: a FIFO
+ * queue of claims lets eviction drop expired (or, above {@code maxEntries}, the oldest) keys from the head in
+ * amortized constant time without scanning the map.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class IdempotencyCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates the cache.
+     *
+     * @param ttl how long a result is replayed to duplicates.
+     * @param maxEntries upper bound on remembered keys.
+     * @param clock time source for expiry.
+     */
+    public IdempotencyCache(Duration ttl, int maxEntries, Clock clock) {
+        Objects.requireNonNull(ttl, "Idempotency ttl cannot be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Idempotency ttl must be positive");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Idempotency max entries must be a positive number");
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    /**
+     * Returns the remembered result for the key, or runs the operation once and remembers its result.
+     * When the operation throws, the key is released so that a retry can run it again.
+     *
+     * @param key client-supplied idempotency key.
+     * @param request operation and arguments the key was sent with, compared with {@code equals}.
+     * @param operation operation to run on the first occurrence of the key.
+     * @return result of the first occurrence of the key within the window, or
+     *     {@link FailureReason#IDEMPOTENCY_CONFLICT} when that occurrence came with another request.
+     */
+    public OperationResult execute(String key, Object request, Supplier<OperationResult> operation) {
+        Objects.requireNonNull(request, "Idempotent request cannot be null");
+        while (true) {
+            long now = clock.millis();
+            Entry existing = entries.get(key);
+            if (existing != null && existing.expiresAt > now) {
+                if (!existing.request.equals(request)) {
+                    return OperationResult.failure(FailureReason.IDEMPOTENCY_CONFLICT,
+                        "Idempotency key was already used for a different request.");
+                }
+                hits.increment();
+                return existing.result.join();
+            }
+            Entry claim = new Entry(key, request, now + ttlMillis);
+            boolean claimed = existing == null
+                ? entries.putIfAbsent(key, claim) == null
+                : entries.replace(key, existing, claim);
+            if (!claimed) {
+                continue;
+            }
+            if (existing != null) {
+                evictions.increment();
+            }
+            misses.increment();
+            insertionOrder.add(claim);
+            evict(now);
+            try {
+                OperationResult result = operation.get();
+                claim.result.complete(result);
+                return result;
+            } catch (RuntimeException e) {
+                entries.remove(key, claim);
+                claim.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return number of calls answered from the cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of calls that ran the operation.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of keys dropped because they expired or the cache was full.
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of remembered keys.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while ((head = insertionOrder.peek()) != null
+            && (head.expiresAt <= now || entries.size() > maxEntries)) {
+            if (insertionOrder.remove(head) && entries.remove(head.key, head)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final Object request;
+        private final long expiresAt;
+        private final CompletableFuture<OperationResult> result = new CompletableFuture<>();
+
+        private Entry(String key, Object request, long expiresAt) {
+            this.key = key;
+            this.request = request;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
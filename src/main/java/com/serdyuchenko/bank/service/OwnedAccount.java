@@ -0,0 +1,83 @@
+package com.serdyuchenko.bank.service;
+
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Account handed to a step run through {@link BankService#onAccount}, while the step owns it. Every change made
+ * through it is recorded in the ledger under the step's transfer id and published like any other movement.
+ * Valid only during that call.
+ *
+ * @author Anton Serdyuchenko
+ */
+public final class OwnedAccount {
+    private final BankService bank;
+    private final Account account;
+
+    OwnedAccount(BankService bank, Account account) {
+        this.bank = bank;
+        this.account = account;
+    }
+
+    public String getRequisite() {
+        return account.getRequisite();
+    }
+
+    public double getBalance() {
+        return account.getBalance();
+    }
+
+    /**
+     * @param transferId id of the transfer.
+     * @param type type of the leg.
+     * @return leg of that type recorded on this account under the transfer id, or {@code null}.
+     */
+    public Transaction leg(String transferId, TransactionType type) {
+        return bank.legOf(transferId, account.getRequisite(), type);
+    }
+
+    /**
+     * Checks that whatever is already recorded under the transfer id belongs to the same transfer of this
+     * account with the counterparty.
+     *
+     * @param transferId id of the transfer.
+     * @param counterparty other account of the transfer.
+     * @param minor amount of the transfer in minor units.
+     * @param description statement text of the transfer leg on this account.
+     * @return {@link FailureReason#IDEMPOTENCY_CONFLICT} when the id names something else; {@code null} otherwise.
+     */
+    public OperationResult checkTransfer(String transferId, String counterparty, long minor, String description) {
+        return bank.checkRecordedTransfer(transferId, account.getRequisite(), counterparty, minor, description);
+    }
+
+    /**
+     * Takes the amount from the account and records the leg.
+     *
+     * @return refusal when the balance does not cover the amount; {@code null} once debited.
+     */
+    public OperationResult debit(long minor, TransactionType type, String transferId, String description) {
+        if (account.getBalanceMinor() < minor) {
+            return OperationResult.failure(FailureReason.INSUFFICIENT_FUNDS,
+                "Insufficient funds; balance cannot go below zero.");
+        }
+        account.setBalanceMinor(account.getBalanceMinor() - minor);
+        bank.recordStep(account, type, minor, transferId, description);
+        return null;
+    }
+
+    /**
+     * Adds the amount to the account and records the leg.
+     *
+     * @return refusal when the balance would no longer fit; {@code null} once credited.
+     */
+    public OperationResult credit(long minor, TransactionType type, String transferId, String description) {
+        if (!BankService.credit(account, minor)) {
+            return BankService.overflowRefusal(account);
+        }
+        bank.recordStep(account, type, minor, transferId, description);
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.serdyuchenko.bank.service;
+
+/**
+ * One item of a batch passed to {@link BankService#transferBatch(java.util.List)}.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class TransferRequest {
+    private final String sourcePassport;
+    private final String sourceRequisite;
+    private final String destinationPassport;
+    private final String destinationRequisite;
+    private final double amount;
+
+    /**
+     * Creates a transfer instruction.
+     *
+     * @param sourcePassport user's passport from which funds will be transferred.
+     * @param sourceRequisite account requisite from which funds will be transferred.
+     * @param destinationPassport user's passport receiving the funds.
+     * @param destinationRequisite account requisite receiving the funds.
+     * @param amount amount of money to transfer.
+     */
+    public TransferRequest(String sourcePassport, String sourceRequisite,
+                           String destinationPassport, String destinationRequisite, double amount) {
+        this.sourcePassport = sourcePassport;
+        this.sourceRequisite = sourceRequisite;
+        this.destinationPassport = destinationPassport;
+        this.destinationRequisite = destinationRequisite;
+        this.amount = amount;
+    }
+
+    public String getSourcePassport() {
+        return sourcePassport;
+    }
+
+    public String getSourceRequisite() {
+        return sourceRequisite;
+    }
+
+    public String getDestinationPassport() {
+        return destinationPassport;
+    }
+
+    public String getDestinationRequisite() {
+        return destinationRequisite;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+}
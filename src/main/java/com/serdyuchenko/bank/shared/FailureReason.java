@@ -0,0 +1,18 @@
+package com.serdyuchenko.bank.shared;
+
+/**
+ * Machine-readable cause of a failed {@link OperationResult}, e.g. for metrics tags.
+ */
+public enum FailureReason {
+    ACCOUNT_NOT_FOUND,
+    TRANSACTION_NOT_FOUND,
+    INVALID_AMOUNT,
+    INSUFFICIENT_FUNDS,
+    INVALID_REQUEST,
+    /**
+     * The idempotency key was already used for a different operation or different arguments.
+     */
+    IDEMPOTENCY_CONFLICT,
+    UNAVAILABLE,
+    OTHER
+}
@@ -0,0 +1,12 @@
+package com.serdyuchenko.bank.shared;
+
+/**
+ * Source of unique identifiers for transfers and ledger entries.
+ */
+public interface IdGenerator {
+
+    /**
+     * @return a new identifier, unique for this generator.
+     */
+    String nextId();
+}
@@ -7,11 +7,13 @@ public class OperationResult {
     private final boolean success;
     private final String message;
     private final Double resultingBalance;
+    private final FailureReason failureReason;
 
-    private OperationResult(boolean success, String message, Double resultingBalance) {
+    private OperationResult(boolean success, String message, Double resultingBalance, FailureReason failureReason) {
         this.success = success;
         this.message = message;
         this.resultingBalance = resultingBalance;
+        this.failureReason = failureReason;
     }
 
     /**
@@ -22,7 +24,7 @@ public class OperationResult {
      * @return success result representation.
      */
     public static OperationResult success(String message, Double resultingBalance) {
-        return new OperationResult(true, message, resultingBalance);
+        return new OperationResult(true, message, resultingBalance, null);
     }
 
     /**
@@ -32,7 +34,18 @@ public class OperationResult {
      * @return failure result representation.
      */
     public static OperationResult failure(String message) {
-        return new OperationResult(false, message, null);
+        return failure(FailureReason.OTHER, message);
+    }
+
+    /**
+     * Creates a failure result with a machine-readable cause and a user-facing message.
+     *
+     * @param reason cause of the failure.
+     * @param message validation or business-rule failure message.
+     * @return failure result representation.
+     */
+    public static OperationResult failure(FailureReason reason, String message) {
+        return new OperationResult(false, message, null, reason);
     }
 
     public boolean isSuccess() {
@@ -46,5 +59,12 @@ public class OperationResult {
     public Double getResultingBalance() {
         return resultingBalance;
     }
+
+    /**
+     * @return cause of the failure; {@code null} for successful results.
+     */
+    public FailureReason getFailureReason() {
+        return failureReason;
+    }
 }
 
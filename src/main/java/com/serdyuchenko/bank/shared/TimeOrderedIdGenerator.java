@@ -0,0 +1,137 @@
+package com.serdyuchenko.bank.shared;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style generator of time-ordered 64-bit ids, rendered as 13 Crockford base32 characters.
+ * <p>
+ * Layout, from the most significant bit: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node id and
+ * 12 bits of per-millisecond sequence. Time and sequence live in one {@link AtomicLong} advanced with a CAS, so
+ * generation is lock-free and never draws from {@code SecureRandom}. When more than 4096 ids are requested in a
+ * millisecond, or the wall clock steps back, the sequence carries into the time bits, i.e. the generator
+ * borrows from the next millisecond instead of waiting or repeating an id.
+ * <p>
+ * Ids of one generator are strictly increasing, and since the rendering is fixed-width with an alphabet in
+ * ASCII order, their string form sorts the same way, so they can double as sequence keys. Different nodes
+ * never collide as long as they are configured with different node ids.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+    /**
+     * Start of the 41-bit millisecond range (about 69 years).
+     */
+    public static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+    /**
+     * Largest allowed node id.
+     */
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ID_LENGTH = 13;
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final long node;
+    private final long epochMillis = EPOCH.toEpochMilli();
+    private final Clock clock;
+    /**
+     * Last issued {@code millis << SEQUENCE_BITS | sequence}.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Creates a generator using the system clock.
+     *
+     * @param nodeId id of this node, {@code 0..}{@value #MAX_NODE_ID}.
+     */
+    public TimeOrderedIdGenerator(int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param nodeId id of this node, {@code 0..}{@value #MAX_NODE_ID}.
+     * @param clock time source.
+     */
+    public TimeOrderedIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.node = nodeId;
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    @Override
+    public String nextId() {
+        return render(nextLong());
+    }
+
+    /**
+     * @return next id in numeric form.
+     */
+    public long nextLong() {
+        long now = clock.millis() - epochMillis;
+        long previous;
+        long next;
+        do {
+            previous = state.get();
+            long candidate = now << SEQUENCE_BITS;
+            next = candidate > previous ? candidate : previous + 1;
+        } while (!state.compareAndSet(previous, next));
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Renders an id as 13 base32 characters; the string order matches the numeric order of non-negative ids.
+     *
+     * @param id numeric id.
+     * @return fixed-width text form.
+     */
+    public static String render(long id) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Parses the text form produced by {@link #render(long)}, e.g. to store ids as {@code long}s.
+     *
+     * @param id text form.
+     * @return numeric id; {@code -1} when {@code id} is not the rendering of a non-negative id.
+     */
+    public static long parse(String id) {
+        if (id == null || id.length() != ID_LENGTH) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            int digit = digit(id.charAt(i));
+            if (digit < 0 || (i == 0 && digit > 7)) {
+                return -1;
+            }
+            value = (value << 5) | digit;
+        }
+        return value;
+    }
+
+    private static int digit(char c) {
+        return c < DIGITS.length ? DIGITS[c] : -1;
+    }
+}
@@ -0,0 +1,15 @@
+package com.serdyuchenko.bank.shared;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs. Every id is a {@code SecureRandom} draw and ids are not ordered; kept for
+ * deployments that need UUID-formatted ids.
+ */
+public class UuidIdGenerator implements IdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
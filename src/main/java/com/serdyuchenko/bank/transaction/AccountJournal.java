@@ -0,0 +1,245 @@
+package com.serdyuchenko.bank.transaction;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Append-only history of a single account stored in fixed-size segments.
+ * <p>
+ * Writers reserve a slot with a CAS-based ticket, fill it, and publish in ticket order by advancing the
+ * volatile {@code published} counter; no monitor is ever taken. Readers read {@code published} once and
+ * get an immutable view of that prefix, so they never block writers and never copy entries. Segments are
+ * never reallocated, only the small segment directory is replaced copy-on-write when a new segment is added.
+ * <p>
+ * Entries published through {@link #stamp(Instant)} get non-decreasing timestamps, so the journal is also
+ * ordered by time and can be binary-searched.
+ * <p>
+ * Next to the entries the journal keeps, per {@link TransactionType}, the slots holding entries of that type, in
+ * slot order. They are appended by the publishing writer while it holds its turn, so
+ * {@link #snapshot(TransactionType)} is a view over the matching entries, time-ordered like the full one.
+ */
+final class AccountJournal {
+    private static final int SEGMENT_SHIFT = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int SPINS_BEFORE_YIELD = 64;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final AtomicReference<Transaction[][]> segments = new AtomicReference<>(new Transaction[0][]);
+    private final AtomicInteger reserved = new AtomicInteger();
+    private volatile int published;
+    /**
+     * Written only by the writer whose turn it is; the volatile {@code published} handoff makes it visible
+     * to the next writer.
+     */
+    private Instant lastTimestamp = Instant.MIN;
+    private final TypeIndex[] byType = new TypeIndex[TYPES.length];
+
+    AccountJournal() {
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new TypeIndex();
+        }
+    }
+
+    /**
+     * Reserves the next slot and makes sure the segment holding it exists.
+     * Every reserved slot must be {@link #publish(int, Transaction) published}, otherwise later writers stall.
+     *
+     * @return index of the reserved slot.
+     */
+    int reserve() {
+        int index = reserved.getAndIncrement();
+        ensureSegment(index >>> SEGMENT_SHIFT);
+        return index;
+    }
+
+    /**
+     * Reserves {@code count} consecutive slots with a single CAS, e.g. for the entries of a batch.
+     * Every reserved slot must be published in order, starting from the returned index.
+     *
+     * @param count number of slots, positive.
+     * @return index of the first reserved slot.
+     */
+    int reserve(int count) {
+        int first = reserved.getAndAdd(count);
+        ensureSegment((first + count - 1) >>> SEGMENT_SHIFT);
+        return first;
+    }
+
+    /**
+     * Waits until every slot before {@code index} is published, i.e. until it is this writer's turn.
+     *
+     * @param index reserved slot.
+     */
+    void awaitTurn(int index) {
+        int spins = 0;
+        while (published != index) {
+            if (++spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Clamps the candidate timestamp so entries never go back in time (e.g. after a wall-clock step).
+     * Must be called after {@link #awaitTurn(int)}.
+     *
+     * @param candidate timestamp read from the clock.
+     * @return timestamp to use for the entry.
+     */
+    Instant stamp(Instant candidate) {
+        Instant timestamp = candidate.isBefore(lastTimestamp) ? lastTimestamp : candidate;
+        lastTimestamp = timestamp;
+        return timestamp;
+    }
+
+    /**
+     * Stores the entry and makes it visible to readers. Must be called after {@link #awaitTurn(int)}.
+     *
+     * @param index reserved slot.
+     * @param transaction entry to store.
+     */
+    void publish(int index, Transaction transaction) {
+        segments.get()[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK] = transaction;
+        byType[transaction.getType().ordinal()].add(index);
+        published = index + 1;
+    }
+
+    /**
+     * Convenience append for callers that already built the entry.
+     *
+     * @param transaction entry to append.
+     */
+    void append(Transaction transaction) {
+        int index = reserve();
+        awaitTurn(index);
+        stamp(transaction.getTimeStamp());
+        publish(index, transaction);
+    }
+
+    /**
+     * @return number of published entries.
+     */
+    int size() {
+        return published;
+    }
+
+    /**
+     * Returns an immutable view of the entries published so far. Later appends are not visible through it.
+     *
+     * @return snapshot view ordered by insertion.
+     */
+    List<Transaction> snapshot() {
+        int size = published;
+        return new Snapshot(segments.get(), size);
+    }
+
+    private void ensureSegment(int segmentIndex) {
+        while (true) {
+            Transaction[][] current = segments.get();
+            if (segmentIndex < current.length) {
+                return;
+            }
+            Transaction[][] grown = Arrays.copyOf(current, segmentIndex + 1);
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new Transaction[SEGMENT_SIZE];
+            }
+            if (segments.compareAndSet(current, grown)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns an immutable view of the entries of one type published so far. Later appends are not visible
+     * through it.
+     *
+     * @param type transaction type to select
+     * @return snapshot view ordered by insertion.
+     */
+    List<Transaction> snapshot(TransactionType type) {
+        int size = published;
+        TypeIndex index = byType[type.ordinal()];
+        int count = index.size;
+        int[] slots = index.slots;
+        // The type index may already hold slots published after size was read.
+        while (count > 0 && slots[count - 1] >= size) {
+            count--;
+        }
+        return new TypedSnapshot(new Snapshot(segments.get(), size), slots, count);
+    }
+
+    /**
+     * Growable list of slot numbers, appended only by the writer holding the turn. Readers read {@code size}
+     * before {@code slots}, so the array they get covers every slot below the size they read.
+     */
+    private static final class TypeIndex {
+        private volatile int[] slots = new int[0];
+        private volatile int size;
+
+        private void add(int slot) {
+            int[] current = slots;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, Math.max(8, current.length * 2));
+                slots = current;
+            }
+            current[size] = slot;
+            size = size + 1;
+        }
+    }
+
+    private static final class TypedSnapshot extends AbstractList<Transaction> implements RandomAccess {
+        private final Snapshot entries;
+        private final int[] slots;
+        private final int size;
+
+        private TypedSnapshot(Snapshot entries, int[] slots, int size) {
+            this.entries = entries;
+            this.slots = slots;
+            this.size = size;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return entries.get(slots[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static final class Snapshot extends AbstractList<Transaction> implements RandomAccess {
+        private final Transaction[][] segments;
+        private final int size;
+
+        private Snapshot(Transaction[][] segments, int size) {
+            this.segments = segments;
+            this.size = size;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -2,25 +2,62 @@ package com.serdyuchenko.bank.transaction;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.shared.IdGenerator;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
 
 /**
  * In-memory append-only ledger keyed by account identifier.
+ * Each account owns an {@link AccountJournal}, so writes to different accounts never contend and reads take
+ * a snapshot view without blocking writers or copying history. Journals are time-ordered random-access views
+ * and entries carry running balances, so {@link #balanceAt} is a binary search over the account's history.
+ * Journals also index their entries by type, so {@link #query} for one type over a time range is a binary
+ * search over that type's entries only. A global map from correlation id to entries serves
+ * {@link #getByTransactionId}, e.g. both legs of a transfer, with one hash lookup.
  *
  * @author Anton Serdyuchenko
  */
 @Component
-public class InMemoryTransactionLedger implements TransactionLedger {
-    private final Map<String, List<Transaction>> ledger = new HashMap<>();
+@ConditionalOnProperty(prefix = "app.ledger", name = "type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTransactionLedger implements ReplicaLedger, LedgerStatistics {
+    private final Map<String, AccountJournal> journals = new ConcurrentHashMap<>();
+    private final IdGenerator idGenerator;
+    private final LongAdder appended = new LongAdder();
+    /**
+     * Entries by correlation id, in recording order. Arrays are replaced, never modified, so readers can hand
+     * them out as they are.
+     */
+    private final Map<String, Transaction[]> byTransactionId = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a ledger issuing time-ordered entry ids.
+     */
+    public InMemoryTransactionLedger() {
+        this(new TimeOrderedIdGenerator(0));
+    }
+
+    /**
+     * Creates a ledger with the given id generator. Ids are drawn while the writer holds its turn in the
+     * account journal, so with a time-ordered generator each account's entry ids increase in append order.
+     *
+     * @param idGenerator generator for entry ids
+     */
+    @Autowired
+    public InMemoryTransactionLedger(IdGenerator idGenerator) {
+        this.idGenerator = Objects.requireNonNull(idGenerator, "IdGenerator cannot be null");
+    }
 
     /**
      * Records a transaction entry for the given account.
@@ -31,39 +68,234 @@ public class InMemoryTransactionLedger implements TransactionLedger {
      * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
      * @return materialized {@link Transaction}
      */
-    public synchronized Transaction record(String accountId,
-                                           TransactionType type,
-                                           Money amount,
-                                           TransactionMetadata metadata) {
+    public Transaction record(String accountId,
+                              TransactionType type,
+                              Money amount,
+                              TransactionMetadata metadata) {
         String normalizedAccountId = requireAccountId(accountId);
         TransactionType safeType = Objects.requireNonNull(type, "Transaction type cannot be null");
         Money safeAmount = Objects.requireNonNull(amount, "Money cannot be null");
         TransactionMetadata safeMetadata = metadata == null ? TransactionMetadata.empty() : metadata;
 
+        // Every argument is validated above: a reserved slot must always be published.
+        AccountJournal journal = journalFor(normalizedAccountId);
+        int index = journal.reserve();
+        journal.awaitTurn(index);
         Transaction transaction = new Transaction(
-            UUID.randomUUID().toString(),
+            idGenerator.nextId(),
             normalizedAccountId,
             safeAmount,
             safeType,
-            Instant.now(),
+            journal.stamp(Instant.now()),
+            safeMetadata
+        );
+        journal.publish(index, transaction);
+        index(transaction);
+        appended.increment();
+        return transaction;
+    }
+
+    /**
+     * Records a transaction entry from a fixed-point amount; no {@link Money} is created on this path.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     * @return materialized {@link Transaction}
+     */
+    @Override
+    public Transaction record(String accountId,
+                              TransactionType type,
+                              String currency,
+                              long amountMinor,
+                              TransactionMetadata metadata) {
+        return record(accountId, type, currency, amountMinor, Transaction.NO_BALANCE, metadata);
+    }
+
+    /**
+     * Records a transaction entry from a fixed-point amount together with the account's running balance.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param balanceAfterMinor account balance right after the entry, or {@link Transaction#NO_BALANCE}
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     * @return materialized {@link Transaction}
+     */
+    @Override
+    public Transaction record(String accountId,
+                              TransactionType type,
+                              String currency,
+                              long amountMinor,
+                              long balanceAfterMinor,
+                              TransactionMetadata metadata) {
+        String normalizedAccountId = requireAccountId(accountId);
+        TransactionType safeType = Objects.requireNonNull(type, "Transaction type cannot be null");
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("Currency cannot be null or blank");
+        }
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Amount must be a positive value");
+        }
+        TransactionMetadata safeMetadata = metadata == null ? TransactionMetadata.empty() : metadata;
+
+        AccountJournal journal = journalFor(normalizedAccountId);
+        int index = journal.reserve();
+        journal.awaitTurn(index);
+        Transaction transaction = new Transaction(
+            idGenerator.nextId(),
+            normalizedAccountId,
+            currency,
+            amountMinor,
+            balanceAfterMinor,
+            safeType,
+            journal.stamp(Instant.now()),
             safeMetadata
         );
-        ledger.computeIfAbsent(normalizedAccountId, key -> new ArrayList<>()).add(transaction);
+        journal.publish(index, transaction);
+        index(transaction);
+        appended.increment();
         return transaction;
     }
 
+    /**
+     * Records a group of entries with one slot reservation and one turn wait per account instead of one per
+     * entry.
+     *
+     * @param entries entries to append
+     * @return recorded transactions in the order of {@code entries}
+     */
+    @Override
+    public List<Transaction> recordAll(List<LedgerEntry> entries) {
+        Map<String, List<Integer>> positionsByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            positionsByAccount.computeIfAbsent(entries.get(i).getAccountId(), key -> new ArrayList<>()).add(i);
+        }
+        Transaction[] recorded = new Transaction[entries.size()];
+        for (Map.Entry<String, List<Integer>> group : positionsByAccount.entrySet()) {
+            List<Integer> positions = group.getValue();
+            // Entries were validated when built, so every reserved slot below gets published.
+            AccountJournal journal = journalFor(group.getKey());
+            int first = journal.reserve(positions.size());
+            journal.awaitTurn(first);
+            Instant now = Instant.now();
+            for (int k = 0; k < positions.size(); k++) {
+                int position = positions.get(k);
+                LedgerEntry entry = entries.get(position);
+                Transaction transaction = new Transaction(
+                    idGenerator.nextId(),
+                    entry.getAccountId(),
+                    entry.getCurrency(),
+                    entry.getAmountMinor(),
+                    entry.getBalanceAfterMinor(),
+                    entry.getType(),
+                    journal.stamp(now),
+                    entry.getMetadata()
+                );
+                journal.publish(first + k, transaction);
+                recorded[position] = transaction;
+            }
+        }
+        for (Transaction transaction : recorded) {
+            index(transaction);
+        }
+        appended.add(entries.size());
+        return Arrays.asList(recorded);
+    }
+
+    /**
+     * Appends an entry recorded elsewhere, keeping its id and timestamp. A timestamp older than the account's
+     * newest entry is kept too, as the source ledger already ordered them.
+     *
+     * @param transaction entry to append
+     */
+    @Override
+    public void append(Transaction transaction) {
+        AccountJournal journal = journalFor(requireAccountId(transaction.getAccountId()));
+        int index = journal.reserve();
+        journal.awaitTurn(index);
+        journal.stamp(transaction.getTimeStamp());
+        journal.publish(index, transaction);
+        index(transaction);
+        appended.increment();
+    }
+
     /**
      * Returns the immutable list of recorded transactions for the given account.
      *
      * @param accountId identifier tied to the ledger entries
      * @return immutable snapshot ordered by insertion time
      */
-    public synchronized List<Transaction> getTransactions(String accountId) {
-        List<Transaction> entries = ledger.get(requireAccountId(accountId));
-        if (entries == null) {
+    public List<Transaction> getTransactions(String accountId) {
+        AccountJournal journal = journals.get(requireAccountId(accountId));
+        if (journal == null) {
+            return List.of();
+        }
+        return journal.snapshot();
+    }
+
+    /**
+     * Returns the recorded transactions of one type for the given account, from the journal's per-type index.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param type transaction type to select
+     * @return immutable snapshot ordered by insertion time
+     */
+    @Override
+    public List<Transaction> getTransactions(String accountId, TransactionType type) {
+        Objects.requireNonNull(type, "Transaction type cannot be null");
+        AccountJournal journal = journals.get(requireAccountId(accountId));
+        if (journal == null) {
             return List.of();
         }
-        return Collections.unmodifiableList(new ArrayList<>(entries));
+        return journal.snapshot(type);
+    }
+
+    /**
+     * Returns the entries recorded with the correlation id, in recording order.
+     *
+     * @param transactionId correlation id
+     * @return immutable list; empty when no entry carries the id
+     */
+    @Override
+    public List<Transaction> getByTransactionId(String transactionId) {
+        Transaction[] entries = byTransactionId.get(Objects.requireNonNull(transactionId,
+            "Transaction id cannot be null"));
+        return entries == null ? List.of() : List.of(entries);
+    }
+
+    @Override
+    public long size() {
+        return appended.sum();
+    }
+
+    @Override
+    public int[] entryCountsPerAccount() {
+        return journals.values().stream().mapToInt(AccountJournal::size).toArray();
+    }
+
+    private void index(Transaction transaction) {
+        String transactionId = transaction.getMetadata().getTransactionId();
+        if (transactionId != null) {
+            byTransactionId.merge(transactionId, new Transaction[] {transaction}, InMemoryTransactionLedger::concat);
+        }
+    }
+
+    private static Transaction[] concat(Transaction[] first, Transaction[] second) {
+        Transaction[] merged = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, merged, first.length, second.length);
+        return merged;
+    }
+
+    private AccountJournal journalFor(String accountId) {
+        AccountJournal journal = journals.get(accountId);
+        if (journal == null) {
+            journal = journals.computeIfAbsent(accountId, key -> new AccountJournal());
+        }
+        return journal;
     }
 
     private String requireAccountId(String accountId) {
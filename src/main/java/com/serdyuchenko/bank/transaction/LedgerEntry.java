@@ -0,0 +1,84 @@
+package com.serdyuchenko.bank.transaction;
+
+/**
+ * Entry waiting to be appended by {@link TransactionLedger#recordAll(java.util.List)}: everything except the
+ * id and timestamp the ledger assigns.
+ */
+public class LedgerEntry {
+    private final String accountId;
+    private final TransactionType type;
+    private final String currency;
+    private final long amountMinor;
+    private final long balanceAfterMinor;
+    private final TransactionMetadata metadata;
+
+    /**
+     * Creates a pending entry.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     */
+    public LedgerEntry(String accountId, TransactionType type, String currency, long amountMinor,
+                       TransactionMetadata metadata) {
+        this(accountId, type, currency, amountMinor, Transaction.NO_BALANCE, metadata);
+    }
+
+    /**
+     * Creates a pending entry carrying the running balance of its account.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param balanceAfterMinor account balance right after the entry, or {@link Transaction#NO_BALANCE}
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     */
+    public LedgerEntry(String accountId, TransactionType type, String currency, long amountMinor,
+                       long balanceAfterMinor, TransactionMetadata metadata) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new IllegalArgumentException("Account id cannot be null or blank");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Transaction type cannot be null");
+        }
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("Currency cannot be null or blank");
+        }
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Amount must be a positive value");
+        }
+        this.accountId = accountId;
+        this.type = type;
+        this.currency = currency;
+        this.amountMinor = amountMinor;
+        this.balanceAfterMinor = balanceAfterMinor;
+        this.metadata = metadata == null ? TransactionMetadata.empty() : metadata;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public long getBalanceAfterMinor() {
+        return balanceAfterMinor;
+    }
+
+    public TransactionMetadata getMetadata() {
+        return metadata;
+    }
+}
@@ -0,0 +1,20 @@
+package com.serdyuchenko.bank.transaction;
+
+/**
+ * Optional monitoring view of a {@link TransactionLedger}.
+ */
+public interface LedgerStatistics {
+
+    /**
+     * @return total number of entries appended so far.
+     */
+    long size();
+
+    /**
+     * Returns the history length of every account. Costs one pass over the accounts, so callers should not
+     * invoke it on a hot path.
+     *
+     * @return entry count per account, in no particular order.
+     */
+    int[] entryCountsPerAccount();
+}
@@ -0,0 +1,103 @@
+package com.serdyuchenko.bank.transaction;
+
+import java.time.Instant;
+
+/**
+ * Describes one page of an account history: an optional {@code [from, to)} time window, an optional transaction
+ * type, the number of entries to skip among the matching ones (counted in the requested direction), and the page
+ * size.
+ */
+public class PageRequest {
+    /**
+     * Upper bound for a single page so one request cannot pin an unbounded result.
+     */
+    public static final int MAX_LIMIT = 1_000;
+
+    private final Instant from;
+    private final Instant to;
+    private final long offset;
+    private final int limit;
+    private final SortDirection direction;
+    private final TransactionType type;
+
+    /**
+     * Creates a page request over entries of every type.
+     *
+     * @param from inclusive lower time bound; {@code null} for the beginning of history
+     * @param to exclusive upper time bound; {@code null} for "now"
+     * @param offset number of matching entries to skip, must not be negative
+     * @param limit page size between 1 and {@link #MAX_LIMIT}
+     * @param direction ordering; {@link SortDirection#ASC} when {@code null}
+     */
+    public PageRequest(Instant from, Instant to, long offset, int limit, SortDirection direction) {
+        this(from, to, null, offset, limit, direction);
+    }
+
+    /**
+     * Creates a page request.
+     *
+     * @param from inclusive lower time bound; {@code null} for the beginning of history
+     * @param to exclusive upper time bound; {@code null} for "now"
+     * @param type only entries of this type; {@code null} for every type
+     * @param offset number of matching entries to skip, must not be negative
+     * @param limit page size between 1 and {@link #MAX_LIMIT}
+     * @param direction ordering; {@link SortDirection#ASC} when {@code null}
+     */
+    public PageRequest(Instant from, Instant to, TransactionType type, long offset, int limit,
+                       SortDirection direction) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Time range end cannot be before its start");
+        }
+        this.from = from;
+        this.to = to;
+        this.offset = offset;
+        this.limit = limit;
+        this.direction = direction == null ? SortDirection.ASC : direction;
+        this.type = type;
+    }
+
+    /**
+     * Offset-based page over the full history.
+     *
+     * @param offset number of entries to skip
+     * @param limit page size
+     * @param direction ordering
+     * @return page request without a time window
+     */
+    public static PageRequest of(long offset, int limit, SortDirection direction) {
+        return new PageRequest(null, null, offset, limit, direction);
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    /**
+     * @return type the entries are restricted to, or {@code null} for every type
+     */
+    public TransactionType getType() {
+        return type;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public SortDirection getDirection() {
+        return direction;
+    }
+}
@@ -0,0 +1,16 @@
+package com.serdyuchenko.bank.transaction;
+
+/**
+ * {@link TransactionLedger} that also takes entries recorded by another ledger, as a replication follower's copy
+ * does.
+ */
+public interface ReplicaLedger extends TransactionLedger {
+
+    /**
+     * Appends an entry recorded by another ledger as it is, keeping its id and timestamp. Entries of one account
+     * must be appended in the order the other ledger recorded them.
+     *
+     * @param transaction entry to append
+     */
+    void append(Transaction transaction);
+}
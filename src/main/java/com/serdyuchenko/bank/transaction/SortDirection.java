@@ -0,0 +1,11 @@
+package com.serdyuchenko.bank.transaction;
+
+/**
+ * Order in which ledger history is returned.
+ */
+public enum SortDirection {
+    /** Oldest entry first. */
+    ASC,
+    /** Newest entry first. */
+    DESC
+}
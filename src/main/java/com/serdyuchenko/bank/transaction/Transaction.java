@@ -2,18 +2,37 @@ package com.serdyuchenko.bank.transaction;
 
 import java.time.Instant;
 
+import com.serdyuchenko.bank.domain.MinorUnits;
 import com.serdyuchenko.bank.domain.Money;
 
 /**
  * Immutable ledger entry describing a single money movement for an account.
  * Guarantees non-null identifiers, positive {@link Money}, and chronological stamp
  * so a ledger can be replayed deterministically.
+ * <p>
+ * Entries recorded from minor units keep only the {@code long} amount and currency; the {@link Money} view is
+ * created on first {@link #getAmount()} call, so the write path does not allocate {@code BigDecimal}s.
+ * <p>
+ * Entries written by the bank also carry the account balance right after the movement, so the balance at any
+ * point of the history is read from a single entry instead of being summed up from the start.
  */
 public class Transaction {
+    /**
+     * Marker for entries that were recorded without a running balance.
+     */
+    public static final long NO_BALANCE = Long.MIN_VALUE;
+    private static final long UNKNOWN_MINOR = Long.MIN_VALUE;
+
     private final String id;
     private final String accountId;
     private final TransactionType type;
-    private final Money amount;
+    private final String currency;
+    private final long amountMinor;
+    private final long balanceAfterMinor;
+    /**
+     * Lazily materialized; a racy second initialization is harmless because {@link Money} is immutable.
+     */
+    private Money amount;
     private final Instant timeStamp;
     private final TransactionMetadata metadata;
 
@@ -44,6 +63,52 @@ public class Transaction {
         this.id = requireNonBlank(id, "Transaction id");
         this.accountId = requireNonBlank(accountId, "Account id");
         this.amount = requireNonNull(amount, "Amount");
+        this.currency = amount.getCurrency();
+        this.amountMinor = UNKNOWN_MINOR;
+        this.balanceAfterMinor = NO_BALANCE;
+        this.type = requireNonNull(type, "Transaction type");
+        this.timeStamp = requireNonNull(timeStamp, "Timestamp");
+        this.metadata = requireNonNull(metadata, "Metadata");
+    }
+
+    /**
+     * Creates a transaction from a fixed-point amount without materializing {@link Money}.
+     *
+     * @param id unique transaction identifier
+     * @param accountId owning account identifier
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param type domain-specific transaction type
+     * @param timeStamp instant when the transaction occurred
+     * @param metadata contextual information describing how/why the entry exists
+     */
+    public Transaction(String id, String accountId, String currency, long amountMinor, TransactionType type,
+                       Instant timeStamp, TransactionMetadata metadata) {
+        this(id, accountId, currency, amountMinor, NO_BALANCE, type, timeStamp, metadata);
+    }
+
+    /**
+     * Creates a transaction from a fixed-point amount together with the running balance of the account.
+     *
+     * @param id unique transaction identifier
+     * @param accountId owning account identifier
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param balanceAfterMinor account balance in minor units right after this entry, or {@link #NO_BALANCE}
+     * @param type domain-specific transaction type
+     * @param timeStamp instant when the transaction occurred
+     * @param metadata contextual information describing how/why the entry exists
+     */
+    public Transaction(String id, String accountId, String currency, long amountMinor, long balanceAfterMinor,
+                       TransactionType type, Instant timeStamp, TransactionMetadata metadata) {
+        this.id = requireNonBlank(id, "Transaction id");
+        this.accountId = requireNonBlank(accountId, "Account id");
+        this.currency = requireNonBlank(currency, "Currency");
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Amount must be a positive value");
+        }
+        this.amountMinor = amountMinor;
+        this.balanceAfterMinor = balanceAfterMinor;
         this.type = requireNonNull(type, "Transaction type");
         this.timeStamp = requireNonNull(timeStamp, "Timestamp");
         this.metadata = requireNonNull(metadata, "Metadata");
@@ -72,7 +137,38 @@ public class Transaction {
     }
 
     public Money getAmount() {
-        return amount;
+        Money money = amount;
+        if (money == null) {
+            money = Money.ofMinorUnits(currency, amountMinor);
+            amount = money;
+        }
+        return money;
+    }
+
+    /**
+     * @return amount in minor units
+     * @throws ArithmeticException when the entry was created from a {@link Money} with sub-minor precision
+     */
+    public long getAmountMinor() {
+        return amountMinor == UNKNOWN_MINOR ? MinorUnits.fromBigDecimal(amount.getAmount()) : amountMinor;
+    }
+
+    /**
+     * @return whether the entry carries the running balance of its account
+     */
+    public boolean hasBalanceAfter() {
+        return balanceAfterMinor != NO_BALANCE;
+    }
+
+    /**
+     * @return account balance in minor units right after this entry, or {@link #NO_BALANCE} when not recorded
+     */
+    public long getBalanceAfterMinor() {
+        return balanceAfterMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
     }
 
     public TransactionType getType() {
@@ -1,6 +1,12 @@
 package com.serdyuchenko.bank.transaction;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 import com.serdyuchenko.bank.domain.Money;
 
@@ -14,5 +20,185 @@ public interface TransactionLedger {
                        Money amount,
                        TransactionMetadata metadata);
 
+    /**
+     * Records an entry whose amount is given in minor units. Implementations should override this to keep the
+     * write path free of {@link Money}/{@code BigDecimal} allocations; the default converts at the boundary.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param metadata optional metadata
+     * @return materialized {@link Transaction}
+     */
+    default Transaction record(String accountId,
+                               TransactionType type,
+                               String currency,
+                               long amountMinor,
+                               TransactionMetadata metadata) {
+        return record(accountId, type, Money.ofMinorUnits(currency, amountMinor), metadata);
+    }
+
+    /**
+     * Records an entry together with the running balance of its account, as computed by the caller while it
+     * holds the account. Ledgers that keep running balances override this; the default drops the balance.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param balanceAfterMinor account balance right after the entry, or {@link Transaction#NO_BALANCE}
+     * @param metadata optional metadata
+     * @return materialized {@link Transaction}
+     */
+    default Transaction record(String accountId,
+                               TransactionType type,
+                               String currency,
+                               long amountMinor,
+                               long balanceAfterMinor,
+                               TransactionMetadata metadata) {
+        return record(accountId, type, currency, amountMinor, metadata);
+    }
+
+    /**
+     * Records a group of entries, e.g. all legs of a batch of transfers. Entries of the same account keep
+     * their relative order. Implementations may append each account's entries in one step; the default
+     * records them one by one.
+     *
+     * @param entries entries to append
+     * @return recorded transactions in the order of {@code entries}
+     */
+    default List<Transaction> recordAll(List<LedgerEntry> entries) {
+        List<Transaction> recorded = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            recorded.add(record(entry.getAccountId(), entry.getType(), entry.getCurrency(), entry.getAmountMinor(),
+                entry.getBalanceAfterMinor(), entry.getMetadata()));
+        }
+        return recorded;
+    }
+
     List<Transaction> getTransactions(String accountId);
+
+    /**
+     * Returns the account's entries of one type as a time-ordered, random-access view. Ledgers that keep a
+     * per-type index override this so that it costs nothing per entry of other types; the default copies the
+     * matching entries out of {@link #getTransactions(String)}, which is {@code O(n)}.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param type transaction type to select
+     * @return entries of that type, oldest first
+     */
+    default List<Transaction> getTransactions(String accountId, TransactionType type) {
+        Objects.requireNonNull(type, "Transaction type cannot be null");
+        List<Transaction> matching = new ArrayList<>();
+        for (Transaction transaction : getTransactions(accountId)) {
+            if (transaction.getType() == type) {
+                matching.add(transaction);
+            }
+        }
+        return Collections.unmodifiableList(matching);
+    }
+
+    /**
+     * Returns the account's entries recorded in {@code [from, to)}, optionally only those of one type, e.g. all
+     * withdrawals of last week. The history (or the per-type view of it) is time-ordered, so the window is found
+     * by binary search: with a per-type index this is {@code O(log n + k)} for {@code k} matching entries.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param type only entries of this type; {@code null} for every type
+     * @param from inclusive lower time bound; {@code null} for the beginning of history
+     * @param to exclusive upper time bound; {@code null} for no upper bound
+     * @return read-only view of the matching entries, oldest first
+     */
+    default List<Transaction> query(String accountId, TransactionType type, Instant from, Instant to) {
+        List<Transaction> history = type == null ? getTransactions(accountId) : getTransactions(accountId, type);
+        return TransactionPage.window(history, from, to);
+    }
+
+    /**
+     * Returns every entry carrying the correlation id ({@link TransactionMetadata#getTransactionId()}) across all
+     * accounts, in recording order: for a transfer, the source leg and then the destination leg, followed by
+     * the legs of its reversal, if any. Ledgers keep a global index for this, so the lookup does not depend on
+     * the number of accounts or entries.
+     *
+     * @param transactionId correlation id
+     * @return matching entries; empty when none carries the id
+     */
+    List<Transaction> getByTransactionId(String transactionId);
+
+    /**
+     * Passes every entry of the account to {@code action}, oldest first, one at a time. Entries are neither
+     * collected nor copied, so a full export of a long history needs memory for one entry at a time (plus whatever
+     * the ledger keeps anyway). Entries recorded after the call started are not visited.
+     * The default implementation walks {@link #getTransactions(String)} by index, which must then be a view
+     * rather than a copy.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param action callback receiving each entry
+     */
+    default void forEachTransaction(String accountId, Consumer<? super Transaction> action) {
+        List<Transaction> history = getTransactions(accountId);
+        for (int i = 0, size = history.size(); i < size; i++) {
+            action.accept(history.get(i));
+        }
+    }
+
+    /**
+     * Returns one page of the account's history without copying the rest of it.
+     * The default implementation slices {@link #getTransactions(String)}, or
+     * {@link #getTransactions(String, TransactionType)} when the request selects a type, which must then be a
+     * time-ordered, random-access view rather than a copy.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param request window, offset, size and direction of the page
+     * @return page view over the history
+     */
+    default TransactionPage getPage(String accountId, PageRequest request) {
+        List<Transaction> history = request.getType() == null
+            ? getTransactions(accountId)
+            : getTransactions(accountId, request.getType());
+        return TransactionPage.of(history, request);
+    }
+
+    /**
+     * Returns the account balance as of the given instant, read from the running balance of the last entry at
+     * or before it. History is time-ordered, so this is a binary search: O(log n) entries are looked at
+     * regardless of how long the history is.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param at point in time, inclusive
+     * @return balance in minor units; empty when there is no entry up to {@code at} or it carries no balance
+     */
+    default OptionalLong balanceAt(String accountId, Instant at) {
+        List<Transaction> history = getTransactions(accountId);
+        int low = 0;
+        int high = history.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (history.get(middle).getTimeStamp().isAfter(at)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low == 0 ? OptionalLong.empty() : balanceOf(history.get(low - 1));
+    }
+
+    /**
+     * Returns the running balance of the newest entry, i.e. the balance to restore the account to after a
+     * restart.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @return balance in minor units; empty when the account has no history or it carries no balance
+     */
+    default OptionalLong latestBalance(String accountId) {
+        List<Transaction> history = getTransactions(accountId);
+        return history.isEmpty() ? OptionalLong.empty() : balanceOf(history.get(history.size() - 1));
+    }
+
+    private static OptionalLong balanceOf(Transaction transaction) {
+        return transaction.hasBalanceAfter()
+            ? OptionalLong.of(transaction.getBalanceAfterMinor())
+            : OptionalLong.empty();
+    }
 }
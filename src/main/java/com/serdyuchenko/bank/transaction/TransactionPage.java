@@ -0,0 +1,116 @@
+package com.serdyuchenko.bank.transaction;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * One page of an account history. {@link #getEntries()} is a read-only view over the ledger snapshot, so
+ * building a page never copies the account's history.
+ */
+public class TransactionPage {
+    private final List<Transaction> entries;
+    private final long offset;
+    private final long total;
+
+    private TransactionPage(List<Transaction> entries, long offset, long total) {
+        this.entries = entries;
+        this.offset = offset;
+        this.total = total;
+    }
+
+    /**
+     * Cuts a page out of a time-ordered history. The window bounds are located by binary search, so the
+     * cost is {@code O(log n)} plus nothing per entry until the caller iterates the page.
+     *
+     * @param history random-access history ordered by non-decreasing timestamp
+     * @param request page description
+     * @return page view
+     */
+    public static TransactionPage of(List<Transaction> history, PageRequest request) {
+        List<Transaction> matching = window(history, request.getFrom(), request.getTo());
+        int skip = (int) Math.min(request.getOffset(), matching.size());
+        int size = Math.min(request.getLimit(), matching.size() - skip);
+        List<Transaction> entries;
+        if (request.getDirection() == SortDirection.ASC) {
+            entries = matching.subList(skip, skip + size);
+        } else {
+            entries = new Reversed(matching.subList(matching.size() - skip - size, matching.size() - skip));
+        }
+        return new TransactionPage(entries, request.getOffset(), matching.size());
+    }
+
+    /**
+     * Returns the entries of a time-ordered history that fall into {@code [from, to)}, as a view. Both bounds are
+     * located by binary search, so this costs {@code O(log n)}; reading the {@code k} entries of the window then
+     * costs {@code O(k)}.
+     *
+     * @param history random-access history ordered by non-decreasing timestamp
+     * @param from inclusive lower bound; {@code null} for the beginning of history
+     * @param to exclusive upper bound; {@code null} for no upper bound
+     * @return view of the matching entries, oldest first
+     */
+    public static List<Transaction> window(List<Transaction> history, Instant from, Instant to) {
+        int start = from == null ? 0 : firstAtOrAfter(history, from);
+        int end = to == null ? history.size() : firstAtOrAfter(history, to);
+        return history.subList(start, Math.max(start, end));
+    }
+
+    private static int firstAtOrAfter(List<Transaction> history, Instant instant) {
+        int low = 0;
+        int high = history.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (history.get(mid).getTimeStamp().isBefore(instant)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public List<Transaction> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return offset of the first entry of this page within the matching entries
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return number of entries matching the request's time window
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return {@code true} when more matching entries follow this page
+     */
+    public boolean hasMore() {
+        return offset + entries.size() < total;
+    }
+
+    private static final class Reversed extends AbstractList<Transaction> implements RandomAccess {
+        private final List<Transaction> delegate;
+
+        private Reversed(List<Transaction> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            return delegate.get(delegate.size() - 1 - index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+    }
+}
@@ -6,5 +6,9 @@ package com.serdyuchenko.bank.transaction;
 public enum TransactionType {
     DEPOSIT,
     WITHDRAWAL,
-    TRANSFER
+    TRANSFER,
+    /**
+     * Leg of a reversed transfer; shares the transfer's correlation id.
+     */
+    REVERSAL
 }
@@ -0,0 +1,230 @@
+package com.serdyuchenko.bank.transaction.columnar;
+
+import java.util.Arrays;
+
+/**
+ * History of one account stored column by column in primitive arrays: entry id, timestamp in epoch nanoseconds,
+ * amount, running balance and correlation id as {@code long}s, description code and kind (type ordinal and
+ * currency code) as {@code int}s. That is 48 bytes per entry and no object per entry; the account id is the
+ * journal's own and not repeated.
+ * <p>
+ * Rows live in chunks of {@value #CHUNK_ROWS}. The first chunk starts small and doubles until it is full, so an
+ * account with a handful of entries does not pay for a whole chunk; later chunks are allocated at full size and
+ * never copied. Appends are made by one writer at a time, holding the journal's monitor. Readers take
+ * {@link #rows()}, which reads the volatile row count before the chunk directory, so the directory they get covers
+ * every row below the count and later appends are not visible through it.
+ */
+final class ColumnJournal {
+    private static final int CHUNK_SHIFT = 12;
+    /**
+     * Rows per chunk.
+     */
+    static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final int INITIAL_ROWS = 4;
+
+    private final String accountId;
+    private final int number;
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+    /**
+     * Written only by the writer holding the monitor.
+     */
+    private long lastNanos = Long.MIN_VALUE;
+
+    ColumnJournal(String accountId, int number) {
+        this.accountId = accountId;
+        this.number = number;
+    }
+
+    String accountId() {
+        return accountId;
+    }
+
+    /**
+     * @return position of the journal in the ledger's directory, used in entry references
+     */
+    int number() {
+        return number;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a row and makes it visible to readers. The caller holds the journal's monitor. The timestamp is
+     * clamped so rows never go back in time, e.g. after a wall-clock step.
+     *
+     * @param id encoded entry id
+     * @param nanos entry timestamp in epoch nanoseconds
+     * @param amountMinor amount in minor units
+     * @param balanceAfterMinor running balance in minor units
+     * @param correlation encoded correlation id
+     * @param description description code
+     * @param kind type ordinal in the low byte, currency code above it
+     * @return number of the new row
+     */
+    int append(long id, long nanos, long amountMinor, long balanceAfterMinor, long correlation, int description,
+               int kind) {
+        int row = size;
+        int chunkIndex = row >>> CHUNK_SHIFT;
+        int offset = row & CHUNK_MASK;
+        Chunk[] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, chunkIndex + 1);
+            current[chunkIndex] = new Chunk(chunkIndex == 0 ? INITIAL_ROWS : CHUNK_ROWS);
+            chunks = current;
+        } else if (offset == current[chunkIndex].ids.length) {
+            current = current.clone();
+            current[chunkIndex] = current[chunkIndex].grow(Math.min(CHUNK_ROWS, offset * 2));
+            chunks = current;
+        }
+        Chunk chunk = current[chunkIndex];
+        long stamped = Math.max(nanos, lastNanos);
+        lastNanos = stamped;
+        chunk.ids[offset] = id;
+        chunk.nanos[offset] = stamped;
+        chunk.amounts[offset] = amountMinor;
+        chunk.balances[offset] = balanceAfterMinor;
+        chunk.correlations[offset] = correlation;
+        chunk.descriptions[offset] = description;
+        chunk.kinds[offset] = kind;
+        size = row + 1;
+        return row;
+    }
+
+    /**
+     * Reads the correlation column of a published row without taking a snapshot.
+     *
+     * @param row row below {@link #size()}
+     * @return encoded correlation id
+     */
+    long correlation(int row) {
+        return chunks[row >>> CHUNK_SHIFT].correlations[row & CHUNK_MASK];
+    }
+
+    /**
+     * @return read-only view of the rows published so far
+     */
+    Rows rows() {
+        int count = size;
+        return new Rows(chunks, count);
+    }
+
+    /**
+     * Rows of a journal up to the size it had when the view was taken.
+     */
+    static final class Rows {
+        private final Chunk[] chunks;
+        private final int size;
+
+        private Rows(Chunk[] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long id(int row) {
+            return chunks[row >>> CHUNK_SHIFT].ids[row & CHUNK_MASK];
+        }
+
+        long nanos(int row) {
+            return chunks[row >>> CHUNK_SHIFT].nanos[row & CHUNK_MASK];
+        }
+
+        long amount(int row) {
+            return chunks[row >>> CHUNK_SHIFT].amounts[row & CHUNK_MASK];
+        }
+
+        long balance(int row) {
+            return chunks[row >>> CHUNK_SHIFT].balances[row & CHUNK_MASK];
+        }
+
+        long correlation(int row) {
+            return chunks[row >>> CHUNK_SHIFT].correlations[row & CHUNK_MASK];
+        }
+
+        int description(int row) {
+            return chunks[row >>> CHUNK_SHIFT].descriptions[row & CHUNK_MASK];
+        }
+
+        int kind(int row) {
+            return chunks[row >>> CHUNK_SHIFT].kinds[row & CHUNK_MASK];
+        }
+
+        /**
+         * Scans the kind column for one type.
+         *
+         * @param typeOrdinal ordinal of the type to select
+         * @return matching rows in order
+         */
+        int[] select(int typeOrdinal) {
+            int[] selected = new int[8];
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if ((kind(row) & 0xFF) == typeOrdinal) {
+                    if (count == selected.length) {
+                        selected = Arrays.copyOf(selected, count * 2);
+                    }
+                    selected[count++] = row;
+                }
+            }
+            return Arrays.copyOf(selected, count);
+        }
+
+        /**
+         * @param nanos epoch nanoseconds
+         * @return number of rows stamped at or before {@code nanos}
+         */
+        int countUpTo(long nanos) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (nanos(middle) > nanos) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class Chunk {
+        private final long[] ids;
+        private final long[] nanos;
+        private final long[] amounts;
+        private final long[] balances;
+        private final long[] correlations;
+        private final int[] descriptions;
+        private final int[] kinds;
+
+        private Chunk(int capacity) {
+            this(new long[capacity], new long[capacity], new long[capacity], new long[capacity],
+                new long[capacity], new int[capacity], new int[capacity]);
+        }
+
+        private Chunk(long[] ids, long[] nanos, long[] amounts, long[] balances, long[] correlations,
+                      int[] descriptions, int[] kinds) {
+            this.ids = ids;
+            this.nanos = nanos;
+            this.amounts = amounts;
+            this.balances = balances;
+            this.correlations = correlations;
+            this.descriptions = descriptions;
+            this.kinds = kinds;
+        }
+
+        private Chunk grow(int capacity) {
+            return new Chunk(Arrays.copyOf(ids, capacity), Arrays.copyOf(nanos, capacity),
+                Arrays.copyOf(amounts, capacity), Arrays.copyOf(balances, capacity),
+                Arrays.copyOf(correlations, capacity), Arrays.copyOf(descriptions, capacity),
+                Arrays.copyOf(kinds, capacity));
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.serdyuchenko.bank.transaction.columnar;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.serdyuchenko.bank.domain.MinorUnits;
+import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.shared.IdGenerator;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.LedgerEntry;
+import com.serdyuchenko.bank.transaction.LedgerStatistics;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * In-memory ledger that keeps entries in primitive columns instead of {@link Transaction} objects, selected with
+ * {@code app.ledger.type=columnar}. A {@link Transaction} with its id string, {@link Money}, {@link Instant} and
+ * {@link TransactionMetadata} costs several hundred bytes and about eight objects; here an entry is 48 bytes of
+ * column data in the account's {@link ColumnJournal}, plus a slot in the correlation index, and the garbage
+ * collector has nothing per entry to trace. {@link Transaction}s are created only when an entry is read.
+ * <p>
+ * Entry and correlation ids in the form issued by {@link TimeOrderedIdGenerator} are stored as their numeric
+ * value; any other id, e.g. a client's idempotency key or a UUID, goes to a dictionary and is stored as its code.
+ * Currencies and descriptions are dictionary-encoded too: descriptions are made from a handful of templates per
+ * account, so there are far fewer of them than entries. Amounts must therefore be whole minor units.
+ * <p>
+ * Writes to one account are serialized on its journal, so they never contend with writes to other accounts, and
+ * readers get views over a prefix of the columns without blocking writers or copying history. As with
+ * {@link com.serdyuchenko.bank.transaction.InMemoryTransactionLedger}, timestamps of an account never go back,
+ * so {@link #balanceAt} is a binary search, here over the timestamp column. Selecting one type scans the kind
+ * column rather than keeping a per-type index.
+ *
+ * @author Anton Serdyuchenko
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.ledger", name = "type", havingValue = "columnar")
+public class ColumnarTransactionLedger implements TransactionLedger, LedgerStatistics {
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final long NO_CORRELATION = -1;
+    private static final int NO_DESCRIPTION = -1;
+    private static final int TYPE_BITS = 8;
+
+    private final Map<String, ColumnJournal> journals = new ConcurrentHashMap<>();
+    /**
+     * Journals by number, for resolving entry references ({@code number << 32 | row}).
+     */
+    private volatile ColumnJournal[] directory = new ColumnJournal[16];
+    private int journalCount;
+    private final StringDictionary ids = new StringDictionary();
+    private final StringDictionary currencies = new StringDictionary();
+    private final StringDictionary descriptions = new StringDictionary();
+    private final CorrelationIndex correlations = new CorrelationIndex(this::correlationOf);
+    private final IdGenerator idGenerator;
+    private final LongAdder appended = new LongAdder();
+
+    /**
+     * Creates a ledger issuing time-ordered entry ids.
+     */
+    public ColumnarTransactionLedger() {
+        this(new TimeOrderedIdGenerator(0));
+    }
+
+    /**
+     * Creates a ledger with the given id generator. With a {@link TimeOrderedIdGenerator} entry ids are stored
+     * as numbers; other generators work, but each id then takes a dictionary entry.
+     *
+     * @param idGenerator generator for entry ids
+     */
+    @Autowired
+    public ColumnarTransactionLedger(IdGenerator idGenerator) {
+        this.idGenerator = Objects.requireNonNull(idGenerator, "IdGenerator cannot be null");
+    }
+
+    /**
+     * Records a transaction entry for the given account.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param amount positive monetary amount
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     * @return materialized {@link Transaction}
+     * @throws ArithmeticException when the amount has sub-minor precision
+     */
+    @Override
+    public Transaction record(String accountId, TransactionType type, Money amount, TransactionMetadata metadata) {
+        Money safeAmount = Objects.requireNonNull(amount, "Money cannot be null");
+        return record(accountId, type, safeAmount.getCurrency(), MinorUnits.fromBigDecimal(safeAmount.getAmount()),
+            Transaction.NO_BALANCE, metadata);
+    }
+
+    @Override
+    public Transaction record(String accountId, TransactionType type, String currency, long amountMinor,
+                              TransactionMetadata metadata) {
+        return record(accountId, type, currency, amountMinor, Transaction.NO_BALANCE, metadata);
+    }
+
+    /**
+     * Records a transaction entry from a fixed-point amount together with the account's running balance.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param balanceAfterMinor account balance right after the entry, or {@link Transaction#NO_BALANCE}
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     * @return materialized {@link Transaction}
+     */
+    @Override
+    public Transaction record(String accountId, TransactionType type, String currency, long amountMinor,
+                              long balanceAfterMinor, TransactionMetadata metadata) {
+        String normalizedAccountId = requireAccountId(accountId);
+        TransactionType safeType = Objects.requireNonNull(type, "Transaction type cannot be null");
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("Currency cannot be null or blank");
+        }
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Amount must be a positive value");
+        }
+        TransactionMetadata safeMetadata = metadata == null ? TransactionMetadata.empty() : metadata;
+
+        ColumnJournal journal = journalFor(normalizedAccountId);
+        int row;
+        synchronized (journal) {
+            row = append(journal, safeType, currency, amountMinor, balanceAfterMinor, safeMetadata, Instant.now());
+        }
+        index(journal, row);
+        appended.increment();
+        return materialize(journal.accountId(), journal.rows(), row);
+    }
+
+    /**
+     * Records a group of entries, appending each account's entries under one acquisition of its journal.
+     *
+     * @param entries entries to append
+     * @return recorded transactions in the order of {@code entries}
+     */
+    @Override
+    public List<Transaction> recordAll(List<LedgerEntry> entries) {
+        Map<String, List<Integer>> positionsByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            positionsByAccount.computeIfAbsent(entries.get(i).getAccountId(), key -> new ArrayList<>()).add(i);
+        }
+        ColumnJournal[] journalOf = new ColumnJournal[entries.size()];
+        int[] rowOf = new int[entries.size()];
+        for (Map.Entry<String, List<Integer>> group : positionsByAccount.entrySet()) {
+            ColumnJournal journal = journalFor(group.getKey());
+            synchronized (journal) {
+                Instant now = Instant.now();
+                for (int position : group.getValue()) {
+                    LedgerEntry entry = entries.get(position);
+                    journalOf[position] = journal;
+                    rowOf[position] = append(journal, entry.getType(), entry.getCurrency(), entry.getAmountMinor(),
+                        entry.getBalanceAfterMinor(), entry.getMetadata(), now);
+                }
+            }
+        }
+        Transaction[] recorded = new Transaction[entries.size()];
+        for (int i = 0; i < recorded.length; i++) {
+            index(journalOf[i], rowOf[i]);
+            recorded[i] = materialize(journalOf[i].accountId(), journalOf[i].rows(), rowOf[i]);
+        }
+        appended.add(entries.size());
+        return Arrays.asList(recorded);
+    }
+
+    /**
+     * Returns a view of the account's entries; each {@link Transaction} is created when it is read.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @return immutable snapshot ordered by insertion time
+     */
+    @Override
+    public List<Transaction> getTransactions(String accountId) {
+        ColumnJournal journal = journals.get(requireAccountId(accountId));
+        if (journal == null) {
+            return List.of();
+        }
+        return new JournalView(journal.accountId(), journal.rows(), null);
+    }
+
+    /**
+     * Returns a view of the account's entries of one type, found by one scan of the kind column.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param type transaction type to select
+     * @return immutable snapshot ordered by insertion time
+     */
+    @Override
+    public List<Transaction> getTransactions(String accountId, TransactionType type) {
+        Objects.requireNonNull(type, "Transaction type cannot be null");
+        ColumnJournal journal = journals.get(requireAccountId(accountId));
+        if (journal == null) {
+            return List.of();
+        }
+        ColumnJournal.Rows rows = journal.rows();
+        return new JournalView(journal.accountId(), rows, rows.select(type.ordinal()));
+    }
+
+    /**
+     * Returns the entries recorded with the correlation id, in recording order.
+     *
+     * @param transactionId correlation id
+     * @return immutable list; empty when no entry carries the id
+     */
+    @Override
+    public List<Transaction> getByTransactionId(String transactionId) {
+        long key = findId(Objects.requireNonNull(transactionId, "Transaction id cannot be null"));
+        if (key == NO_CORRELATION) {
+            return List.of();
+        }
+        long[] references = correlations.find(key);
+        Transaction[] entries = new Transaction[references.length];
+        for (int i = 0; i < references.length; i++) {
+            ColumnJournal journal = directory[(int) (references[i] >>> 32)];
+            entries[i] = materialize(journal.accountId(), journal.rows(), (int) references[i]);
+        }
+        return List.of(entries);
+    }
+
+    /**
+     * Binary search over the account's timestamp column; no entry is materialized.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param at point in time, inclusive
+     * @return balance in minor units; empty when there is no entry up to {@code at} or it carries no balance
+     */
+    @Override
+    public OptionalLong balanceAt(String accountId, Instant at) {
+        ColumnJournal journal = journals.get(requireAccountId(accountId));
+        if (journal == null) {
+            return OptionalLong.empty();
+        }
+        ColumnJournal.Rows rows = journal.rows();
+        return balanceOf(rows, rows.countUpTo(toNanos(at)) - 1);
+    }
+
+    @Override
+    public OptionalLong latestBalance(String accountId) {
+        ColumnJournal journal = journals.get(requireAccountId(accountId));
+        if (journal == null) {
+            return OptionalLong.empty();
+        }
+        ColumnJournal.Rows rows = journal.rows();
+        return balanceOf(rows, rows.size() - 1);
+    }
+
+    @Override
+    public long size() {
+        return appended.sum();
+    }
+
+    @Override
+    public int[] entryCountsPerAccount() {
+        return journals.values().stream().mapToInt(ColumnJournal::size).toArray();
+    }
+
+    /**
+     * Encodes an entry into the journal's columns. The caller holds the journal's monitor, so entry ids of an
+     * account increase in append order when the generator is time-ordered.
+     */
+    private int append(ColumnJournal journal, TransactionType type, String currency, long amountMinor,
+                       long balanceAfterMinor, TransactionMetadata metadata, Instant now) {
+        String transactionId = metadata.getTransactionId();
+        long correlation = transactionId == null ? NO_CORRELATION : encodeId(transactionId);
+        int description = transactionId == null ? NO_DESCRIPTION : descriptions.encode(metadata.getDescription());
+        int kind = currencies.encode(currency) << TYPE_BITS | type.ordinal();
+        return journal.append(nextId(), toNanos(now), amountMinor, balanceAfterMinor, correlation, description,
+            kind);
+    }
+
+    private void index(ColumnJournal journal, int row) {
+        long correlation = journal.correlation(row);
+        if (correlation != NO_CORRELATION) {
+            correlations.add(correlation, (long) journal.number() << 32 | row);
+        }
+    }
+
+    private long correlationOf(long reference) {
+        return directory[(int) (reference >>> 32)].correlation((int) reference);
+    }
+
+    private Transaction materialize(String accountId, ColumnJournal.Rows rows, int row) {
+        long correlation = rows.correlation(row);
+        TransactionMetadata metadata = correlation == NO_CORRELATION
+            ? TransactionMetadata.empty()
+            : new TransactionMetadata(decodeId(correlation), descriptions.decode(rows.description(row)));
+        int kind = rows.kind(row);
+        return new Transaction(
+            decodeId(rows.id(row)),
+            accountId,
+            currencies.decode(kind >>> TYPE_BITS),
+            rows.amount(row),
+            rows.balance(row),
+            TYPES[kind & ((1 << TYPE_BITS) - 1)],
+            Instant.ofEpochSecond(0, rows.nanos(row)),
+            metadata
+        );
+    }
+
+    private long nextId() {
+        if (idGenerator instanceof TimeOrderedIdGenerator timeOrdered) {
+            return timeOrdered.nextLong();
+        }
+        return encodeId(idGenerator.nextId());
+    }
+
+    /**
+     * Ids in time-ordered form are stored as their non-negative value, others as {@code -(code + 2)}; {@code -1}
+     * is left for "no correlation id".
+     */
+    private long encodeId(String id) {
+        long value = TimeOrderedIdGenerator.parse(id);
+        return value >= 0 ? value : -(ids.encode(id) + 2L);
+    }
+
+    private long findId(String id) {
+        long value = TimeOrderedIdGenerator.parse(id);
+        if (value >= 0) {
+            return value;
+        }
+        int code = ids.find(id);
+        return code < 0 ? NO_CORRELATION : -(code + 2L);
+    }
+
+    private String decodeId(long id) {
+        return id >= 0 ? TimeOrderedIdGenerator.render(id) : ids.decode((int) (-id - 2));
+    }
+
+    /**
+     * @return epoch nanoseconds, saturated for instants outside the roughly 584 years a {@code long} covers
+     */
+    private static long toNanos(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private static OptionalLong balanceOf(ColumnJournal.Rows rows, int row) {
+        if (row < 0 || rows.balance(row) == Transaction.NO_BALANCE) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(rows.balance(row));
+    }
+
+    private ColumnJournal journalFor(String accountId) {
+        ColumnJournal journal = journals.get(accountId);
+        if (journal == null) {
+            journal = journals.computeIfAbsent(accountId, this::newJournal);
+        }
+        return journal;
+    }
+
+    private synchronized ColumnJournal newJournal(String accountId) {
+        ColumnJournal journal = new ColumnJournal(accountId, journalCount);
+        ColumnJournal[] current = directory;
+        if (journalCount == current.length) {
+            current = Arrays.copyOf(current, journalCount * 2);
+        }
+        current[journalCount++] = journal;
+        directory = current;
+        return journal;
+    }
+
+    private String requireAccountId(String accountId) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new IllegalArgumentException("Account id cannot be null or blank");
+        }
+        return accountId;
+    }
+
+    /**
+     * Entries of one journal, or a selection of its rows, materialized on access.
+     */
+    private final class JournalView extends AbstractList<Transaction> implements RandomAccess {
+        private final String accountId;
+        private final ColumnJournal.Rows rows;
+        private final int[] selected;
+
+        private JournalView(String accountId, ColumnJournal.Rows rows, int[] selected) {
+            this.accountId = accountId;
+            this.rows = rows;
+            this.selected = selected;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            int size = size();
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return materialize(accountId, rows, selected == null ? index : selected[index]);
+        }
+
+        @Override
+        public int size() {
+            return selected == null ? rows.size() : selected.length;
+        }
+    }
+}
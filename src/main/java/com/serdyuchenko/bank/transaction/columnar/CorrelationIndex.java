@@ -0,0 +1,115 @@
+package com.serdyuchenko.bank.transaction.columnar;
+
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Multimap from encoded correlation id to entry references, kept in open-addressing tables of primitive
+ * {@code long}s split into {@value #STRIPES} independently locked stripes.
+ * <p>
+ * A slot holds only the reference; its key is read back from the correlation column of the entry it points
+ * to, so an indexed entry costs one or two {@code long} slots instead of a map node, a boxed key and an array.
+ * Slots are never freed, so the entries of one key sit in their probe run in insertion order; a resize
+ * re-inserts runs starting after an empty slot, which keeps that order.
+ */
+final class CorrelationIndex {
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_SLOTS = 16;
+    private static final long EMPTY = -1;
+    private static final long[] NONE = new long[0];
+
+    private final LongUnaryOperator keyOf;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param keyOf reads the key of the entry a reference points to
+     */
+    CorrelationIndex(LongUnaryOperator keyOf) {
+        this.keyOf = keyOf;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @param key encoded correlation id of the entry
+     * @param reference non-negative reference to the entry, which must already be readable through
+     *     {@code keyOf}
+     */
+    void add(long key, long reference) {
+        long hash = hash(key);
+        stripes[(int) hash & (STRIPES - 1)].add(hash >>> STRIPE_BITS, reference);
+    }
+
+    /**
+     * @param key encoded correlation id
+     * @return references of the entries with that key, in insertion order
+     */
+    long[] find(long key) {
+        long hash = hash(key);
+        return stripes[(int) hash & (STRIPES - 1)].find(hash >>> STRIPE_BITS, key);
+    }
+
+    private static long hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static void insert(long[] table, long hash, long reference) {
+        int mask = table.length - 1;
+        int i = (int) hash & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = reference;
+    }
+
+    private static long[] empty(int length) {
+        long[] table = new long[length];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private final class Stripe {
+        private long[] slots = empty(INITIAL_SLOTS);
+        private int used;
+
+        private synchronized void add(long hash, long reference) {
+            if ((used + 1) * 2 > slots.length) {
+                resize();
+            }
+            insert(slots, hash, reference);
+            used++;
+        }
+
+        private synchronized long[] find(long hash, long key) {
+            long[] found = NONE;
+            int mask = slots.length - 1;
+            for (int i = (int) hash & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+                if (keyOf.applyAsLong(slots[i]) == key) {
+                    found = Arrays.copyOf(found, found.length + 1);
+                    found[found.length - 1] = slots[i];
+                }
+            }
+            return found;
+        }
+
+        private void resize() {
+            long[] old = slots;
+            long[] grown = empty(old.length * 2);
+            int mask = old.length - 1;
+            int start = 0;
+            while (old[start] != EMPTY) {
+                start++;
+            }
+            for (int k = 1; k <= old.length; k++) {
+                long reference = old[(start + k) & mask];
+                if (reference != EMPTY) {
+                    insert(grown, hash(keyOf.applyAsLong(reference)) >>> STRIPE_BITS, reference);
+                }
+            }
+            slots = grown;
+        }
+    }
+}
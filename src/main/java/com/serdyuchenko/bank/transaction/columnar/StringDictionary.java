@@ -0,0 +1,68 @@
+package com.serdyuchenko.bank.transaction.columnar;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only dictionary assigning dense {@code int} codes to strings, so that a column stores a repeated value,
+ * such as a currency or a statement description, once in the dictionary and four bytes per row.
+ * <p>
+ * Encoding an already known value is one hash lookup; new values are added under the dictionary's monitor.
+ * Codes are never reused or removed. A reader that got a code from a published row can always decode it, because
+ * the value is stored before the code is handed out.
+ */
+final class StringDictionary {
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    /**
+     * @param value value to encode
+     * @return code of the value, added when the value is new
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = value;
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @param value value to look up
+     * @return code of the value; {@code -1} when it was never encoded
+     */
+    int find(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * @param code code returned by {@link #encode(String)}
+     * @return encoded value
+     */
+    String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * @return number of distinct values
+     */
+    int size() {
+        return codes.size();
+    }
+}
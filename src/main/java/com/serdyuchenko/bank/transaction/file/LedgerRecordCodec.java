@@ -0,0 +1,274 @@
+package com.serdyuchenko.bank.transaction.file;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+import com.serdyuchenko.bank.domain.MinorUnits;
+import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Binary layout of one ledger record:
+ * <pre>
+ * int    payload length (0 marks the end of the segment)
+ * int    CRC32C of the payload
+ * byte   transaction type ordinal, high bit set when a running balance follows the amount
+ * long   epoch second
+ * int    nano adjustment
+ * int    amount scale
+ * long   amount unscaled value (minor units when the scale is {@link MinorUnits#SCALE})
+ * long   running balance in minor units (only when flagged)
+ * string id, account id, currency, correlation id (length -1 for none), description
+ * </pre>
+ * Strings are UTF-8 prefixed by an {@code int} length. Records written before running balances existed have
+ * the flag clear and still decode.
+ */
+final class LedgerRecordCodec {
+    static final int HEADER_BYTES = 8;
+    private static final int FIXED_PAYLOAD_BYTES = 1 + 8 + 4 + 4 + 8;
+    private static final int BALANCE_BYTES = 8;
+    private static final int BALANCE_FLAG = 0x80;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private LedgerRecordCodec() {
+    }
+
+    /**
+     * Entry fields pre-encoded to bytes, so the part done under the write lock is only copying.
+     */
+    static final class Encoded {
+        private final byte type;
+        private final int scale;
+        private final long unscaled;
+        private final long balanceAfter;
+        private final byte[] id;
+        private final byte[] accountId;
+        private final byte[] currency;
+        private final byte[] correlationId;
+        private final byte[] description;
+        private final String transactionId;
+
+        Encoded(String id, String accountId, TransactionType type, Money amount, TransactionMetadata metadata) {
+            this(id, accountId, type, amount.getCurrency(), amount.getAmount().scale(),
+                amount.getAmount().unscaledValue().longValueExact(), Transaction.NO_BALANCE, metadata);
+        }
+
+        Encoded(String id, String accountId, TransactionType type, String currency, int scale, long unscaled,
+                long balanceAfter, TransactionMetadata metadata) {
+            int flags = balanceAfter == Transaction.NO_BALANCE ? 0 : BALANCE_FLAG;
+            this.type = (byte) (type.ordinal() | flags);
+            this.scale = scale;
+            this.unscaled = unscaled;
+            this.balanceAfter = balanceAfter;
+            this.id = utf8(id);
+            this.accountId = utf8(accountId);
+            this.currency = utf8(currency);
+            this.correlationId = metadata.getTransactionId() == null ? null : utf8(metadata.getTransactionId());
+            this.description = utf8(metadata.getDescription());
+            this.transactionId = metadata.getTransactionId();
+        }
+
+        /**
+         * @return correlation id of the entry, or {@code null} when it has none
+         */
+        String transactionId() {
+            return transactionId;
+        }
+
+        TransactionType type() {
+            return TYPES[type & ~BALANCE_FLAG & 0xFF];
+        }
+
+        int recordBytes() {
+            return HEADER_BYTES + FIXED_PAYLOAD_BYTES + balanceBytes(type) + 4 * 5 + id.length + accountId.length
+                + currency.length + (correlationId == null ? 0 : correlationId.length) + description.length;
+        }
+
+        /**
+         * Writes the record (header included) at the given absolute position.
+         *
+         * @param buffer target buffer
+         * @param position absolute offset of the record header
+         * @param timestamp entry timestamp assigned under the write lock
+         * @return number of bytes written
+         */
+        int writeTo(ByteBuffer buffer, int position, Instant timestamp) {
+            ByteBuffer out = buffer.duplicate();
+            out.position(position + HEADER_BYTES);
+            out.put(type);
+            out.putLong(timestamp.getEpochSecond());
+            out.putInt(timestamp.getNano());
+            out.putInt(scale);
+            out.putLong(unscaled);
+            if (balanceBytes(type) > 0) {
+                out.putLong(balanceAfter);
+            }
+            putBytes(out, id);
+            putBytes(out, accountId);
+            putBytes(out, currency);
+            putBytes(out, correlationId);
+            putBytes(out, description);
+            int payloadLength = out.position() - position - HEADER_BYTES;
+            buffer.putInt(position + 4, crc(buffer, position + HEADER_BYTES, payloadLength));
+            // Length goes last: a record becomes visible to a scan only once it is complete.
+            buffer.putInt(position, payloadLength);
+            return HEADER_BYTES + payloadLength;
+        }
+    }
+
+    /**
+     * Validates the record at the given position.
+     *
+     * @param buffer segment buffer
+     * @param position absolute offset of the record header
+     * @param limit end of readable data
+     * @return total record size, or {@code -1} at the end of data or on a torn/corrupted record
+     */
+    static int validate(ByteBuffer buffer, int position, int limit) {
+        if (position + HEADER_BYTES > limit) {
+            return -1;
+        }
+        int payloadLength = buffer.getInt(position);
+        if (payloadLength <= 0 || payloadLength > limit - position - HEADER_BYTES) {
+            return -1;
+        }
+        if (buffer.getInt(position + 4) != crc(buffer, position + HEADER_BYTES, payloadLength)) {
+            return -1;
+        }
+        return HEADER_BYTES + payloadLength;
+    }
+
+    /**
+     * Decodes the record at the given position, which must have passed {@link #validate}.
+     *
+     * @param buffer segment buffer
+     * @param position absolute offset of the record header
+     * @return materialized transaction
+     */
+    static Transaction decode(ByteBuffer buffer, int position) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(position + HEADER_BYTES);
+        byte flags = in.get();
+        TransactionType type = TYPES[flags & ~BALANCE_FLAG & 0xFF];
+        Instant timestamp = Instant.ofEpochSecond(in.getLong(), in.getInt());
+        int scale = in.getInt();
+        long unscaled = in.getLong();
+        long balanceAfter = balanceBytes(flags) > 0 ? in.getLong() : Transaction.NO_BALANCE;
+        String id = getString(in);
+        String accountId = getString(in);
+        String currency = getString(in);
+        String correlationId = getString(in);
+        String description = getString(in);
+        TransactionMetadata metadata = correlationId == null
+            ? TransactionMetadata.empty()
+            : new TransactionMetadata(correlationId, description);
+        if (scale == MinorUnits.SCALE) {
+            return new Transaction(id, accountId, currency, unscaled, balanceAfter, type, timestamp, metadata);
+        }
+        return new Transaction(id, accountId, new Money(currency, BigDecimal.valueOf(unscaled, scale)), type,
+            timestamp, metadata);
+    }
+
+    /**
+     * Reads only the account id of the record at the given position (used while rebuilding indexes).
+     *
+     * @param buffer segment buffer
+     * @param position absolute offset of the record header
+     * @return account id
+     */
+    static String accountId(ByteBuffer buffer, int position) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(position + HEADER_BYTES + FIXED_PAYLOAD_BYTES + balanceBytes(buffer.get(position + HEADER_BYTES)));
+        skip(in);
+        return getString(in);
+    }
+
+    /**
+     * Reads only the correlation id of the record at the given position (used while rebuilding indexes).
+     *
+     * @param buffer segment buffer
+     * @param position absolute offset of the record header
+     * @return correlation id, or {@code null} when the record has none
+     */
+    static String transactionId(ByteBuffer buffer, int position) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(position + HEADER_BYTES + FIXED_PAYLOAD_BYTES + balanceBytes(buffer.get(position + HEADER_BYTES)));
+        skip(in);
+        skip(in);
+        skip(in);
+        return getString(in);
+    }
+
+    /**
+     * Reads only the transaction type of the record at the given position (used while rebuilding indexes).
+     *
+     * @param buffer segment buffer
+     * @param position absolute offset of the record header
+     * @return transaction type
+     */
+    static TransactionType type(ByteBuffer buffer, int position) {
+        return TYPES[buffer.get(position + HEADER_BYTES) & ~BALANCE_FLAG & 0xFF];
+    }
+
+    /**
+     * Reads only the timestamp of the record at the given position.
+     *
+     * @param buffer segment buffer
+     * @param position absolute offset of the record header
+     * @return entry timestamp
+     */
+    static Instant timestamp(ByteBuffer buffer, int position) {
+        return Instant.ofEpochSecond(buffer.getLong(position + HEADER_BYTES + 1),
+            buffer.getInt(position + HEADER_BYTES + 9));
+    }
+
+    private static int balanceBytes(byte flags) {
+        return (flags & BALANCE_FLAG) != 0 ? BALANCE_BYTES : 0;
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            out.putInt(-1);
+            return;
+        }
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static byte[] getBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = getBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skip(ByteBuffer in) {
+        int length = in.getInt();
+        if (length > 0) {
+            in.position(in.position() + length);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.serdyuchenko.bank.transaction.file;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One fixed-size, memory-mapped file of the ledger log. The file is preallocated, so an all-zero length
+ * header marks the end of the written data. The mapping is released only when the segment is garbage collected.
+ */
+final class LedgerSegment {
+    private final int index;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    /**
+     * Next free byte; only advanced by the single appender holding the ledger write lock.
+     */
+    private int writePosition;
+
+    private LedgerSegment(int index, Path path, MappedByteBuffer buffer) {
+        this.index = index;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps (and creates or extends when needed) the segment file.
+     *
+     * @param index position of the segment in the log
+     * @param path segment file
+     * @param capacity size of the mapping in bytes
+     * @return mapped segment positioned at offset zero
+     */
+    static LedgerSegment map(int index, Path path, int capacity) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            int size = (int) Math.max(capacity, channel.size());
+            // The mapping stays valid after the channel is closed.
+            return new LedgerSegment(index, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map ledger segment " + path, e);
+        }
+    }
+
+    int index() {
+        return index;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    void writePosition(int position) {
+        this.writePosition = position;
+    }
+
+    int remaining() {
+        return buffer.capacity() - writePosition;
+    }
+
+    /**
+     * Zeroes everything from the current write position to the end, wiping a torn tail left by a crash.
+     */
+    void clearTail() {
+        for (int i = writePosition; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+}
@@ -0,0 +1,892 @@
+package com.serdyuchenko.bank.transaction.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serdyuchenko.bank.domain.MinorUnits;
+import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.shared.IdGenerator;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.LedgerEntry;
+import com.serdyuchenko.bank.transaction.LedgerStatistics;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Persistent ledger backed by an append-only log of memory-mapped segment files
+ * ({@code ledger-000000.seg}, {@code ledger-000001.seg}, ...).
+ * <p>
+ * Appends are encoded outside the write lock and only copied into the active segment under it; when the
+ * segment is full it is forced to disk and the next one is mapped. Durability follows a group-commit scheme:
+ * a background flusher forces the active segment every {@code fsyncInterval}, covering every record appended
+ * since the previous flush with one {@code msync}. With {@code awaitFsync} a call to {@link #record} returns
+ * only after the flush that covers it; with a zero interval every record is forced inline.
+ * <p>
+ * Every {@code checkpointInterval} records the flusher writes a checkpoint. A sealed segment never changes, so it
+ * is indexed once, into {@code ledger-000000.idx} next to it: the offset, account, type and correlation id of
+ * each of its records. {@code ledger.checkpoint} holds the same for the part of the active segment written so
+ * far, and is replaced by each checkpoint. Both are forced to disk after the records they cover, so a checkpoint
+ * writes at most one segment's worth of index plus the segments sealed since the previous one, however long the
+ * history. On startup the indexes are restored from these files and only the records after them are scanned, so
+ * a restart costs the entries written since the last checkpoint rather than the whole history; a segment
+ * without a usable index is scanned instead. A torn record at the tail of the last segment (crash mid-write) is
+ * detected by its CRC and wiped. Reads decode entries straight from the mapped segments, and entries carry
+ * running balances, so {@link #latestBalance(String)} decodes a single record per account.
+ * <p>
+ * Each account's position index keeps the positions of every transaction type apart as well, so selecting the
+ * entries of one type ({@link #getTransactions(String, TransactionType)}) needs no scan. The index files store the
+ * type of every record so that these sub-indexes are restored with the rest.
+ * <p>
+ * {@link #getByTransactionId(String)} is served by a map from correlation id to record positions, updated on
+ * every append. The index files carry the correlation id of every record, and the records after them are indexed
+ * by the same scan that restores the position indexes, so the map is complete before the ledger is published and
+ * no lookup, which callers may make under their own locks, ever waits for a rebuild.
+ *
+ * @author Anton Serdyuchenko
+ */
+public class MappedFileTransactionLedger implements TransactionLedger, LedgerStatistics, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedFileTransactionLedger.class);
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String CHECKPOINT_FILE = "ledger.checkpoint";
+    private static final int CHECKPOINT_MAGIC = 0x4C434B50;
+    private static final int CHECKPOINT_VERSION = 4;
+    /**
+     * Records between checkpoints used by the constructors that do not take an interval.
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 100_000;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration fsyncInterval;
+    private final boolean awaitFsync;
+    private final IdGenerator idGenerator;
+    private final long checkpointInterval;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    /**
+     * All segments by index; replaced copy-on-write when a segment is added.
+     */
+    private volatile LedgerSegment[] segments;
+    private final Map<String, PositionIndex> indexes = new ConcurrentHashMap<>();
+    /**
+     * Positions by correlation id of the records appended since the log was opened, in log order.
+     */
+    private final Map<String, long[]> byTransactionId = new ConcurrentHashMap<>();
+    /**
+     * Positions by correlation id of the records already in the log when it was opened; never changed after.
+     */
+    private volatile Map<String, long[]> recoveredByTransactionId = Map.of();
+    private Instant lastTimestamp = Instant.MIN;
+    private volatile long appendedRecords;
+    private volatile long flushedRecords;
+    private volatile long checkpointedRecords;
+    /**
+     * Leading sealed segments whose index file is written; guarded by {@code checkpointLock}.
+     */
+    private int indexedSegments;
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    /**
+     * Opens (or creates) the log in the given directory and replays it.
+     *
+     * @param directory directory holding segment files
+     * @param segmentSize size of each segment file in bytes
+     * @param fsyncInterval group-commit window; {@link Duration#ZERO} forces every record inline
+     * @param awaitFsync whether {@link #record} waits until its entry is forced to disk
+     */
+    public MappedFileTransactionLedger(Path directory, int segmentSize, Duration fsyncInterval, boolean awaitFsync) {
+        this(directory, segmentSize, fsyncInterval, awaitFsync, new TimeOrderedIdGenerator(0));
+    }
+
+    /**
+     * Opens (or creates) the log in the given directory and replays it.
+     *
+     * @param directory directory holding segment files
+     * @param segmentSize size of each segment file in bytes
+     * @param fsyncInterval group-commit window; {@link Duration#ZERO} forces every record inline
+     * @param awaitFsync whether {@link #record} waits until its entry is forced to disk
+     * @param idGenerator generator for entry ids
+     */
+    public MappedFileTransactionLedger(Path directory, int segmentSize, Duration fsyncInterval, boolean awaitFsync,
+                                       IdGenerator idGenerator) {
+        this(directory, segmentSize, fsyncInterval, awaitFsync, idGenerator, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Opens (or creates) the log in the given directory and replays it from the latest checkpoint.
+     *
+     * @param directory directory holding segment files
+     * @param segmentSize size of each segment file in bytes
+     * @param fsyncInterval group-commit window; {@link Duration#ZERO} forces every record inline
+     * @param awaitFsync whether {@link #record} waits until its entry is forced to disk
+     * @param idGenerator generator for entry ids
+     * @param checkpointInterval records between checkpoints written by the flusher; {@code 0} writes one on
+     *                           {@link #close()} only, as does a zero {@code fsyncInterval}
+     */
+    public MappedFileTransactionLedger(Path directory, int segmentSize, Duration fsyncInterval, boolean awaitFsync,
+                                       IdGenerator idGenerator, long checkpointInterval) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval cannot be negative");
+        }
+        this.checkpointInterval = checkpointInterval;
+        this.idGenerator = Objects.requireNonNull(idGenerator, "IdGenerator cannot be null");
+        this.directory = Objects.requireNonNull(directory, "Ledger directory cannot be null");
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+        }
+        this.segmentSize = segmentSize;
+        this.fsyncInterval = Objects.requireNonNull(fsyncInterval, "Fsync interval cannot be null");
+        this.awaitFsync = awaitFsync;
+        this.segments = replay();
+        if (fsyncInterval.isZero()) {
+            this.flusher = null;
+        } else {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ledger-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long nanos = fsyncInterval.toNanos();
+            flusher.scheduleWithFixedDelay(this::flush, nanos, nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Appends a transaction entry for the given account to the log.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param amount positive monetary amount
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     * @return materialized {@link Transaction}
+     */
+    @Override
+    public Transaction record(String accountId, TransactionType type, Money amount, TransactionMetadata metadata) {
+        String normalizedAccountId = requireAccountId(accountId);
+        TransactionType safeType = Objects.requireNonNull(type, "Transaction type cannot be null");
+        Money safeAmount = Objects.requireNonNull(amount, "Money cannot be null");
+        TransactionMetadata safeMetadata = metadata == null ? TransactionMetadata.empty() : metadata;
+        String id = idGenerator.nextId();
+        Instant timestamp = append(normalizedAccountId,
+            new LedgerRecordCodec.Encoded(id, normalizedAccountId, safeType, safeAmount, safeMetadata));
+        return new Transaction(id, normalizedAccountId, safeAmount, safeType, timestamp, safeMetadata);
+    }
+
+    /**
+     * Appends a transaction entry given in minor units; no {@link Money} is created on this path.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     * @return materialized {@link Transaction}
+     */
+    @Override
+    public Transaction record(String accountId, TransactionType type, String currency, long amountMinor,
+                              TransactionMetadata metadata) {
+        return record(accountId, type, currency, amountMinor, Transaction.NO_BALANCE, metadata);
+    }
+
+    /**
+     * Appends a transaction entry given in minor units together with the account's running balance.
+     *
+     * @param accountId identifier of the account that owns the entry
+     * @param type transaction classification
+     * @param currency ISO-like currency code
+     * @param amountMinor positive amount in minor units
+     * @param balanceAfterMinor account balance right after the entry, or {@link Transaction#NO_BALANCE}
+     * @param metadata optional metadata; {@link TransactionMetadata#empty()} when {@code null}
+     * @return materialized {@link Transaction}
+     */
+    @Override
+    public Transaction record(String accountId, TransactionType type, String currency, long amountMinor,
+                              long balanceAfterMinor, TransactionMetadata metadata) {
+        String normalizedAccountId = requireAccountId(accountId);
+        TransactionType safeType = Objects.requireNonNull(type, "Transaction type cannot be null");
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("Currency cannot be null or blank");
+        }
+        if (amountMinor <= 0) {
+            throw new IllegalArgumentException("Amount must be a positive value");
+        }
+        TransactionMetadata safeMetadata = metadata == null ? TransactionMetadata.empty() : metadata;
+        String id = idGenerator.nextId();
+        Instant timestamp = append(normalizedAccountId, new LedgerRecordCodec.Encoded(id, normalizedAccountId,
+            safeType, currency, MinorUnits.SCALE, amountMinor, balanceAfterMinor, safeMetadata));
+        return new Transaction(id, normalizedAccountId, currency, amountMinor, balanceAfterMinor, safeType,
+            timestamp, safeMetadata);
+    }
+
+    /**
+     * Appends a group of entries under a single acquisition of the write lock and, with {@code awaitFsync},
+     * waits for a single flush covering all of them.
+     *
+     * @param entries entries to append
+     * @return recorded transactions in the order of {@code entries}
+     */
+    @Override
+    public List<Transaction> recordAll(List<LedgerEntry> entries) {
+        int count = entries.size();
+        String[] ids = new String[count];
+        LedgerRecordCodec.Encoded[] encoded = new LedgerRecordCodec.Encoded[count];
+        PositionIndex[] targets = new PositionIndex[count];
+        for (int i = 0; i < count; i++) {
+            LedgerEntry entry = entries.get(i);
+            ids[i] = idGenerator.nextId();
+            encoded[i] = new LedgerRecordCodec.Encoded(ids[i], entry.getAccountId(), entry.getType(),
+                entry.getCurrency(), MinorUnits.SCALE, entry.getAmountMinor(), entry.getBalanceAfterMinor(),
+                entry.getMetadata());
+            if (encoded[i].recordBytes() > segmentSize) {
+                throw new IllegalArgumentException("Ledger entry does not fit into a segment");
+            }
+            targets[i] = indexFor(entry.getAccountId());
+        }
+
+        Instant timestamp;
+        long sequence;
+        writeLock.lock();
+        try {
+            ensureOpen();
+            timestamp = stamp(Instant.now());
+            LedgerSegment active = null;
+            for (int i = 0; i < count; i++) {
+                active = activeSegmentFor(encoded[i].recordBytes());
+                int offset = active.writePosition();
+                active.writePosition(offset + encoded[i].writeTo(active.buffer(), offset, timestamp));
+                long position = PositionIndex.encode(active.index(), offset);
+                targets[i].add(position, entries.get(i).getType());
+                indexTransactionId(byTransactionId, encoded[i].transactionId(), position);
+            }
+            sequence = appendedRecords + count;
+            appendedRecords = sequence;
+            if (flusher == null && active != null) {
+                active.force();
+                flushedRecords = sequence;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (awaitFsync && flusher != null) {
+            awaitFlush(sequence);
+        }
+
+        List<Transaction> recorded = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LedgerEntry entry = entries.get(i);
+            recorded.add(new Transaction(ids[i], entry.getAccountId(), entry.getCurrency(), entry.getAmountMinor(),
+                entry.getBalanceAfterMinor(), entry.getType(), timestamp, entry.getMetadata()));
+        }
+        return recorded;
+    }
+
+    private Instant append(String accountId, LedgerRecordCodec.Encoded encoded) {
+        int recordBytes = encoded.recordBytes();
+        if (recordBytes > segmentSize) {
+            throw new IllegalArgumentException("Ledger entry does not fit into a segment");
+        }
+        PositionIndex index = indexFor(accountId);
+
+        Instant timestamp;
+        long sequence;
+        writeLock.lock();
+        try {
+            ensureOpen();
+            LedgerSegment active = activeSegmentFor(recordBytes);
+            timestamp = stamp(Instant.now());
+            int offset = active.writePosition();
+            active.writePosition(offset + encoded.writeTo(active.buffer(), offset, timestamp));
+            long position = PositionIndex.encode(active.index(), offset);
+            index.add(position, encoded.type());
+            indexTransactionId(byTransactionId, encoded.transactionId(), position);
+            sequence = appendedRecords + 1;
+            appendedRecords = sequence;
+            if (flusher == null) {
+                active.force();
+                flushedRecords = sequence;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (awaitFsync && flusher != null) {
+            awaitFlush(sequence);
+        }
+        return timestamp;
+    }
+
+    /**
+     * Returns a read-only view of the account's entries; entries are decoded from the log on access.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @return snapshot view ordered by insertion time
+     */
+    @Override
+    public List<Transaction> getTransactions(String accountId) {
+        PositionIndex index = indexes.get(requireAccountId(accountId));
+        if (index == null) {
+            return List.of();
+        }
+        return new IndexedView(index, index.size());
+    }
+
+    /**
+     * Returns a read-only view of the account's entries of one type, backed by the per-type position index;
+     * entries are decoded from the log on access.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @param type transaction type to select
+     * @return snapshot view ordered by insertion time
+     */
+    @Override
+    public List<Transaction> getTransactions(String accountId, TransactionType type) {
+        Objects.requireNonNull(type, "Transaction type cannot be null");
+        PositionIndex index = indexes.get(requireAccountId(accountId));
+        if (index == null) {
+            return List.of();
+        }
+        PositionIndex typed = index.ofType(type);
+        return new IndexedView(typed, typed.size());
+    }
+
+    /**
+     * Returns every record carrying the correlation id, in log order.
+     *
+     * @param transactionId correlation id
+     * @return decoded entries; empty when no record carries the id
+     */
+    @Override
+    public List<Transaction> getByTransactionId(String transactionId) {
+        Objects.requireNonNull(transactionId, "Transaction id cannot be null");
+        long[] recovered = recoveredByTransactionId.get(transactionId);
+        long[] appended = byTransactionId.get(transactionId);
+        if (recovered == null && appended == null) {
+            return List.of();
+        }
+        List<Transaction> entries = new ArrayList<>();
+        for (long[] positions : Arrays.asList(recovered, appended)) {
+            if (positions == null) {
+                continue;
+            }
+            for (long position : positions) {
+                entries.add(LedgerRecordCodec.decode(segments[PositionIndex.segment(position)].buffer(),
+                    PositionIndex.offset(position)));
+            }
+        }
+        return List.copyOf(entries);
+    }
+
+    /**
+     * Forces every record appended so far to disk and wakes up writers waiting for it. Once
+     * {@code checkpointInterval} records have accumulated since the last checkpoint, writes a new one after the
+     * waiting writers have been released.
+     */
+    public void flush() {
+        long sequence = appendedRecords;
+        LedgerSegment[] current = segments;
+        if (sequence == flushedRecords || current.length == 0) {
+            return;
+        }
+        // Segments before the active one were forced when they were sealed.
+        current[current.length - 1].force();
+        flushLock.lock();
+        try {
+            if (sequence > flushedRecords) {
+                flushedRecords = sequence;
+            }
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+        if (checkpointInterval > 0 && sequence - checkpointedRecords >= checkpointInterval) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Writes the index file of every segment sealed since the previous checkpoint, then indexes the part of the
+     * active segment written so far into {@code ledger.checkpoint}. The covered records are forced first, and
+     * each file is replaced atomically, so a crash at any point leaves either the previous checkpoint or this one.
+     * Writers are blocked only while the log position is captured.
+     */
+    public void checkpoint() {
+        checkpointLock.lock();
+        try {
+            long records;
+            LedgerSegment[] current;
+            int position;
+            writeLock.lock();
+            try {
+                records = appendedRecords;
+                current = segments;
+                if (records == checkpointedRecords || current.length == 0) {
+                    return;
+                }
+                position = current[current.length - 1].writePosition();
+            } finally {
+                writeLock.unlock();
+            }
+            int active = current.length - 1;
+            // Sealed segments were forced when sealed and never change again.
+            for (int i = indexedSegments; i < active; i++) {
+                writeIndex(indexPath(i), current[i], current[i].writePosition());
+                indexedSegments = i + 1;
+            }
+            // The checkpoint must never cover records lost in a crash.
+            current[active].force();
+            writeIndex(directory.resolve(CHECKPOINT_FILE), current[active], position);
+            checkpointedRecords = records;
+        } catch (IOException e) {
+            // The log stays the source of truth; the next restart just scans further back.
+            LOGGER.warn("Cannot write ledger checkpoint in {}", directory, e);
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the running balance of the account's newest entry by decoding that single record.
+     *
+     * @param accountId identifier tied to the ledger entries
+     * @return balance in minor units; empty when the account has no history or it carries no balance
+     */
+    @Override
+    public OptionalLong latestBalance(String accountId) {
+        PositionIndex index = indexes.get(requireAccountId(accountId));
+        int size = index == null ? 0 : index.size();
+        if (size == 0) {
+            return OptionalLong.empty();
+        }
+        long position = index.get(size - 1);
+        Transaction newest = LedgerRecordCodec.decode(segments[PositionIndex.segment(position)].buffer(),
+            PositionIndex.offset(position));
+        return newest.hasBalanceAfter() ? OptionalLong.of(newest.getBalanceAfterMinor()) : OptionalLong.empty();
+    }
+
+    /**
+     * @return number of records in the log, including replayed ones
+     */
+    @Override
+    public long size() {
+        return appendedRecords;
+    }
+
+    @Override
+    public int[] entryCountsPerAccount() {
+        return indexes.values().stream().mapToInt(PositionIndex::size).toArray();
+    }
+
+    /**
+     * Stops the flusher and forces outstanding records. The segments stay mapped until their buffers are garbage
+     * collected: views returned by the read methods decode straight from them, and Java offers no safe way to
+     * unmap a buffer that may still be read.
+     */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            writeLock.unlock();
+        }
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush();
+        checkpoint();
+    }
+
+    private LedgerSegment activeSegmentFor(int recordBytes) {
+        LedgerSegment[] current = segments;
+        LedgerSegment active = current.length == 0 ? null : current[current.length - 1];
+        if (active != null && active.remaining() >= recordBytes) {
+            return active;
+        }
+        if (active != null) {
+            active.force();
+        }
+        int nextIndex = current.length;
+        LedgerSegment next = LedgerSegment.map(nextIndex, segmentPath(nextIndex), segmentSize);
+        LedgerSegment[] grown = Arrays.copyOf(current, nextIndex + 1);
+        grown[nextIndex] = next;
+        segments = grown;
+        return next;
+    }
+
+    private void awaitFlush(long sequence) {
+        flushLock.lock();
+        try {
+            while (flushedRecords < sequence && !closed) {
+                flushed.await(fsyncInterval.toNanos() * 2, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Instant stamp(Instant candidate) {
+        Instant timestamp = candidate.isBefore(lastTimestamp) ? lastTimestamp : candidate;
+        lastTimestamp = timestamp;
+        return timestamp;
+    }
+
+    private LedgerSegment[] replay() {
+        List<Path> files = listSegments();
+        List<LedgerSegment> replayed = new ArrayList<>(files.size());
+        Map<String, long[]> recovered = new HashMap<>();
+        SegmentIndex checkpoint = readIndex(directory.resolve(CHECKPOINT_FILE), -1, files.size());
+        long restored = 0;
+        long records = 0;
+        boolean indexedPrefix = true;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            if (!file.equals(segmentPath(i))) {
+                throw new IllegalStateException("Ledger segment sequence is broken at " + file);
+            }
+            LedgerSegment segment = LedgerSegment.map(i, file, segmentSize);
+            boolean last = i == files.size() - 1;
+            SegmentIndex index = last ? null : readIndex(indexPath(i), i, files.size());
+            indexedPrefix &= index != null;
+            if (indexedPrefix) {
+                indexedSegments = i + 1;
+            }
+            if (index == null && checkpoint != null && checkpoint.segment == i) {
+                index = checkpoint;
+            }
+            int from = 0;
+            if (index != null) {
+                restore(index, recovered);
+                restored += index.offsets.length;
+                from = index.end;
+            }
+            records += (index == null ? 0 : index.offsets.length) + scan(segment, last, from, recovered);
+            replayed.add(segment);
+        }
+        appendedRecords = records;
+        flushedRecords = records;
+        checkpointedRecords = restored;
+        if (!replayed.isEmpty()) {
+            LOGGER.info("Restored {} ledger records from checkpoint and replayed {} more for {} accounts from {}"
+                + " segment(s) in {}", restored, records - restored, indexes.size(), replayed.size(), directory);
+        }
+        recoveredByTransactionId = recovered;
+        return replayed.toArray(new LedgerSegment[0]);
+    }
+
+    /**
+     * Reads an index file: a sealed segment's, or the checkpoint of the active one.
+     *
+     * @param file index file
+     * @param segment segment the file must index, or {@code -1} for any
+     * @param segmentCount number of segment files on disk
+     * @return the index; {@code null} when the file is missing or unusable
+     */
+    private SegmentIndex readIndex(Path file, int segment, int segmentCount) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        try (InputStream raw = Files.newInputStream(file);
+             CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(raw), crc);
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Unknown checkpoint format");
+            }
+            // Nothing read here is trusted before the trailing checksum: every count, offset and type is
+            // range-checked before it sizes an allocation or indexes an array, so damage surfaces as an IOException.
+            int indexed = in.readInt();
+            int end = in.readInt();
+            if (indexed < 0 || indexed >= segmentCount || (segment >= 0 && indexed != segment)) {
+                throw new IOException("Checkpoint indexes segment " + indexed + " of " + segmentCount);
+            }
+            if (end < 0 || end > segmentSize) {
+                throw new IOException("Checkpoint points past the end of the segment");
+            }
+            // No record is shorter than its header, which bounds how many records the covered part can hold.
+            int count = in.readInt();
+            if (count < 0 || count > end / LedgerRecordCodec.HEADER_BYTES) {
+                throw new IOException("Checkpoint record count " + count + " does not fit the segment");
+            }
+            long epochSecond = in.readLong();
+            int nano = in.readInt();
+            if (epochSecond < Instant.MIN.getEpochSecond() || epochSecond > Instant.MAX.getEpochSecond()
+                || nano < 0 || nano > 999_999_999) {
+                throw new IOException("Checkpoint timestamp is out of range");
+            }
+            SegmentIndex index = new SegmentIndex(indexed, end, Instant.ofEpochSecond(epochSecond, nano), count);
+            int previous = -1;
+            for (int i = 0; i < count; i++) {
+                int offset = in.readInt();
+                if (offset <= previous || offset > end - LedgerRecordCodec.HEADER_BYTES) {
+                    throw new IOException("Checkpoint offset " + offset + " is out of order");
+                }
+                previous = offset;
+                index.offsets[i] = offset;
+                index.accountIds[i] = in.readUTF();
+                int ordinal = in.readUnsignedByte();
+                if (ordinal >= TYPES.length) {
+                    throw new IOException("Unknown transaction type " + ordinal + " in checkpoint");
+                }
+                index.types[i] = TYPES[ordinal];
+                index.transactionIds[i] = in.readBoolean() ? in.readUTF() : null;
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Checkpoint checksum mismatch");
+            }
+            return index;
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unusable ledger index {}, scanning the segment instead", file, e);
+            return null;
+        }
+    }
+
+    private void restore(SegmentIndex index, Map<String, long[]> recovered) {
+        for (int i = 0; i < index.offsets.length; i++) {
+            long position = PositionIndex.encode(index.segment, index.offsets[i]);
+            indexFor(index.accountIds[i]).add(position, index.types[i]);
+            indexTransactionId(recovered, index.transactionIds[i], position);
+        }
+        if (index.timestamp.isAfter(lastTimestamp)) {
+            lastTimestamp = index.timestamp;
+        }
+    }
+
+    /**
+     * Indexes the records of the segment before {@code end} into the file. Those records are complete and never
+     * change, so they are walked without validation or any lock.
+     */
+    private void writeIndex(Path target, LedgerSegment segment, int end) throws IOException {
+        ByteBuffer buffer = segment.buffer();
+        int count = 0;
+        int newest = -1;
+        for (int offset = 0; offset < end; offset += LedgerRecordCodec.HEADER_BYTES + buffer.getInt(offset)) {
+            newest = offset;
+            count++;
+        }
+        Instant timestamp = newest < 0 ? Instant.MIN : LedgerRecordCodec.timestamp(buffer, newest);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream raw = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), crc));
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeInt(segment.index());
+            out.writeInt(end);
+            out.writeInt(count);
+            out.writeLong(timestamp.getEpochSecond());
+            out.writeInt(timestamp.getNano());
+            for (int offset = 0; offset < end; offset += LedgerRecordCodec.HEADER_BYTES + buffer.getInt(offset)) {
+                out.writeInt(offset);
+                out.writeUTF(LedgerRecordCodec.accountId(buffer, offset));
+                out.writeByte(LedgerRecordCodec.type(buffer, offset).ordinal());
+                String transactionId = LedgerRecordCodec.transactionId(buffer, offset);
+                out.writeBoolean(transactionId != null);
+                if (transactionId != null) {
+                    out.writeUTF(transactionId);
+                }
+            }
+            out.flush();
+            // The checksum is not part of itself: write it past the checked stream.
+            DataOutputStream trailer = new DataOutputStream(raw);
+            trailer.writeLong(crc.getValue());
+            trailer.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private int scan(LedgerSegment segment, boolean last, int from, Map<String, long[]> recovered) {
+        int position = from;
+        int records = 0;
+        int limit = segment.capacity();
+        while (true) {
+            int size = LedgerRecordCodec.validate(segment.buffer(), position, limit);
+            if (size < 0) {
+                break;
+            }
+            String accountId = LedgerRecordCodec.accountId(segment.buffer(), position);
+            long encoded = PositionIndex.encode(segment.index(), position);
+            indexFor(accountId).add(encoded, LedgerRecordCodec.type(segment.buffer(), position));
+            indexTransactionId(recovered, LedgerRecordCodec.transactionId(segment.buffer(), position), encoded);
+            Instant timestamp = LedgerRecordCodec.timestamp(segment.buffer(), position);
+            if (timestamp.isAfter(lastTimestamp)) {
+                lastTimestamp = timestamp;
+            }
+            position += size;
+            records++;
+        }
+        segment.writePosition(position);
+        boolean torn = position + LedgerRecordCodec.HEADER_BYTES <= limit && segment.buffer().getInt(position) != 0;
+        if (torn && !last) {
+            throw new IllegalStateException("Corrupted record in sealed ledger segment " + segment.path()
+                + " at offset " + position);
+        }
+        if (torn) {
+            LOGGER.warn("Discarding torn ledger record at offset {} of {}", position, segment.path());
+            segment.clearTail();
+            segment.force();
+        }
+        return records;
+    }
+
+    private List<Path> listSegments() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger directory " + directory, e);
+        }
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private Path indexPath(int index) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, INDEX_SUFFIX));
+    }
+
+    private static void indexTransactionId(Map<String, long[]> index, String transactionId, long position) {
+        if (transactionId == null) {
+            return;
+        }
+        index.merge(transactionId, new long[] {position}, MappedFileTransactionLedger::concat);
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] merged = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, merged, first.length, second.length);
+        return merged;
+    }
+
+    private PositionIndex indexFor(String accountId) {
+        PositionIndex index = indexes.get(accountId);
+        if (index == null) {
+            index = indexes.computeIfAbsent(accountId, key -> new PositionIndex());
+        }
+        return index;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Ledger is closed");
+        }
+    }
+
+    private String requireAccountId(String accountId) {
+        if (accountId == null || accountId.isBlank()) {
+            throw new IllegalArgumentException("Account id cannot be null or blank");
+        }
+        return accountId;
+    }
+
+    /**
+     * Records of one segment up to {@code end}, as read from its index file or the checkpoint, in log order.
+     */
+    private static final class SegmentIndex {
+        private final int segment;
+        private final int end;
+        private final Instant timestamp;
+        private final int[] offsets;
+        private final String[] accountIds;
+        private final TransactionType[] types;
+        private final String[] transactionIds;
+
+        private SegmentIndex(int segment, int end, Instant timestamp, int count) {
+            this.segment = segment;
+            this.end = end;
+            this.timestamp = timestamp;
+            this.offsets = new int[count];
+            this.accountIds = new String[count];
+            this.types = new TransactionType[count];
+            this.transactionIds = new String[count];
+        }
+    }
+
+    private final class IndexedView extends AbstractList<Transaction> implements RandomAccess {
+        private final PositionIndex index;
+        private final int size;
+
+        private IndexedView(PositionIndex index, int size) {
+            this.index = index;
+            this.size = size;
+        }
+
+        @Override
+        public Transaction get(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + size);
+            }
+            long position = index.get(i);
+            LedgerSegment segment = segments[PositionIndex.segment(position)];
+            return LedgerRecordCodec.decode(segment.buffer(), PositionIndex.offset(position));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.serdyuchenko.bank.transaction.file;
+
+import java.util.Arrays;
+
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+/**
+ * Growable list of record positions ({@code segment << 32 | offset}) for one account, with one sub-index per
+ * {@link TransactionType} holding the positions of that type only. Both are in log order, which is time order.
+ * Appended by the single ledger writer; readers take {@link #size()} first and then read positions below it
+ * without locking.
+ */
+final class PositionIndex {
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final long[] NO_POSITIONS = new long[0];
+    private static final byte[] NO_TYPES = new byte[0];
+
+    private volatile long[] positions = NO_POSITIONS;
+    /**
+     * Type ordinal of every position; {@code null} in the per-type sub-indexes.
+     */
+    private volatile byte[] types;
+    private volatile int size;
+    private final PositionIndex[] byType;
+
+    PositionIndex() {
+        this.types = NO_TYPES;
+        this.byType = new PositionIndex[TYPES.length];
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new PositionIndex(null);
+        }
+    }
+
+    private PositionIndex(PositionIndex[] byType) {
+        this.byType = byType;
+    }
+
+    void add(long position, TransactionType type) {
+        byType[type.ordinal()].append(position, type);
+        append(position, type);
+    }
+
+    private void append(long position, TransactionType type) {
+        long[] current = positions;
+        byte[] currentTypes = types;
+        if (size == current.length) {
+            int capacity = Math.max(8, current.length * 2);
+            current = Arrays.copyOf(current, capacity);
+            positions = current;
+            if (currentTypes != null) {
+                currentTypes = Arrays.copyOf(currentTypes, capacity);
+                types = currentTypes;
+            }
+        }
+        current[size] = position;
+        if (currentTypes != null) {
+            currentTypes[size] = (byte) type.ordinal();
+        }
+        size = size + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return positions[index];
+    }
+
+    TransactionType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    /**
+     * @param type transaction type
+     * @return positions of the account's entries of that type
+     */
+    PositionIndex ofType(TransactionType type) {
+        return byType[type.ordinal()];
+    }
+
+    static long encode(int segment, int offset) {
+        return ((long) segment << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    static int segment(long position) {
+        return (int) (position >>> 32);
+    }
+
+    static int offset(long position) {
+        return (int) position;
+    }
+}
@@ -0,0 +1,247 @@
+package com.serdyuchenko.bank.workflow;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.serdyuchenko.bank.domain.User;
+
+/**
+ * {@link WorkflowPort} that hands events to a background thread instead of calling the engine inline, so user
+ * registration never waits for a workflow round trip.
+ * <p>
+ * Events go into a bounded queue. A single dispatcher thread drains up to {@code batchSize} of them at a time
+ * and passes them to the engine with one {@link WorkflowPort#startOnboardingAll(List)} call. A failed batch is
+ * retried with exponential backoff, up to {@code maxAttempts} calls, and then dropped and logged. While the
+ * dispatcher backs off, the queue fills up: that is the back-pressure. A producer facing a full queue waits up to
+ * {@code enqueueTimeout} for space, and the event is rejected (counted and logged) if none frees up. The worst
+ * case added to a registration is therefore bounded by {@code enqueueTimeout}, whatever the engine does.
+ * <p>
+ * {@link #close()} stops accepting events and gives the dispatcher {@code shutdownTimeout} to deliver the queue.
+ */
+public class AsyncWorkflowDispatcher implements WorkflowPort, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncWorkflowDispatcher.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final WorkflowPort engine;
+    private final BlockingQueue<User> queue;
+    private final int capacity;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final long enqueueTimeoutNanos;
+    private final Duration shutdownTimeout;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * Creates the dispatcher and starts its thread.
+     *
+     * @param engine port that actually starts workflows; called from the dispatcher thread only
+     * @param capacity maximum number of queued events
+     * @param batchSize maximum number of events passed to the engine in one call
+     * @param maxAttempts engine calls per batch before it is dropped, including the first one
+     * @param initialBackoff wait before the first retry; doubled after every failed retry
+     * @param maxBackoff upper bound on the wait between retries
+     * @param enqueueTimeout how long a producer waits for space in a full queue
+     * @param shutdownTimeout how long {@link #close()} waits for queued events to be delivered
+     */
+    public AsyncWorkflowDispatcher(WorkflowPort engine, int capacity, int batchSize, int maxAttempts,
+                                   Duration initialBackoff, Duration maxBackoff, Duration enqueueTimeout,
+                                   Duration shutdownTimeout) {
+        this.engine = Objects.requireNonNull(engine, "Workflow engine cannot be null");
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Workflow queue capacity must be a positive number");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Workflow batch size must be a positive number");
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Workflow max attempts must be a positive number");
+        }
+        requireNotNegative(initialBackoff, "Workflow initial backoff");
+        requireNotNegative(maxBackoff, "Workflow max backoff");
+        requireNotNegative(enqueueTimeout, "Workflow enqueue timeout");
+        requireNotNegative(shutdownTimeout, "Workflow shutdown timeout");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = Math.max(maxBackoff.toNanos(), initialBackoffNanos);
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.dispatcher = new Thread(this::run, "workflow-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queues the user for onboarding and returns without calling the engine.
+     *
+     * @param user domain user being onboarded
+     */
+    @Override
+    public void startOnboarding(User user) {
+        Objects.requireNonNull(user, "User cannot be null");
+        if (closed) {
+            reject(user, "dispatcher is closed");
+            return;
+        }
+        try {
+            if (!queue.offer(user, enqueueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                reject(user, "queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(user, "producer was interrupted");
+        }
+    }
+
+    /**
+     * Stops accepting events and waits up to the shutdown timeout for the queue to be delivered; events still
+     * queued after that are counted as failed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            dispatcher.join(shutdownTimeout.toMillis() + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dispatcher.isAlive()) {
+            dispatcher.interrupt();
+            try {
+                dispatcher.join(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int undelivered = queue.size();
+        if (undelivered > 0) {
+            failed.add(undelivered);
+            queue.clear();
+            LOGGER.warn("Workflow dispatcher closed with {} undelivered onboarding event(s)", undelivered);
+        }
+    }
+
+    /**
+     * @return number of events waiting to be dispatched.
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return maximum number of queued events.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of events delivered to the engine.
+     */
+    public long dispatched() {
+        return dispatched.sum();
+    }
+
+    /**
+     * @return number of engine calls made again after a failure.
+     */
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return number of events dropped after {@code maxAttempts} failed calls or undelivered at shutdown.
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return number of events refused because the queue stayed full or the dispatcher was closed.
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return number of engine calls that succeeded.
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    private void run() {
+        List<User> batch = new ArrayList<>(batchSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                User first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by close() after the shutdown timeout; the remaining queue is accounted for there.
+            failed.add(batch.size());
+        }
+    }
+
+    private void deliver(List<User> batch) throws InterruptedException {
+        long backoff = initialBackoffNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                engine.startOnboardingAll(List.copyOf(batch));
+                batches.increment();
+                dispatched.add(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    failed.add(batch.size());
+                    LOGGER.error("Dropping {} onboarding event(s) after {} failed attempt(s)", batch.size(),
+                        attempt, e);
+                    return;
+                }
+                LOGGER.warn("Workflow engine call failed (attempt {} of {}), retrying: {}", attempt, maxAttempts,
+                    e.getMessage());
+            }
+            retries.increment();
+            TimeUnit.NANOSECONDS.sleep(backoff);
+            backoff = Math.min(backoff * 2, maxBackoffNanos);
+        }
+    }
+
+    private void reject(User user, String reason) {
+        rejected.increment();
+        LOGGER.warn("Onboarding event for user {} rejected: {}", user.getPassport(), reason);
+    }
+
+    private static void requireNotNegative(Duration duration, String name) {
+        Objects.requireNonNull(duration, name + " cannot be null");
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException(name + " cannot be negative");
+        }
+    }
+}
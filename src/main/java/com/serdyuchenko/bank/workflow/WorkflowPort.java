@@ -1,5 +1,7 @@
 package com.serdyuchenko.bank.workflow;
 
+import java.util.List;
+
 import com.serdyuchenko.bank.domain.User;
 
 /**
@@ -12,4 +14,17 @@ public interface WorkflowPort {
      * @param user domain user being onboarded
      */
     void startOnboarding(User user);
+
+    /**
+     * Initiates onboarding for several users in one call. Engines that accept batches override this to make one
+     * round trip instead of one per user; the default calls {@link #startOnboarding(User)} for each.
+     * A failed batch may be retried as a whole, so starting onboarding twice for a user must be harmless.
+     *
+     * @param users domain users being onboarded, in registration order
+     */
+    default void startOnboardingAll(List<User> users) {
+        for (User user : users) {
+            startOnboarding(user);
+        }
+    }
 }
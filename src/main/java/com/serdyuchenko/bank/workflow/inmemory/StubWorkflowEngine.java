@@ -0,0 +1,69 @@
+package com.serdyuchenko.bank.workflow.inmemory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.workflow.WorkflowPort;
+
+/**
+ * Local stand-in for a remote workflow engine: every call, single or batched, costs one simulated round trip
+ * of {@code delay}. Used to check that registration latency does not depend on the engine
+ * ({@code app.workflow.engine: stub}).
+ */
+public class StubWorkflowEngine implements WorkflowPort {
+    private final Duration delay;
+    private final LongAdder onboarded = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+
+    /**
+     * @param delay simulated round-trip time of each call
+     */
+    public StubWorkflowEngine(Duration delay) {
+        Objects.requireNonNull(delay, "Delay cannot be null");
+        if (delay.isNegative()) {
+            throw new IllegalArgumentException("Delay cannot be negative");
+        }
+        this.delay = delay;
+    }
+
+    @Override
+    public void startOnboarding(User user) {
+        startOnboardingAll(List.of(user));
+    }
+
+    @Override
+    public void startOnboardingAll(List<User> users) {
+        roundTrip();
+        calls.increment();
+        onboarded.add(users.size());
+    }
+
+    /**
+     * @return number of users whose onboarding was started.
+     */
+    public long onboarded() {
+        return onboarded.sum();
+    }
+
+    /**
+     * @return number of simulated round trips.
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    private void roundTrip() {
+        if (delay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay.toMillis(), delay.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the workflow engine", e);
+        }
+    }
+}
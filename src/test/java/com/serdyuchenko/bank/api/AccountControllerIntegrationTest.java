@@ -2,13 +2,20 @@ package com.serdyuchenko.bank.api;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import com.serdyuchenko.bank.api.dto.AccountBalanceDto;
@@ -75,4 +82,193 @@ class AccountControllerIntegrationTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
+
+    /**
+     * Verifies {@code at} returns the balance recorded by the last movement up to that instant.
+     */
+    @Test
+    void balanceEndpointReturnsHistoricalBalance() throws InterruptedException {
+        bankService.depositFunds(passport, requisite, 50D);
+        Instant afterDeposit = Instant.now();
+        Thread.sleep(2);
+        bankService.withdrawFunds(passport, requisite, 120D);
+
+        ResponseEntity<AccountBalanceDto> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/balance?at={at}",
+            AccountBalanceDto.class,
+            passport,
+            requisite,
+            afterDeposit.toString()
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().balance()).isEqualTo(250D);
+    }
+
+    /**
+     * Streams every account of the passport as one NDJSON line each, in opening order.
+     */
+    @Test
+    void balancesEndpointStreamsAllAccountsOfPassport() {
+        bankService.addAccount(passport, new Account("second-" + requisite, 75.5D));
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/balances",
+            String.class,
+            passport
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(response.getBody()).isEqualTo(
+            "{\"requisite\":\"" + requisite + "\",\"balance\":200.0}\n"
+                + "{\"requisite\":\"second-" + requisite + "\",\"balance\":75.5}\n");
+    }
+
+    /**
+     * Confirms the passport-wide stream returns 404 for an unknown passport.
+     */
+    @Test
+    void balancesEndpointReturns404WhenPassportMissing() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/balances",
+            String.class,
+            "missing-passport"
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * A poll naming the current ETag gets 304 without a body until the balance changes.
+     */
+    @Test
+    void balanceEndpointAnswersIfNoneMatchWith304UntilTheBalanceChanges() {
+        ResponseEntity<AccountBalanceDto> first = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/balance", AccountBalanceDto.class, passport, requisite);
+        String etag = first.getHeaders().getETag();
+
+        ResponseEntity<String> unchanged = getIfNoneMatch("/balance", etag);
+        bankService.depositFunds(passport, requisite, 5D);
+        ResponseEntity<String> changed = getIfNoneMatch("/balance", etag);
+
+        assertThat(etag).isNotBlank();
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchanged.getBody()).isNull();
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getBody()).contains("205.0");
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    /**
+     * An account closed and re-opened under the same requisite starts over at version zero but never reissues
+     * the old account's ETags.
+     */
+    @Test
+    void reopenedAccountDoesNotMatchTheOldETag() {
+        String etag = restTemplate.getForEntity("/api/accounts/{passport}/{requisite}/balance",
+            String.class, passport, requisite).getHeaders().getETag();
+        bankService.deleteUser(passport);
+        bankService.addUser(new User(passport, "API Tester"));
+        bankService.addAccount(passport, new Account(requisite, 999D));
+
+        ResponseEntity<String> response = getIfNoneMatch("/balance", etag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("999.0");
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    /**
+     * The long-poll variant answers once the balance changes, not before.
+     */
+    @Test
+    void watchEndpointAnswersOnTheNextChange() {
+        String etag = restTemplate.getForEntity("/api/accounts/{passport}/{requisite}/balance",
+            String.class, passport, requisite).getHeaders().getETag();
+        CompletableFuture.runAsync(() -> bankService.depositFunds(passport, requisite, 7D),
+            CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+
+        long start = System.nanoTime();
+        ResponseEntity<String> response = getIfNoneMatch("/balance/watch?waitMillis=10000", etag);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("207.0");
+        assertThat(elapsedMillis).isBetween(150L, 9_000L);
+    }
+
+    /**
+     * Without a change the long poll ends with 304 once the wait is over; without an ETag it answers at once.
+     */
+    @Test
+    void watchEndpointAnswers304WhenNothingChangesInTime() {
+        String etag = restTemplate.getForEntity("/api/accounts/{passport}/{requisite}/balance",
+            String.class, passport, requisite).getHeaders().getETag();
+
+        ResponseEntity<String> timedOut = getIfNoneMatch("/balance/watch?waitMillis=100", etag);
+        for (int i = 0; i < 5; i++) {
+            getIfNoneMatch("/balance/watch?waitMillis=1", etag);
+        }
+        ResponseEntity<String> unconditional = getIfNoneMatch("/balance/watch?waitMillis=10000", null);
+
+        assertThat(timedOut.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(timedOut.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(unconditional.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(unconditional.getHeaders().getETag()).isEqualTo(etag);
+        Account account = bankService.findByRequisite(passport, requisite);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (account.getWaiterCount() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(account.getWaiterCount()).as("expired watchers retained").isZero();
+    }
+
+    /**
+     * Looks up many accounts in one request, from a JSON array or NDJSON, skipping unknown ones.
+     */
+    @Test
+    void bulkBalancesEndpointStreamsRequestedAccounts() {
+        String expected = "{\"requisite\":\"" + requisite + "\",\"balance\":200.0}\n"
+            + "{\"requisite\":\"" + requisite + "\",\"balance\":200.0}\n";
+        String ref = "{\"passport\":\"" + passport + "\",\"requisite\":\"" + requisite + "\"}";
+        String missing = "{\"passport\":\"" + passport + "\",\"requisite\":\"missing\"}";
+
+        ResponseEntity<String> fromArray = restTemplate.postForEntity("/api/accounts/balances",
+            json("[" + ref + "," + missing + "," + ref + "]", MediaType.APPLICATION_JSON), String.class);
+        ResponseEntity<String> fromNdjson = restTemplate.postForEntity("/api/accounts/balances",
+            json(ref + "\n" + missing + "\n" + ref + "\n", MediaType.APPLICATION_NDJSON), String.class);
+
+        assertThat(fromArray.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(fromArray.getBody()).isEqualTo(expected);
+        assertThat(fromNdjson.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(fromNdjson.getBody()).isEqualTo(expected);
+    }
+
+    /**
+     * Rejects a body that is neither an array nor a sequence of objects.
+     */
+    @Test
+    void bulkBalancesEndpointRejectsMalformedBody() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/accounts/balances",
+            json("\"not an account\"", MediaType.APPLICATION_JSON), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<String> getIfNoneMatch(String path, String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        return restTemplate.exchange("/api/accounts/{passport}/{requisite}" + path, HttpMethod.GET,
+            new HttpEntity<>(headers), String.class, passport, requisite);
+    }
+
+    private static HttpEntity<String> json(String body, MediaType type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(type);
+        return new HttpEntity<>(body, headers);
+    }
 }
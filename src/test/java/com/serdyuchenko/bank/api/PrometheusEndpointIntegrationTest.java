@@ -0,0 +1,51 @@
+package com.serdyuchenko.bank.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.serdyuchenko.bank.service.BankService;
+
+/**
+ * Verifies that money-operation and ledger metrics are scraped through the actuator Prometheus endpoint.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class PrometheusEndpointIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BankService bankService;
+
+    /**
+     * A deposit against the demo account is counted, latency histograms, idempotency-cache and ledger meters are
+     * published.
+     */
+    @Test
+    void prometheusEndpointExposesBankMeters() {
+        bankService.depositFunds("3434", "5546", 1D);
+        bankService.depositFundsIdempotent("prometheus-1", "3434", "5546", 1D);
+        bankService.depositFundsIdempotent("prometheus-1", "3434", "5546", 1D);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+            .contains("bank_operations_total{operation=\"deposit\",outcome=\"success\"")
+            .contains("bank_operations_latency_seconds_bucket{operation=\"deposit\"")
+            .contains("bank_operations_failures_total")
+            .contains("bank_idempotency_requests_total{outcome=\"hit\"")
+            .contains("bank_idempotency_requests_total{outcome=\"miss\"")
+            .contains("bank_idempotency_evictions_total")
+            .contains("bank_ledger_appends_total")
+            .contains("bank_ledger_account_entries{quantile=\"max\"");
+    }
+}
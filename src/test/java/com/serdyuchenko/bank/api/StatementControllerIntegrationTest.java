@@ -0,0 +1,185 @@
+package com.serdyuchenko.bank.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.serdyuchenko.bank.api.dto.StatementPageDto;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+
+/**
+ * Verifies the {@link StatementController} paging over HTTP.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StatementControllerIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BankService bankService;
+
+    private String passport;
+    private String requisite;
+
+    /**
+     * Seeds an account with three deposits so there is history to page through.
+     */
+    @BeforeEach
+    void setUpAccount() {
+        passport = "passport-" + UUID.randomUUID();
+        requisite = "req-" + UUID.randomUUID();
+        bankService.addUser(new User(passport, "API Tester"));
+        bankService.addAccount(passport, new Account(requisite, 0D));
+        bankService.depositFunds(passport, requisite, 10D);
+        bankService.depositFunds(passport, requisite, 20D);
+        bankService.depositFunds(passport, requisite, 30D);
+    }
+
+    /**
+     * Newest entries come first by default and the page reports what is left.
+     */
+    @Test
+    void statementReturnsNewestPageFirst() {
+        ResponseEntity<StatementPageDto> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/statement?limit=2",
+            StatementPageDto.class,
+            passport,
+            requisite
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        StatementPageDto page = response.getBody();
+        assertThat(page).isNotNull();
+        assertThat(page.total()).isEqualTo(3);
+        assertThat(page.hasMore()).isTrue();
+        assertThat(page.entries()).extracting(entry -> entry.amount().intValue()).containsExactly(30, 20);
+    }
+
+    /**
+     * A type restricts the page, and its total, to entries of that type.
+     */
+    @Test
+    void statementFiltersByType() {
+        bankService.withdrawFunds(passport, requisite, 5D);
+
+        ResponseEntity<StatementPageDto> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/statement?type=WITHDRAWAL",
+            StatementPageDto.class,
+            passport,
+            requisite
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        StatementPageDto page = response.getBody();
+        assertThat(page).isNotNull();
+        assertThat(page.total()).isEqualTo(1);
+        assertThat(page.entries()).extracting(entry -> entry.type()).containsExactly("WITHDRAWAL");
+    }
+
+    /**
+     * Paging parameters outside the allowed range are rejected.
+     */
+    @Test
+    void statementRejectsOversizedPage() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/statement?limit=100000",
+            String.class,
+            passport,
+            requisite
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Unknown accounts respond with 404.
+     */
+    @Test
+    void statementReturns404WhenAccountMissing() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/statement",
+            String.class,
+            "missing-passport",
+            "missing-requisite"
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * The CSV export is a download holding a header and every entry, oldest first.
+     */
+    @Test
+    void exportStreamsCsvStatement() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/statement/export",
+            String.class,
+            passport,
+            requisite
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).startsWith("text/csv");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+            .contains("statement-" + requisite + ".csv");
+        String[] lines = response.getBody().split("\r\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("id,type,amount,currency,timeStamp");
+        assertThat(lines[1]).contains(",DEPOSIT,10.00,").endsWith(",10.00");
+        assertThat(lines[3]).contains(",DEPOSIT,30.00,").endsWith(",60.00");
+    }
+
+    /**
+     * With gzip the download is a gzip file of the NDJSON statement.
+     */
+    @Test
+    void exportStreamsGzippedNdjsonStatement() throws IOException {
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/statement/export?format=NDJSON&gzip=true",
+            byte[].class,
+            passport,
+            requisite
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+            .contains("statement-" + requisite + ".ndjson.gz");
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(body.split("\n")).hasSize(3)
+            .allSatisfy(line -> assertThat(line).startsWith("{\"id\":").contains("\"type\":\"DEPOSIT\""));
+    }
+
+    /**
+     * Exports of unknown accounts respond with 404.
+     */
+    @Test
+    void exportReturns404WhenAccountMissing() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+            "/api/accounts/{passport}/{requisite}/statement/export",
+            String.class,
+            "missing-passport",
+            "missing-requisite"
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,100 @@
+package com.serdyuchenko.bank.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.serdyuchenko.bank.api.dto.OperationResultDto;
+import com.serdyuchenko.bank.api.dto.TransactionDto;
+import com.serdyuchenko.bank.api.dto.TransferRequestDto;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+
+/**
+ * Verifies the batch, lookup and reversal endpoints of {@link TransferController} over HTTP.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TransferControllerIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BankService bankService;
+
+    private String passport;
+
+    /**
+     * Seeds a user with two accounts to move money between.
+     */
+    @BeforeEach
+    void setUpAccounts() {
+        passport = "passport-" + UUID.randomUUID();
+        bankService.addUser(new User(passport, "API Tester"));
+        bankService.addAccount(passport, new Account("from-" + passport, 100D));
+        bankService.addAccount(passport, new Account("to-" + passport, 0D));
+    }
+
+    /**
+     * Every item gets its own result, in request order.
+     */
+    @Test
+    void batchReturnsPerItemResults() {
+        List<TransferRequestDto> batch = List.of(
+            new TransferRequestDto(passport, "from-" + passport, passport, "to-" + passport, 60D),
+            new TransferRequestDto(passport, "from-" + passport, passport, "to-" + passport, 60D)
+        );
+
+        ResponseEntity<OperationResultDto[]> response = restTemplate.postForEntity(
+            "/api/transfers/batch", batch, OperationResultDto[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(OperationResultDto::success).containsExactly(true, false);
+        assertThat(bankService.findByRequisite(passport, "to-" + passport).getBalance()).isEqualTo(60D);
+    }
+
+    /**
+     * A transfer is found by its id and can be reversed once.
+     */
+    @Test
+    void transferIsFoundByIdAndReversedOnce() {
+        String transferId = "tr-" + passport;
+        bankService.transferMoneyIdempotent(transferId, passport, "from-" + passport, passport, "to-" + passport,
+            60D);
+
+        ResponseEntity<TransactionDto[]> legs = restTemplate.getForEntity(
+            "/api/transfers/{id}", TransactionDto[].class, transferId);
+        ResponseEntity<OperationResultDto> reversed = restTemplate.postForEntity(
+            "/api/transfers/{id}/reversal", null, OperationResultDto.class, transferId);
+        ResponseEntity<OperationResultDto> again = restTemplate.postForEntity(
+            "/api/transfers/{id}/reversal", null, OperationResultDto.class, transferId);
+
+        assertThat(legs.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(legs.getBody()).extracting(TransactionDto::type).containsExactly("TRANSFER", "TRANSFER");
+        assertThat(reversed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(reversed.getBody().resultingBalance()).isEqualTo(100D);
+        assertThat(again.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(restTemplate.getForEntity("/api/transfers/{id}", String.class, "missing").getStatusCode())
+            .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * An empty batch is rejected.
+     */
+    @Test
+    void emptyBatchIsRejected() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            "/api/transfers/batch", List.of(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
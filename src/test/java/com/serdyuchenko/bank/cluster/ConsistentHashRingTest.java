@@ -0,0 +1,48 @@
+package com.serdyuchenko.bank.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+    private static final int KEYS = 100_000;
+
+    @Test
+    void keysAreSpreadEvenlyOverNodes() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a", "b", "c", "d"), Function.identity(),
+            128);
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("passport-" + i), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 4 * 8 / 10,
+            KEYS / 4 * 12 / 10));
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToIt() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(List.of("a", "b", "c", "d"),
+            Function.identity(), 128);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(List.of("a", "b", "c", "d", "e"),
+            Function.identity(), 128);
+        int moved = 0;
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "passport-" + i;
+            if (!before.nodeFor(key).equals(after.nodeFor(key))) {
+                assertThat(after.nodeFor(key)).isEqualTo("e");
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(KEYS / 5 * 8 / 10, KEYS / 5 * 12 / 10);
+    }
+}
@@ -0,0 +1,95 @@
+package com.serdyuchenko.bank.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.serdyuchenko.bank.BankApplication;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.shared.UuidIdGenerator;
+
+/**
+ * Runs three application nodes on localhost and moves money between them through a {@link ShardRouter} over
+ * {@link HttpShardNode}s.
+ */
+class ShardClusterIntegrationTest {
+    private static final int NODES = 3;
+    private static final int USERS = 12;
+
+    private static final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private static ShardRouter router;
+
+    @BeforeAll
+    static void startNodes() {
+        List<ShardNode> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(BankApplication.class)
+                .run("--server.port=0", "--app.cluster.enabled=true", "--app.ids.nodeId=" + i);
+            contexts.add(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            nodes.add(new HttpShardNode("node-" + i, "http://localhost:" + port, Duration.ofSeconds(5)));
+        }
+        router = new ShardRouter(nodes, 64, new UuidIdGenerator(), 3, Duration.ofMillis(10));
+        for (int u = 0; u < USERS; u++) {
+            router.addUser(new User(passport(u), "User " + u));
+            router.addAccount(passport(u), new Account(requisite(u), 100D));
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void transfersAcrossNodesConserveTheTotal() {
+        int successes = 0;
+        for (int u = 0; u < USERS; u++) {
+            int to = (u + 1) % USERS;
+            if (router.transferMoney(passport(u), requisite(u), passport(to), requisite(to), 30D + u).isSuccess()) {
+                successes++;
+            }
+        }
+
+        double total = 0;
+        for (int u = 0; u < USERS; u++) {
+            total += router.balance(passport(u), requisite(u)).orElseThrow();
+        }
+        assertThat(successes).isEqualTo(USERS);
+        assertThat(total).isEqualTo(USERS * 100D);
+        assertThat(IntStream.range(0, USERS).mapToObj(u -> router.nodeFor(passport(u))).distinct().count())
+            .isGreaterThan(1);
+    }
+
+    @Test
+    void refusalsCrossTheWireWithTheirReason() {
+        OperationResult overdraft = router.transferMoney(passport(0), requisite(0), passport(1), requisite(1),
+            10_000D);
+        OperationResult unknown = router.transferMoney(passport(0), requisite(0), passport(1), "missing", 1D);
+
+        assertThat(overdraft.getFailureReason()).isEqualTo(FailureReason.INSUFFICIENT_FUNDS);
+        assertThat(unknown.getFailureReason()).isEqualTo(FailureReason.ACCOUNT_NOT_FOUND);
+        assertThat(router.balance(passport(1), "missing")).isEmpty();
+    }
+
+    private static String passport(int user) {
+        return "cluster-passport-" + user;
+    }
+
+    private static String requisite(int user) {
+        return "cluster-account-" + user;
+    }
+}
@@ -0,0 +1,188 @@
+package com.serdyuchenko.bank.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.shared.UuidIdGenerator;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+class ShardRouterTest {
+    private final List<TransactionLedger> ledgers = new ArrayList<>();
+    private final List<ShardNode> nodes = new ArrayList<>();
+    private ShardRouter router;
+    private String alice;
+    private String bob;
+
+    @BeforeEach
+    void startNodes() {
+        for (int i = 0; i < 3; i++) {
+            TransactionLedger ledger = new InMemoryTransactionLedger();
+            ledgers.add(ledger);
+            nodes.add(new LocalShardNode("node-" + i, new BankService(ledger, new AppProperties(), user -> { })));
+        }
+        router = newRouter(nodes);
+        alice = "alice";
+        bob = passportOnAnotherNode(alice);
+        router.addUser(new User(alice, "Alice"));
+        router.addUser(new User(bob, "Bob"));
+        router.addAccount(alice, new Account("A1", 100D));
+        router.addAccount(bob, new Account("B1", 0D));
+    }
+
+    @Test
+    void crossShardTransferMovesMoneyBetweenNodes() {
+        OperationResult result = router.transferMoney("T-1", alice, "A1", bob, "B1", 60D);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getResultingBalance()).isEqualTo(40D);
+        assertThat(router.balance(alice, "A1")).hasValue(40D);
+        assertThat(router.balance(bob, "B1")).hasValue(60D);
+        assertThat(ledgerOf(alice).getByTransactionId("T-1")).hasSize(1);
+        assertThat(ledgerOf(bob).getByTransactionId("T-1")).hasSize(1);
+    }
+
+    @Test
+    void repeatedTransferIdIsAppliedOnce() {
+        router.transferMoney("T-1", alice, "A1", bob, "B1", 60D);
+        OperationResult again = router.transferMoney("T-1", alice, "A1", bob, "B1", 60D);
+
+        assertThat(again.isSuccess()).isTrue();
+        assertThat(router.balance(alice, "A1")).hasValue(40D);
+        assertThat(router.balance(bob, "B1")).hasValue(60D);
+    }
+
+    @Test
+    void insufficientFundsLeaveBothNodesUntouched() {
+        OperationResult result = router.transferMoney("T-1", alice, "A1", bob, "B1", 160D);
+
+        assertThat(result.getFailureReason()).isEqualTo(FailureReason.INSUFFICIENT_FUNDS);
+        assertThat(router.balance(alice, "A1")).hasValue(100D);
+        assertThat(ledgerOf(bob).getByTransactionId("T-1")).isEmpty();
+    }
+
+    @Test
+    void refusedCommitIsCompensatedOnTheSourceNode() {
+        OperationResult result = router.transferMoney("T-1", alice, "A1", bob, "B404", 60D);
+
+        assertThat(result.getFailureReason()).isEqualTo(FailureReason.ACCOUNT_NOT_FOUND);
+        assertThat(router.balance(alice, "A1")).hasValue(100D);
+        assertThat(ledgerOf(alice).getByTransactionId("T-1")).extracting(leg -> leg.getType())
+            .containsExactly(TransactionType.TRANSFER, TransactionType.REVERSAL);
+        assertThat(router.transferMoney("T-1", alice, "A1", bob, "B1", 60D).isSuccess()).isFalse();
+    }
+
+    @Test
+    void unreachableDestinationLeavesTheTransferPendingUntilRetried() {
+        AtomicInteger outages = new AtomicInteger(3);
+        List<ShardNode> flaky = new ArrayList<>();
+        for (ShardNode node : nodes) {
+            flaky.add(node == router.nodeFor(bob) ? new FlakyNode(node, outages) : node);
+        }
+        ShardRouter flakyRouter = newRouter(flaky);
+
+        OperationResult pending = flakyRouter.transferMoney("T-1", alice, "A1", bob, "B1", 60D);
+        OperationResult resumed = flakyRouter.transferMoney("T-1", alice, "A1", bob, "B1", 60D);
+
+        assertThat(pending.getFailureReason()).isEqualTo(FailureReason.UNAVAILABLE);
+        assertThat(pending.getMessage()).contains("T-1");
+        assertThat(resumed.isSuccess()).isTrue();
+        assertThat(router.balance(alice, "A1")).hasValue(40D);
+        assertThat(router.balance(bob, "B1")).hasValue(60D);
+    }
+
+    private ShardRouter newRouter(List<ShardNode> shards) {
+        return new ShardRouter(shards, 64, new UuidIdGenerator(), 2, Duration.ZERO);
+    }
+
+    private String passportOnAnotherNode(String passport) {
+        for (int i = 0; ; i++) {
+            String candidate = "bob-" + i;
+            if (router.nodeFor(candidate) != router.nodeFor(passport)) {
+                return candidate;
+            }
+        }
+    }
+
+    private TransactionLedger ledgerOf(String passport) {
+        return ledgers.get(nodes.indexOf(router.nodeFor(passport)));
+    }
+
+    /**
+     * Answers commits with {@link FailureReason#UNAVAILABLE} while outages remain.
+     */
+    private record FlakyNode(ShardNode delegate, AtomicInteger outages) implements ShardNode {
+        @Override
+        public String id() {
+            return delegate.id();
+        }
+
+        @Override
+        public void addUser(User user) {
+            delegate.addUser(user);
+        }
+
+        @Override
+        public void addAccount(String passport, Account account) {
+            delegate.addAccount(passport, account);
+        }
+
+        @Override
+        public OptionalDouble balance(String passport, String requisite) {
+            return delegate.balance(passport, requisite);
+        }
+
+        @Override
+        public OperationResult depositFunds(String passport, String requisite, double amount) {
+            return delegate.depositFunds(passport, requisite, amount);
+        }
+
+        @Override
+        public OperationResult withdrawFunds(String passport, String requisite, double amount) {
+            return delegate.withdrawFunds(passport, requisite, amount);
+        }
+
+        @Override
+        public OperationResult transferMoney(String transferId, String sourcePassport, String sourceRequisite,
+                                             String destinationPassport, String destinationRequisite,
+                                             double amount) {
+            return delegate.transferMoney(transferId, sourcePassport, sourceRequisite, destinationPassport,
+                destinationRequisite, amount);
+        }
+
+        @Override
+        public OperationResult reserveTransfer(String transferId, String passport, String requisite,
+                                               String destinationRequisite, double amount) {
+            return delegate.reserveTransfer(transferId, passport, requisite, destinationRequisite, amount);
+        }
+
+        @Override
+        public OperationResult commitTransfer(String transferId, String passport, String requisite,
+                                              String sourceRequisite, double amount) {
+            if (outages.getAndDecrement() > 0) {
+                return OperationResult.failure(FailureReason.UNAVAILABLE, "Node is unavailable.");
+            }
+            return delegate.commitTransfer(transferId, passport, requisite, sourceRequisite, amount);
+        }
+
+        @Override
+        public OperationResult compensateTransfer(String transferId, String passport, String requisite) {
+            return delegate.compensateTransfer(transferId, passport, requisite);
+        }
+    }
+}
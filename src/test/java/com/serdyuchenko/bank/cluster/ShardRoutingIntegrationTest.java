@@ -0,0 +1,124 @@
+package com.serdyuchenko.bank.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.serdyuchenko.bank.BankApplication;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+
+/**
+ * Runs three nodes on localhost that know each other through {@code app.cluster.nodes}, and calls the public
+ * API of whichever node for accounts placed on any of them.
+ */
+class ShardRoutingIntegrationTest {
+    private static final int NODES = 3;
+    private static final int USERS = 9;
+
+    private static final HttpClient http = HttpClient.newHttpClient();
+    private static final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private static final List<String> urls = new ArrayList<>();
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        List<String> nodeArgs = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                urls.add("http://localhost:" + socket.getLocalPort());
+            }
+            nodeArgs.add("--app.cluster.nodes.node-" + i + "=" + urls.get(i));
+        }
+        for (int i = 0; i < NODES; i++) {
+            List<String> args = new ArrayList<>(nodeArgs);
+            args.add("--server.port=" + URI.create(urls.get(i)).getPort());
+            args.add("--app.cluster.enabled=true");
+            args.add("--app.cluster.nodeId=node-" + i);
+            args.add("--app.ids.nodeId=" + i);
+            contexts.add(new SpringApplicationBuilder(BankApplication.class).run(args.toArray(String[]::new)));
+        }
+        ShardRouter router = contexts.get(0).getBean(ShardRouter.class);
+        for (int u = 0; u < USERS; u++) {
+            router.addUser(new User(passport(u), "User " + u));
+            router.addAccount(passport(u), new Account(requisite(u), 100D));
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void everyNodeAnswersForEveryAccount() throws Exception {
+        ShardRouter router = contexts.get(0).getBean(ShardRouter.class);
+        assertThat(IntStream.range(0, USERS).mapToObj(u -> router.nodeFor(passport(u)).id()).distinct().count())
+            .isGreaterThan(1);
+
+        for (String url : urls) {
+            for (int u = 0; u < USERS; u++) {
+                HttpResponse<String> balance = send(HttpRequest.newBuilder(
+                    URI.create(url + "/api/accounts/" + passport(u) + "/" + requisite(u) + "/balance")).GET());
+                HttpResponse<String> statement = send(HttpRequest.newBuilder(
+                    URI.create(url + "/api/accounts/" + passport(u) + "/" + requisite(u) + "/statement")).GET());
+
+                assertThat(balance.statusCode()).isEqualTo(200);
+                assertThat(balance.body()).contains(requisite(u));
+                assertThat(statement.statusCode()).isEqualTo(200);
+            }
+        }
+    }
+
+    @Test
+    void transfersSentToAnyNodeAreAppliedOncePerId() throws Exception {
+        for (int u = 0; u < USERS; u++) {
+            int to = (u + 1) % USERS;
+            String body = "{\"sourcePassport\":\"" + passport(u) + "\",\"sourceRequisite\":\"" + requisite(u)
+                + "\",\"destinationPassport\":\"" + passport(to) + "\",\"destinationRequisite\":\"" + requisite(to)
+                + "\",\"amount\":" + (10 + u) + "}";
+            for (String url : urls) {
+                HttpResponse<String> response = send(HttpRequest.newBuilder(
+                        URI.create(url + "/api/transfers/routed-" + u))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body)));
+                assertThat(response.statusCode()).isEqualTo(200);
+            }
+        }
+
+        ShardRouter router = contexts.get(1).getBean(ShardRouter.class);
+        double total = 0;
+        for (int u = 0; u < USERS; u++) {
+            int from = (u + USERS - 1) % USERS;
+            double balance = router.balance(passport(u), requisite(u)).orElseThrow();
+            assertThat(balance).isEqualTo(100D - (10 + u) + (10 + from));
+            total += balance;
+        }
+        assertThat(total).isEqualTo(USERS * 100D);
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String passport(int user) {
+        return "routed-passport-" + user;
+    }
+
+    private static String requisite(int user) {
+        return "routed-account-" + user;
+    }
+}
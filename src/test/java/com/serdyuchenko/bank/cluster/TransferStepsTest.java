@@ -0,0 +1,86 @@
+package com.serdyuchenko.bank.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+
+class TransferStepsTest {
+    private TransactionLedger ledger;
+    private BankService bank;
+    private TransferSteps steps;
+
+    @BeforeEach
+    void openAccounts() {
+        ledger = new InMemoryTransactionLedger();
+        bank = new BankService(ledger, new AppProperties(), user -> { });
+        steps = new TransferSteps(bank);
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 150D));
+        bank.addAccount("3434", new Account("113", 50D));
+    }
+
+    @Test
+    void repeatedStepsAreAppliedOnce() {
+        steps.reserveTransfer("tr-1", "3434", "5546", "remote-1", 40D);
+        steps.commitTransfer("tr-2", "3434", "113", "remote-1", 20D);
+
+        assertThat(steps.reserveTransfer("tr-1", "3434", "5546", "remote-1", 40D).getResultingBalance())
+            .isEqualTo(110D);
+        assertThat(steps.commitTransfer("tr-2", "3434", "113", "remote-1", 20D).getResultingBalance())
+            .isEqualTo(70D);
+        assertThat(ledger.getByTransactionId("tr-1")).hasSize(1);
+        assertThat(ledger.getByTransactionId("tr-2")).hasSize(1);
+    }
+
+    @Test
+    void compensatedReservationCannotBeReopened() {
+        steps.reserveTransfer("tr-1", "3434", "5546", "remote-1", 40D);
+
+        assertThat(steps.compensateTransfer("tr-1", "3434", "5546").getResultingBalance()).isEqualTo(150D);
+        assertThat(steps.compensateTransfer("tr-1", "3434", "5546").getResultingBalance()).isEqualTo(150D);
+        assertThat(steps.reserveTransfer("tr-1", "3434", "5546", "remote-1", 40D).getFailureReason())
+            .isEqualTo(FailureReason.INVALID_REQUEST);
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(150D);
+    }
+
+    @Test
+    void stepsRepeatedWithOtherArgumentsAreConflicts() {
+        steps.reserveTransfer("tr-1", "3434", "5546", "remote-1", 40D);
+        steps.commitTransfer("tr-2", "3434", "113", "remote-1", 20D);
+
+        assertThat(steps.reserveTransfer("tr-1", "3434", "5546", "remote-1", 30D).getFailureReason())
+            .isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(steps.reserveTransfer("tr-1", "3434", "5546", "remote-2", 40D).getFailureReason())
+            .isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(steps.commitTransfer("tr-2", "3434", "113", "remote-1", 25D).getFailureReason())
+            .isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(steps.commitTransfer("tr-2", "3434", "113", "remote-9", 20D).getFailureReason())
+            .isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(steps.commitTransfer("tr-1", "3434", "113", "remote-1", 40D).getFailureReason())
+            .isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(110D);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(70D);
+    }
+
+    @Test
+    void stepsAreRefusedWithoutATransferIdOrOnAReplica() {
+        assertThat(steps.reserveTransfer(" ", "3434", "5546", "remote-1", 40D).getFailureReason())
+            .isEqualTo(FailureReason.INVALID_REQUEST);
+        assertThat(steps.commitTransfer("tr-1", "3434", "missing", "remote-1", 40D).getFailureReason())
+            .isEqualTo(FailureReason.ACCOUNT_NOT_FOUND);
+
+        bank.makeReadOnly();
+
+        assertThat(steps.compensateTransfer("tr-1", "3434", "5546").getFailureReason())
+            .isEqualTo(FailureReason.UNAVAILABLE);
+    }
+}
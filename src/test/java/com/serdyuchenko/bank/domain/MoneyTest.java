@@ -46,4 +46,32 @@ class MoneyTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Amount");
     }
+
+    @Test
+    void convertsToAndFromMinorUnits() {
+        Money money = Money.ofMinorUnits("USD", 12_345L);
+
+        assertThat(money.getAmount()).isEqualByComparingTo("123.45");
+        assertThat(money.toMinorUnits()).isEqualTo(12_345L);
+    }
+
+    @Test
+    void rejectsDoublesOutsideTheMinorUnitRange() {
+        assertThat(MinorUnits.fromDouble(-12.345)).isEqualTo(-1_234L);
+        assertThat(MinorUnits.fitsDouble(9.0e16)).isTrue();
+        assertThat(MinorUnits.fitsDouble(1.0e17)).isFalse();
+        assertThatThrownBy(() -> MinorUnits.fromDouble(Double.POSITIVE_INFINITY))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.fromDouble(Double.NaN))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.fromDouble(-1.0e17))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsSubMinorPrecisionWhenConvertingToMinorUnits() {
+        Money money = new Money("USD", new BigDecimal("0.001"));
+
+        assertThatThrownBy(money::toMinorUnits).isInstanceOf(ArithmeticException.class);
+    }
 }
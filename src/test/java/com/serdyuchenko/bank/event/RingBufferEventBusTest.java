@@ -0,0 +1,187 @@
+package com.serdyuchenko.bank.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.metrics.NoopBankMetrics;
+import com.serdyuchenko.bank.registry.InMemoryRegistryEventLog;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.service.TransferRequest;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+class RingBufferEventBusTest {
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void everySubscriberSeesEveryEventInOrder(WaitStrategy strategy) {
+        try (RingBufferEventBus bus = new RingBufferEventBus(16, strategy)) {
+            List<Long> first = new CopyOnWriteArrayList<>();
+            List<Long> second = new CopyOnWriteArrayList<>();
+            bus.subscribe("first", (event, sequence, endOfBatch) -> first.add(event.getAmountMinor()));
+            bus.subscribe("second", (event, sequence, endOfBatch) -> second.add(event.getAmountMinor()));
+
+            for (long i = 1; i <= 1_000; i++) {
+                bus.publishMovement(TransactionType.DEPOSIT, "op-" + i, "5546", "USD", i, i);
+            }
+
+            awaitUntil(() -> first.size() == 1_000 && second.size() == 1_000);
+            assertThat(first).isEqualTo(second);
+            assertThat(first).isSorted().startsWith(1L).endsWith(1_000L);
+        }
+    }
+
+    @Test
+    void slowSubscriberHoldsPublishersBackInsteadOfLosingEvents() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> seen = new CopyOnWriteArrayList<>();
+        try (RingBufferEventBus bus = new RingBufferEventBus(4, WaitStrategy.BLOCKING)) {
+            bus.subscribe("slow", (event, sequence, endOfBatch) -> {
+                awaitQuietly(release);
+                seen.add(event.getOperationId());
+            });
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    bus.publishMovement(TransactionType.DEPOSIT, "op-" + i, "5546", "USD", 1, i);
+                }
+            });
+            publisher.start();
+
+            awaitUntil(() -> bus.published() > 4);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            assertThat(publisher.isAlive()).isTrue();
+            assertThat(bus.published()).isLessThanOrEqualTo(6);
+
+            release.countDown();
+            awaitUntil(() -> seen.size() == 20);
+            assertThat(seen).first().isEqualTo("op-0");
+            assertThat(seen).last().isEqualTo("op-19");
+        }
+    }
+
+    @Test
+    void deliversBacklogAsOneBatch() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Boolean> ends = new CopyOnWriteArrayList<>();
+        try (RingBufferEventBus bus = new RingBufferEventBus(64, WaitStrategy.SLEEPING)) {
+            bus.subscribe("batching", (event, sequence, endOfBatch) -> {
+                if (sequence == 0) {
+                    awaitQuietly(release);
+                }
+                ends.add(endOfBatch);
+            });
+            bus.publishMovement(TransactionType.DEPOSIT, "op-0", "5546", "USD", 1, 1);
+            for (int i = 1; i <= 10; i++) {
+                bus.publishMovement(TransactionType.DEPOSIT, "op-" + i, "5546", "USD", 1, 1);
+            }
+            release.countDown();
+
+            awaitUntil(() -> ends.size() == 11);
+            assertThat(ends.subList(1, 11)).containsExactly(false, false, false, false, false, false, false, false,
+                false, true);
+        }
+    }
+
+    @Test
+    void failingListenerDoesNotStopTheStream() {
+        List<Long> seen = new CopyOnWriteArrayList<>();
+        try (RingBufferEventBus bus = new RingBufferEventBus(8, WaitStrategy.YIELDING)) {
+            bus.subscribe("flaky", (event, sequence, endOfBatch) -> {
+                if (sequence == 1) {
+                    throw new IllegalStateException("boom");
+                }
+                seen.add(sequence);
+            });
+            for (int i = 0; i < 3; i++) {
+                bus.publishMovement(TransactionType.WITHDRAWAL, "op-" + i, "5546", "USD", 1, 1);
+            }
+
+            awaitUntil(() -> seen.size() == 2);
+            assertThat(seen).containsExactly(0L, 2L);
+            assertThat(bus.listenerErrors()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void closeWaitsForSubscribersToCatchUp() {
+        List<Long> seen = new ArrayList<>();
+        RingBufferEventBus bus = new RingBufferEventBus(1_024, WaitStrategy.BLOCKING);
+        bus.subscribe("collector", (event, sequence, endOfBatch) -> seen.add(sequence));
+        for (int i = 0; i < 500; i++) {
+            bus.publishMovement(TransactionType.DEPOSIT, "op-" + i, "5546", "USD", 1, 1);
+        }
+
+        bus.close(Duration.ofSeconds(5));
+
+        assertThat(seen).hasSize(500);
+    }
+
+    @Test
+    void bankServicePublishesMoneyMovements() {
+        List<BankEvent> events = new CopyOnWriteArrayList<>();
+        try (RingBufferEventBus bus = new RingBufferEventBus(64, WaitStrategy.BLOCKING)) {
+            bus.subscribe("collector", (event, sequence, endOfBatch) -> events.add(event.copy()));
+            InMemoryTransactionLedger ledger = new InMemoryTransactionLedger();
+            BankService bank = new BankService(ledger, new AppProperties(), user -> { },
+                new TimeOrderedIdGenerator(0), new NoopBankMetrics(), new InMemoryRegistryEventLog(), bus);
+            bank.addUser(new User("3434", "Anton Serdyuchenko"));
+            bank.addAccount("3434", new Account("5546", 150D));
+            bank.addAccount("3434", new Account("113", 50D));
+
+            bank.depositFunds("3434", "5546", 10D);
+            bank.withdrawFunds("3434", "113", 5D);
+            bank.transferMoney("3434", "5546", "3434", "113", 100D);
+            bank.transferBatch(List.of(new TransferRequest("3434", "113", "3434", "5546", 1D)));
+            bank.withdrawFunds("3434", "113", 1_000D);
+
+            awaitUntil(() -> events.size() == 4);
+            assertThat(events).extracting(BankEvent::getType).containsExactly(TransactionType.DEPOSIT,
+                TransactionType.WITHDRAWAL, TransactionType.TRANSFER, TransactionType.TRANSFER);
+            assertThat(events.get(0).getBalanceAfterMinor()).isEqualTo(16_000);
+            assertThat(events.get(0).getCounterpartyAccountId()).isNull();
+            assertThat(events.get(0).getCounterpartyBalanceAfterMinor()).isEqualTo(Transaction.NO_BALANCE);
+            BankEvent transfer = events.get(2);
+            assertThat(transfer.getAccountId()).isEqualTo("5546");
+            assertThat(transfer.getCounterpartyAccountId()).isEqualTo("113");
+            assertThat(transfer.getAmountMinor()).isEqualTo(10_000);
+            assertThat(transfer.getBalanceAfterMinor()).isEqualTo(6_000);
+            assertThat(transfer.getCounterpartyBalanceAfterMinor()).isEqualTo(14_500);
+            assertThat(transfer.getOperationId()).isEqualTo(
+                ledger.getTransactions("113").get(1).getMetadata().getTransactionId());
+            assertThat(events.get(3).getAccountId()).isEqualTo("113");
+            assertThat(events.get(3).getBalanceAfterMinor()).isEqualTo(14_400);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5 seconds").isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.serdyuchenko.bank.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+class StatementExporterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void csvQuotesFieldsThatNeedIt() throws IOException {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        ledger.record("ACC-1", TransactionType.DEPOSIT, "RUB", 1050, 1050,
+            new TransactionMetadata("T-1", "salary, \"March\""));
+        ledger.record("ACC-1", TransactionType.WITHDRAWAL, "RUB", 50, TransactionMetadata.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = new StatementExporter(ledger, objectMapper).export("ACC-1", StatementFormat.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("id,type,amount,currency,timeStamp,transactionId,description,balanceAfter");
+        assertThat(lines[1]).contains(",DEPOSIT,10.50,RUB,").endsWith(",T-1,\"salary, \"\"March\"\"\",10.50");
+        assertThat(lines[2]).contains(",WITHDRAWAL,0.50,RUB,").endsWith(",,,");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerEntry() throws IOException {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        for (int i = 1; i <= 3; i++) {
+            ledger.record("ACC-1", TransactionType.DEPOSIT, "RUB", i * 100L, i * 100L, TransactionMetadata.empty());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new StatementExporter(ledger, objectMapper).export("ACC-1", StatementFormat.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        JsonNode last = objectMapper.readTree(lines[2]);
+        assertThat(last.get("type").asText()).isEqualTo("DEPOSIT");
+        assertThat(last.get("amount").decimalValue()).isEqualByComparingTo("3.00");
+        assertThat(last.get("balanceAfter").decimalValue()).isEqualByComparingTo("3.00");
+    }
+
+    @Test
+    void fileExportIsGzippedAndReplacesTheTarget() throws IOException {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        for (int i = 0; i < 10_000; i++) {
+            ledger.record("ACC-1", TransactionType.DEPOSIT, "RUB", 100, TransactionMetadata.empty());
+        }
+        Path file = directory.resolve(StatementExporter.fileName("ACC-1", StatementFormat.CSV, true));
+        Files.writeString(file, "stale");
+
+        long count = new StatementExporter(ledger, objectMapper).export("ACC-1", StatementFormat.CSV, true, file);
+
+        assertThat(count).isEqualTo(10_000);
+        assertThat(file.getFileName().toString()).isEqualTo("statement-ACC-1.csv.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(csv.split("\r\n")).hasSize(10_001);
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void unknownAccountExportsHeaderOnly() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = new StatementExporter(new InMemoryTransactionLedger(), objectMapper)
+            .export("ACC-404", StatementFormat.CSV, false, out);
+
+        assertThat(count).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).startsWith("id,").endsWith("balanceAfter\r\n");
+    }
+}
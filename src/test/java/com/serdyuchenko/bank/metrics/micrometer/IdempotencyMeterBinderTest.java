@@ -0,0 +1,33 @@
+package com.serdyuchenko.bank.metrics.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.service.IdempotencyCache;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotencyMeterBinderTest {
+
+    @Test
+    void publishesHitsMissesAndEvictions() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(1), 2, Clock.systemUTC());
+        for (String key : new String[] {"a", "a", "b", "c"}) {
+            cache.execute(key, "deposit 10", () -> OperationResult.success("ok", 10D));
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new IdempotencyMeterBinder(cache).bindTo(registry);
+
+        assertThat(registry.get("bank.idempotency.requests").tag("outcome", "hit").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("bank.idempotency.requests").tag("outcome", "miss").functionCounter().count())
+            .isEqualTo(3);
+        assertThat(registry.get("bank.idempotency.evictions").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("bank.idempotency.size").gauge().value()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,38 @@
+package com.serdyuchenko.bank.metrics.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LedgerMeterBinderTest {
+
+    @Test
+    void publishesAppendsAndPerAccountDistribution() {
+        InMemoryTransactionLedger ledger = new InMemoryTransactionLedger();
+        for (int account = 1; account <= 10; account++) {
+            for (int i = 0; i < account; i++) {
+                ledger.record("ACC-" + account, TransactionType.DEPOSIT, "USD", 100L, TransactionMetadata.empty());
+            }
+        }
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new LedgerMeterBinder(ledger, Duration.ZERO).bindTo(registry);
+
+        assertThat(registry.get("bank.ledger.appends").functionCounter().count()).isEqualTo(55);
+        assertThat(registry.get("bank.ledger.accounts").gauge().value()).isEqualTo(10);
+        assertThat(entries(registry, "0.5")).isEqualTo(5);
+        assertThat(entries(registry, "0.9")).isEqualTo(9);
+        assertThat(entries(registry, "max")).isEqualTo(10);
+    }
+
+    private static double entries(SimpleMeterRegistry registry, String quantile) {
+        return registry.get("bank.ledger.account.entries").tag("quantile", quantile).gauge().value();
+    }
+}
@@ -0,0 +1,88 @@
+package com.serdyuchenko.bank.metrics.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.service.TransferRequest;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MicrometerBankMetricsTest {
+
+    @Test
+    void operationsAreTimedAndFailuresCountedByReason() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BankService bank = newBankService(registry);
+
+        bank.depositFunds("3434", "5546", 10D);
+        bank.withdrawFunds("3434", "5546", 1_000D);
+        bank.withdrawFunds("3434", "missing", 1D);
+        bank.transferMoney("3434", "5546", "3434", "113", -1D);
+
+        assertThat(registry.get("bank.operations.latency").tags("operation", "deposit").timer().count())
+            .isEqualTo(1);
+        assertThat(registry.get("bank.operations").tags("operation", "withdrawal", "outcome", "failure")
+            .functionCounter().count()).isEqualTo(2);
+        assertThat(failures(registry, "withdrawal", "insufficient_funds")).isEqualTo(1);
+        assertThat(failures(registry, "withdrawal", "account_not_found")).isEqualTo(1);
+        assertThat(failures(registry, "transfer", "invalid_amount")).isEqualTo(1);
+    }
+
+    @Test
+    void sampledLatencyStillCountsEveryOperation() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BankService bank = new BankService(new InMemoryTransactionLedger(), new AppProperties(), user -> { },
+            new TimeOrderedIdGenerator(0), new MicrometerBankMetrics(registry, 1_000_000));
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 0D));
+
+        for (int i = 0; i < 100; i++) {
+            bank.depositFunds("3434", "5546", 1D);
+        }
+
+        assertThat(registry.get("bank.operations").tags("operation", "deposit", "outcome", "success")
+            .functionCounter().count()).isEqualTo(100);
+        assertThat(registry.get("bank.operations.latency").tags("operation", "deposit").timer().count())
+            .isLessThan(100);
+    }
+
+    @Test
+    void batchIsTimedOnceAndItemFailuresCountAsTransfers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BankService bank = newBankService(registry);
+
+        bank.transferBatch(List.of(
+            new TransferRequest("3434", "5546", "3434", "113", 1D),
+            new TransferRequest("3434", "5546", "3434", "nope", 1D)
+        ));
+
+        assertThat(registry.get("bank.operations.latency").tags("operation", "transfer_batch").timer().count())
+            .isEqualTo(1);
+        assertThat(registry.get("bank.operations").tags("operation", "transfer", "outcome", "success")
+            .functionCounter().count()).isEqualTo(1);
+        assertThat(failures(registry, "transfer", "account_not_found")).isEqualTo(1);
+    }
+
+    private static double failures(SimpleMeterRegistry registry, String operation, String reason) {
+        return registry.get("bank.operations.failures").tags("operation", operation, "reason", reason)
+            .functionCounter().count();
+    }
+
+    private static BankService newBankService(SimpleMeterRegistry registry) {
+        BankService bank = new BankService(new InMemoryTransactionLedger(), new AppProperties(), user -> { },
+            new TimeOrderedIdGenerator(0), new MicrometerBankMetrics(registry, 1));
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 150D));
+        bank.addAccount("3434", new Account("113", 50D));
+        return bank;
+    }
+}
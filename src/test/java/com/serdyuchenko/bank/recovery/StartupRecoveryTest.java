@@ -0,0 +1,119 @@
+package com.serdyuchenko.bank.recovery;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.metrics.NoopBankMetrics;
+import com.serdyuchenko.bank.registry.InMemoryRegistryEventLog;
+import com.serdyuchenko.bank.registry.RegistryEventLog;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+
+class StartupRecoveryTest {
+
+    @Test
+    void rebuildsUsersAccountsAndBalancesFromLogs() throws Exception {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        RegistryEventLog registryEvents = new InMemoryRegistryEventLog();
+        BankService before = newBankService(ledger, registryEvents);
+        before.addUser(new User("3434", "Anton Serdyuchenko"));
+        before.addAccount("3434", new Account("5546", 150D));
+        before.addAccount("3434", new Account("113", 50D));
+        before.addAccount("3434", new Account("777", 10D));
+        before.addUser(new User("1000", "Removed Later"));
+        before.addAccount("1000", new Account("900", 1D));
+        before.deleteUser("1000");
+        before.transferMoney("3434", "5546", "3434", "113", 100D);
+        before.withdrawFunds("3434", "113", 20D);
+
+        BankService after = newBankService(ledger, registryEvents);
+        StartupRecovery recovery = new StartupRecovery(after, ledger, registryEvents, propertiesWithThreads(4));
+        RecoveryStatus status = recovery.recover().get(10, TimeUnit.SECONDS);
+
+        assertThat(status.getState()).isEqualTo(RecoveryStatus.State.COMPLETED);
+        assertThat(status.getUsersRecovered()).isEqualTo(1);
+        assertThat(status.getAccountsRecovered()).isEqualTo(3);
+        assertThat(status.getProgress()).isEqualTo(1D);
+        assertThat(after.isRecovering()).isFalse();
+        assertThat(after.findByRequisite("3434", "5546").getBalance()).isEqualTo(50D);
+        assertThat(after.findByRequisite("3434", "113").getBalance()).isEqualTo(130D);
+        assertThat(after.findByRequisite("3434", "777").getBalance()).isEqualTo(10D);
+        assertThat(after.findByPassport("1000")).isNull();
+        assertThat(after.getAccounts(after.findByPassport("3434"))).extracting(Account::getRequisite)
+            .containsExactly("5546", "113", "777");
+        assertThat(after.depositFunds("3434", "777", 5D).isSuccess()).isTrue();
+    }
+
+    @Test
+    void reopenedRequisiteDoesNotInheritTheRemovedAccountsBalance() throws Exception {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        RegistryEventLog registryEvents = new InMemoryRegistryEventLog();
+        BankService before = newBankService(ledger, registryEvents);
+        before.addUser(new User("1000", "Removed Later"));
+        before.addAccount("1000", new Account("r1", 0D));
+        before.addAccount("1000", new Account("r2", 0D));
+        before.depositFunds("1000", "r1", 500D);
+        before.depositFunds("1000", "r2", 300D);
+        before.deleteUser("1000");
+        before.addUser(new User("3434", "Anton Serdyuchenko"));
+        before.addAccount("3434", new Account("r1", 0D));
+        before.addAccount("3434", new Account("r2", 0D));
+        before.depositFunds("3434", "r2", 20D);
+
+        BankService after = newBankService(ledger, registryEvents);
+        StartupRecovery recovery = new StartupRecovery(after, ledger, registryEvents, propertiesWithThreads(2));
+        recovery.recover().get(10, TimeUnit.SECONDS);
+
+        assertThat(after.findByRequisite("3434", "r1").getBalance()).isEqualTo(0D);
+        assertThat(after.findByRequisite("3434", "r2").getBalance()).isEqualTo(20D);
+    }
+
+    @Test
+    void writesAreRejectedWhileRecovering() {
+        BankService bank = newBankService(new InMemoryTransactionLedger(), new InMemoryRegistryEventLog());
+        bank.beginRecovery();
+
+        assertThat(bank.depositFunds("3434", "5546", 10D).getFailureReason()).isEqualTo(FailureReason.UNAVAILABLE);
+        assertThat(bank.transferMoneyIdempotent("key", "1", "2", "3", "4", 1D).getFailureReason())
+            .isEqualTo(FailureReason.UNAVAILABLE);
+        assertThatThrownBy(() -> bank.addUser(new User("3434", "Anton Serdyuchenko")))
+            .isInstanceOf(IllegalStateException.class);
+
+        bank.completeRecovery();
+
+        assertThat(bank.transferMoneyIdempotent("key", "1", "2", "3", "4", 1D).getFailureReason())
+            .isEqualTo(FailureReason.ACCOUNT_NOT_FOUND);
+    }
+
+    @Test
+    void emptyRegistryCompletesWithoutBlockingWrites() {
+        BankService bank = newBankService(new InMemoryTransactionLedger(), new InMemoryRegistryEventLog());
+        StartupRecovery recovery = new StartupRecovery(bank, new InMemoryTransactionLedger(),
+            new InMemoryRegistryEventLog(), propertiesWithThreads(0));
+
+        assertThat(recovery.recover()).isCompleted();
+        assertThat(recovery.getStatus().getState()).isEqualTo(RecoveryStatus.State.COMPLETED);
+        assertThat(bank.isRecovering()).isFalse();
+    }
+
+    private BankService newBankService(TransactionLedger ledger, RegistryEventLog registryEvents) {
+        return new BankService(ledger, new AppProperties(), user -> {
+            // no-op for tests
+        }, new TimeOrderedIdGenerator(0), new NoopBankMetrics(), registryEvents);
+    }
+
+    private AppProperties propertiesWithThreads(int parallelism) {
+        AppProperties properties = new AppProperties();
+        properties.getRecovery().setParallelism(parallelism);
+        return properties;
+    }
+}
@@ -0,0 +1,69 @@
+package com.serdyuchenko.bank.registry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+
+class FileRegistryEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsAreReplayedInOrderAfterReopen() {
+        Path file = directory.resolve("registry.log");
+        try (FileRegistryEventLog log = new FileRegistryEventLog(file)) {
+            log.append(RegistryEvent.userRegistered(new User("3434", "Anton Serdyuchenko")));
+            log.append(RegistryEvent.accountOpened("3434", new Account("5546", 150D), 7));
+            log.append(RegistryEvent.userRemoved("3434"));
+        }
+
+        try (FileRegistryEventLog reopened = new FileRegistryEventLog(file)) {
+            List<RegistryEvent> events = new ArrayList<>();
+            reopened.replay(events::add);
+
+            assertThat(reopened.size()).isEqualTo(3);
+            assertThat(events).extracting(RegistryEvent::getType).containsExactly(
+                RegistryEvent.Type.USER_REGISTERED, RegistryEvent.Type.ACCOUNT_OPENED, RegistryEvent.Type.USER_REMOVED);
+            assertThat(events.get(0).getUsername()).isEqualTo("Anton Serdyuchenko");
+            assertThat(events.get(1).getRequisite()).isEqualTo("5546");
+            assertThat(events.get(1).getOpeningBalanceMinor()).isEqualTo(15_000L);
+            assertThat(events.get(1).getLedgerEntriesBefore()).isEqualTo(7L);
+            assertThat(events.get(2).getRequisite()).isNull();
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedOnOpen() throws IOException {
+        Path file = directory.resolve("registry.log");
+        try (FileRegistryEventLog log = new FileRegistryEventLog(file)) {
+            log.append(RegistryEvent.userRegistered(new User("3434", "Anton Serdyuchenko")));
+        }
+        long validLength = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // A header promising 40 bytes followed by only 3 of them: a write cut short by a crash.
+            channel.write(ByteBuffer.allocate(11).putInt(40).putInt(7).put(new byte[3]).flip());
+        }
+
+        try (FileRegistryEventLog reopened = new FileRegistryEventLog(file)) {
+            assertThat(reopened.size()).isEqualTo(1);
+            assertThat(Files.size(file)).isEqualTo(validLength);
+            reopened.append(RegistryEvent.userRemoved("3434"));
+        }
+        try (FileRegistryEventLog reopened = new FileRegistryEventLog(file)) {
+            assertThat(reopened.size()).isEqualTo(2);
+        }
+    }
+}
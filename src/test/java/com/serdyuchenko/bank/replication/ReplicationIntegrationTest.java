@@ -0,0 +1,195 @@
+package com.serdyuchenko.bank.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.serdyuchenko.bank.BankApplication;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+/**
+ * Runs a primary and two followers on localhost, writes on the primary and reads the same balances and
+ * statements back from the followers.
+ */
+class ReplicationIntegrationTest {
+    private static final int USERS = 8;
+
+    private static final HttpClient http = HttpClient.newHttpClient();
+    private static final List<ConfigurableApplicationContext> followers = new ArrayList<>();
+    private static ConfigurableApplicationContext primary;
+    private static String primaryUrl;
+
+    @BeforeAll
+    static void startInstances() {
+        primary = new SpringApplicationBuilder(BankApplication.class)
+            .run("--server.port=0", "--app.replication.role=primary");
+        primaryUrl = urlOf(primary);
+        for (int i = 0; i < 2; i++) {
+            followers.add(startFollower("5s"));
+        }
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        followers.forEach(ConfigurableApplicationContext::close);
+        primary.close();
+    }
+
+    @Test
+    void followersServeThePrimarysBalancesAndStatements() throws Exception {
+        BankService bank = primary.getBean(BankService.class);
+        for (int u = 0; u < USERS; u++) {
+            bank.addUser(new User(passport(u), "User " + u));
+            bank.addAccount(passport(u), new Account(requisite(u), 100D));
+            bank.depositFunds(passport(u), requisite(u), 10D + u);
+        }
+        for (int u = 0; u < USERS; u++) {
+            int to = (u + 1) % USERS;
+            bank.transferMoney(passport(u), requisite(u), passport(to), requisite(to), 5D);
+        }
+        bank.withdrawFunds(passport(0), requisite(0), 1.25D);
+
+        for (ConfigurableApplicationContext follower : followers) {
+            awaitCaughtUp(follower);
+            for (int u = 0; u < USERS; u++) {
+                String balance = "/api/accounts/" + passport(u) + "/" + requisite(u) + "/balance";
+                String statement = "/api/accounts/" + passport(u) + "/" + requisite(u) + "/statement";
+                assertThat(get(urlOf(follower) + balance).body()).isEqualTo(get(primaryUrl + balance).body());
+                assertThat(get(urlOf(follower) + statement).body()).isEqualTo(get(primaryUrl + statement).body());
+            }
+            HttpResponse<String> response = get(urlOf(follower) + "/api/accounts/" + passport(0) + "/balances");
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue(ReplicationLagInterceptor.LAG_HEADER)).isPresent();
+        }
+    }
+
+    @Test
+    void followersRejectWrites() {
+        BankService follower = followers.get(0).getBean(BankService.class);
+
+        OperationResult deposit = follower.depositFunds(passport(0), requisite(0), 1D);
+
+        assertThat(deposit.getFailureReason()).isEqualTo(FailureReason.UNAVAILABLE);
+        assertThat(follower.isReadOnly()).isTrue();
+        assertThatThrownBy(() -> follower.addUser(new User("replica-only", "Nobody")))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void staleFollowerAnswersWith503() throws Exception {
+        try (ConfigurableApplicationContext follower = startFollower("200ms")) {
+            awaitCaughtUp(follower);
+            follower.getBean(ReplicationFollower.class).close();
+            Thread.sleep(400);
+
+            HttpResponse<String> response = get(urlOf(follower) + "/api/accounts/3434/balances");
+
+            assertThat(response.statusCode()).isEqualTo(503);
+            assertThat(Long.parseLong(response.headers().firstValue(ReplicationLagInterceptor.LAG_HEADER)
+                .orElseThrow())).isGreaterThan(200);
+            assertThat(get(urlOf(follower) + "/actuator/health").body()).contains("DOWN");
+        }
+    }
+
+    @Test
+    void stoppedFollowerAnswersWith503AtOnce() throws Exception {
+        try (ConfigurableApplicationContext follower = startFollower("5s")) {
+            awaitCaughtUp(follower);
+            follower.getBean(ReplicationFollower.class).close();
+
+            HttpResponse<String> response = get(urlOf(follower) + "/api/accounts/3434/balances");
+
+            assertThat(response.statusCode()).isEqualTo(503);
+            assertThat(get(urlOf(follower) + "/actuator/health").body()).contains("DOWN");
+        }
+    }
+
+    @Test
+    void followerStartedLateCopiesWhatThePrimaryNoLongerLogs() throws Exception {
+        try (ConfigurableApplicationContext smallPrimary = new SpringApplicationBuilder(BankApplication.class)
+                .run("--server.port=0", "--app.replication.role=primary", "--app.replication.logCapacity=4")) {
+            BankService bank = smallPrimary.getBean(BankService.class);
+            for (int u = 0; u < USERS; u++) {
+                bank.addUser(new User(passport(u), "User " + u));
+                bank.addAccount(passport(u), new Account(requisite(u), 100D));
+                bank.depositFunds(passport(u), requisite(u), 10D + u);
+            }
+            bank.deleteUser(passport(USERS - 1));
+
+            try (ConfigurableApplicationContext follower = startFollower(urlOf(smallPrimary), "5s")) {
+                awaitCaughtUp(smallPrimary, follower);
+                bank.transferMoney(passport(0), requisite(0), passport(1), requisite(1), 5D);
+                awaitCaughtUp(smallPrimary, follower);
+
+                for (int u = 0; u < USERS; u++) {
+                    String balance = "/api/accounts/" + passport(u) + "/" + requisite(u) + "/balance";
+                    String statement = "/api/accounts/" + passport(u) + "/" + requisite(u) + "/statement";
+                    assertThat(get(urlOf(follower) + balance).body())
+                        .isEqualTo(get(urlOf(smallPrimary) + balance).body());
+                    assertThat(get(urlOf(follower) + statement).body())
+                        .isEqualTo(get(urlOf(smallPrimary) + statement).body());
+                }
+                assertThat(follower.getBean(BankService.class).findByPassport(passport(USERS - 1))).isNull();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startFollower(String maxLag) {
+        return startFollower(primaryUrl, maxLag);
+    }
+
+    private static ConfigurableApplicationContext startFollower(String primaryUrl, String maxLag) {
+        return new SpringApplicationBuilder(BankApplication.class)
+            .run("--server.port=0", "--app.replication.role=follower", "--app.replication.primaryUrl=" + primaryUrl,
+                "--app.replication.pollWait=100ms", "--app.replication.maxLag=" + maxLag);
+    }
+
+    private static void awaitCaughtUp(ConfigurableApplicationContext follower) throws InterruptedException {
+        awaitCaughtUp(primary, follower);
+    }
+
+    private static void awaitCaughtUp(ConfigurableApplicationContext primary, ConfigurableApplicationContext follower)
+            throws InterruptedException {
+        ReplicationLog log = primary.getBean(ReplicationLog.class);
+        ReplicationFollower replication = follower.getBean(ReplicationFollower.class);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (replication.appliedSequence() < log.lastSequence() || replication.lagMillis() == Long.MAX_VALUE) {
+            assertThat(System.nanoTime()).as("follower caught up in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static HttpResponse<String> get(String url) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String urlOf(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static String passport(int user) {
+        return "replica-passport-" + user;
+    }
+
+    private static String requisite(int user) {
+        return "replica-requisite-" + user;
+    }
+}
@@ -0,0 +1,120 @@
+package com.serdyuchenko.bank.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.registry.RegistryEvent;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+class ReplicationLogTest {
+
+    @Test
+    void recordsAreNumberedFromOneAndReadAfterAPosition() throws InterruptedException {
+        ReplicationLog log = new ReplicationLog(16);
+        log.append(RegistryEvent.userRemoved("passport"));
+        log.appendAll(List.of(entry("t1"), entry("t2")));
+        log.append(entry("t3"));
+
+        List<ReplicationRecord> records = log.read(1, 2, Duration.ZERO);
+
+        assertThat(log.lastSequence()).isEqualTo(4);
+        assertThat(records).extracting(ReplicationRecord::getSequence).containsExactly(2L, 3L);
+        assertThat(records).extracting(record -> record.getEntry().getId()).containsExactly("t1", "t2");
+        assertThat(log.read(0, 10, Duration.ZERO).get(0).getRegistryEvent().getType())
+            .isEqualTo(RegistryEvent.Type.USER_REMOVED);
+    }
+
+    @Test
+    void readWaitsForTheNextAppend() throws Exception {
+        ReplicationLog log = new ReplicationLog(16);
+        CompletableFuture<List<ReplicationRecord>> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return log.read(0, 10, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(50);
+        log.append(entry("t1"));
+
+        assertThat(read.get(5, TimeUnit.SECONDS)).extracting(ReplicationRecord::getSequence).containsExactly(1L);
+    }
+
+    @Test
+    void readReturnsNothingWhenTheWaitRunsOut() throws InterruptedException {
+        ReplicationLog log = new ReplicationLog(16);
+        log.append(entry("t1"));
+
+        assertThat(log.read(1, 10, Duration.ofMillis(20))).isEmpty();
+    }
+
+    @Test
+    void readersThatFellOutOfTheRingAreRejected() throws InterruptedException {
+        ReplicationLog log = new ReplicationLog(4);
+        for (int i = 0; i < 6; i++) {
+            log.append(entry("t" + i));
+        }
+
+        assertThat(log.read(2, 10, Duration.ZERO)).extracting(ReplicationRecord::getSequence)
+            .containsExactly(3L, 4L, 5L, 6L);
+        assertThatThrownBy(() -> log.read(1, 10, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentWritersLeaveNoGapsForAReader() throws Exception {
+        ReplicationLog log = new ReplicationLog(1 << 16);
+        int writers = 4;
+        int perWriter = 5_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    if (i % 10 == 0) {
+                        log.appendAll(List.of(entry(writer + "-" + i + "a"), entry(writer + "-" + i + "b")));
+                    } else {
+                        log.append(entry(writer + "-" + i));
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long applied = 0;
+        long expected = writers * (perWriter + perWriter / 10L);
+        Set<String> ids = new HashSet<>();
+        while (applied < expected) {
+            for (ReplicationRecord record : log.read(applied, 1_000, Duration.ofSeconds(5))) {
+                assertThat(record.getSequence()).isEqualTo(applied + 1);
+                assertThat(ids.add(record.getEntry().getId())).isTrue();
+                applied = record.getSequence();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(log.lastSequence()).isEqualTo(expected);
+        assertThat(ids).hasSize((int) expected);
+    }
+
+    private static Transaction entry(String id) {
+        return new Transaction(id, "requisite", "USD", 100, 100, TransactionType.DEPOSIT, Instant.now(),
+            new TransactionMetadata(id, "Deposit"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.serdyuchenko.bank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+
+class AccountRegistryTest {
+
+    @Test
+    void findsUserAndAccountByKeys() {
+        AccountRegistry registry = new AccountRegistry();
+        User user = new User("3434", "Anton Serdyuchenko");
+        Account account = new Account("5546", 150D);
+        registry.register(user);
+
+        assertThat(registry.addAccount("3434", account)).isTrue();
+        assertThat(registry.findUser("3434")).isSameAs(user);
+        assertThat(registry.findAccount("3434", "5546")).isSameAs(account);
+        assertThat(registry.findAccount("5546")).isSameAs(account);
+    }
+
+    @Test
+    void accountIsScopedToItsOwner() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new User("3434", "Anton Serdyuchenko"));
+        registry.register(new User("1111", "Other"));
+        registry.addAccount("3434", new Account("5546", 150D));
+
+        assertThat(registry.findAccount("1111", "5546")).isNull();
+    }
+
+    @Test
+    void rejectsDuplicateRequisiteAndUnknownOwner() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new User("3434", "Anton Serdyuchenko"));
+        registry.addAccount("3434", new Account("5546", 150D));
+
+        assertThat(registry.addAccount("3434", new Account("5546", 500D))).isFalse();
+        assertThat(registry.addAccount("4343", new Account("113", 1D))).isFalse();
+        assertThat(registry.findAccount("3434", "5546").getBalance()).isEqualTo(150D);
+    }
+
+    @Test
+    void requisiteTakenByAnotherUserIsRejected() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new User("3434", "Anton Serdyuchenko"));
+        registry.register(new User("1111", "Other"));
+        Account account = new Account("5546", 150D);
+        registry.addAccount("3434", account);
+
+        assertThat(registry.addAccount("1111", new Account("5546", 500D))).isFalse();
+        assertThat(registry.findAccount("1111", "5546")).isNull();
+        assertThat(registry.accounts("1111")).isEmpty();
+        assertThat(registry.findAccount("5546")).isSameAs(account);
+    }
+
+    @Test
+    void removeDropsUserWithAccounts() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new User("3434", "Anton Serdyuchenko"));
+        registry.addAccount("3434", new Account("5546", 150D));
+
+        registry.remove("3434");
+
+        assertThat(registry.findUser("3434")).isNull();
+        assertThat(registry.accounts("3434")).isEmpty();
+        assertThat(registry.findAccount("5546")).isNull();
+        assertThat(registry.userCount()).isZero();
+    }
+
+    @Test
+    void accountsKeepOpeningOrder() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new User("3434", "Anton Serdyuchenko"));
+        registry.addAccount("3434", new Account("b", 1D));
+        registry.addAccount("3434", new Account("a", 2D));
+
+        assertThat(registry.accounts("3434")).extracting(Account::getRequisite).containsExactly("b", "a");
+    }
+
+    @Test
+    void accountsSnapshotIsNotChangedByLaterOpenings() {
+        AccountRegistry registry = new AccountRegistry();
+        registry.register(new User("3434", "Anton Serdyuchenko"));
+        registry.addAccount("3434", new Account("first", 1D));
+        Collection<Account> before = registry.accounts("3434");
+
+        for (int i = 0; i < 100; i++) {
+            registry.addAccount("3434", new Account("acc-" + i, i));
+        }
+
+        assertThat(before).extracting(Account::getRequisite).containsExactly("first");
+        assertThat(registry.accounts("3434")).hasSize(101).first().extracting(Account::getRequisite)
+            .isEqualTo("first");
+        assertThat(registry.findAccount("3434", "acc-99")).isNotNull();
+    }
+}
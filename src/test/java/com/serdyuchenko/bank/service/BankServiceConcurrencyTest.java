@@ -0,0 +1,141 @@
+package com.serdyuchenko.bank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.Account;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.OperationResult;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionLedger;
+
+/**
+ * Hammers {@link BankService} from many threads and checks that money is neither created nor lost, in both
+ * execution modes.
+ */
+class BankServiceConcurrencyTest {
+    private static final int ACCOUNTS = 16;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    private static final double INITIAL_BALANCE = 1_000D;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"locking", "partitioned"})
+    void concurrentTransfersConserveTotalBalance(String mode) throws Exception {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = seededBank(ledger, mode);
+
+        List<Integer> completed = runConcurrently(bank, random -> {
+            int source = random.nextInt(ACCOUNTS);
+            int destination = random.nextInt(ACCOUNTS);
+            return bank.transferMoney(key(source), key(source), key(destination), key(destination),
+                1 + random.nextInt(50));
+        });
+
+        assertThat(totalBalance(bank)).isEqualTo(ACCOUNTS * INITIAL_BALANCE);
+        assertThat(minBalance(bank)).isGreaterThanOrEqualTo(0D);
+        int successes = completed.stream().mapToInt(Integer::intValue).sum();
+        assertThat(ledgerSize(ledger)).isEqualTo(2 * successes);
+        bank.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"locking", "partitioned"})
+    void concurrentDepositsAndWithdrawalsAreNotLost(String mode) throws Exception {
+        BankService bank = seededBank(new InMemoryTransactionLedger(), mode);
+
+        runConcurrently(bank, random -> {
+            String key = key(random.nextInt(ACCOUNTS));
+            bank.depositFunds(key, key, 3D);
+            return bank.withdrawFunds(key, key, 3D);
+        });
+
+        assertThat(totalBalance(bank)).isEqualTo(ACCOUNTS * INITIAL_BALANCE);
+        bank.close();
+    }
+
+    private interface Operation {
+        OperationResult apply(SplittableRandom random);
+    }
+
+    private List<Integer> runConcurrently(BankService bank, Operation operation) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            futures.add(pool.submit(() -> {
+                start.await();
+                int successes = 0;
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    if (operation.apply(random).isSuccess()) {
+                        successes++;
+                    }
+                }
+                return successes;
+            }));
+        }
+        start.countDown();
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        return results;
+    }
+
+    private BankService seededBank(TransactionLedger ledger, String mode) {
+        AppProperties properties = new AppProperties();
+        properties.setLockStripes(4);
+        properties.getExecution().setMode(mode);
+        properties.getExecution().setPartitions(4);
+        BankService bank = new BankService(ledger, properties, user -> {
+            // no-op for tests
+        });
+        for (int i = 0; i < ACCOUNTS; i++) {
+            bank.addUser(new User(key(i), "User " + i));
+            bank.addAccount(key(i), new Account(key(i), INITIAL_BALANCE));
+        }
+        return bank;
+    }
+
+    private double totalBalance(BankService bank) {
+        double total = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            total += bank.findByRequisite(key(i), key(i)).getBalance();
+        }
+        return total;
+    }
+
+    private double minBalance(BankService bank) {
+        double min = Double.MAX_VALUE;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            min = Math.min(min, bank.findByRequisite(key(i), key(i)).getBalance());
+        }
+        return min;
+    }
+
+    private int ledgerSize(TransactionLedger ledger) {
+        int size = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            size += ledger.getTransactions(key(i)).size();
+        }
+        return size;
+    }
+
+    private static String key(int index) {
+        return "acc-" + index;
+    }
+}
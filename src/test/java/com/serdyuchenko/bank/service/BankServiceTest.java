@@ -2,17 +2,25 @@ package com.serdyuchenko.bank.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Test;
 
 import com.serdyuchenko.bank.config.AppProperties;
 import com.serdyuchenko.bank.domain.Account;
 import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.shared.FailureReason;
 import com.serdyuchenko.bank.shared.OperationResult;
 import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.transaction.Transaction;
 import com.serdyuchenko.bank.transaction.TransactionLedger;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
 import com.serdyuchenko.bank.workflow.WorkflowPort;
 
 class BankServiceTest {
@@ -25,6 +33,15 @@ class BankServiceTest {
         assertThat(bank.findByPassport("3434")).isEqualTo(user);
     }
 
+    @Test
+    void addUserStartsOnboarding() {
+        List<User> onboarded = new ArrayList<>();
+        User user = new User("3434", "Anton Serdyuchenko");
+        BankService bank = new BankService(new InMemoryTransactionLedger(), defaultProperties(), onboarded::add);
+        bank.addUser(user);
+        assertThat(onboarded).containsExactly(user);
+    }
+
     @Test
     void deleteUserIsTrue() {
         User first = new User("3434", "Anton Serdyuchenko");
@@ -56,6 +73,42 @@ class BankServiceTest {
         assertThat(bank.findByRequisite("34", "5546")).isNull();
     }
 
+    @Test
+    void everyBalanceChangeBumpsTheAccountVersion() {
+        BankService bank = newBankService();
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 150D));
+        bank.addAccount("3434", new Account("113", 50D));
+        Account source = bank.findByRequisite("3434", "5546");
+        Account destination = bank.findByRequisite("3434", "113");
+        long initial = source.getVersion();
+        CompletableFuture<Account> change = source.nextChange(initial);
+
+        bank.depositFunds("3434", "5546", 10D);
+        bank.withdrawFunds("3434", "5546", 500D);
+        bank.transferMoney("3434", "5546", "3434", "113", 20D);
+
+        assertThat(change).isCompletedWithValue(source);
+        assertThat(source.getVersion()).isEqualTo(initial + 2);
+        assertThat(destination.getVersion()).isEqualTo(1);
+        assertThat(source.nextChange(initial)).isCompleted();
+        assertThat(source.nextChange(source.getVersion())).isNotCompleted();
+    }
+
+    @Test
+    void cancelledWatchersAreNotRetained() {
+        Account account = new Account("5546", 150D);
+        for (int i = 0; i < 100_000; i++) {
+            account.nextChange(account.getVersion()).cancel(false);
+        }
+        CompletableFuture<Account> pending = account.nextChange(account.getVersion());
+
+        assertThat(account.getWaiterCount()).isEqualTo(1);
+        account.setBalanceMinor(1);
+        assertThat(pending).isCompletedWithValue(account);
+        assertThat(account.getWaiterCount()).isZero();
+    }
+
     @Test
     void addAccount() {
         User user = new User("3434", "Anton Serdyuchenko");
@@ -295,6 +348,467 @@ class BankServiceTest {
         assertThat(ledger.getTransactions("5546").get(0).getAmount().getCurrency()).isEqualTo("EUR");
     }
 
+    @Test
+    void balancesUseExactCentArithmetic() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        BankService bank = newBankService();
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 0D));
+
+        bank.depositFunds(user.getPassport(), "5546", 0.1D);
+        OperationResult result = bank.depositFunds(user.getPassport(), "5546", 0.2D);
+
+        assertThat(result.getResultingBalance()).isEqualTo(0.3D);
+        assertThat(bank.findByRequisite(user.getPassport(), "5546").getBalanceMinor()).isEqualTo(30L);
+    }
+
+    @Test
+    void depositRejectsSubCentAmount() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        BankService bank = newBankService();
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 150D));
+
+        OperationResult result = bank.depositFunds(user.getPassport(), "5546", 0.001D);
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Deposit amount must be greater than zero.");
+    }
+
+    @Test
+    void transferBatchReportsEveryItemAndKeepsOrder() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 150D));
+        bank.addAccount(user.getPassport(), new Account("113", 50D));
+
+        List<OperationResult> results = bank.transferBatch(List.of(
+            new TransferRequest("3434", "5546", "3434", "113", 100D),
+            new TransferRequest("3434", "554", "3434", "113", 1D),
+            new TransferRequest("3434", "5546", "3434", "113", 100D),
+            new TransferRequest("3434", "113", "3434", "5546", 0D),
+            new TransferRequest("3434", "113", "3434", "5546", 25D)
+        ));
+
+        assertThat(results).extracting(OperationResult::getMessage).containsExactly(
+            "Transfer completed successfully.",
+            "Source account not found for the provided identifiers.",
+            "Insufficient funds; balance cannot go below zero.",
+            "Transfer amount must be greater than zero.",
+            "Transfer completed successfully."
+        );
+        assertThat(results.get(4).getResultingBalance()).isEqualTo(125D);
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(75D);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(125D);
+        assertThat(ledger.getTransactions("5546")).extracting(t -> t.getMetadata().getDescription())
+            .containsExactly("Transfer to account 113", "Transfer from account 113");
+        assertThat(ledger.getTransactions("113")).hasSize(2);
+    }
+
+    @Test
+    void transferBatchWithoutValidItemsDoesNotTouchTheLedger() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+
+        List<OperationResult> results = bank.transferBatch(List.of(
+            new TransferRequest("1", "2", "3", "4", 10D)
+        ));
+
+        assertThat(results).singleElement().extracting(OperationResult::isSuccess).isEqualTo(false);
+        assertThat(ledger.getTransactions("2")).isEmpty();
+    }
+
+    @Test
+    void retriedDepositWithSameKeyIsAppliedOnce() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 150D));
+
+        OperationResult first = bank.depositFundsIdempotent("dep-1", "3434", "5546", 50D);
+        OperationResult retry = bank.depositFundsIdempotent("dep-1", "3434", "5546", 50D);
+
+        assertThat(retry).isSameAs(first);
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(200D);
+        assertThat(ledger.getTransactions("5546")).singleElement()
+            .extracting(t -> t.getMetadata().getTransactionId()).isEqualTo("dep-1");
+        assertThat(bank.getIdempotencyCache().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void retriedTransferWithSameKeyIsAppliedOnce() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        BankService bank = newBankService();
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 150D));
+        bank.addAccount(user.getPassport(), new Account("113", 50D));
+
+        bank.transferMoneyIdempotent("tr-1", "3434", "5546", "3434", "113", 100D);
+        bank.transferMoneyIdempotent("tr-1", "3434", "5546", "3434", "113", 100D);
+        bank.withdrawFundsIdempotent("wd-1", "3434", "113", 10D);
+
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(50D);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(140D);
+    }
+
+    @Test
+    void idempotencyKeyReusedWithOtherArgumentsIsRefused() {
+        BankService bank = new BankService(new InMemoryTransactionLedger(), defaultProperties(), noopWorkflow());
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 150D));
+        bank.addAccount("3434", new Account("113", 50D));
+
+        bank.depositFundsIdempotent("key-1", "3434", "5546", 10D);
+        OperationResult otherAmount = bank.depositFundsIdempotent("key-1", "3434", "5546", 20D);
+        OperationResult otherOperation = bank.withdrawFundsIdempotent("key-1", "3434", "5546", 10D);
+        OperationResult otherAccount = bank.transferMoneyIdempotent("key-1", "3434", "5546", "3434", "113", 10D);
+
+        assertThat(otherAmount.getFailureReason()).isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(otherOperation.getFailureReason()).isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(otherAccount.getFailureReason()).isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(160D);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(50D);
+    }
+
+    @Test
+    void idempotencyKeyForgottenByTheCacheButRecordedInTheLedgerIsRefused() {
+        AppProperties properties = defaultProperties();
+        properties.getIdempotency().setMaxEntries(1);
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, properties, noopWorkflow());
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 150D));
+        bank.addAccount("3434", new Account("113", 50D));
+
+        bank.transferMoneyIdempotent("tr-1", "3434", "5546", "3434", "113", 100D);
+        bank.depositFundsIdempotent("dep-1", "3434", "5546", 10D);
+        OperationResult reused = bank.depositFundsIdempotent("tr-1", "3434", "113", 5D);
+        OperationResult reversal = bank.reverseTransfer("tr-1");
+
+        assertThat(reused.getFailureReason()).isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(ledger.getByTransactionId("tr-1")).extracting(Transaction::getType)
+            .containsExactly(TransactionType.TRANSFER, TransactionType.TRANSFER,
+                TransactionType.REVERSAL, TransactionType.REVERSAL);
+        assertThat(reversal.isSuccess()).isTrue();
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(50D);
+    }
+
+    @Test
+    void repeatedTransferOnceFindsItsLegAndIsAppliedOnce() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 150D));
+        bank.addAccount("3434", new Account("113", 50D));
+
+        OperationResult overdraft = bank.transferOnce("tr-1", "3434", "5546", "3434", "113", 500D);
+        OperationResult first = bank.transferOnce("tr-1", "3434", "5546", "3434", "113", 100D);
+        OperationResult repeated = bank.transferOnce("tr-1", "3434", "5546", "3434", "113", 100D);
+
+        assertThat(overdraft.getFailureReason()).isEqualTo(FailureReason.INSUFFICIENT_FUNDS);
+        assertThat(first.isSuccess()).isTrue();
+        assertThat(repeated.isSuccess()).isTrue();
+        assertThat(repeated.getResultingBalance()).isEqualTo(50D);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(150D);
+        assertThat(ledger.getByTransactionId("tr-1")).hasSize(2);
+        assertThat(bank.transferOnce(" ", "3434", "5546", "3434", "113", 1D).getFailureReason())
+            .isEqualTo(FailureReason.INVALID_REQUEST);
+    }
+
+    @Test
+    void transferOnceRepeatedWithOtherArgumentsIsAConflict() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 150D));
+        bank.addAccount("3434", new Account("113", 50D));
+        bank.addAccount("3434", new Account("200", 0D));
+
+        bank.transferOnce("tr-1", "3434", "5546", "3434", "113", 100D);
+        bank.depositFundsIdempotent("dep-1", "3434", "200", 10D);
+
+        assertThat(bank.transferOnce("tr-1", "3434", "5546", "3434", "113", 30D).getFailureReason())
+            .isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(bank.transferOnce("tr-1", "3434", "5546", "3434", "200", 100D).getFailureReason())
+            .isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(bank.transferOnce("dep-1", "3434", "5546", "3434", "113", 10D).getFailureReason())
+            .isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(50D);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(150D);
+        assertThat(bank.findByRequisite("3434", "200").getBalance()).isEqualTo(10D);
+        assertThat(ledger.getByTransactionId("tr-1")).hasSize(2);
+    }
+
+    @Test
+    void ledgerEntriesCarryRunningBalancesOfEveryLeg() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 150D));
+        bank.addAccount(user.getPassport(), new Account("113", 50D));
+
+        bank.depositFunds("3434", "5546", 10D);
+        bank.transferMoney("3434", "5546", "3434", "113", 60D);
+        bank.withdrawFunds("3434", "113", 5D);
+        bank.transferBatch(List.of(new TransferRequest("3434", "113", "3434", "5546", 25D)));
+
+        assertThat(ledger.getTransactions("5546")).extracting(Transaction::getBalanceAfterMinor)
+            .containsExactly(16_000L, 10_000L, 12_500L);
+        assertThat(ledger.getTransactions("113")).extracting(Transaction::getBalanceAfterMinor)
+            .containsExactly(11_000L, 10_500L, 8_000L);
+        assertThat(bank.balanceAt("3434", "113", Instant.now())).hasValue(80D);
+        assertThat(bank.balanceAt("3434", "113", Instant.EPOCH)).isEmpty();
+        assertThat(bank.balanceAt("3434", "missing", Instant.now())).isEmpty();
+    }
+
+    @Test
+    void reverseTransferMovesAmountBackOnce() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 150D));
+        bank.addAccount(user.getPassport(), new Account("113", 50D));
+        bank.transferMoneyIdempotent("tr-1", "3434", "5546", "3434", "113", 100D);
+
+        OperationResult reversed = bank.reverseTransfer("tr-1");
+        OperationResult again = bank.reverseTransfer("tr-1");
+
+        assertThat(reversed.isSuccess()).isTrue();
+        assertThat(reversed.getResultingBalance()).isEqualTo(150D);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(50D);
+        assertThat(again.getFailureReason()).isEqualTo(FailureReason.INVALID_REQUEST);
+        assertThat(bank.findByTransactionId("tr-1"))
+            .extracting(Transaction::getAccountId, Transaction::getType, Transaction::getBalanceAfterMinor)
+            .containsExactly(
+                tuple("5546", TransactionType.TRANSFER, 5_000L),
+                tuple("113", TransactionType.TRANSFER, 15_000L),
+                tuple("113", TransactionType.REVERSAL, 5_000L),
+                tuple("5546", TransactionType.REVERSAL, 15_000L));
+    }
+
+    @Test
+    void otherEntriesUnderTheTransferIdDoNotCountAsAReversal() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 150D));
+        bank.addAccount(user.getPassport(), new Account("113", 50D));
+        bank.transferMoneyIdempotent("tr-1", "3434", "5546", "3434", "113", 100D);
+        ledger.record("777", TransactionType.DEPOSIT, "USD", 100, 100, new TransactionMetadata("tr-1", "Unrelated"));
+
+        OperationResult reversed = bank.reverseTransfer("tr-1");
+
+        assertThat(reversed.isSuccess()).isTrue();
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(50D);
+        assertThat(bank.reverseTransfer("tr-1").getMessage()).isEqualTo("Transfer has already been reversed.");
+    }
+
+    @Test
+    void reverseTransferIsRefusedWhenDestinationSpentTheFunds() {
+        User user = new User("3434", "Anton Serdyuchenko");
+        BankService bank = newBankService();
+        bank.addUser(user);
+        bank.addAccount(user.getPassport(), new Account("5546", 150D));
+        bank.addAccount(user.getPassport(), new Account("113", 0D));
+        bank.transferMoneyIdempotent("tr-1", "3434", "5546", "3434", "113", 100D);
+        bank.withdrawFunds("3434", "113", 60D);
+
+        assertThat(bank.reverseTransfer("tr-1").getFailureReason()).isEqualTo(FailureReason.INSUFFICIENT_FUNDS);
+        assertThat(bank.reverseTransfer("missing").getFailureReason())
+            .isEqualTo(FailureReason.TRANSACTION_NOT_FOUND);
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(50D);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(40D);
+    }
+
+    @Test
+    void idempotentOperationRequiresKey() {
+        BankService bank = newBankService();
+
+        OperationResult result = bank.depositFundsIdempotent(" ", "3434", "5546", 50D);
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Idempotency key must not be blank.");
+    }
+
+    @Test
+    void closingPartitionsDuringCrossPartitionTransfersConservesFunds() throws InterruptedException {
+        AppProperties properties = defaultProperties();
+        properties.getExecution().setMode("partitioned");
+        properties.getExecution().setPartitions(4);
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, properties, noopWorkflow());
+        int accounts = 16;
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        for (int a = 0; a < accounts; a++) {
+            bank.addAccount("3434", new Account("acc-" + a, 1_000D));
+        }
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            Thread sender = new Thread(() -> {
+                try {
+                    for (int i = 0; ; i++) {
+                        int from = (i + offset) % accounts;
+                        bank.transferMoney("3434", "acc-" + from, "3434", "acc-" + (from + 1 + offset) % accounts, 1D);
+                    }
+                } catch (IllegalStateException closed) {
+                    // Partitions refuse new work once closed.
+                }
+            });
+            senders.add(sender);
+            sender.start();
+        }
+
+        Thread.sleep(100);
+        bank.close();
+        for (Thread sender : senders) {
+            sender.join(10_000);
+        }
+
+        assertThat(senders).noneMatch(Thread::isAlive);
+        double total = 0;
+        for (int a = 0; a < accounts; a++) {
+            Account account = bank.findByRequisite("3434", "acc-" + a);
+            total += account.getBalance();
+            List<Transaction> history = ledger.getTransactions("acc-" + a);
+            if (!history.isEmpty()) {
+                assertThat(history.get(history.size() - 1).getBalanceAfterMinor()).isEqualTo(account.getBalanceMinor());
+            }
+        }
+        assertThat(total).isEqualTo(accounts * 1_000D);
+    }
+
+    @Test
+    void partitionedModeTransfersAndReversesAcrossPartitions() {
+        AppProperties properties = defaultProperties();
+        properties.getExecution().setMode("partitioned");
+        properties.getExecution().setPartitions(4);
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, properties, noopWorkflow());
+        AccountPartitions partitions = new AccountPartitions(4);
+        Account source = new Account("5546", 150D);
+        Account destination = new Account("5547", 0D);
+        for (int i = 5548; partitions.partitionOf(destination) == partitions.partitionOf(source); i++) {
+            destination = new Account(String.valueOf(i), 0D);
+        }
+        partitions.close();
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", source);
+        bank.addAccount("3434", destination);
+        String requisite = destination.getRequisite();
+
+        OperationResult transfer = bank.transferMoney("3434", "5546", "3434", requisite, 100D);
+        OperationResult overdraft = bank.transferMoney("3434", "5546", "3434", requisite, 100D);
+        OperationResult once = bank.transferOnce("tr-1", "3434", requisite, "3434", "5546", 40D);
+        OperationResult onceAgain = bank.transferOnce("tr-1", "3434", requisite, "3434", "5546", 40D);
+        bank.transferOnce("tr-2", "3434", "5546", "3434", requisite, 40D);
+        String transferId = ledger.getTransactions("5546").get(0).getMetadata().getTransactionId();
+        OperationResult reversal = bank.reverseTransfer(transferId);
+        OperationResult repeated = bank.reverseTransfer(transferId);
+        bank.close();
+
+        assertThat(transfer.isSuccess()).isTrue();
+        assertThat(transfer.getResultingBalance()).isEqualTo(50D);
+        assertThat(overdraft.getFailureReason()).isEqualTo(FailureReason.INSUFFICIENT_FUNDS);
+        assertThat(once.isSuccess()).isTrue();
+        assertThat(onceAgain.getResultingBalance()).isEqualTo(60D);
+        assertThat(reversal.isSuccess()).isTrue();
+        assertThat(repeated.isSuccess()).isFalse();
+        assertThat(source.getBalance()).isEqualTo(150D);
+        assertThat(destination.getBalance()).isZero();
+        assertThat(ledger.getByTransactionId(transferId)).hasSize(4);
+    }
+
+    @Test
+    void nonFiniteAndOutOfRangeAmountsAreRejected() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", new Account("5546", 150D));
+        bank.addAccount("3434", new Account("113", 0D));
+
+        assertThat(bank.depositFunds("3434", "5546", Double.POSITIVE_INFINITY).getFailureReason())
+            .isEqualTo(FailureReason.INVALID_REQUEST);
+        assertThat(bank.depositFunds("3434", "5546", Double.NaN).getFailureReason())
+            .isEqualTo(FailureReason.INVALID_REQUEST);
+        assertThat(bank.withdrawFunds("3434", "5546", -1.0e300).getFailureReason())
+            .isEqualTo(FailureReason.INVALID_REQUEST);
+        assertThat(bank.transferMoney("3434", "5546", "3434", "113", 1.0e17).getFailureReason())
+            .isEqualTo(FailureReason.INVALID_REQUEST);
+        assertThat(bank.findByRequisite("3434", "5546").getBalance()).isEqualTo(150D);
+        assertThat(ledger.getTransactions("5546")).isEmpty();
+    }
+
+    @Test
+    void creditsThatWouldOverflowTheBalanceAreRefused() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, defaultProperties(), noopWorkflow());
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        Account full = new Account("5546", 0D);
+        full.setBalanceMinor(Long.MAX_VALUE - 10);
+        bank.addAccount("3434", full);
+        bank.addAccount("3434", new Account("113", 150D));
+
+        OperationResult deposit = bank.depositFunds("3434", "5546", 1D);
+        OperationResult transfer = bank.transferMoney("3434", "113", "3434", "5546", 1D);
+        List<OperationResult> batch = bank.transferBatch(
+            List.of(new TransferRequest("3434", "113", "3434", "5546", 1D)));
+
+        assertThat(deposit.getFailureReason()).isEqualTo(FailureReason.INVALID_AMOUNT);
+        assertThat(transfer.getFailureReason()).isEqualTo(FailureReason.INVALID_AMOUNT);
+        assertThat(batch).extracting(OperationResult::getFailureReason).containsExactly(FailureReason.INVALID_AMOUNT);
+        assertThat(full.getBalanceMinor()).isEqualTo(Long.MAX_VALUE - 10);
+        assertThat(bank.findByRequisite("3434", "113").getBalance()).isEqualTo(150D);
+        assertThat(ledger.getTransactions("5546")).isEmpty();
+        assertThat(ledger.getTransactions("113")).isEmpty();
+    }
+
+    @Test
+    void partitionedTransferRefusedByAnOverflowingDestinationReturnsTheDebit() {
+        AppProperties properties = defaultProperties();
+        properties.getExecution().setMode("partitioned");
+        properties.getExecution().setPartitions(4);
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        BankService bank = new BankService(ledger, properties, noopWorkflow());
+        AccountPartitions partitions = new AccountPartitions(4);
+        Account source = new Account("5546", 150D);
+        Account destination = new Account("5547", 0D);
+        for (int i = 5548; partitions.partitionOf(destination) == partitions.partitionOf(source); i++) {
+            destination = new Account(String.valueOf(i), 0D);
+        }
+        partitions.close();
+        destination.setBalanceMinor(Long.MAX_VALUE - 10);
+        bank.addUser(new User("3434", "Anton Serdyuchenko"));
+        bank.addAccount("3434", source);
+        bank.addAccount("3434", destination);
+
+        OperationResult transfer = bank.transferMoney("3434", "5546", "3434", destination.getRequisite(), 100D);
+        bank.close();
+
+        assertThat(transfer.getFailureReason()).isEqualTo(FailureReason.INVALID_AMOUNT);
+        assertThat(source.getBalance()).isEqualTo(150D);
+        assertThat(destination.getBalanceMinor()).isEqualTo(Long.MAX_VALUE - 10);
+        assertThat(ledger.getTransactions("5546")).extracting(Transaction::getType)
+            .containsExactly(TransactionType.TRANSFER, TransactionType.REVERSAL);
+        assertThat(ledger.getTransactions(destination.getRequisite())).isEmpty();
+    }
+
+    @Test
+    void unknownExecutionModeIsRejected() {
+        AppProperties properties = defaultProperties();
+        properties.getExecution().setMode("actors");
+
+        assertThatThrownBy(() -> new BankService(new InMemoryTransactionLedger(), properties, noopWorkflow()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unknown execution mode: actors");
+    }
+
     private BankService newBankService() {
         return new BankService(new InMemoryTransactionLedger(), defaultProperties(), noopWorkflow());
     }
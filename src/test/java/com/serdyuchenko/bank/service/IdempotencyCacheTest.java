@@ -0,0 +1,148 @@
+package com.serdyuchenko.bank.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.shared.FailureReason;
+import com.serdyuchenko.bank.shared.OperationResult;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void duplicateKeyReturnsCachedResultWithoutRunningAgain() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(1), 10, new MutableClock());
+        AtomicInteger runs = new AtomicInteger();
+
+        OperationResult first = cache.execute("key-1", "deposit 10", () -> success(runs.incrementAndGet()));
+        OperationResult second = cache.execute("key-1", "deposit 10", () -> success(runs.incrementAndGet()));
+
+        assertThat(second).isSameAs(first);
+        assertThat(runs).hasValue(1);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRefused() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(1), 10, new MutableClock());
+        AtomicInteger runs = new AtomicInteger();
+
+        cache.execute("key-1", "deposit 10", () -> success(runs.incrementAndGet()));
+        OperationResult reused = cache.execute("key-1", "withdraw 10", () -> success(runs.incrementAndGet()));
+
+        assertThat(reused.getFailureReason()).isEqualTo(FailureReason.IDEMPOTENCY_CONFLICT);
+        assertThat(runs).hasValue(1);
+        assertThat(cache.execute("key-1", "deposit 10", () -> success(runs.incrementAndGet()))
+            .getResultingBalance()).isEqualTo(1D);
+    }
+
+    @Test
+    void expiredKeyRunsAgain() {
+        MutableClock clock = new MutableClock();
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(1), 10, clock);
+        AtomicInteger runs = new AtomicInteger();
+
+        cache.execute("key-1", "deposit 10", () -> success(runs.incrementAndGet()));
+        clock.advance(Duration.ofMinutes(2));
+        cache.execute("key-1", "deposit 10", () -> success(runs.incrementAndGet()));
+
+        assertThat(runs).hasValue(2);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void oldestKeysAreEvictedAboveCapacity() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(1), 2, new MutableClock());
+
+        cache.execute("a", "deposit 10", () -> success(1));
+        cache.execute("b", "deposit 10", () -> success(2));
+        cache.execute("c", "deposit 10", () -> success(3));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.execute("a", "deposit 10", () -> success(4)).getResultingBalance()).isEqualTo(4D);
+    }
+
+    @Test
+    void failedOperationReleasesTheKey() {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(1), 10, new MutableClock());
+
+        assertThatThrownBy(() -> cache.execute("key-1", "deposit 10", () -> {
+            throw new IllegalStateException("ledger unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.execute("key-1", "deposit 10", () -> success(1)).isSuccess()).isTrue();
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(Duration.ofMinutes(1), 10, new MutableClock());
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> cache.execute("key-1", "deposit 10", () -> {
+                    runs.incrementAndGet();
+                    try {
+                        release.await(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return success(1);
+                }));
+            }
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(runs).hasValue(1);
+    }
+
+    private static OperationResult success(double balance) {
+        return OperationResult.success("ok", balance);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-10-11T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
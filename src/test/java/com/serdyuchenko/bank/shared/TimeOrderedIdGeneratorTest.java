@@ -0,0 +1,124 @@
+package com.serdyuchenko.bank.shared;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void idsSortInGenerationOrderEvenWithinOneMillisecond() {
+        Clock frozen = Clock.fixed(Instant.parse("2025-10-11T00:00:00Z"), ZoneOffset.UTC);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7, frozen);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).allSatisfy(id -> assertThat(id).hasSize(13));
+    }
+
+    @Test
+    void parseIsTheInverseOfRender() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7);
+        long id = generator.nextLong();
+
+        assertThat(TimeOrderedIdGenerator.parse(TimeOrderedIdGenerator.render(id))).isEqualTo(id);
+        assertThat(TimeOrderedIdGenerator.parse("0000000000000")).isZero();
+        assertThat(TimeOrderedIdGenerator.parse("tr-1")).isEqualTo(-1);
+        assertThat(TimeOrderedIdGenerator.parse("000000000000U")).isEqualTo(-1);
+        assertThat(TimeOrderedIdGenerator.parse("Z000000000000")).isEqualTo(-1);
+    }
+
+    @Test
+    void clockSteppingBackDoesNotRepeatIds() {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-10-11T00:00:01Z"));
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0, clock);
+        long first = generator.nextLong();
+
+        now.set(Instant.parse("2025-10-11T00:00:00Z"));
+
+        assertThat(generator.nextLong()).isGreaterThan(first);
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        Clock frozen = Clock.fixed(Instant.parse("2025-10-11T00:00:00Z"), ZoneOffset.UTC);
+        TimeOrderedIdGenerator first = new TimeOrderedIdGenerator(1, frozen);
+        TimeOrderedIdGenerator second = new TimeOrderedIdGenerator(2, frozen);
+
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        assertThat(ids).hasSize(2_000);
+    }
+
+    @Test
+    void concurrentCallersGetUniqueIds() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.nextLong());
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> all = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                List<Long> ids = future.get(10, TimeUnit.SECONDS);
+                assertThat(ids).isSorted();
+                all.addAll(ids);
+            }
+            assertThat(all).hasSize(80_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE_ID + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,10 +1,19 @@
 package com.serdyuchenko.bank.transaction;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import org.junit.jupiter.api.Test;
 
 import com.serdyuchenko.bank.domain.Money;
@@ -48,6 +57,153 @@ class TransactionLedgerTest {
                 .hasMessageContaining("Account id");
     }
 
+    @Test
+    void recordAllGroupsEntriesPerAccountAndKeepsRequestOrder() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        ledger.record("ACC-1", TransactionType.DEPOSIT, money("1.00"), TransactionMetadata.empty());
+
+        List<Transaction> recorded = ledger.recordAll(List.of(
+                new LedgerEntry("ACC-1", TransactionType.TRANSFER, "USD", 200, TransactionMetadata.empty()),
+                new LedgerEntry("ACC-2", TransactionType.TRANSFER, "USD", 200, TransactionMetadata.empty()),
+                new LedgerEntry("ACC-1", TransactionType.WITHDRAWAL, "USD", 300, TransactionMetadata.empty())
+        ));
+
+        assertThat(recorded).extracting(Transaction::getAccountId).containsExactly("ACC-1", "ACC-2", "ACC-1");
+        assertThat(ledger.getTransactions("ACC-1")).extracting(Transaction::getAmountMinor)
+                .containsExactly(100L, 200L, 300L);
+        assertThat(ledger.getTransactions("ACC-2")).containsExactly(recorded.get(1));
+    }
+
+    @Test
+    void getByTransactionIdReturnsEveryLegInRecordingOrder() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        TransactionMetadata transfer = new TransactionMetadata("T-1", "transfer");
+        ledger.record("ACC-1", TransactionType.DEPOSIT, money("5.00"), TransactionMetadata.empty());
+        ledger.recordAll(List.of(
+                new LedgerEntry("ACC-1", TransactionType.TRANSFER, "USD", 200, transfer),
+                new LedgerEntry("ACC-2", TransactionType.TRANSFER, "USD", 200, transfer)
+        ));
+        ledger.record("ACC-2", TransactionType.REVERSAL, "USD", 200, 0, transfer);
+
+        assertThat(ledger.getByTransactionId("T-1"))
+                .extracting(Transaction::getAccountId, Transaction::getType)
+                .containsExactly(tuple("ACC-1", TransactionType.TRANSFER), tuple("ACC-2", TransactionType.TRANSFER),
+                        tuple("ACC-2", TransactionType.REVERSAL));
+        assertThat(ledger.getByTransactionId("T-404")).isEmpty();
+    }
+
+    @Test
+    void snapshotDoesNotSeeLaterAppends() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        ledger.record("ACC-1", TransactionType.DEPOSIT, money("1.00"), TransactionMetadata.empty());
+
+        List<Transaction> snapshot = ledger.getTransactions("ACC-1");
+        ledger.record("ACC-1", TransactionType.DEPOSIT, money("2.00"), TransactionMetadata.empty());
+
+        assertThat(snapshot).hasSize(1);
+        assertThat(ledger.getTransactions("ACC-1")).hasSize(2);
+    }
+
+    @Test
+    void concurrentWritersKeepEveryEntryInTimeOrder() throws Exception {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        int threads = 8;
+        int perThread = 3_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String ownAccount = "OWN-" + t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    ledger.record("SHARED", TransactionType.DEPOSIT, money("1.00"), TransactionMetadata.empty());
+                    ledger.record(ownAccount, TransactionType.DEPOSIT, money("1.00"), TransactionMetadata.empty());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<Transaction> shared = ledger.getTransactions("SHARED");
+        assertThat(shared).hasSize(threads * perThread);
+        assertThat(new HashSet<>(shared)).hasSize(threads * perThread);
+        for (int i = 1; i < shared.size(); i++) {
+            assertThat(shared.get(i).getTimeStamp()).isAfterOrEqualTo(shared.get(i - 1).getTimeStamp());
+        }
+        assertThat(ledger.getTransactions("OWN-0")).hasSize(perThread);
+    }
+
+    @Test
+    void balanceAtReadsRunningBalanceOfLastEntryUpToInstant() throws InterruptedException {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        Transaction first = ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 1_000, 1_000,
+                TransactionMetadata.empty());
+        Thread.sleep(2);
+        Transaction second = ledger.record("ACC-1", TransactionType.WITHDRAWAL, "USD", 300, 700,
+                TransactionMetadata.empty());
+        Thread.sleep(2);
+        ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 50, 750, TransactionMetadata.empty());
+
+        assertThat(ledger.balanceAt("ACC-1", first.getTimeStamp().minusMillis(1))).isEmpty();
+        assertThat(ledger.balanceAt("ACC-1", first.getTimeStamp())).hasValue(1_000);
+        assertThat(ledger.balanceAt("ACC-1", second.getTimeStamp().plusNanos(1))).hasValue(700);
+        assertThat(ledger.balanceAt("ACC-1", Instant.MAX)).hasValue(750);
+        assertThat(ledger.latestBalance("ACC-1")).hasValue(750);
+        assertThat(ledger.latestBalance("ACC-2")).isEmpty();
+    }
+
+    @Test
+    void entriesWithoutRunningBalanceReportNoBalance() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        Transaction recorded = ledger.record("ACC-1", TransactionType.DEPOSIT, money("1.00"),
+                TransactionMetadata.empty());
+
+        assertThat(recorded.hasBalanceAfter()).isFalse();
+        assertThat(ledger.balanceAt("ACC-1", Instant.MAX)).isEmpty();
+    }
+
+    @Test
+    void queryUsesTypeIndexAndTimeWindow() throws InterruptedException {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 1_000, 1_000, TransactionMetadata.empty());
+        Thread.sleep(2);
+        Transaction firstWithdrawal = ledger.record("ACC-1", TransactionType.WITHDRAWAL, "USD", 100, 900,
+                TransactionMetadata.empty());
+        Thread.sleep(2);
+        Transaction secondWithdrawal = ledger.record("ACC-1", TransactionType.WITHDRAWAL, "USD", 200, 700,
+                TransactionMetadata.empty());
+        Thread.sleep(2);
+        ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 50, 750, TransactionMetadata.empty());
+
+        assertThat(ledger.getTransactions("ACC-1", TransactionType.WITHDRAWAL))
+                .containsExactly(firstWithdrawal, secondWithdrawal);
+        assertThat(ledger.query("ACC-1", TransactionType.WITHDRAWAL, secondWithdrawal.getTimeStamp(), null))
+                .containsExactly(secondWithdrawal);
+        assertThat(ledger.query("ACC-1", null, firstWithdrawal.getTimeStamp(), secondWithdrawal.getTimeStamp()))
+                .containsExactly(firstWithdrawal);
+        assertThat(ledger.query("ACC-1", TransactionType.TRANSFER, null, null)).isEmpty();
+        assertThat(ledger.query("ACC-2", TransactionType.DEPOSIT, null, null)).isEmpty();
+    }
+
+    @Test
+    void typeSnapshotDoesNotSeeLaterAppends() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        ledger.record("ACC-1", TransactionType.DEPOSIT, money("10.00"), TransactionMetadata.empty());
+
+        List<Transaction> deposits = ledger.getTransactions("ACC-1", TransactionType.DEPOSIT);
+        ledger.record("ACC-1", TransactionType.DEPOSIT, money("20.00"), TransactionMetadata.empty());
+
+        assertThat(deposits).hasSize(1);
+        assertThat(ledger.getTransactions("ACC-1", TransactionType.DEPOSIT)).hasSize(2);
+        assertThatThrownBy(() -> deposits.add(deposits.get(0)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
     private Money money(String amount) {
         return new Money("USD", new BigDecimal(amount));
     }
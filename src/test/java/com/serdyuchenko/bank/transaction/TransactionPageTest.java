@@ -0,0 +1,79 @@
+package com.serdyuchenko.bank.transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.domain.Money;
+
+class TransactionPageTest {
+
+    @Test
+    void ascendingPageSkipsOffset() {
+        TransactionPage page = TransactionPage.of(history(10), PageRequest.of(3, 4, SortDirection.ASC));
+
+        assertThat(page.getEntries()).extracting(Transaction::getId).containsExactly("t3", "t4", "t5", "t6");
+        assertThat(page.getTotal()).isEqualTo(10);
+        assertThat(page.hasMore()).isTrue();
+    }
+
+    @Test
+    void descendingPageStartsFromNewest() {
+        TransactionPage page = TransactionPage.of(history(10), PageRequest.of(8, 4, SortDirection.DESC));
+
+        assertThat(page.getEntries()).extracting(Transaction::getId).containsExactly("t1", "t0");
+        assertThat(page.hasMore()).isFalse();
+    }
+
+    @Test
+    void timeWindowIsHalfOpen() {
+        PageRequest request = new PageRequest(Instant.ofEpochSecond(2), Instant.ofEpochSecond(5), 0, 100,
+                SortDirection.ASC);
+
+        TransactionPage page = TransactionPage.of(history(10), request);
+
+        assertThat(page.getEntries()).extracting(Transaction::getId).containsExactly("t2", "t3", "t4");
+        assertThat(page.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void offsetPastEndYieldsEmptyPage() {
+        TransactionPage page = TransactionPage.of(history(3), PageRequest.of(10, 5, SortDirection.DESC));
+
+        assertThat(page.getEntries()).isEmpty();
+        assertThat(page.hasMore()).isFalse();
+    }
+
+    @Test
+    void ledgerPageIsReadOnlyView() {
+        TransactionLedger ledger = new InMemoryTransactionLedger();
+        ledger.record("ACC-1", TransactionType.DEPOSIT, new Money("USD", BigDecimal.ONE), TransactionMetadata.empty());
+
+        List<Transaction> entries = ledger.getPage("ACC-1", PageRequest.of(0, 10, SortDirection.ASC)).getEntries();
+
+        assertThat(entries).hasSize(1);
+        assertThatThrownBy(() -> entries.add(entries.get(0)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void rejectsInvalidLimit() {
+        assertThatThrownBy(() -> PageRequest.of(0, 0, SortDirection.ASC))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Limit");
+    }
+
+    private List<Transaction> history(int size) {
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            history.add(new Transaction("t" + i, "ACC-1", new Money("USD", BigDecimal.ONE),
+                    TransactionType.DEPOSIT, Instant.ofEpochSecond(i)));
+        }
+        return List.copyOf(history);
+    }
+}
@@ -69,6 +69,25 @@ class TransactionTest {
                 .hasMessageContaining("Metadata");
     }
 
+    @Test
+    void minorUnitTransactionMaterializesMoneyOnDemand() {
+        Transaction transaction = new Transaction("txn-1", "acct-1", "USD", 1_050L,
+                TransactionType.DEPOSIT, Instant.EPOCH, TransactionMetadata.empty());
+
+        assertThat(transaction.getAmountMinor()).isEqualTo(1_050L);
+        assertThat(transaction.getCurrency()).isEqualTo("USD");
+        assertThat(transaction.getAmount().getAmount()).isEqualByComparingTo("10.50");
+        assertThat(transaction.getAmount()).isSameAs(transaction.getAmount());
+    }
+
+    @Test
+    void minorUnitTransactionRejectsNonPositiveAmount() {
+        assertThatThrownBy(() -> new Transaction("txn-1", "acct-1", "USD", 0L,
+                TransactionType.DEPOSIT, Instant.EPOCH, TransactionMetadata.empty()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Amount");
+    }
+
     private static Money usd(double amount) {
         return new Money("USD", BigDecimal.valueOf(amount));
     }
@@ -0,0 +1,151 @@
+package com.serdyuchenko.bank.transaction.columnar;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.shared.TimeOrderedIdGenerator;
+import com.serdyuchenko.bank.shared.UuidIdGenerator;
+import com.serdyuchenko.bank.transaction.LedgerEntry;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+class ColumnarTransactionLedgerTest {
+
+    @Test
+    void entriesAreMaterializedWithEveryField() {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger();
+        String transferId = new TimeOrderedIdGenerator(3).nextId();
+
+        Transaction recorded = ledger.record("ACC-1", TransactionType.TRANSFER, "RUB", 1050, 2000,
+                new TransactionMetadata(transferId, "Transfer to account ACC-2"));
+        ledger.record("ACC-1", TransactionType.DEPOSIT, new Money("USD", new BigDecimal("0.50")),
+                new TransactionMetadata("deposit-key", null));
+        ledger.record("ACC-1", TransactionType.WITHDRAWAL, "RUB", 10, TransactionMetadata.empty());
+
+        List<Transaction> history = ledger.getTransactions("ACC-1");
+        Transaction first = history.get(0);
+        assertThat(first.getId()).isEqualTo(recorded.getId()).hasSize(13);
+        assertThat(first.getTimeStamp()).isEqualTo(recorded.getTimeStamp());
+        assertThat(first.getAccountId()).isEqualTo("ACC-1");
+        assertThat(first.getCurrency()).isEqualTo("RUB");
+        assertThat(first.getAmountMinor()).isEqualTo(1050);
+        assertThat(first.getBalanceAfterMinor()).isEqualTo(2000);
+        assertThat(first.getMetadata().getTransactionId()).isEqualTo(transferId);
+        assertThat(first.getMetadata().getDescription()).isEqualTo("Transfer to account ACC-2");
+        assertThat(history.get(1).getAmount().getAmount()).isEqualByComparingTo("0.50");
+        assertThat(history.get(1).getCurrency()).isEqualTo("USD");
+        assertThat(history.get(1).getMetadata().getTransactionId()).isEqualTo("deposit-key");
+        assertThat(history.get(2).getMetadata()).isSameAs(TransactionMetadata.empty());
+        assertThat(history.get(2).hasBalanceAfter()).isFalse();
+        assertThat(ledger.getTransactions("ACC-404")).isEmpty();
+    }
+
+    @Test
+    void viewsAreSnapshotsAcrossChunks() {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger();
+        int entries = 3 * ColumnJournal.CHUNK_ROWS + 7;
+        for (int i = 1; i <= entries; i++) {
+            TransactionType type = i % 2 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+            ledger.record("ACC-1", type, "USD", i, i, TransactionMetadata.empty());
+        }
+
+        List<Transaction> snapshot = ledger.getTransactions("ACC-1");
+        List<Transaction> withdrawals = ledger.getTransactions("ACC-1", TransactionType.WITHDRAWAL);
+        ledger.record("ACC-1", TransactionType.WITHDRAWAL, "USD", 1, TransactionMetadata.empty());
+
+        assertThat(snapshot).hasSize(entries);
+        assertThat(snapshot).extracting(Transaction::getAmountMinor).startsWith(1L, 2L).endsWith((long) entries);
+        assertThat(snapshot).extracting(Transaction::getTimeStamp).isSorted();
+        assertThat(withdrawals).hasSize(entries / 2).allMatch(t -> t.getType() == TransactionType.WITHDRAWAL);
+        assertThat(ledger.getTransactions("ACC-1")).hasSize(entries + 1);
+        assertThat(ledger.latestBalance("ACC-1")).isEmpty();
+        assertThat(ledger.balanceAt("ACC-1", snapshot.get(entries - 1).getTimeStamp())).hasValue(entries);
+        assertThat(ledger.balanceAt("ACC-1", Instant.EPOCH)).isEmpty();
+        assertThatThrownBy(() -> snapshot.add(snapshot.get(0))).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void getByTransactionIdReturnsEveryLegInRecordingOrder() {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger();
+        TimeOrderedIdGenerator transferIds = new TimeOrderedIdGenerator(1);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            TransactionMetadata transfer = new TransactionMetadata(transferIds.nextId(), "transfer");
+            ids.add(transfer.getTransactionId());
+            ledger.recordAll(List.of(
+                    new LedgerEntry("ACC-" + i % 10, TransactionType.TRANSFER, "USD", 100, transfer),
+                    new LedgerEntry("ACC-" + (i + 1) % 10, TransactionType.TRANSFER, "USD", 100, transfer)
+            ));
+        }
+        TransactionMetadata keyed = new TransactionMetadata("client-key", "transfer");
+        ledger.record("ACC-1", TransactionType.TRANSFER, "USD", 5, keyed);
+        ledger.record("ACC-2", TransactionType.TRANSFER, "USD", 5, keyed);
+        ledger.record("ACC-2", TransactionType.REVERSAL, "USD", 5, keyed);
+
+        assertThat(ids).allSatisfy(id -> assertThat(ledger.getByTransactionId(id)).hasSize(2));
+        assertThat(ledger.getByTransactionId(ids.get(4_321))).extracting(Transaction::getAccountId)
+                .containsExactly("ACC-1", "ACC-2");
+        assertThat(ledger.getByTransactionId("client-key"))
+                .extracting(Transaction::getAccountId, Transaction::getType)
+                .containsExactly(tuple("ACC-1", TransactionType.TRANSFER), tuple("ACC-2", TransactionType.TRANSFER),
+                        tuple("ACC-2", TransactionType.REVERSAL));
+        assertThat(ledger.getByTransactionId("unknown-key")).isEmpty();
+        assertThat(ledger.getByTransactionId(transferIds.nextId())).isEmpty();
+    }
+
+    @Test
+    void idsFromOtherGeneratorsAreKept() {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger(new UuidIdGenerator());
+
+        Transaction recorded = ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 1, TransactionMetadata.empty());
+
+        assertThat(ledger.getTransactions("ACC-1").get(0).getId()).isEqualTo(recorded.getId()).hasSize(36);
+    }
+
+    @Test
+    void concurrentWritersKeepEveryEntryInTimeOrder() throws Exception {
+        ColumnarTransactionLedger ledger = new ColumnarTransactionLedger();
+        int threads = 8;
+        int perThread = 3_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String ownAccount = "OWN-" + t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    ledger.record("SHARED", TransactionType.DEPOSIT, "USD", 1, TransactionMetadata.empty());
+                    ledger.record(ownAccount, TransactionType.DEPOSIT, "USD", 1, TransactionMetadata.empty());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        List<Transaction> shared = ledger.getTransactions("SHARED");
+        assertThat(shared).hasSize(threads * perThread);
+        assertThat(shared).extracting(Transaction::getTimeStamp).isSorted();
+        assertThat(shared).extracting(Transaction::getId).isSorted().doesNotHaveDuplicates();
+        assertThat(ledger.size()).isEqualTo(2L * threads * perThread);
+        assertThat(ledger.entryCountsPerAccount()).hasSize(threads + 1);
+    }
+}
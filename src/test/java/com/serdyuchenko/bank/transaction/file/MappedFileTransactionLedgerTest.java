@@ -0,0 +1,352 @@
+package com.serdyuchenko.bank.transaction.file;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.serdyuchenko.bank.domain.Money;
+import com.serdyuchenko.bank.transaction.LedgerEntry;
+import com.serdyuchenko.bank.transaction.Transaction;
+import com.serdyuchenko.bank.transaction.TransactionMetadata;
+import com.serdyuchenko.bank.transaction.TransactionType;
+
+class MappedFileTransactionLedgerTest {
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAreReadBackFromTheLog() {
+        try (MappedFileTransactionLedger ledger = open(Duration.ofMillis(5), false)) {
+            Transaction recorded = ledger.record("ACC-1", TransactionType.TRANSFER, money("12.34"),
+                    new TransactionMetadata("corr-1", "Transfer to account ACC-2"));
+
+            List<Transaction> history = ledger.getTransactions("ACC-1");
+
+            assertThat(history).hasSize(1);
+            Transaction read = history.get(0);
+            assertThat(read.getId()).isEqualTo(recorded.getId());
+            assertThat(read.getAmount().getAmount()).isEqualByComparingTo("12.34");
+            assertThat(read.getTimeStamp()).isEqualTo(recorded.getTimeStamp());
+            assertThat(read.getMetadata().getTransactionId()).isEqualTo("corr-1");
+            assertThat(read.getMetadata().getDescription()).isEqualTo("Transfer to account ACC-2");
+        }
+    }
+
+    @Test
+    void replaysHistoryAfterRestart() {
+        try (MappedFileTransactionLedger ledger = open(Duration.ZERO, false)) {
+            ledger.record("ACC-1", TransactionType.DEPOSIT, money("1"), TransactionMetadata.empty());
+            ledger.record("ACC-2", TransactionType.DEPOSIT, money("2"), TransactionMetadata.empty());
+            ledger.record("ACC-1", TransactionType.WITHDRAWAL, money("3"), TransactionMetadata.empty());
+        }
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.size()).isEqualTo(3);
+            assertThat(reopened.getTransactions("ACC-1")).extracting(Transaction::getType)
+                    .containsExactly(TransactionType.DEPOSIT, TransactionType.WITHDRAWAL);
+            assertThat(reopened.getTransactions("ACC-2")).hasSize(1);
+        }
+    }
+
+    @Test
+    void recordAllAppendsGroupAcrossSegments() {
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            entries.add(new LedgerEntry(i % 2 == 0 ? "ACC-1" : "ACC-2", TransactionType.TRANSFER, "USD", i,
+                    new TransactionMetadata("corr-" + i, "Batch item " + i)));
+        }
+        try (MappedFileTransactionLedger ledger = open(Duration.ZERO, false)) {
+            ledger.recordAll(entries);
+        }
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.size()).isEqualTo(100);
+            assertThat(reopened.getTransactions("ACC-1")).hasSize(50);
+            assertThat(reopened.getTransactions("ACC-2").get(49).getAmountMinor()).isEqualTo(99L);
+        }
+    }
+
+    @Test
+    void rollsSegmentsWhenFull() throws IOException {
+        try (MappedFileTransactionLedger ledger = open(Duration.ofMillis(5), true)) {
+            for (int i = 0; i < 200; i++) {
+                ledger.record("ACC-1", TransactionType.DEPOSIT, money("1"),
+                        new TransactionMetadata("corr-" + i, "Deposit into account ACC-1"));
+            }
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.getTransactions("ACC-1")).hasSize(200);
+            assertThat(reopened.getTransactions("ACC-1").get(199).getMetadata().getTransactionId())
+                    .isEqualTo("corr-199");
+        }
+    }
+
+    @Test
+    void discardsTornTailOnRecovery() throws IOException {
+        try (MappedFileTransactionLedger ledger = open(Duration.ZERO, false)) {
+            ledger.record("ACC-1", TransactionType.DEPOSIT, money("1"), TransactionMetadata.empty());
+        }
+        Path segment = directory.resolve("ledger-000000.seg");
+        int end = validEnd(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // A header claiming 100 payload bytes whose CRC will not match: a write cut short by a crash.
+            channel.write(ByteBuffer.allocate(12).putInt(100).putInt(42).putInt(7).flip(), end);
+        }
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.getTransactions("ACC-1")).hasSize(1);
+            reopened.record("ACC-1", TransactionType.DEPOSIT, money("2"), TransactionMetadata.empty());
+        }
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.getTransactions("ACC-1")).hasSize(2);
+        }
+    }
+
+    @Test
+    void restartRestoresCheckpointAndScansOnlyTheTail() {
+        MappedFileTransactionLedger crashed = open(Duration.ZERO, false);
+        for (int i = 1; i <= 60; i++) {
+            crashed.record("ACC-" + (i % 3), TransactionType.DEPOSIT, "USD", 100, 100L * i,
+                    new TransactionMetadata("corr-" + i, "Deposit " + i));
+        }
+        crashed.checkpoint();
+        crashed.record("ACC-1", TransactionType.WITHDRAWAL, "USD", 40, 9_999, TransactionMetadata.empty());
+        crashed.record("ACC-9", TransactionType.DEPOSIT, "USD", 5, 5, TransactionMetadata.empty());
+
+        // Reopened without close(): the last two records are only in the log, not in the checkpoint.
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.size()).isEqualTo(62);
+            assertThat(reopened.getTransactions("ACC-1")).hasSize(21);
+            assertThat(reopened.getTransactions("ACC-0").get(19).getMetadata().getTransactionId())
+                    .isEqualTo("corr-60");
+            assertThat(reopened.latestBalance("ACC-1")).hasValue(9_999);
+            assertThat(reopened.latestBalance("ACC-9")).hasValue(5);
+            assertThat(reopened.latestBalance("ACC-0")).hasValue(6_000);
+        }
+        crashed.close();
+    }
+
+    @Test
+    void fallsBackToFullScanWhenCheckpointIsCorrupted() throws IOException {
+        try (MappedFileTransactionLedger ledger = open(Duration.ZERO, false)) {
+            ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 100, 100, TransactionMetadata.empty());
+            ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 100, 200, TransactionMetadata.empty());
+        }
+        Path checkpoint = directory.resolve("ledger.checkpoint");
+        assertThat(checkpoint).exists();
+        byte[] bytes = Files.readAllBytes(checkpoint);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(checkpoint, bytes);
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.size()).isEqualTo(2);
+            assertThat(reopened.latestBalance("ACC-1")).hasValue(200);
+        }
+    }
+
+    @Test
+    void fallsBackToFullScanWhenCheckpointFieldsAreOutOfRange() throws IOException {
+        try (MappedFileTransactionLedger ledger = open(Duration.ZERO, false)) {
+            ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 100, 100, TransactionMetadata.empty());
+            ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 100, 200, TransactionMetadata.empty());
+        }
+        Path checkpoint = directory.resolve("ledger.checkpoint");
+        byte[] intact = Files.readAllBytes(checkpoint);
+        // Header: magic, version, segment at 8, end at 12, record count at 16, epoch second, nano; then the first
+        // record's offset at 32, its account "ACC-1" and its type byte at 43.
+        List<byte[]> damaged = new ArrayList<>();
+        for (int records : new int[] {-1, Integer.MAX_VALUE}) {
+            damaged.add(ByteBuffer.wrap(intact.clone()).putInt(16, records).array());
+        }
+        damaged.add(ByteBuffer.wrap(intact.clone()).putInt(8, 7).array());
+        damaged.add(ByteBuffer.wrap(intact.clone()).putInt(12, Integer.MAX_VALUE).array());
+        damaged.add(ByteBuffer.wrap(intact.clone()).putInt(32, -5).array());
+        damaged.add(ByteBuffer.wrap(intact.clone()).put(43, (byte) 0xFF).array());
+
+        for (byte[] bytes : damaged) {
+            Files.write(checkpoint, bytes);
+            try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+                assertThat(reopened.size()).isEqualTo(2);
+                assertThat(reopened.latestBalance("ACC-1")).hasValue(200);
+                assertThat(reopened.getTransactions("ACC-1", TransactionType.DEPOSIT)).hasSize(2);
+            }
+        }
+    }
+
+    @Test
+    void runningBalanceSurvivesRestartNextToEntriesWithoutOne() {
+        try (MappedFileTransactionLedger ledger = open(Duration.ZERO, false)) {
+            ledger.record("ACC-1", TransactionType.DEPOSIT, money("1"), TransactionMetadata.empty());
+            ledger.recordAll(List.of(new LedgerEntry("ACC-1", TransactionType.TRANSFER, "USD", 250, 350,
+                    TransactionMetadata.empty())));
+        }
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            List<Transaction> history = reopened.getTransactions("ACC-1");
+            assertThat(history.get(0).hasBalanceAfter()).isFalse();
+            assertThat(history.get(1).getBalanceAfterMinor()).isEqualTo(350);
+            assertThat(history.get(1).getType()).isEqualTo(TransactionType.TRANSFER);
+            assertThat(reopened.balanceAt("ACC-1", history.get(1).getTimeStamp())).hasValue(350);
+        }
+    }
+
+    @Test
+    void typeIndexIsRestoredFromCheckpointAndTail() throws IOException {
+        MappedFileTransactionLedger crashed = open(Duration.ZERO, false);
+        for (int i = 1; i <= 30; i++) {
+            TransactionType type = i % 3 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT;
+            crashed.record("ACC-1", type, "USD", i, i, TransactionMetadata.empty());
+        }
+        crashed.checkpoint();
+        crashed.record("ACC-1", TransactionType.WITHDRAWAL, "USD", 31, 31, TransactionMetadata.empty());
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            List<Transaction> withdrawals = reopened.getTransactions("ACC-1", TransactionType.WITHDRAWAL);
+            assertThat(withdrawals).extracting(Transaction::getAmountMinor)
+                    .containsExactly(3L, 6L, 9L, 12L, 15L, 18L, 21L, 24L, 27L, 30L, 31L);
+            assertThat(reopened.getTransactions("ACC-1", TransactionType.DEPOSIT)).hasSize(20);
+            assertThat(reopened.query("ACC-1", TransactionType.WITHDRAWAL, withdrawals.get(10).getTimeStamp(),
+                    null)).extracting(Transaction::getAmountMinor).endsWith(31L);
+        }
+        crashed.close();
+
+        Files.delete(directory.resolve("ledger.checkpoint"));
+        try (MappedFileTransactionLedger scanned = open(Duration.ZERO, false)) {
+            assertThat(scanned.getTransactions("ACC-1", TransactionType.WITHDRAWAL)).hasSize(11);
+            assertThat(scanned.getTransactions("ACC-1", TransactionType.TRANSFER)).isEmpty();
+        }
+    }
+
+    @Test
+    void correlationIndexIsRebuiltFromTheLogAfterRestart() {
+        TransactionMetadata transfer = new TransactionMetadata("T-1", "transfer");
+        try (MappedFileTransactionLedger ledger = open(Duration.ZERO, false)) {
+            ledger.recordAll(List.of(
+                    new LedgerEntry("ACC-1", TransactionType.TRANSFER, "USD", 200, 100, transfer),
+                    new LedgerEntry("ACC-2", TransactionType.TRANSFER, "USD", 200, 200, transfer)
+            ));
+            for (int i = 0; i < 100; i++) {
+                ledger.record("ACC-1", TransactionType.DEPOSIT, "USD", 1, TransactionMetadata.empty());
+            }
+            ledger.checkpoint();
+        }
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            reopened.record("ACC-2", TransactionType.REVERSAL, "USD", 200, 0, transfer);
+
+            assertThat(reopened.getByTransactionId("T-1"))
+                    .extracting(Transaction::getAccountId, Transaction::getType)
+                    .containsExactly(tuple("ACC-1", TransactionType.TRANSFER),
+                            tuple("ACC-2", TransactionType.TRANSFER), tuple("ACC-2", TransactionType.REVERSAL));
+            assertThat(reopened.getByTransactionId("T-404")).isEmpty();
+        }
+    }
+
+    @Test
+    void correlationIndexIsRestoredFromCheckpointWithoutRescanningTheLog() throws IOException {
+        MappedFileTransactionLedger crashed = open(Duration.ZERO, false);
+        for (int i = 0; i < 100; i++) {
+            crashed.record("ACC-1", TransactionType.DEPOSIT, "USD", 1, i + 1,
+                    new TransactionMetadata("corr-" + i, "Deposit " + i));
+        }
+        crashed.checkpoint();
+        crashed.record("ACC-1", TransactionType.WITHDRAWAL, "USD", 1, 99, new TransactionMetadata("corr-0", "undo"));
+        assertThat(directory.resolve("ledger-000001.seg")).exists();
+
+        // A rescan of the checkpointed segment would stop right at its first record.
+        breakFirstRecord(directory.resolve("ledger-000000.seg"));
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.size()).isEqualTo(101);
+            assertThat(reopened.getByTransactionId("corr-0"))
+                    .extracting(Transaction::getType)
+                    .containsExactly(TransactionType.DEPOSIT, TransactionType.WITHDRAWAL);
+            assertThat(reopened.getByTransactionId("corr-1")).extracting(Transaction::getBalanceAfterMinor)
+                    .containsExactly(2L);
+            assertThat(reopened.getByTransactionId("corr-99")).hasSize(1);
+        }
+        crashed.close();
+    }
+
+    @Test
+    void sealedSegmentsAreIndexedOnceAndRestoredWithoutRescanning() throws IOException {
+        MappedFileTransactionLedger crashed = open(Duration.ZERO, false);
+        for (int i = 0; i < 60; i++) {
+            crashed.record("ACC-" + (i % 2), TransactionType.DEPOSIT, "USD", 1, i + 1,
+                    new TransactionMetadata("corr-" + i, "Deposit " + i));
+        }
+        crashed.checkpoint();
+        Path first = directory.resolve("ledger-000000.idx");
+        assertThat(first).exists();
+        // Replaced by junk: a checkpoint that rewrote it would restore it.
+        Files.write(first, new byte[] {1, 2, 3});
+        for (int i = 60; i < 200; i++) {
+            crashed.record("ACC-" + (i % 2), TransactionType.DEPOSIT, "USD", 1, i + 1,
+                    new TransactionMetadata("corr-" + i, "Deposit " + i));
+        }
+        crashed.checkpoint();
+        crashed.record("ACC-1", TransactionType.WITHDRAWAL, "USD", 1, 199, new TransactionMetadata("corr-1", "undo"));
+
+        assertThat(Files.readAllBytes(first)).containsExactly(1, 2, 3);
+        assertThat(directory.resolve("ledger-000002.idx")).exists();
+        assertThat(Files.size(directory.resolve("ledger.checkpoint"))).isLessThan(SEGMENT_SIZE);
+        // Segment 1 comes back from its index alone; segment 0, whose index is unusable, is scanned.
+        breakFirstRecord(directory.resolve("ledger-000001.seg"));
+
+        try (MappedFileTransactionLedger reopened = open(Duration.ZERO, false)) {
+            assertThat(reopened.size()).isEqualTo(201);
+            assertThat(reopened.getTransactions("ACC-0")).hasSize(100);
+            assertThat(reopened.getTransactions("ACC-1", TransactionType.WITHDRAWAL)).hasSize(1);
+            assertThat(reopened.getByTransactionId("corr-1")).extracting(Transaction::getType)
+                    .containsExactly(TransactionType.DEPOSIT, TransactionType.WITHDRAWAL);
+            assertThat(reopened.latestBalance("ACC-0")).hasValue(199);
+        }
+        crashed.close();
+    }
+
+    /**
+     * Flips the checksum of the segment's first record, so a scan of the segment stops right there.
+     */
+    private void breakFirstRecord(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer crc = ByteBuffer.allocate(4);
+            channel.read(crc, 4);
+            channel.write(ByteBuffer.allocate(4).putInt(crc.flip().getInt() ^ 0x5A5A5A5A).flip(), 4);
+        }
+    }
+
+    private int validEnd(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int position = 0;
+        int size;
+        while ((size = LedgerRecordCodec.validate(buffer, position, buffer.capacity())) > 0) {
+            position += size;
+        }
+        return position;
+    }
+
+    private MappedFileTransactionLedger open(Duration fsyncInterval, boolean awaitFsync) {
+        return new MappedFileTransactionLedger(directory, SEGMENT_SIZE, fsyncInterval, awaitFsync);
+    }
+
+    private Money money(String amount) {
+        return new Money("USD", new BigDecimal(amount));
+    }
+}
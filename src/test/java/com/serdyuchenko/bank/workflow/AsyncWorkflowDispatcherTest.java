@@ -0,0 +1,165 @@
+package com.serdyuchenko.bank.workflow;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+import com.serdyuchenko.bank.config.AppProperties;
+import com.serdyuchenko.bank.domain.User;
+import com.serdyuchenko.bank.service.BankService;
+import com.serdyuchenko.bank.transaction.InMemoryTransactionLedger;
+import com.serdyuchenko.bank.workflow.inmemory.StubWorkflowEngine;
+
+class AsyncWorkflowDispatcherTest {
+
+    @Test
+    void registrationDoesNotWaitForSlowEngine() {
+        StubWorkflowEngine engine = new StubWorkflowEngine(Duration.ofMillis(200));
+        try (AsyncWorkflowDispatcher dispatcher = dispatcher(engine, 1_000, 100, 1)) {
+            BankService bank = new BankService(new InMemoryTransactionLedger(), new AppProperties(), dispatcher);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < 50; i++) {
+                bank.addUser(new User("p" + i, "User " + i));
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(elapsedMillis).isLessThan(200);
+            awaitUntil(() -> engine.onboarded() == 50);
+            assertThat(engine.calls()).isLessThan(50);
+            assertThat(dispatcher.dispatched()).isEqualTo(50);
+            assertThat(dispatcher.queueDepth()).isZero();
+        }
+    }
+
+    @Test
+    void deliversQueuedEventsInBatches() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        WorkflowPort engine = new WorkflowPort() {
+            @Override
+            public void startOnboarding(User user) {
+                startOnboardingAll(List.of(user));
+            }
+
+            @Override
+            public void startOnboardingAll(List<User> users) {
+                awaitQuietly(release);
+                batchSizes.add(users.size());
+            }
+        };
+        try (AsyncWorkflowDispatcher dispatcher = dispatcher(engine, 100, 10, 1)) {
+            dispatcher.startOnboarding(new User("first", "First"));
+            awaitUntil(() -> dispatcher.queueDepth() == 0);
+            for (int i = 0; i < 25; i++) {
+                dispatcher.startOnboarding(new User("p" + i, "User " + i));
+            }
+            assertThat(dispatcher.queueDepth()).isEqualTo(25);
+
+            release.countDown();
+
+            awaitUntil(() -> dispatcher.dispatched() == 26);
+            assertThat(batchSizes).containsExactly(1, 10, 10, 5);
+            assertThat(dispatcher.batches()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void retriesFailedBatchWithBackoff() {
+        AtomicInteger calls = new AtomicInteger();
+        WorkflowPort flaky = user -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IllegalStateException("engine unavailable");
+            }
+        };
+        try (AsyncWorkflowDispatcher dispatcher = dispatcher(flaky, 100, 10, 5)) {
+            dispatcher.startOnboarding(new User("3434", "Anton Serdyuchenko"));
+
+            awaitUntil(() -> dispatcher.dispatched() == 1);
+            assertThat(dispatcher.retries()).isEqualTo(2);
+            assertThat(dispatcher.failed()).isZero();
+        }
+    }
+
+    @Test
+    void dropsBatchAfterLastAttempt() {
+        WorkflowPort broken = user -> {
+            throw new IllegalStateException("engine unavailable");
+        };
+        try (AsyncWorkflowDispatcher dispatcher = dispatcher(broken, 100, 10, 3)) {
+            dispatcher.startOnboarding(new User("3434", "Anton Serdyuchenko"));
+
+            awaitUntil(() -> dispatcher.failed() == 1);
+            assertThat(dispatcher.retries()).isEqualTo(2);
+            assertThat(dispatcher.dispatched()).isZero();
+        }
+    }
+
+    @Test
+    void rejectsEventsWhenQueueStaysFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        WorkflowPort blocked = user -> awaitQuietly(release);
+        try (AsyncWorkflowDispatcher dispatcher = dispatcher(blocked, 2, 1, 1)) {
+            dispatcher.startOnboarding(new User("busy", "Busy"));
+            awaitUntil(() -> dispatcher.queueDepth() == 0);
+            dispatcher.startOnboarding(new User("a", "A"));
+            dispatcher.startOnboarding(new User("b", "B"));
+
+            long start = System.nanoTime();
+            dispatcher.startOnboarding(new User("c", "C"));
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(dispatcher.rejected()).isEqualTo(1);
+            assertThat(dispatcher.queueDepth()).isEqualTo(2);
+            assertThat(waitedMillis).isGreaterThanOrEqualTo(10).isLessThan(1_000);
+            release.countDown();
+            awaitUntil(() -> dispatcher.dispatched() == 3);
+        }
+    }
+
+    @Test
+    void closeDeliversQueuedEventsAndRejectsNewOnes() {
+        StubWorkflowEngine engine = new StubWorkflowEngine(Duration.ofMillis(20));
+        AsyncWorkflowDispatcher dispatcher = dispatcher(engine, 100, 5, 1);
+        for (int i = 0; i < 20; i++) {
+            dispatcher.startOnboarding(new User("p" + i, "User " + i));
+        }
+
+        dispatcher.close();
+        dispatcher.startOnboarding(new User("late", "Late"));
+
+        assertThat(engine.onboarded()).isEqualTo(20);
+        assertThat(dispatcher.failed()).isZero();
+        assertThat(dispatcher.rejected()).isEqualTo(1);
+    }
+
+    private static AsyncWorkflowDispatcher dispatcher(WorkflowPort engine, int capacity, int batchSize,
+                                                      int maxAttempts) {
+        return new AsyncWorkflowDispatcher(engine, capacity, batchSize, maxAttempts, Duration.ofMillis(1),
+            Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofSeconds(5));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5 seconds").isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}